@@ -1,8 +1,46 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import tester.*;
 import javalib.impworld.*;
 import java.awt.Color;
@@ -18,11 +56,20 @@ class MazeSolver extends World {
   // final
   private boolean bfsActive = false;
   private boolean dfsActive = false;
+  private boolean aStarActive = false;
+  private boolean bidirectionalActive = false;
+  private boolean deadEndActive = false;
   private boolean manualActive = false;
   private boolean userWon = false;
   private int wrongMoves = 0;
   private int dfsWrongMoves = -1;
   private int bfsWrongMoves = -1;
+  private int aStarWrongMoves = -1;
+  // the cells expanded by the current search, and by the last finished breadth
+  // first and bidirectional searches
+  private int expansions = 0;
+  private int bfsExpansions = -1;
+  private int bidirectionalExpansions = -1;
   private boolean underConstruction = true;
 
   private boolean showVisited = true;
@@ -30,16 +77,28 @@ class MazeSolver extends World {
   private boolean showExitHeatMap = false;
   private boolean showAlgorithmComparison = false;
 
-  // constructs a game given a maze state
+  // builds the mazes the reset keys hand over
+  private final MazePrefetcher prefetcher;
+
+  // constructs a game given a maze state, building the next random mazes on the
+  // prefetcher shared by every game
   MazeSolver(Maze maze) {
+    this(maze, MazePrefetcher.shared());
+  }
+
+  // constructs a game given a maze state and what builds its next random mazes
+  MazeSolver(Maze maze, MazePrefetcher prefetcher) {
     this.maze = maze;
+    this.prefetcher = prefetcher;
+    this.prefetcher.prefetch(maze.getWidth(), maze.getHeight(), maze.getBiasMode());
   }
 
   // visualizes the maze
   public WorldScene makeScene() {
     WorldScene w = new WorldScene(1000, 1000);
     w.placeImageXY(this.maze.render(this.userWon, this.showVisited, this.wrongMoves,
-        this.showAlgorithmComparison, this.dfsWrongMoves, this.bfsWrongMoves), 500, 500);
+        this.showAlgorithmComparison, this.dfsWrongMoves, this.bfsWrongMoves,
+        this.aStarWrongMoves, this.bfsExpansions, this.bidirectionalExpansions), 500, 500);
     return w;
   }
 
@@ -55,6 +114,9 @@ class MazeSolver extends World {
 
       this.bfsActive = true;
       this.dfsActive = false;
+      this.aStarActive = false;
+      this.bidirectionalActive = false;
+      this.deadEndActive = false;
 
       this.setUpMazeForSearch();
 
@@ -69,6 +131,57 @@ class MazeSolver extends World {
 
       this.dfsActive = true;
       this.bfsActive = false;
+      this.aStarActive = false;
+      this.bidirectionalActive = false;
+      this.deadEndActive = false;
+
+      this.setUpMazeForSearch();
+    }
+    else if (key.equals("h")) {
+      if (this.underConstruction) {
+        // can only rebuild new mazes when under construction
+        return;
+      }
+
+      this.resetGameStatesForSearch();
+
+      this.aStarActive = true;
+      this.bfsActive = false;
+      this.dfsActive = false;
+      this.bidirectionalActive = false;
+      this.deadEndActive = false;
+
+      this.setUpMazeForSearch();
+    }
+    else if (key.equals("t")) {
+      if (this.underConstruction) {
+        // can only rebuild new mazes when under construction
+        return;
+      }
+
+      this.resetGameStatesForSearch();
+
+      this.bidirectionalActive = true;
+      this.bfsActive = false;
+      this.dfsActive = false;
+      this.aStarActive = false;
+      this.deadEndActive = false;
+
+      this.setUpMazeForSearch();
+    }
+    else if (key.equals("f")) {
+      if (this.underConstruction) {
+        // can only rebuild new mazes when under construction
+        return;
+      }
+
+      this.resetGameStatesForSearch();
+
+      this.deadEndActive = true;
+      this.bfsActive = false;
+      this.dfsActive = false;
+      this.aStarActive = false;
+      this.bidirectionalActive = false;
 
       this.setUpMazeForSearch();
     }
@@ -77,36 +190,49 @@ class MazeSolver extends World {
 
       this.bfsActive = false;
       this.dfsActive = false;
+      this.aStarActive = false;
+      this.bidirectionalActive = false;
+      this.deadEndActive = false;
 
-      // reset maze w/ random seed from 0-9999 and same bias
-      this.maze = new Maze(this.maze, (int) (Math.random() * 10000));
+      // reset maze w/ a prefetched random seed from 0-9999 and same bias
+      this.maze = this.prefetcher.take(this.maze.getWidth(), this.maze.getHeight(),
+          this.maze.getBiasMode());
     }
     else if (key.equals("0")) {
       this.resetGameStatesForConstruction();
 
       this.bfsActive = false;
       this.dfsActive = false;
+      this.aStarActive = false;
+      this.bidirectionalActive = false;
+      this.deadEndActive = false;
 
-      // reset maze w/ random seed from 0-9999 and no bias
-      this.maze = new Maze(this.maze, (int) (Math.random() * 10000), 0);
+      // reset maze w/ a prefetched random seed from 0-9999 and no bias
+      this.maze = this.prefetcher.take(this.maze.getWidth(), this.maze.getHeight(), 0);
     }
     else if (key.equals("1")) {
       this.resetGameStatesForConstruction();
 
       this.bfsActive = false;
       this.dfsActive = false;
+      this.aStarActive = false;
+      this.bidirectionalActive = false;
+      this.deadEndActive = false;
 
-      // reset maze w/ random seed from 0-9999 and horizontal bias
-      this.maze = new Maze(this.maze, (int) (Math.random() * 10000), 1);
+      // reset maze w/ a prefetched random seed from 0-9999 and horizontal bias
+      this.maze = this.prefetcher.take(this.maze.getWidth(), this.maze.getHeight(), 1);
     }
     else if (key.equals("2")) {
       this.resetGameStatesForConstruction();
 
       this.bfsActive = false;
       this.dfsActive = false;
+      this.aStarActive = false;
+      this.bidirectionalActive = false;
+      this.deadEndActive = false;
 
-      // reset maze w/ random seed from 0-9999 and vertical bias
-      this.maze = new Maze(this.maze, (int) (Math.random() * 10000), 2);
+      // reset maze w/ a prefetched random seed from 0-9999 and vertical bias
+      this.maze = this.prefetcher.take(this.maze.getWidth(), this.maze.getHeight(), 2);
     }
     else if (key.equals("m")) {
       if (this.underConstruction) {
@@ -118,14 +244,17 @@ class MazeSolver extends World {
       this.manualActive = true;
       this.wrongMoves = 0;
 
-      // reset w/ default seed of 420
-      this.maze = new Maze(this.maze);
+      // reset the run on the same maze
+      this.maze.resetRunState();
 
       this.bfsActive = false;
       this.dfsActive = false;
+      this.aStarActive = false;
+      this.bidirectionalActive = false;
+      this.deadEndActive = false;
 
-      // go left (into wall but draw tile)
-      this.maze.attemptMove("left");
+      // draw the player on the start without moving
+      this.maze.placePlayer();
 
       // prep drawing correct path
       this.maze.buildReferencesPath();
@@ -230,9 +359,13 @@ class MazeSolver extends World {
     this.userWon = false;
     this.manualActive = false;
     this.wrongMoves = 0;
+    this.expansions = 0;
 
     this.dfsWrongMoves = -1;
     this.bfsWrongMoves = -1;
+    this.aStarWrongMoves = -1;
+    this.bfsExpansions = -1;
+    this.bidirectionalExpansions = -1;
 
     this.underConstruction = true;
   }
@@ -250,9 +383,10 @@ class MazeSolver extends World {
     this.userWon = false;
     this.manualActive = false;
     this.wrongMoves = 0;
+    this.expansions = 0;
 
-    // reset w/ previous seed
-    this.maze = new Maze(this.maze);
+    // reset the run on the same maze
+    this.maze.resetRunState();
   }
 
   // EFFECT: updates the game state based on the previous game state
@@ -262,9 +396,11 @@ class MazeSolver extends World {
       Pair<Boolean, Integer> updateSearchReturn = this.maze.updateSearch(true);
       this.bfsActive = updateSearchReturn.getObj1();
       this.wrongMoves += updateSearchReturn.getObj2();
+      this.expansions += 1;
 
       if (!this.bfsActive) {
         this.bfsWrongMoves = this.wrongMoves;
+        this.bfsExpansions = this.expansions;
       }
     }
     else if (this.dfsActive) {
@@ -277,6 +413,33 @@ class MazeSolver extends World {
         this.dfsWrongMoves = this.wrongMoves;
       }
     }
+    else if (this.aStarActive) {
+      // call A* on maze
+      Pair<Boolean, Integer> updateSearchReturn = this.maze.updateAStarSearch();
+      this.aStarActive = updateSearchReturn.getObj1();
+      this.wrongMoves += updateSearchReturn.getObj2();
+
+      if (!this.aStarActive) {
+        this.aStarWrongMoves = this.wrongMoves;
+      }
+    }
+    else if (this.bidirectionalActive) {
+      // call bidirectional BFS on maze
+      Pair<Boolean, Integer> updateSearchReturn = this.maze.updateBidirectionalSearch();
+      this.bidirectionalActive = updateSearchReturn.getObj1();
+      this.wrongMoves += updateSearchReturn.getObj2();
+      this.expansions += 1;
+
+      if (!this.bidirectionalActive) {
+        this.bidirectionalExpansions = this.expansions;
+      }
+    }
+    else if (this.deadEndActive) {
+      // fill the next wave of dead ends on maze
+      Pair<Boolean, Integer> updateSearchReturn = this.maze.updateDeadEndFilling();
+      this.deadEndActive = updateSearchReturn.getObj1();
+      this.wrongMoves += updateSearchReturn.getObj2();
+    }
     else if (this.underConstruction) {
       // "remove" an edge
       this.underConstruction = this.maze.removeWalls();
@@ -376,16 +539,12 @@ class Cell implements ICell {
   private boolean startNodeIndicator = false;
   private boolean endNodeIndicator = false;
 
-  // cannot be final as it will be mutated within the maze to represent different
-  // render states
-  private boolean visited;
-  private boolean solution;
-  private boolean containsPlayer;
-  private boolean correctPath;
-  private boolean displayGradient;
-  private int stepsFromStart;
-
-  // private final int id;
+  // the render states of this cell live in the overlay at this cell's index,
+  // so a whole maze's states can be cleared at once
+  private final MazeOverlay overlay;
+  // the dense grid position of this cell (row * width + col), which is its slot
+  // in the overlay and in any other per-cell array
+  private final int index;
 
   // all of these cannot be final because to initialize the links in a maze the
   // edge must be modified to another node
@@ -394,16 +553,46 @@ class Cell implements ICell {
   private Edge bottom;
   private Edge left;
 
-  // convenience constructor for Cell
+  // convenience constructor for Cell, with an overlay of its own
   Cell() {
+    this(new MazeOverlay(1), 0);
+  }
+
+  // constructs a cell whose render states live in the given overlay at the
+  // given index, which is also its index in the grid
+  Cell(MazeOverlay overlay, int index) {
+    this.overlay = overlay;
+    this.index = index;
     this.top = new Edge();
     this.bottom = new Edge();
     this.left = new Edge();
     this.right = new Edge();
   }
 
-  // constructs a full cell
+  // constructs the cell at the given index of a grid of the given size, whose
+  // render states live in the given overlay at that index, with empty edges only
+  // on the sides facing the border, as linking the grid sets every other side
+  Cell(MazeOverlay overlay, int index, int width, int height) {
+    this.overlay = overlay;
+    this.index = index;
+    if (index < width) {
+      this.top = new Edge();
+    }
+    if (index % width == width - 1) {
+      this.right = new Edge();
+    }
+    if (index >= width * (height - 1)) {
+      this.bottom = new Edge();
+    }
+    if (index % width == 0) {
+      this.left = new Edge();
+    }
+  }
+
+  // constructs a full cell, with an overlay of its own
   Cell(Edge top, Edge right, Edge bottom, Edge left) {
+    this.overlay = new MazeOverlay(1);
+    this.index = 0;
     this.top = top;
     this.right = right;
     this.bottom = bottom;
@@ -458,6 +647,26 @@ class Cell implements ICell {
 
   }
 
+  // EFFECT: connects the edge at the given direction: 2 means bottom, 1 means
+  // right, as needed to carve a maze out of a wall bitset
+  void openWall(int direction) {
+    this.getWall(direction).setTrue();
+  }
+
+  // returns the edge at the given direction: 2 means bottom, 1 means right, which
+  // are the two edges a cell owns when carving a maze
+  Edge getWall(int direction) {
+    if (direction > 2 || direction < 1) {
+      throw new RuntimeException("getWall needs a direction between 1 and 2 inclusive!");
+    }
+    if (direction == 1) {
+      return this.right;
+    }
+    else {
+      return this.bottom;
+    }
+  }
+
   // visualizes the grid of cells
   public WorldImage render(boolean showVisited, int maxSteps) {
     return new AboveImage(this.renderRow(showVisited, maxSteps),
@@ -466,8 +675,8 @@ class Cell implements ICell {
 
   // visualizes a row of cells based on the indicators
   public WorldImage renderRow(boolean showVisited, int maxSteps) {
-    if (this.displayGradient) {
-      double scaledTo1 = (double) this.stepsFromStart / (double) (maxSteps);
+    if (this.overlay.displaysGradient(this.index)) {
+      double scaledTo1 = (double) this.overlay.getSteps(this.index) / (double) (maxSteps);
 
       int red = (int) (255 * (1 - scaledTo1));
       int blue = (int) (255 * scaledTo1);
@@ -476,17 +685,17 @@ class Cell implements ICell {
           this.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(red, 0, blue))),
           this.right.getNode2().renderRow(showVisited, maxSteps));
     }
-    else if (this.solution) {
+    else if (this.overlay.isSolution(this.index)) {
       return new BesideImage(
           this.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(83, 221, 108))),
           this.right.getNode2().renderRow(showVisited, maxSteps));
     }
-    else if (this.containsPlayer) {
+    else if (this.overlay.containsPlayer(this.index)) {
       return new BesideImage(
           this.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(192, 169, 176))),
           this.right.getNode2().renderRow(showVisited, maxSteps));
     }
-    else if (this.visited && showVisited) {
+    else if (this.overlay.isVisited(this.index) && showVisited) {
       return new BesideImage(
           this.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(151, 239, 233))),
           this.right.getNode2().renderRow(showVisited, maxSteps));
@@ -512,8 +721,8 @@ class Cell implements ICell {
 
   // find the max step count cell in this row
   public int findMaxStepsInRow(int prevMax) {
-    if (prevMax < this.stepsFromStart) {
-      return this.right.getNode2().findMaxStepsInRow(this.stepsFromStart);
+    if (prevMax < this.overlay.getSteps(this.index)) {
+      return this.right.getNode2().findMaxStepsInRow(this.overlay.getSteps(this.index));
     }
     else {
       return this.right.getNode2().findMaxStepsInRow(prevMax);
@@ -553,14 +762,19 @@ class Cell implements ICell {
     return this;
   }
 
+  // returns the dense grid position of this cell
+  int getIndex() {
+    return this.index;
+  }
+
   // EFFECT: sets the visited field to the given boolean, as needed for animation
   void setVisited(boolean visited) {
-    this.visited = visited;
+    this.overlay.setVisited(this.index, visited);
   }
 
   // EFFECT: sets the solution field to the given boolean, as needed for animation
   void setSolution(boolean solution) {
-    this.solution = solution;
+    this.overlay.setSolution(this.index, solution);
   }
 
   // EFFECT: recursively back tracks the hashmap and sets each cell's solution
@@ -576,7 +790,7 @@ class Cell implements ICell {
   // EFFECT: sets the correct field to the given boolean, as needed for checking
   // if the algorithm or player is on the correct path
   void setCorrectPath(boolean correctPath) {
-    this.correctPath = correctPath;
+    this.overlay.setCorrectPath(this.index, correctPath);
   }
 
   // return's the cell at the given direction, if it is a valid move
@@ -601,13 +815,13 @@ class Cell implements ICell {
   // EFFECT: sets the containsPlayer field to the given boolean, as needed for
   // checking if a player is on this cell or not
   void setPlayerIndicator(boolean indicator) {
-    this.containsPlayer = indicator;
+    this.overlay.setPlayerIndicator(this.index, indicator);
   }
 
   // returns whether or not this cell is an incorrect move, and a unique one
   // (hasn't been visited)
   boolean uniqueIncorrectMove() {
-    return !this.correctPath && !this.visited;
+    return this.overlay.uniqueIncorrectMove(this.index);
   }
 
   // EFFECT: labels the correct path for each cell by recursively backtracking
@@ -646,16 +860,13 @@ class Cell implements ICell {
   // EFFECT: resets the gradient display and step count from the start of this
   // cell
   void resetGradient() {
-    this.displayGradient = false;
-    this.stepsFromStart = 0;
+    this.overlay.resetGradient(this.index);
   }
 
   // EFFECT: resets the gradient display and step count from the start of this
   // cell
   void setGradient(int stepsFromStart) {
-    this.displayGradient = true;
-    this.stepsFromStart = stepsFromStart;
-
+    this.overlay.setGradient(this.index, stepsFromStart);
   }
 
   // EFFECT: sets the start field of this cell to true, as needed to display the
@@ -692,6 +903,8 @@ class CompareEdges implements Comparator<Edge> {
 
 // represents a connection between cells in a maze
 class Edge {
+  // border cells hold no state, so every empty edge can share the same one
+  private static final ICell BORDER = new BorderCell();
 
   private final double weight;
 
@@ -764,7 +977,7 @@ class Edge {
 
   // convenience constructor for empty edge
   Edge() {
-    this(new BorderCell(), new BorderCell());
+    this(Edge.BORDER, Edge.BORDER);
   }
 
   // convenience constructor for a given edge weight
@@ -813,6 +1026,11 @@ class Edge {
   void setTrue() {
     this.connected = true;
   }
+
+  // returns whether this edge is a pathway, with no wall standing on it
+  boolean isConnected() {
+    return this.connected;
+  }
 }
 
 // represents a minimum spanning tree of connected cells
@@ -835,14 +1053,48 @@ class Maze {
   private final Cell endNode;
   // random generation, first maze default seed is 420 if no seed is specified
   private final int seed;
+  // the generator that carved this maze and whether it drew from
+  // java.util.Random, which rebuilding or reseeding this maze carves with again
+  private final IMazeGenerator generator;
+  private final boolean legacyRandom;
+  // the maze this maze was built from, or null when it was carved from its seed
+  private final GridMaze grid;
 
   private final List<Edge> connectedEdges;
 
-  private ArrayList<Cell> worklist;
-  private ArrayList<Cell> alreadySeen;
+  // the render states of every cell, cleared in bulk between runs
+  private final MazeOverlay overlay;
+
+  // the topologies of the mazes rebuilt by Maze(Maze), shared by every game so
+  // switching modes does not generate the same maze again
+  private static final MazeCache TOPOLOGIES = new MazeCache(256L << 20);
+
+  // every cell of the grid, at its index
+  private final ArrayList<Cell> cells;
+
+  // the search auxiliaries work on cell indices, so every step is constant time
+  private IntDeque worklist;
+  private BitSet alreadySeen;
 
-  private HashMap<Cell, Cell> references;
-  private HashMap<Cell, Cell> finalReferences;
+  // the parent of every cell reached, or -1 when it has none
+  private int[] references;
+  private int[] finalReferences;
+
+  // the cells the A* search has yet to expand, lowest estimate through them
+  // first, and the steps from the start of every cell it reached
+  private IndexedMinHeap openSet;
+  private int[] depths;
+
+  // the work list and parents of the bidirectional search's half grown from
+  // the end, and whether that half expands next
+  private IntDeque backWorklist;
+  private int[] backReferences;
+  private boolean backwardTurn;
+
+  // the open neighbors of every cell dead-end filling has not filled, -1 once
+  // filled, and the dead ends of the next wave, both made on the first wave
+  private int[] remainingDegrees;
+  private IntDeque deadEnds;
 
   // convenience constructor for given width and height, uses default seed 420,
   // animates, and no bias
@@ -909,7 +1161,41 @@ class Maze {
   // EFFECT: labels the correct cells in this path by backtracking through the
   // final references, starting at the end node
   void labelCorrectCells() {
-    this.endNode.labelCorrectPath(this.finalReferences);
+    // labels every cell from the end back to the start
+    for (int cell = this.endNode.getIndex(); cell != -1; cell = this.finalReferences[cell]) {
+      this.cells.get(cell).setCorrectPath(true);
+    }
+  }
+
+  // EFFECT: marks every cell of the given path from the start to the end, such
+  // as a headless solver's, as part of the solution
+  void drawPath(int[] path) {
+    if (path.length == 0) {
+      return;
+    }
+    int[] parents = new int[this.cells.size()];
+    Arrays.fill(parents, -1);
+    // points every cell of the path back at the one before it
+    for (int index = 1; index < path.length; index += 1) {
+      parents[path[index]] = path[index - 1];
+    }
+    this.drawPathBack(parents);
+  }
+
+  // EFFECT: marks every cell from the end back to the start through the given
+  // parents as part of the solution
+  void drawPathBack(int[] parents) {
+    // marks every cell from the end back to the start
+    for (int cell = this.endNode.getIndex(); cell != -1; cell = parents[cell]) {
+      this.cells.get(cell).setSolution(true);
+    }
+  }
+
+  // EFFECT: draws the player on the cell it stands on, as moving into a wall
+  // would, wherever the start is
+  void placePlayer() {
+    this.manualLocation.setPlayerIndicator(true);
+    this.manualLocation.setVisited(true);
   }
 
   // EFFECT: attempts to move the player based on the given direction
@@ -928,7 +1214,7 @@ class Maze {
     this.manualLocation.setVisited(true);
 
     if (this.manualLocation == this.endNode) {
-      this.endNode.drawPathBack(this.finalReferences);
+      this.drawPathBack(this.finalReferences);
       return new Pair<Boolean, Integer>(false, wrongMoveCount);
     }
     else {
@@ -946,36 +1232,69 @@ class Maze {
     // worklist or add it to already seen, meaning the size of the
     // list ultimately decreases in either case
 
-    // builds the final references map of the correct path
-    while (this.worklist.size() != 0) {
-      Cell next = this.worklist.remove(0);
+    // builds the final references of the correct path
+    while (!this.worklist.isEmpty()) {
+      Cell next = this.cells.get(this.worklist.removeFirst());
       if (next == this.endNode) {
         return;
       }
       else {
         // iterates through the cells in the connected neighbors and recursively
         // adds those to the worklist (if unique)
-        // also places them in the hashmap of final references
+        // also records them in the final references
         for (Cell neighboringCell : next.addConnectedNeighbors()) {
-          // add to front if unique
-          if (!this.alreadySeen.contains(neighboringCell)) {
-            this.worklist.add(neighboringCell);
-            this.finalReferences.put(neighboringCell, next);
+          // add to back if unique
+          if (!this.alreadySeen.get(neighboringCell.getIndex())) {
+            this.worklist.addLast(neighboringCell.getIndex());
+            this.finalReferences[neighboringCell.getIndex()] = next.getIndex();
           }
         }
-        this.alreadySeen.add(next);
+        this.alreadySeen.set(next.getIndex());
       }
     }
 
   }
 
   // constructs a new maze given a width, height, seed, animation toggle, and bias
-  // mode
+  // mode, carving it with kruskal
   Maze(int width, int height, int seed, boolean animateConstruction, int biasMode) {
+    this(width, height, seed, animateConstruction, biasMode, new KruskalGenerator());
+  }
+
+  // constructs a new maze given a width, height, seed, animation toggle, bias
+  // mode, and the generator that picks which walls to knock down
+  Maze(int width, int height, int seed, boolean animateConstruction, int biasMode,
+      IMazeGenerator generator) {
+    this(width, height, seed, animateConstruction, biasMode, generator, true);
+  }
+
+  // constructs a new maze given a width, height, seed, animation toggle, bias
+  // mode and generator, drawing from java.util.Random when legacyRandom is true,
+  // which every seed used before counter randoms expects, or otherwise from a
+  // CounterRandom, whose weights can be drawn in any order
+  Maze(int width, int height, int seed, boolean animateConstruction, int biasMode,
+      IMazeGenerator generator, boolean legacyRandom) {
+    this(width, height, seed, animateConstruction, biasMode, generator, legacyRandom, 0,
+        width * height - 1);
+  }
+
+  // constructs a new maze carved with kruskal given a width, height, seed,
+  // animation toggle and bias mode, that starts and ends at the given cells
+  Maze(int width, int height, int seed, boolean animateConstruction, int biasMode, int start,
+      int end) {
+    this(width, height, seed, animateConstruction, biasMode, new KruskalGenerator(), true,
+        start, end);
+  }
+
+  // constructs a new maze given a width, height, seed, animation toggle, bias
+  // mode, generator and kind of random, that starts and ends at the given cells
+  Maze(int width, int height, int seed, boolean animateConstruction, int biasMode,
+      IMazeGenerator generator, boolean legacyRandom, int start, int end) {
     this.connectedEdges = new ArrayList<Edge>();
     this.seed = seed;
-
-    Random random = new Random(this.seed);
+    this.generator = generator;
+    this.legacyRandom = legacyRandom;
+    this.grid = null;
 
     if (biasMode < 0 || biasMode > 2) {
       throw new IllegalArgumentException("Bias mode must be 0, 1 or 2");
@@ -984,172 +1303,679 @@ class Maze {
     if (width < 2 || height < 2) {
       throw new IllegalArgumentException("Width and height need to be 2 or more!");
     }
+    if (start < 0 || start >= width * height || end < 0 || end >= width * height) {
+      throw new IllegalArgumentException("Start and end must be cells of the maze!");
+    }
 
     this.biasMode = biasMode;
 
     this.width = width;
     this.height = height;
+    this.overlay = new MazeOverlay(width * height);
+
+    ArrayList<ArrayList<Cell>> nodeGrid = this.buildNodeGrid();
+    this.cells = this.flatten(nodeGrid);
+
+    // start node is top left unless placed elsewhere
+    this.startNode = this.cells.get(start);
+    this.startNode.setStart();
+
+    // player starts at the start
+    this.manualLocation = this.startNode;
+
+    // end node is bottom right unless placed elsewhere
+    this.endNode = this.cells.get(end);
+    this.endNode.setEnd();
+
+    // kruskal and boruvka sort the weights linked into the edges, every other
+    // generator draws its own, so either way every weight is drawn once
+    if (generator instanceof KruskalGenerator) {
+      this.linkGrid(nodeGrid, this.random(), biasMode);
+      this.createMinimumSpanning(nodeGrid, animateConstruction);
+    }
+    else if (generator instanceof BoruvkaGenerator) {
+      this.linkGrid(nodeGrid, this.random(), biasMode);
+      this.createMinimumSpanning(nodeGrid, animateConstruction, (BoruvkaGenerator) generator);
+    }
+    else if (legacyRandom) {
+      this.linkGrid(nodeGrid);
+      this.carveTree(nodeGrid, generator.spanningTree(width, height, new Random(seed), biasMode),
+          animateConstruction);
+    }
+    else {
+      this.linkGrid(nodeGrid);
+      this.carveTree(nodeGrid,
+          generator.spanningTree(width, height, new CounterRandom(seed), biasMode),
+          animateConstruction);
+    }
+
+  }
+
+  // constructs the maze laid out by the given grid maze, without the animation,
+  // reseeding it with kruskal
+  Maze(GridMaze grid) {
+    this(grid, new KruskalGenerator());
+  }
+
+  // constructs the maze laid out by the given grid maze, without the animation,
+  // reseeding it with the given generator
+  // the edges carry no weights, as their connections come from the wall bitsets
+  // instead of a new spanning tree, and the grid maze is kept so rebuilding this
+  // maze reuses its walls
+  Maze(GridMaze grid, IMazeGenerator generator) {
+    this.connectedEdges = new ArrayList<Edge>();
+    this.seed = grid.getSeed();
+    this.generator = generator;
+    this.legacyRandom = grid.usesLegacyRandom();
+    this.grid = grid;
+    this.biasMode = grid.getBiasMode();
+
+    this.width = grid.getWidth();
+    this.height = grid.getHeight();
+    this.overlay = new MazeOverlay(grid.cellCount());
+
+    ArrayList<ArrayList<Cell>> nodeGrid = this.buildNodeGrid();
+    this.cells = this.flatten(nodeGrid);
+
+    // start and end node are wherever the grid maze places them
+    this.startNode = this.cells.get(grid.getStart());
+    this.startNode.setStart();
+
+    // player starts at the start
+    this.manualLocation = this.startNode;
+
+    this.endNode = this.cells.get(grid.getEnd());
+    this.endNode.setEnd();
+
+    this.linkGrid(nodeGrid);
+    this.openWalls(nodeGrid, grid);
+  }
+
+  // EFFECT: throws an exception if the thread building this maze was interrupted,
+  // so a maze nobody waits for any more stops being built
+  void checkInterrupted() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new RuntimeException("Interrupted while building a maze!");
+    }
+  }
+
+  // returns a fresh random of the kind this maze draws from, seeded with its seed
+  Random random() {
+    if (this.legacyRandom) {
+      return new Random(this.seed);
+    }
+    else {
+      return new CounterRandom(this.seed);
+    }
+  }
 
+  // returns a grid of unlinked cells with this maze's width and height, whose
+  // sides only have empty edges on the border, as linkGrid sets every other side
+  ArrayList<ArrayList<Cell>> buildNodeGrid() {
     // outer list is rows, inner list is cols
     // 0 represents top row, increasing index goes down
     // 0 represents left col, increasing index goes right
     ArrayList<ArrayList<Cell>> nodeGrid = new ArrayList<>();
 
     // initializes the rows in the 2d array list
-    for (int rowIndex = 0; rowIndex < height; rowIndex += 1) {
+    for (int rowIndex = 0; rowIndex < this.height; rowIndex += 1) {
       nodeGrid.add(new ArrayList<>());
     }
 
     // places nodes in all the indexes of the grid of nodes
-    for (int rowIndex = 0; rowIndex < height; rowIndex += 1) {
+    for (int rowIndex = 0; rowIndex < this.height; rowIndex += 1) {
+      this.checkInterrupted();
       // places nodes in all the columns of this grid row
-      for (int colIndex = 0; colIndex < width; colIndex += 1) {
-        nodeGrid.get(rowIndex).add(new Cell());
+      for (int colIndex = 0; colIndex < this.width; colIndex += 1) {
+        nodeGrid.get(rowIndex).add(new Cell(this.overlay, rowIndex * this.width + colIndex,
+            this.width, this.height));
 
       }
     }
 
-    // start node will be top left
-    this.startNode = nodeGrid.get(0).get(0);
-    this.startNode.setStart();
-
-    // player starts at top left
-    this.manualLocation = nodeGrid.get(0).get(0);
+    return nodeGrid;
+  }
 
-    // end node will be bottom right
-    this.endNode = nodeGrid.get(height - 1).get(width - 1);
-    this.endNode.setEnd();
+  // returns every cell of the given grid, row by row, so each is at its index
+  ArrayList<Cell> flatten(ArrayList<ArrayList<Cell>> nodeGrid) {
+    ArrayList<Cell> cells = new ArrayList<Cell>(this.width * this.height);
+    // adds every row
+    for (ArrayList<Cell> row : nodeGrid) {
+      cells.addAll(row);
+    }
+    return cells;
+  }
 
-    this.linkGrid(nodeGrid, random, biasMode);
-    this.createMinimumSpanning(nodeGrid, animateConstruction);
+  // EFFECT: connects every edge of the linked node grid that the given grid maze
+  // has no wall on
+  void openWalls(ArrayList<ArrayList<Cell>> nodeGrid, GridMaze grid) {
+    // opens the walls of every row
+    for (int rowIndex = 0; rowIndex < nodeGrid.size(); rowIndex += 1) {
+      // opens the right and bottom walls of every cell in this row
+      for (int colIndex = 0; colIndex < nodeGrid.get(0).size(); colIndex += 1) {
+        Cell cell = nodeGrid.get(rowIndex).get(colIndex);
+        int index = rowIndex * nodeGrid.get(0).size() + colIndex;
 
+        if (grid.canMove(index, 1)) {
+          cell.openWall(1);
+        }
+        if (grid.canMove(index, 2)) {
+          cell.openWall(2);
+        }
+      }
+    }
   }
 
-  // constructs the same maze but without the animation
+  // constructs the same maze but without the animation, reusing the grid maze it
+  // was built from, or the topology if it has been generated recently
   public Maze(Maze maze) {
-    this(maze.width, maze.height, maze.seed, false, maze.biasMode);
+    this(maze.rebuiltGrid(), maze.generator);
+  }
+
+  // returns the walls this maze was or will be carved with, from the grid maze
+  // it was built from, or else from the cache of topologies
+  GridMaze rebuiltGrid() {
+    if (this.grid != null) {
+      return this.grid;
+    }
+    return Maze.TOPOLOGIES.topology(this.width, this.height, this.seed, this.biasMode,
+        this.generator, this.legacyRandom).withEnds(this.getStart(), this.getEnd());
+  }
+
+  // returns the cache of topologies shared by every game, for monitoring
+  static MazeCache topologies() {
+    return Maze.TOPOLOGIES;
   }
 
-  // constructs a new random maze with the animation
+  // returns the walls of this maze as they stand now, as a grid maze with the
+  // same seed and bias mode, for running solvers without touching this maze
+  GridMaze toGridMaze() {
+    if (this.grid != null) {
+      // a maze built from a grid maze is never animated, so its walls stand
+      return this.grid;
+    }
+    return this.readWalls();
+  }
+
+  // returns the walls of the cells of this maze as they stand now, as a grid
+  // maze with the same seed and bias mode, even when it was built from one
+  GridMaze readWalls() {
+    BitSet rightWalls = new BitSet(this.cells.size());
+    BitSet bottomWalls = new BitSet(this.cells.size());
+    // reads both walls of every cell
+    for (int index = 0; index < this.cells.size(); index += 1) {
+      rightWalls.set(index, !this.cells.get(index).getWall(1).isConnected());
+      bottomWalls.set(index, !this.cells.get(index).getWall(2).isConnected());
+    }
+    return new GridMaze(this.width, this.height, this.seed, this.biasMode, this.legacyRandom,
+        this.getStart(), this.getEnd(), rightWalls, bottomWalls);
+  }
+
+  // returns the result of running the registered solver of the given name to
+  // completion on this maze, without a display or a tick loop
+  SolveResult solve(String solverName) {
+    return this.solve(SolverRegistry.standard().get(solverName));
+  }
+
+  // returns the result of running the given solver to completion on this maze
+  SolveResult solve(IMazeSolver solver) {
+    return solver.solve(this.toGridMaze());
+  }
+
+  // returns the render states of every cell of this maze
+  MazeOverlay getOverlay() {
+    return this.overlay;
+  }
+
+  // returns the amount of columns of this maze
+  int getWidth() {
+    return this.width;
+  }
+
+  // returns the amount of rows of this maze
+  int getHeight() {
+    return this.height;
+  }
+
+  // returns the bias mode this maze was built with
+  int getBiasMode() {
+    return this.biasMode;
+  }
+
+  // returns the seed this maze was built from
+  int getSeed() {
+    return this.seed;
+  }
+
+  // returns the generator that carves this maze when it is rebuilt or reseeded
+  IMazeGenerator getGenerator() {
+    return this.generator;
+  }
+
+  // returns whether this maze draws from java.util.Random
+  boolean usesLegacyRandom() {
+    return this.legacyRandom;
+  }
+
+  // returns the index of the start cell
+  int getStart() {
+    return this.startNode.getIndex();
+  }
+
+  // returns the index of the end cell
+  int getEnd() {
+    return this.endNode.getIndex();
+  }
+
+  // constructs a new random maze with the animation, carved the same way
   public Maze(Maze maze, int seed) {
-    this(maze.width, maze.height, seed, true, maze.biasMode);
+    this(maze, seed, maze.biasMode);
   }
 
-  // constructs the same maze with the seed and bias mode, with the animation
+  // constructs the same maze with the seed and bias mode, with the animation,
+  // carved the same way
   public Maze(Maze maze, int seed, int bias) {
-    this(maze.width, maze.height, seed, true, bias);
+    this(maze.width, maze.height, seed, true, bias, maze.generator, maze.legacyRandom);
+  }
+
+  // EFFECT: clears the render states of every cell and the search auxiliaries,
+  // and puts the player back at the start, leaving the maze as it was right
+  // after it was built, without building it again
+  void resetRunState() {
+    this.overlay.clear();
+    this.manualLocation = this.startNode;
+    this.worklist = null;
+    this.alreadySeen = null;
+    this.references = null;
+    this.finalReferences = null;
+    this.openSet = null;
+    this.depths = null;
+    this.backWorklist = null;
+    this.backReferences = null;
+    this.remainingDegrees = null;
+    this.deadEnds = null;
   }
 
   // EFFECT: initializes the maze auxiliaries in order to set up search and manual
   // traversals
   public void initMazeAuxilaries() {
-    this.worklist = new ArrayList<>();
-    this.worklist.add(this.startNode);
-    this.alreadySeen = new ArrayList<>();
-    this.references = new HashMap<>();
-    this.finalReferences = new HashMap<>();
-  }
-
-  // EFFECT: searches for the next cell based on the search mode
+    this.worklist = new IntDeque();
+    this.worklist.addLast(this.startNode.getIndex());
+    this.alreadySeen = new BitSet(this.cells.size());
+    this.references = new int[this.cells.size()];
+    Arrays.fill(this.references, -1);
+    this.finalReferences = new int[this.cells.size()];
+    Arrays.fill(this.finalReferences, -1);
+    this.openSet = new IndexedMinHeap(this.cells.size());
+    this.depths = new int[this.cells.size()];
+    int estimate = this.distanceToEnd(this.startNode.getIndex());
+    this.openSet.insertOrDecrease(this.startNode.getIndex(), estimate, estimate);
+    this.backWorklist = new IntDeque();
+    this.backWorklist.addLast(this.endNode.getIndex());
+    this.backReferences = new int[this.cells.size()];
+    Arrays.fill(this.backReferences, -1);
+    this.backwardTurn = false;
+    this.remainingDegrees = null;
+    this.deadEnds = null;
+  }
+
+  // EFFECT: expands the next cell of a breadth first search from the start and
+  // one from the end in turns, counting wrong moves exactly like updateSearch,
+  // and draws the path through the cell where the two meet
   // also returns packaged info on whether or not to keep going, and the amount of
   // wrong moves this action made
-  public Pair<Boolean, Integer> updateSearch(boolean bfs) {
+  public Pair<Boolean, Integer> updateBidirectionalSearch() {
     int wrongMoveCount = 0;
+    IntDeque worklist = this.backwardTurn ? this.backWorklist : this.worklist;
+    int[] parents = this.backwardTurn ? this.backReferences : this.references;
 
-    if (this.worklist.size() == 0) {
+    if (worklist.isEmpty()) {
       return new Pair<Boolean, Integer>(false, 0);
     }
     else {
-      Cell next = this.worklist.remove(0);
+      Cell next = this.cells.get(worklist.removeFirst());
       next.setVisited(true);
-      if (next == this.endNode) {
-        // next is the target node
+      if (this.backwardTurn ? this.reachedFromStart(next.getIndex())
+          : this.reachedFromEnd(next.getIndex())) {
+        // the other half has reached next, so the halves meet here
 
-        this.endNode.drawPathBack(this.references);
+        this.joinAt(next.getIndex());
+        this.drawPathBack(this.references);
         return new Pair<Boolean, Integer>(false, wrongMoveCount);
       }
       else {
-        // iterates through the cells in the connected neighbors and recursively
-        // adds them to the work list if unique
+        // iterates through the cells in the connected neighbors and adds them
+        // to this half's work list if unique
         for (Cell neighboringCell : next.addConnectedNeighbors()) {
-          // add to front if unique
-          if (!this.alreadySeen.contains(neighboringCell)) {
+          int index = neighboringCell.getIndex();
+          if (!this.alreadySeen.get(index)) {
 
             if (neighboringCell.uniqueIncorrectMove()) {
               wrongMoveCount += 1;
             }
 
-            if (bfs) {
-              this.worklist.add(neighboringCell);
-            }
-            else {
-              this.worklist.add(0, neighboringCell);
-            }
-
-            this.references.put(neighboringCell, next);
+            worklist.addLast(index);
+            parents[index] = next.getIndex();
           }
         }
-        this.alreadySeen.add(next);
+        this.alreadySeen.set(next.getIndex());
+        this.backwardTurn = !this.backwardTurn;
         return new Pair<Boolean, Integer>(true, wrongMoveCount);
       }
     }
   }
 
-  // visualize the maze beginning at the start node
-  WorldImage render(boolean userWon, boolean showVisited, int wrongMoves,
-      boolean showAlgorithmComparison, int dfsWrongMoves, int bfsWrongMoves) {
-    WorldImage baseImage = new AboveImage(
-        new TextImage("Wrong Moves: " + wrongMoves, 20, Color.black),
-        this.startNode.render(showVisited, this.startNode.findMaxSteps(-1)));
+  // EFFECT: fills every dead end of the current wave, other than the start and
+  // the end, and queues the cells that become dead ends for the next wave, then
+  // draws the path that is left once there are none
+  // also returns packaged info on whether or not to keep going, and the amount of
+  // wrong moves this action made
+  public Pair<Boolean, Integer> updateDeadEndFilling() {
+    int wrongMoveCount = 0;
+    if (this.remainingDegrees == null) {
+      this.findDeadEnds();
+    }
 
-    if (showAlgorithmComparison) {
-      WorldImage aboveImage = new EmptyImage();
-      if (dfsWrongMoves == -1 || bfsWrongMoves == -1) {
-        aboveImage = new TextImage("Finish DFS and BFS to see performance comparison!", 20,
-            Color.black);
-      }
-      else if (dfsWrongMoves < bfsWrongMoves) {
-        aboveImage = new TextImage("DFS had " + (bfsWrongMoves - dfsWrongMoves) + " fewer moves",
-            20, Color.black);
-      }
-      else if (dfsWrongMoves == bfsWrongMoves) {
-        aboveImage = new TextImage("DFS and BFS had the same number of moves", 20, Color.black);
+    if (this.deadEnds.isEmpty()) {
+      // only the path is left
+      this.drawPathBack(this.remainingParents());
+      return new Pair<Boolean, Integer>(false, wrongMoveCount);
+    }
+
+    int waveSize = this.deadEnds.size();
+    // fills every dead end of this wave, the ones it makes wait behind them
+    for (int index = 0; index < waveSize; index += 1) {
+      Cell next = this.cells.get(this.deadEnds.removeFirst());
+      if (next.uniqueIncorrectMove()) {
+        wrongMoveCount += 1;
       }
-      else {
-        aboveImage = new TextImage("BFS had " + (dfsWrongMoves - bfsWrongMoves) + " fewer moves",
-            20, Color.black);
+      next.setVisited(true);
+      this.remainingDegrees[next.getIndex()] = -1;
+
+      // takes the filled cell away from every neighbor left
+      for (Cell neighboringCell : next.addConnectedNeighbors()) {
+        int neighbor = neighboringCell.getIndex();
+        if (this.remainingDegrees[neighbor] > 0) {
+          this.remainingDegrees[neighbor] -= 1;
+          if (this.remainingDegrees[neighbor] == 1 && neighboringCell != this.startNode
+              && neighboringCell != this.endNode) {
+            this.deadEnds.addLast(neighbor);
+          }
+        }
       }
-
-      baseImage = new AboveImage(aboveImage, baseImage);
     }
-    if (userWon) {
-      return new AboveImage(
-          new TextImage("Congrats you won! Press r (or any other mode toggle) to reset.", 20,
-              Color.black),
-          baseImage);
+    return new Pair<Boolean, Integer>(true, wrongMoveCount);
+  }
+
+  // EFFECT: counts the open neighbors of every cell and queues every dead end
+  // other than the start and the end as the first wave
+  void findDeadEnds() {
+    this.remainingDegrees = new int[this.cells.size()];
+    this.deadEnds = new IntDeque();
+    // counts the neighbors of every cell
+    for (Cell cell : this.cells) {
+      this.remainingDegrees[cell.getIndex()] = cell.addConnectedNeighbors().size();
+      if (this.remainingDegrees[cell.getIndex()] <= 1 && cell != this.startNode
+          && cell != this.endNode) {
+        this.deadEnds.addLast(cell.getIndex());
+      }
     }
-    return baseImage;
-
   }
 
-  // Returns the representative of a tree by recursively traversing the
-  // representatives hashmap
-  ICell find(HashMap<ICell, ICell> representatives, ICell node) {
-    if (representatives.containsKey(node)) {
-      if (representatives.get(node) == node) {
-        return node;
-      }
-      else {
-        return this.find(representatives, representatives.get(node));
+  // returns the parents of the cells dead-end filling left, from the end back
+  // to the start
+  int[] remainingParents() {
+    int[] parents = new int[this.cells.size()];
+    Arrays.fill(parents, -1);
+    Cell previous = null;
+    Cell current = this.startNode;
+    // INVARIANT:
+    // the cells left form a single path, so every step has one way on
+    while (current != this.endNode) {
+      Cell onward = null;
+      // finds the neighbor left that does not lead back
+      for (Cell neighboringCell : current.addConnectedNeighbors()) {
+        if (neighboringCell != previous
+            && this.remainingDegrees[neighboringCell.getIndex()] != -1) {
+          onward = neighboringCell;
+        }
       }
+      parents[onward.getIndex()] = current.getIndex();
+      previous = current;
+      current = onward;
     }
-    else {
-      throw new RuntimeException("Node is not here");
-    }
+    return parents;
+  }
 
+  // returns whether the half of the bidirectional search grown from the start
+  // has reached the cell at the given index
+  boolean reachedFromStart(int index) {
+    return index == this.startNode.getIndex() || this.references[index] != -1;
   }
 
-  // EFFECT: Unions two trees together, by linking one representative to the
+  // returns whether the half of the bidirectional search grown from the end has
+  // reached the cell at the given index
+  boolean reachedFromEnd(int index) {
+    return index == this.endNode.getIndex() || this.backReferences[index] != -1;
+  }
+
+  // EFFECT: points the references from the given meeting cell on to the end, so
+  // they lead back from the end to the start through it
+  void joinAt(int meeting) {
+    int cell = meeting;
+    // INVARIANT:
+    // every parent of the end's half is one step closer to the end
+    while (cell != this.endNode.getIndex()) {
+      int toward = this.backReferences[cell];
+      this.references[toward] = cell;
+      cell = toward;
+    }
+  }
+
+  // returns the manhattan distance from the cell at the given index to the end,
+  // which is never more than the steps it takes to get there
+  int distanceToEnd(int index) {
+    int end = this.endNode.getIndex();
+    return Math.abs(end % this.width - index % this.width)
+        + Math.abs(end / this.width - index / this.width);
+  }
+
+  // EFFECT: expands the cell with the lowest steps from the start plus distance
+  // to the end, ties going to the cell closer to the end, and counts wrong moves
+  // exactly like updateSearch
+  // also returns packaged info on whether or not to keep going, and the amount of
+  // wrong moves this action made
+  public Pair<Boolean, Integer> updateAStarSearch() {
+    int wrongMoveCount = 0;
+
+    if (this.openSet.isEmpty()) {
+      return new Pair<Boolean, Integer>(false, 0);
+    }
+    else {
+      Cell next = this.cells.get(this.openSet.removeMin());
+      next.setVisited(true);
+      if (next == this.endNode) {
+        // next is the target node
+
+        this.drawPathBack(this.references);
+        return new Pair<Boolean, Integer>(false, wrongMoveCount);
+      }
+      else {
+        // iterates through the cells in the connected neighbors and adds them
+        // to the open set with their estimate if unique
+        for (Cell neighboringCell : next.addConnectedNeighbors()) {
+          int index = neighboringCell.getIndex();
+          if (!this.alreadySeen.get(index)) {
+
+            if (neighboringCell.uniqueIncorrectMove()) {
+              wrongMoveCount += 1;
+            }
+
+            this.depths[index] = this.depths[next.getIndex()] + 1;
+            int estimate = this.distanceToEnd(index);
+            this.openSet.insertOrDecrease(index, this.depths[index] + estimate, estimate);
+            this.references[index] = next.getIndex();
+          }
+        }
+        this.alreadySeen.set(next.getIndex());
+        return new Pair<Boolean, Integer>(true, wrongMoveCount);
+      }
+    }
+  }
+
+  // EFFECT: searches for the next cell based on the search mode
+  // also returns packaged info on whether or not to keep going, and the amount of
+  // wrong moves this action made
+  public Pair<Boolean, Integer> updateSearch(boolean bfs) {
+    int wrongMoveCount = 0;
+
+    if (this.worklist.isEmpty()) {
+      return new Pair<Boolean, Integer>(false, 0);
+    }
+    else {
+      Cell next = this.cells.get(this.worklist.removeFirst());
+      next.setVisited(true);
+      if (next == this.endNode) {
+        // next is the target node
+
+        this.drawPathBack(this.references);
+        return new Pair<Boolean, Integer>(false, wrongMoveCount);
+      }
+      else {
+        // iterates through the cells in the connected neighbors and recursively
+        // adds them to the work list if unique
+        for (Cell neighboringCell : next.addConnectedNeighbors()) {
+          // add to front if unique
+          if (!this.alreadySeen.get(neighboringCell.getIndex())) {
+
+            if (neighboringCell.uniqueIncorrectMove()) {
+              wrongMoveCount += 1;
+            }
+
+            if (bfs) {
+              this.worklist.addLast(neighboringCell.getIndex());
+            }
+            else {
+              this.worklist.addFirst(neighboringCell.getIndex());
+            }
+
+            this.references[neighboringCell.getIndex()] = next.getIndex();
+          }
+        }
+        this.alreadySeen.set(next.getIndex());
+        return new Pair<Boolean, Integer>(true, wrongMoveCount);
+      }
+    }
+  }
+
+  // visualize the maze beginning at the start node
+  WorldImage render(boolean userWon, boolean showVisited, int wrongMoves,
+      boolean showAlgorithmComparison, int dfsWrongMoves, int bfsWrongMoves) {
+    return this.render(userWon, showVisited, wrongMoves, showAlgorithmComparison,
+        dfsWrongMoves, bfsWrongMoves, -1);
+  }
+
+  // visualize the maze beginning at the start node, adding how A* compares to
+  // the other searches once it has finished
+  WorldImage render(boolean userWon, boolean showVisited, int wrongMoves,
+      boolean showAlgorithmComparison, int dfsWrongMoves, int bfsWrongMoves,
+      int aStarWrongMoves) {
+    return this.render(userWon, showVisited, wrongMoves, showAlgorithmComparison,
+        dfsWrongMoves, bfsWrongMoves, aStarWrongMoves, -1, -1);
+  }
+
+  // visualize the maze beginning at the start node, adding how many cells the
+  // bidirectional search saved over BFS once it has finished
+  WorldImage render(boolean userWon, boolean showVisited, int wrongMoves,
+      boolean showAlgorithmComparison, int dfsWrongMoves, int bfsWrongMoves,
+      int aStarWrongMoves, int bfsExpansions, int bidirectionalExpansions) {
+    WorldImage baseImage = new AboveImage(
+        new TextImage("Wrong Moves: " + wrongMoves, 20, Color.black),
+        this.cells.get(0).render(showVisited, this.cells.get(0).findMaxSteps(-1)));
+
+    if (showAlgorithmComparison) {
+      WorldImage aboveImage = new EmptyImage();
+      if (dfsWrongMoves == -1 || bfsWrongMoves == -1) {
+        aboveImage = new TextImage("Finish DFS and BFS to see performance comparison!", 20,
+            Color.black);
+      }
+      else if (dfsWrongMoves < bfsWrongMoves) {
+        aboveImage = new TextImage("DFS had " + (bfsWrongMoves - dfsWrongMoves) + " fewer moves",
+            20, Color.black);
+      }
+      else if (dfsWrongMoves == bfsWrongMoves) {
+        aboveImage = new TextImage("DFS and BFS had the same number of moves", 20, Color.black);
+      }
+      else {
+        aboveImage = new TextImage("BFS had " + (dfsWrongMoves - bfsWrongMoves) + " fewer moves",
+            20, Color.black);
+      }
+
+      if (aStarWrongMoves != -1) {
+        aboveImage = new AboveImage(aboveImage, new TextImage(
+            this.aStarComparison(aStarWrongMoves, dfsWrongMoves, bfsWrongMoves), 20,
+            Color.black));
+      }
+
+      if (bidirectionalExpansions != -1) {
+        aboveImage = new AboveImage(aboveImage, new TextImage(
+            this.bidirectionalComparison(bfsExpansions, bidirectionalExpansions), 20,
+            Color.black));
+      }
+
+      baseImage = new AboveImage(aboveImage, baseImage);
+    }
+    if (userWon) {
+      return new AboveImage(
+          new TextImage("Congrats you won! Press r (or any other mode toggle) to reset.", 20,
+              Color.black),
+          baseImage);
+    }
+    return baseImage;
+
+  }
+
+  // returns how many wrong moves A* had, and how many fewer than each finished
+  // search
+  String aStarComparison(int aStarWrongMoves, int dfsWrongMoves, int bfsWrongMoves) {
+    String comparison = "A* had " + aStarWrongMoves + " wrong moves";
+    if (bfsWrongMoves != -1) {
+      comparison += ", " + (bfsWrongMoves - aStarWrongMoves) + " fewer than BFS";
+    }
+    if (dfsWrongMoves != -1) {
+      comparison += ", " + (dfsWrongMoves - aStarWrongMoves) + " fewer than DFS";
+    }
+    return comparison;
+  }
+
+  // returns how many cells the bidirectional search expanded, and how many fewer
+  // than BFS once it has finished
+  String bidirectionalComparison(int bfsExpansions, int bidirectionalExpansions) {
+    String comparison = "Bidirectional BFS expanded " + bidirectionalExpansions + " cells";
+    if (bfsExpansions != -1) {
+      comparison += ", " + (bfsExpansions - bidirectionalExpansions) + " fewer than BFS";
+    }
+    return comparison;
+  }
+
+  // Returns the representative of a tree by recursively traversing the
+  // representatives hashmap
+  ICell find(HashMap<ICell, ICell> representatives, ICell node) {
+    if (representatives.containsKey(node)) {
+      if (representatives.get(node) == node) {
+        return node;
+      }
+      else {
+        return this.find(representatives, representatives.get(node));
+      }
+    }
+    else {
+      throw new RuntimeException("Node is not here");
+    }
+
+  }
+
+  // EFFECT: Unions two trees together, by linking one representative to the
   // other's representative
   void union(HashMap<ICell, ICell> representatives, ICell cell1, ICell cell2) {
     representatives.put(this.find(representatives, cell1), this.find(representatives, cell2));
@@ -1158,46 +1984,99 @@ class Maze {
   // EFFECT: creates a minimum spanning tree that connects every cell
   // they will be "connected" if they share an edge with its connected field as
   // "true"
+  // the weights linked into the edges are ordered with a linear radix pass and
+  // joined by kruskal over dense edge ids, ties keep the order of the edge ids
   void createMinimumSpanning(ArrayList<ArrayList<Cell>> nodeGrid, boolean animateConstruction) {
+    int rows = nodeGrid.size();
+    int cols = nodeGrid.get(0).size();
+    KruskalGenerator kruskal = new KruskalGenerator();
+    int[] edges = new int[kruskal.edgeCount(cols, rows)];
+    long[] keys = new long[edges.length];
+    this.linkedWeights(nodeGrid, edges, keys);
+
+    this.carveTree(nodeGrid,
+        kruskal.kruskal(cols, rows, edges, new EdgeOrder().sortedPositions(keys)),
+        animateConstruction);
+  }
+
+  // EFFECT: creates the same minimum spanning tree as createMinimumSpanning from
+  // the same linked weights, but with the given Boruvka generator, which finds
+  // the lightest edge out of every component in parallel
+  void createMinimumSpanning(ArrayList<ArrayList<Cell>> nodeGrid, boolean animateConstruction,
+      BoruvkaGenerator generator) {
+    int rows = nodeGrid.size();
+    int cols = nodeGrid.get(0).size();
+    int[] edges = new int[new KruskalGenerator().edgeCount(cols, rows)];
+    long[] keys = new long[edges.length];
+    this.linkedWeights(nodeGrid, edges, keys);
+
+    int[] node1 = new int[edges.length];
+    int[] node2 = new int[edges.length];
+    // records the dense index of both ends of every edge
+    for (int position = 0; position < edges.length; position += 1) {
+      node1[position] = edges[position] / 2;
+      node2[position] = node1[position] + (edges[position] % 2 == 0 ? 1 : cols);
+    }
 
-    List<Edge> worklist = this.addUniqueEdges(nodeGrid, nodeGrid.size(), nodeGrid.get(0).size());
-
-    HashMap<ICell, ICell> representatives = new HashMap<>();
-
-    // sets every node to itself in the representatives hashmap
-    for (int rowIndex = 0; rowIndex < nodeGrid.size(); rowIndex += 1) {
-      // in this row sets every node to itself in the representatives hashmap
-      for (int colIndex = 0; colIndex < nodeGrid.get(0).size(); colIndex += 1) {
-        representatives.put(nodeGrid.get(rowIndex).get(colIndex),
-            nodeGrid.get(rowIndex).get(colIndex));
+    int[] positions = generator.minimumSpanning(rows * cols, node1, node2, keys);
+    int[] tree = new int[positions.length];
+    // turns the tree positions into edge ids, in the order kruskal would add them
+    for (int index = 0; index < positions.length; index += 1) {
+      tree[index] = edges[positions[index]];
+    }
+    this.carveTree(nodeGrid, tree, animateConstruction);
+  }
+
+  // EFFECT: fills the given arrays with every edge id of the linked node grid in
+  // ascending order, and the weight key of the edge linked there, so the weights
+  // linkGrid drew are read instead of drawn again
+  void linkedWeights(ArrayList<ArrayList<Cell>> nodeGrid, int[] edges, long[] keys) {
+    EdgeOrder order = new EdgeOrder();
+    int rows = nodeGrid.size();
+    int cols = nodeGrid.get(0).size();
+    int edge = 0;
+    // reads the right and bottom edge of every cell that has them
+    for (int rowIndex = 0; rowIndex < rows; rowIndex += 1) {
+      this.checkInterrupted();
+      // reads the edges of every cell in this row
+      for (int colIndex = 0; colIndex < cols; colIndex += 1) {
+        Cell cell = nodeGrid.get(rowIndex).get(colIndex);
+        int index = rowIndex * cols + colIndex;
+        if (colIndex < cols - 1) {
+          edges[edge] = index * 2;
+          keys[edge] = order.weightKey(cell.getWall(1).getWeight());
+          edge += 1;
+        }
+        if (rowIndex < rows - 1) {
+          edges[edge] = index * 2 + 1;
+          keys[edge] = order.weightKey(cell.getWall(2).getWeight());
+          edge += 1;
+        }
       }
     }
+  }
 
-    worklist.sort(new CompareEdges());
+  // EFFECT: connects the edges of the given spanning tree, given as edge ids in
+  // the order they were carved, or queues them up for the construction
+  // animation
+  void carveTree(ArrayList<ArrayList<Cell>> nodeGrid, int[] tree, boolean animateConstruction) {
+    this.checkInterrupted();
+    int cols = nodeGrid.get(0).size();
 
-    // starts off empty
     List<Edge> edgesInTree = new ArrayList<>();
-
-    // INVARIANT:
-    // the worklist is a finite size, and we either decrease the size of the
-    // worklist or make a representative point to another representative, decreasing
-    // the amount of unique representatives (which is also finite), which after
-    // enough iterations causes the find case to trigger, meaning the size of the
-    // list ultimately decreases in either case
-
-    // adds the edges that are relevant to forming a minimum spanning tree
-    while (worklist.size() > 1) {
-      Edge e = worklist.get(0);
-      if (this.find(representatives, e.getNode1()) == this.find(representatives, e.getNode2())) {
-        worklist.remove(0);
-      }
-      else {
-        edgesInTree.add(e);
-        this.union(representatives, this.find(representatives, e.getNode1()),
-            this.find(representatives, e.getNode2()));
-      }
+    // finds the edge object of every edge id, right walls are even and bottom
+    // walls are odd
+    for (int edge : tree) {
+      int cell = edge / 2;
+      edgesInTree.add(nodeGrid.get(cell / cols).get(cell % cols).getWall(edge % 2 + 1));
     }
 
+    this.connectTree(edgesInTree, animateConstruction);
+  }
+
+  // EFFECT: connects every edge of the spanning tree, or queues them up for the
+  // construction animation
+  void connectTree(List<Edge> edgesInTree, boolean animateConstruction) {
     // iterates through all the edges in the list and sets their connected field to
     // true
     for (Edge e : edgesInTree) {
@@ -1243,11 +2122,31 @@ class Maze {
     return returnList;
   }
 
+  // EFFECT: links all the nodes in the grid with edges that carry no weight, for
+  // mazes whose spanning tree does not come from the edges
+  void linkGrid(ArrayList<ArrayList<Cell>> nodeGrid) {
+    // links every row
+    for (int rowIndex = 0; rowIndex < nodeGrid.size(); rowIndex += 1) {
+      this.checkInterrupted();
+      // links every node of this row to its right and bottom neighbors
+      for (int colIndex = 0; colIndex < nodeGrid.get(0).size(); colIndex += 1) {
+        Cell thisNode = nodeGrid.get(rowIndex).get(colIndex);
+        if (colIndex < nodeGrid.get(0).size() - 1) {
+          this.setLink(thisNode, nodeGrid.get(rowIndex).get(colIndex + 1), 1, -1);
+        }
+        if (rowIndex < nodeGrid.size() - 1) {
+          this.setLink(nodeGrid.get(rowIndex + 1).get(colIndex), thisNode, 0, -1);
+        }
+      }
+    }
+  }
+
   // EFFECT: links all the nodes in the grid with edges
   void linkGrid(ArrayList<ArrayList<Cell>> nodeGrid, Random seed, int biasMode) {
 
     // iterates through the grid and links nodes to their neighbors, if possible
     for (int rowIndex = 0; rowIndex < nodeGrid.size(); rowIndex += 1) {
+      this.checkInterrupted();
       // links nodes in this row to their neighbors, if possible
       for (int colIndex = 0; colIndex < nodeGrid.get(0).size(); colIndex += 1) {
         Cell thisNode = nodeGrid.get(rowIndex).get(colIndex);
@@ -1315,536 +2214,6669 @@ class Maze {
   }
 }
 
-class ExamplesMaze {
+// represents a disjoint set forest over dense cell indices (row * width + col)
+// it uses path halving and union by rank, so both operations are near constant
+// and never recurse
+class UnionFind {
+  // the parent of each index, an index is a representative when it is its own
+  // parent
+  private final int[] parent;
+  // an upper bound on the height of the tree under each representative
+  private final byte[] rank;
+
+  // constructs a forest of the given size where every index is its own tree
+  UnionFind(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size of a union find cannot be negative!");
+    }
 
-  MazeSolver game;
-  MazeSolver gameHorizontal;
-  MazeSolver gameVertical;
+    this.parent = new int[size];
+    this.rank = new byte[size];
 
-  MazeSolver gameTiny;
-  MazeSolver gameTinyCopy;
+    // every index starts off as its own representative
+    for (int index = 0; index < size; index += 1) {
+      this.parent[index] = index;
+    }
+  }
 
-  Maze maze1;
-  Maze maze1Copy;
+  // EFFECT: makes every index its own tree again
+  void reset() {
+    // every index goes back to being its own representative
+    for (int index = 0; index < this.parent.length; index += 1) {
+      this.parent[index] = index;
+    }
+    Arrays.fill(this.rank, (byte) 0);
+  }
 
-  Maze mazeTiny;
+  // returns the representative of the given index
+  // EFFECT: halves the path from the given index to its representative by
+  // pointing every other node to its grandparent
+  int find(int index) {
+    // INVARIANT:
+    // every step moves index strictly closer to the root of its tree, which is
+    // a finite distance away
+    while (this.parent[index] != index) {
+      this.parent[index] = this.parent[this.parent[index]];
+      index = this.parent[index];
+    }
+    return index;
+  }
 
-  Cell cell1;
-  Cell cell2;
-  Cell cell1Copy;
+  // returns the representative of the given index without changing the forest,
+  // so any amount of threads can call it while no union is in progress
+  int findWithoutCompression(int index) {
+    // INVARIANT:
+    // every step moves index strictly closer to the root of its tree
+    while (this.parent[index] != index) {
+      index = this.parent[index];
+    }
+    return index;
+  }
 
-  Edge edge1;
+  // EFFECT: unions the trees containing the two indices, by linking the
+  // representative of lower rank to the representative of higher rank
+  // returns whether the two indices were in different trees
+  boolean union(int index1, int index2) {
+    int root1 = this.find(index1);
+    int root2 = this.find(index2);
 
-  HashMap<ICell, ICell> rep;
-  Cell cellH1;
-  Cell cellH2;
-  Cell cellH3;
-  Cell cellH4;
+    if (root1 == root2) {
+      return false;
+    }
 
-  BorderCell borderCell1;
+    if (this.rank[root1] < this.rank[root2]) {
+      this.parent[root1] = root2;
+    }
+    else if (this.rank[root1] > this.rank[root2]) {
+      this.parent[root2] = root1;
+    }
+    else {
+      this.parent[root2] = root1;
+      this.rank[root1] += 1;
+    }
+    return true;
+  }
 
-  // EFFECT: initialize conditions
-  void initConds() {
+  // returns the amount of indices in this forest
+  int size() {
+    return this.parent.length;
+  }
+}
 
-    // initialize cells
-    this.cell1 = new Cell();
-    this.cell1Copy = new Cell();
-    this.cell2 = new Cell();
-    this.edge1 = new Edge(this.cell1, this.cell2);
+// orders edges by weight with a stable least significant digit radix sort, so
+// ordering E edges takes O(E) time instead of a comparison sort
+class EdgeOrder {
 
-    // initialize a border cell
-    this.borderCell1 = new BorderCell();
+  // returns a key for the given weight, such that comparing keys as unsigned
+  // longs orders them the same way as comparing the weights
+  long weightKey(double weight) {
+    long bits = Double.doubleToLongBits(weight);
+    // negative weights have every bit flipped, positive weights only the sign bit
+    return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+  }
 
-    this.maze1 = new Maze(6, 9);
-    this.maze1Copy = new Maze(6, 9);
+  // returns the positions of the given keys in ascending unsigned order, keys
+  // that are equal keep their original relative order
+  int[] sortedPositions(long[] keys) {
+    int size = keys.length;
+    int[] positions = new int[size];
+    long[] sortedKeys = Arrays.copyOf(keys, size);
 
-    this.mazeTiny = new Maze(2, 2);
+    // every key starts in its original position
+    for (int position = 0; position < size; position += 1) {
+      positions[position] = position;
+    }
 
-    this.game = new MazeSolver(new Maze(100, 60));
-    this.gameHorizontal = new MazeSolver(new Maze(40, 25, 1));
-    this.gameVertical = new MazeSolver(new Maze(40, 25, 2));
-    this.gameTiny = new MazeSolver(new Maze(2, 2));
-    this.gameTinyCopy = new MazeSolver(new Maze(2, 2));
+    int[] scratchPositions = new int[size];
+    long[] scratchKeys = new long[size];
+    int[] counts = new int[1 << 16];
 
-    // initialize representatives
-    this.cellH1 = new Cell(new Edge(1), new Edge(2), new Edge(3), new Edge(4));
-    this.cellH2 = new Cell(new Edge(4), new Edge(1), new Edge(2), new Edge(3));
-    this.cellH3 = new Cell(new Edge(3), new Edge(4), new Edge(1), new Edge(2));
-    this.cellH4 = new Cell(new Edge(2), new Edge(3), new Edge(4), new Edge(1));
+    // sorts by each 16 bit digit, least significant digit first
+    for (int shift = 0; shift < 64; shift += 16) {
+      Arrays.fill(counts, 0);
 
-    this.rep = new HashMap<>();
-    this.rep.put(this.cellH1, this.cellH1);
-    this.rep.put(this.cellH2, this.cellH1);
-    this.rep.put(this.cellH3, this.cellH2);
-    this.rep.put(this.cellH4, this.cellH4);
+      // counts how many keys have each digit
+      for (int position = 0; position < size; position += 1) {
+        counts[(int) ((sortedKeys[position] >>> shift) & 0xFFFF)] += 1;
+      }
 
-  }
+      // a digit every key shares does not change the order, skip the pass
+      if (size == 0 || counts[(int) ((sortedKeys[0] >>> shift) & 0xFFFF)] == size) {
+        continue;
+      }
 
-  void testIsLinked(Tester t) {
-    this.initConds();
+      // turns the counts into the first position of each digit
+      int total = 0;
+      for (int digit = 0; digit < counts.length; digit += 1) {
+        int count = counts[digit];
+        counts[digit] = total;
+        total += count;
+      }
 
-    // any border cell is never connected to any cell
-    t.checkExpect(new BorderCell().isLinked(this.cell1), false);
-    t.checkExpect(new BorderCell().isLinkedHelp(this.cell1), false);
-    t.checkExpect(this.cell1.isLinked(new BorderCell()), false);
-    t.checkExpect(borderCell1.isLinked(new BorderCell()), false);
-    // test that border cells are never linked to cells with filled edges
-    t.checkExpect(borderCell1.isLinkedHelp(cellH1), false);
+      // scatters the keys into their digit's slots, in order
+      for (int position = 0; position < size; position += 1) {
+        int digit = (int) ((sortedKeys[position] >>> shift) & 0xFFFF);
+        scratchKeys[counts[digit]] = sortedKeys[position];
+        scratchPositions[counts[digit]] = positions[position];
+        counts[digit] += 1;
+      }
 
-    // cell is not connected to itself
-    t.checkExpect(this.cell1.isLinked(this.cell1), false);
-    t.checkExpect(this.cell1.isLinkedHelp(this.cell1), false);
+      long[] swapKeys = sortedKeys;
+      sortedKeys = scratchKeys;
+      scratchKeys = swapKeys;
 
-    // cell is connected for right and left
-    this.cell1.setEdge(this.edge1, 1);
-    this.cell2.setEdge(this.edge1, 3);
-    // check that order doesnt matter
-    t.checkExpect(this.cell1.isLinked(this.cell2), true);
-    t.checkExpect(this.cell2.isLinked(this.cell1), true);
-    // check helper
-    t.checkExpect(this.cell1.isLinkedHelp(this.cell2), true);
-    t.checkExpect(this.cell2.isLinkedHelp(this.cell1), true);
+      int[] swapPositions = positions;
+      positions = scratchPositions;
+      scratchPositions = swapPositions;
+    }
 
-    this.initConds();
-    // cell is connected for top and bottom
-    this.cell1.setEdge(this.edge1, 0);
-    this.cell2.setEdge(this.edge1, 2);
-    // check that order doesnt matter
-    t.checkExpect(this.cell1.isLinked(this.cell2), true);
-    t.checkExpect(this.cell2.isLinked(this.cell1), true);
-    // check helper
-    t.checkExpect(this.cell1.isLinkedHelp(this.cell2), true);
-    t.checkExpect(this.cell2.isLinkedHelp(this.cell1), true);
+    return positions;
+  }
+}
 
-    this.initConds();
-    // cell is not connected for top and left
-    this.cell1.setEdge(this.edge1, 1);
-    this.cell2.setEdge(this.edge1, 2);
-    // check that order doesnt matter
-    t.checkExpect(this.cell1.isLinked(this.cell2), false);
-    t.checkExpect(this.cell2.isLinked(this.cell1), false);
-    // check helper
-    t.checkExpect(this.cell1.isLinkedHelp(this.cell2), false);
-    t.checkExpect(this.cell2.isLinkedHelp(this.cell1), false);
+// represents a way of carving a perfect maze out of a grid, working on edge
+// ids: the wall right of cell c is 2 * c and the wall below it is 2 * c + 1,
+// where c is row * width + col
+interface IMazeGenerator {
+  // returns the name of this generator, for reports
+  String name();
 
+  // returns the edge ids of a spanning tree of the grid, in the order they are
+  // carved, drawing every random choice from the given random
+  int[] spanningTree(int width, int height, Random random, int biasMode);
+
+  // returns the same tree as drawing from the counter random in order, which
+  // generators that can draw weights out of order override to do so
+  default int[] spanningTree(int width, int height, CounterRandom random, int biasMode) {
+    return this.spanningTree(width, height, (Random) random, biasMode);
   }
+}
 
-  void testSetEdge(Tester t) {
-    this.initConds();
+// generates the spanning tree of a grid with Kruskal's algorithm over dense
+// edge ids, drawing the same weights linkGrid would so a seed makes the same
+// maze as Maze does
+// an edge id is cell * 2 for the wall right of a cell, and cell * 2 + 1 for
+// the wall below it
+class KruskalGenerator implements IMazeGenerator {
 
-    // check that cell refers to its original state (own copy)
-    t.checkExpect(this.cell1, this.cell1Copy);
+  // returns the name of this generator
+  public String name() {
+    return "Kruskal";
+  }
 
-    // update edges
-    this.cell1.setEdge(this.edge1, 1);
-    this.cell2.setEdge(this.edge1, 3);
+  // returns the edge ids of the spanning tree, in the order Kruskal adds them
+  public int[] spanningTree(int width, int height, Random random, int biasMode) {
+    int[] edges = new int[this.edgeCount(width, height)];
+    long[] keys = new long[edges.length];
+    this.drawWeights(width, height, random, biasMode, edges, keys);
 
-    // check if they are connected
-    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+    return this.kruskal(width, height, edges, new EdgeOrder().sortedPositions(keys));
+  }
 
-    this.initConds();
-    // update edges
-    this.cell1.setEdge(this.edge1, 0);
-    this.cell2.setEdge(this.edge1, 2);
+  // returns the amount of edges between the cells of a grid
+  int edgeCount(int width, int height) {
+    return (width - 1) * height + width * (height - 1);
+  }
 
-    // check if they are connected
-    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+  // EFFECT: fills the given arrays with every edge id of the grid in ascending
+  // order, and the weight key of each edge, drawing the weights in the same
+  // order as linkGrid
+  void drawWeights(int width, int height, Random random, int biasMode, int[] edges,
+      long[] keys) {
+    EdgeOrder order = new EdgeOrder();
 
-    // check exceptions
-    t.checkException(new RuntimeException("Direction must be between 0 and 3 inclusive!"),
-        this.cell1, "setEdge", this.edge1, -1);
-    t.checkException(new RuntimeException("Direction must be between 0 and 3 inclusive!"),
-        this.cell1, "setEdge", this.edge1, 4);
+    int edge = 0;
+    // draws a weight for every cell in the same order as linkGrid
+    for (int rowIndex = 0; rowIndex < height; rowIndex += 1) {
+      // draws a weight for every cell in this row
+      for (int colIndex = 0; colIndex < width; colIndex += 1) {
+        int cell = rowIndex * width + colIndex;
+        double weight = random.nextDouble();
+
+        if (colIndex < width - 1) {
+          // horizontal bias makes removing right walls cheaper
+          edges[edge] = cell * 2;
+          keys[edge] = order.weightKey(biasMode == 1 ? weight / 4.0 : weight);
+          edge += 1;
+        }
+        if (rowIndex < height - 1) {
+          // vertical bias makes removing bottom walls cheaper
+          edges[edge] = cell * 2 + 1;
+          keys[edge] = order.weightKey(biasMode == 2 ? weight / 4.0 : weight);
+          edge += 1;
+        }
+      }
+    }
   }
 
-  void testSetLink(Tester t) {
-    this.initConds();
+  // EFFECT: fills the given arrays exactly like drawing the counter random in
+  // order would, but draws the rows in parallel on the given pool, as the
+  // weight of every cell only depends on its index
+  // the random is left where drawing in order would have left it
+  void drawWeights(int width, int height, CounterRandom random, int biasMode, int[] edges,
+      long[] keys, ForkJoinPool pool) {
+    pool.invoke(new ParallelRange(new WeightRowAction(this, width, height, random.position(),
+        random, biasMode, edges, keys), 0, height, Math.max(1, (1 << 16) / width)));
+    random.skip((long) width * height);
+  }
+
+  // EFFECT: fills in the edges and weight keys of the given row, taking the
+  // weight of every cell from the counter random at the given first counter
+  // plus the cell's index
+  void drawRow(int width, int height, long firstCounter, CounterRandom random, int biasMode,
+      int[] edges, long[] keys, int rowIndex) {
+    EdgeOrder order = new EdgeOrder();
+    // every row before it has width - 1 right walls and width bottom walls
+    int edge = rowIndex * (2 * width - 1);
+
+    // draws a weight for every cell in this row
+    for (int colIndex = 0; colIndex < width; colIndex += 1) {
+      int cell = rowIndex * width + colIndex;
+      double weight = random.weightAt(firstCounter + cell);
+
+      if (colIndex < width - 1) {
+        // horizontal bias makes removing right walls cheaper
+        edges[edge] = cell * 2;
+        keys[edge] = order.weightKey(biasMode == 1 ? weight / 4.0 : weight);
+        edge += 1;
+      }
+      if (rowIndex < height - 1) {
+        // vertical bias makes removing bottom walls cheaper
+        edges[edge] = cell * 2 + 1;
+        keys[edge] = order.weightKey(biasMode == 2 ? weight / 4.0 : weight);
+        edge += 1;
+      }
+    }
+  }
 
-    // make sure maze refers to its initial state (own copy)
-    t.checkExpect(this.maze1, this.maze1Copy);
+  // returns the edge ids that join separate trees, visiting the edges in the
+  // given order until every cell is connected
+  int[] kruskal(int width, int height, int[] edges, int[] positions) {
+    UnionFind representatives = new UnionFind(width * height);
+    int[] tree = new int[width * height - 1];
+    int treeSize = 0;
 
-    // make sure this cell does not yet refer to second cell
-    t.checkExpect(this.cell1.isLinked(this.cell2), false);
+    // INVARIANT:
+    // the cursor only moves forward through a finite array, and the loop stops
+    // as soon as the tree spans every cell
+    for (int cursor = 0; cursor < positions.length && treeSize < tree.length; cursor += 1) {
+      int edge = edges[positions[cursor]];
+      int cell = edge / 2;
+      int other = edge % 2 == 0 ? cell + 1 : cell + width;
+      if (representatives.union(cell, other)) {
+        tree[treeSize] = edge;
+        treeSize += 1;
+      }
+    }
 
-    // use setConnection
-    this.maze1.setLink(this.cell1, this.cell2, 0, 5.0);
+    return tree;
+  }
+}
 
-    // make sure this now refers to second cell
-    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+// represents a maze as two wall bitsets indexed by row * width + col, which
+// costs 2 bits of topology per cell instead of a Cell and its Edges
+// a set bit means the wall right of (or below) that cell is standing, the walls
+// along the right and bottom border are always standing
+// a grid maze is never mutated once it is constructed
+class GridMaze {
+  private final int width;
+  private final int height;
+  private final int seed;
+  private final int biasMode;
+  // whether the weights came from java.util.Random, like every Maze before
+  // counter randoms, instead of a CounterRandom
+  private final boolean legacyRandom;
 
-    this.initConds();
+  // start of a maze
+  private final int start;
+  // end of a maze
+  private final int end;
 
-    // make sure this cell does not yet refer to second cell
-    t.checkExpect(this.cell1.isLinked(this.cell2), false);
+  private final BitSet rightWalls;
+  private final BitSet bottomWalls;
 
-    // use setConnection
-    this.maze1.setLink(this.cell1, this.cell2, 1, 5.0);
+  // convenience constructor for given width and height, uses default seed 420
+  // and no bias
+  GridMaze(int width, int height) {
+    this(width, height, 420, 0);
+  }
 
-    // make sure this now connects to second cell
-    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+  // constructs the same maze as Maze would for the given width, height, seed and
+  // bias mode
+  GridMaze(int width, int height, int seed, int biasMode) {
+    this(width, height, seed, biasMode, new KruskalGenerator());
+  }
 
-    this.initConds();
+  // constructs the same maze as Maze would for the given width, height, seed and
+  // bias mode, generating the spanning tree with filter-Kruskal on the given pool
+  GridMaze(int width, int height, int seed, int biasMode, ForkJoinPool pool) {
+    this(width, height, seed, biasMode, new FilterKruskalGenerator(pool));
+  }
 
-    // testing with other kinds of cells
-    Cell cellWithRandomEdges = new Cell(this.edge1, new Edge(7.0),
-        new Edge(this.cell1Copy, this.cellH2), new Edge(this.cellH3, this.cellH4, 70.0));
+  // constructs the maze the given generator carves for the given width, height,
+  // seed and bias mode
+  GridMaze(int width, int height, int seed, int biasMode, IMazeGenerator generator) {
+    this(width, height, seed, biasMode, generator, true);
+  }
 
-    // test with observatory method before setting the link
-    t.checkExpect(cellWithRandomEdges.isLinked(cellWithRandomEdges), false);
-    t.checkExpect(cellWithRandomEdges.isLinked(this.cell1), false);
-    t.checkExpect(cell1.isLinked(cellWithRandomEdges), false);
+  // constructs the maze the given generator carves for the given width, height,
+  // seed and bias mode, drawing from java.util.Random when legacyRandom is true,
+  // like Maze always has, or otherwise from a CounterRandom, which lets the
+  // generator draw the weights in parallel
+  GridMaze(int width, int height, int seed, int biasMode, IMazeGenerator generator,
+      boolean legacyRandom) {
+    this(width, height, seed, biasMode, legacyRandom, new BitSet(), new BitSet());
 
-    // method that changes the fields
-    this.maze1.setLink(cellWithRandomEdges, this.cell1, 0, 0);
+    if (legacyRandom) {
+      this.carve(generator.spanningTree(width, height, new Random(seed), biasMode));
+    }
+    else {
+      this.carve(generator.spanningTree(width, height, new CounterRandom(seed), biasMode));
+    }
+  }
 
-    // test with observatory method after setting the link
-    t.checkExpect(cellWithRandomEdges.isLinked(this.cell1), true);
-    t.checkExpect(this.cell1.isLinked(cellWithRandomEdges), true);
+  // constructs a maze from already built wall bitsets, the bitsets are owned by
+  // this maze afterwards and must not be changed
+  GridMaze(int width, int height, int seed, int biasMode, BitSet rightWalls,
+      BitSet bottomWalls) {
+    this(width, height, seed, biasMode, true, rightWalls, bottomWalls);
+  }
 
-    // test self-linking
-    this.maze1.setLink(cellWithRandomEdges, cellWithRandomEdges, 1, 7.0);
-    t.checkExpect(cellWithRandomEdges.isLinked(cellWithRandomEdges), true);
+  // constructs a maze from already built wall bitsets, recording which kind of
+  // random the walls were drawn from
+  GridMaze(int width, int height, int seed, int biasMode, boolean legacyRandom,
+      BitSet rightWalls, BitSet bottomWalls) {
+    this(width, height, seed, biasMode, legacyRandom, 0, width * height - 1, rightWalls,
+        bottomWalls);
   }
 
-  void testLinkGrid(Tester t) {
-    this.initConds();
+  // constructs a maze from already built wall bitsets, with the given start and
+  // end cells
+  GridMaze(int width, int height, int seed, int biasMode, boolean legacyRandom, int start,
+      int end, BitSet rightWalls, BitSet bottomWalls) {
+    if (biasMode < 0 || biasMode > 2) {
+      throw new IllegalArgumentException("Bias mode must be 0, 1 or 2");
+    }
+    // a maze is non-sensical when a 1x1 or smaller
+    if (width < 2 || height < 2) {
+      throw new IllegalArgumentException("Width and height need to be 2 or more!");
+    }
+    if ((long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A grid maze can have at most 2^31 - 1 cells!");
+    }
 
-    // initialize the cell grid
-    ArrayList<ArrayList<Cell>> gridCell = new ArrayList<>();
-    gridCell.add(new ArrayList<>());
-    gridCell.add(new ArrayList<>());
-    gridCell.add(new ArrayList<>());
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.biasMode = biasMode;
+    this.legacyRandom = legacyRandom;
 
-    Cell cell00 = new Cell();
-    Cell cell01 = new Cell();
-    Cell cell02 = new Cell();
+    if (start < 0 || start >= width * height || end < 0 || end >= width * height) {
+      throw new IllegalArgumentException("Start and end must be cells of the maze!");
+    }
+    this.start = start;
+    this.end = end;
+    this.rightWalls = rightWalls;
+    this.bottomWalls = bottomWalls;
+  }
+
+  // EFFECT: stands every wall, then knocks down the wall of every edge in the
+  // given spanning tree, only ever called while constructing
+  void carve(int[] tree) {
+    this.rightWalls.set(0, this.cellCount());
+    this.bottomWalls.set(0, this.cellCount());
+
+    // knocks down the wall of every edge in the spanning tree
+    for (int edge : tree) {
+      if (edge % 2 == 0) {
+        this.rightWalls.clear(edge / 2);
+      }
+      else {
+        this.bottomWalls.clear(edge / 2);
+      }
+    }
+  }
 
-    Cell cell10 = new Cell();
-    Cell cell11 = new Cell();
-    Cell cell12 = new Cell();
+  // returns whether the weights of this maze came from java.util.Random
+  boolean usesLegacyRandom() {
+    return this.legacyRandom;
+  }
 
-    Cell cell20 = new Cell();
-    Cell cell21 = new Cell();
-    Cell cell22 = new Cell();
+  // returns the width of this maze
+  int getWidth() {
+    return this.width;
+  }
 
-    gridCell.get(0).add(cell00);
-    gridCell.get(0).add(cell01);
-    gridCell.get(0).add(cell02);
+  // returns the height of this maze
+  int getHeight() {
+    return this.height;
+  }
 
-    gridCell.get(1).add(cell10);
-    gridCell.get(1).add(cell11);
-    gridCell.get(1).add(cell12);
+  // returns the seed this maze was generated from
+  int getSeed() {
+    return this.seed;
+  }
 
-    gridCell.get(2).add(cell20);
-    gridCell.get(2).add(cell21);
-    gridCell.get(2).add(cell22);
+  // returns the bias mode this maze was generated with
+  int getBiasMode() {
+    return this.biasMode;
+  }
 
-    new Maze(3, 3).linkGrid(gridCell, new Random(420), 0);
+  // returns the index of the start cell
+  int getStart() {
+    return this.start;
+  }
 
-    // check connections for 00
-    t.checkExpect(cell00.isLinked(cell01), true);
-    t.checkExpect(cell00.isLinked(cell10), true);
-    t.checkExpect(cell00.isLinked(cell11), false);
+  // returns the index of the end cell
+  int getEnd() {
+    return this.end;
+  }
 
-    t.checkExpect(cell00.isLinked(cell00), false);
+  // returns this maze with the given start and end cells, sharing its walls, as
+  // neither maze changes them
+  GridMaze withEnds(int start, int end) {
+    return new GridMaze(this.width, this.height, this.seed, this.biasMode, this.legacyRandom,
+        start, end, this.rightWalls, this.bottomWalls);
+  }
 
-    // check connections for 02
-    t.checkExpect(cell02.isLinked(cell01), true);
-    t.checkExpect(cell02.isLinked(cell12), true);
-    t.checkExpect(cell02.isLinked(cell11), false);
+  // returns the manhattan distance between the given cells
+  int distance(int from, int to) {
+    return Math.abs(from % this.width - to % this.width)
+        + Math.abs(from / this.width - to / this.width);
+  }
 
-    t.checkExpect(cell02.isLinked(cell02), false);
+  // EFFECT: hands every row of this maze to the given sink, from the top
+  void streamRows(IRowSink sink) {
+    BitSet rowRight = new BitSet(this.width);
+    BitSet rowBottom = new BitSet(this.width);
+    // copies out the walls of every row
+    for (int row = 0; row < this.height; row += 1) {
+      rowRight.clear();
+      rowBottom.clear();
+      // copies the walls of every column
+      for (int col = 0; col < this.width; col += 1) {
+        rowRight.set(col, this.rightWalls.get(row * this.width + col));
+        rowBottom.set(col, this.bottomWalls.get(row * this.width + col));
+      }
+      sink.acceptRow(row, rowRight, rowBottom);
+    }
+  }
 
-    // check connections for 20
-    t.checkExpect(cell20.isLinked(cell10), true);
-    t.checkExpect(cell20.isLinked(cell21), true);
-    t.checkExpect(cell20.isLinked(cell11), false);
+  // returns the words of the right walls, bit i of the bitset at bit i % 64 of
+  // word i / 64, leaving off trailing words without walls
+  long[] rightWallWords() {
+    return this.rightWalls.toLongArray();
+  }
 
-    t.checkExpect(cell20.isLinked(cell20), false);
+  // returns the words of the bottom walls, bit i of the bitset at bit i % 64 of
+  // word i / 64, leaving off trailing words without walls
+  long[] bottomWallWords() {
+    return this.bottomWalls.toLongArray();
+  }
 
-    // check connections for 22
-    t.checkExpect(cell22.isLinked(cell21), true);
-    t.checkExpect(cell22.isLinked(cell12), true);
-    t.checkExpect(cell22.isLinked(cell11), false);
+  // returns a 64 bit hash of the size and walls of this maze, leaving out its
+  // start and end, so every copy of the same layout agrees
+  long fingerprint() {
+    long hash = this.width * 0x9E3779B97F4A7C15L + this.height;
+    hash = GridMaze.mixWords(hash, this.rightWalls.toLongArray());
+    return GridMaze.mixWords(hash, this.bottomWalls.toLongArray());
+  }
 
-    t.checkExpect(cell22.isLinked(cell22), false);
+  // returns the given hash with the given words and their count mixed in
+  static long mixWords(long hash, long[] words) {
+    hash = (hash ^ words.length) * 0xBF58476D1CE4E5B9L;
+    // mixes in every word
+    for (long word : words) {
+      hash = (hash ^ word) * 0x94D049BB133111EBL;
+      hash ^= hash >>> 31;
+    }
+    return hash;
+  }
 
-    // check connections for 01
-    t.checkExpect(cell01.isLinked(cell00), true);
-    t.checkExpect(cell01.isLinked(cell02), true);
-    t.checkExpect(cell01.isLinked(cell11), true);
-    t.checkExpect(cell01.isLinked(cell10), false);
-    t.checkExpect(cell01.isLinked(cell12), false);
+  // returns the amount of cells in this maze
+  int cellCount() {
+    return this.width * this.height;
+  }
 
-    t.checkExpect(cell01.isLinked(cell01), false);
+  // returns whether there is no wall between the given cell and its neighbor in
+  // the given direction
+  // 0 represents top, 1 represents right, 2 represents bottom, 3 represents left
+  boolean canMove(int index, int direction) {
+    if (direction == 0) {
+      return index >= this.width && !this.bottomWalls.get(index - this.width);
+    }
+    else if (direction == 1) {
+      return index % this.width != this.width - 1 && !this.rightWalls.get(index);
+    }
+    else if (direction == 2) {
+      return index < this.cellCount() - this.width && !this.bottomWalls.get(index);
+    }
+    else if (direction == 3) {
+      return index % this.width != 0 && !this.rightWalls.get(index - 1);
+    }
+    else {
+      throw new RuntimeException("Direction must be between 0 and 3 inclusive!");
+    }
+  }
 
-    // check connections for 21
-    t.checkExpect(cell21.isLinked(cell22), true);
-    t.checkExpect(cell21.isLinked(cell20), true);
-    t.checkExpect(cell21.isLinked(cell11), true);
-    t.checkExpect(cell21.isLinked(cell10), false);
-    t.checkExpect(cell21.isLinked(cell12), false);
+  // returns the index of the neighbor of the given cell in the given direction,
+  // without checking for walls
+  int neighbor(int index, int direction) {
+    if (direction == 0) {
+      return index - this.width;
+    }
+    else if (direction == 1) {
+      return index + 1;
+    }
+    else if (direction == 2) {
+      return index + this.width;
+    }
+    else if (direction == 3) {
+      return index - 1;
+    }
+    else {
+      throw new RuntimeException("Direction must be between 0 and 3 inclusive!");
+    }
+  }
 
-    t.checkExpect(cell21.isLinked(cell21), false);
+  // EFFECT: writes the connected neighbors of the given cell into the given
+  // array, in the same top, right, bottom, left order as addConnectedNeighbors
+  // returns how many neighbors were written
+  int connectedNeighbors(int index, int[] neighbors) {
+    int count = 0;
+    // checks each direction for an open wall
+    for (int direction = 0; direction < 4; direction += 1) {
+      if (this.canMove(index, direction)) {
+        neighbors[count] = this.neighbor(index, direction);
+        count += 1;
+      }
+    }
+    return count;
+  }
 
-    // check connections for 10
-    t.checkExpect(cell10.isLinked(cell00), true);
-    t.checkExpect(cell10.isLinked(cell20), true);
-    t.checkExpect(cell10.isLinked(cell11), true);
-    t.checkExpect(cell10.isLinked(cell01), false);
-    t.checkExpect(cell10.isLinked(cell21), false);
+  // returns the amount of connected neighbors of the given cell
+  int degree(int index) {
+    int count = 0;
+    // checks each direction for an open wall
+    for (int direction = 0; direction < 4; direction += 1) {
+      if (this.canMove(index, direction)) {
+        count += 1;
+      }
+    }
+    return count;
+  }
 
-    t.checkExpect(cell10.isLinked(cell10), false);
+  // returns the breadth first parent of every cell when searching from the given
+  // cell, the source and unreachable cells have a parent of -1
+  int[] parentsFrom(int source) {
+    int[] parents = new int[this.cellCount()];
+    Arrays.fill(parents, -1);
+    BitSet seen = new BitSet(this.cellCount());
+    IntDeque worklist = new IntDeque();
+    int[] neighbors = new int[4];
 
-    // check connections for 12
-    t.checkExpect(cell12.isLinked(cell02), true);
-    t.checkExpect(cell12.isLinked(cell22), true);
-    t.checkExpect(cell12.isLinked(cell11), true);
-    t.checkExpect(cell12.isLinked(cell01), false);
-    t.checkExpect(cell12.isLinked(cell21), false);
+    worklist.addLast(source);
+    seen.set(source);
 
-    t.checkExpect(cell12.isLinked(cell12), false);
+    // INVARIANT:
+    // every cell is added to the worklist at most once, as it is marked seen
+    // before it is added
+    while (!worklist.isEmpty()) {
+      int next = worklist.removeFirst();
+      int count = this.connectedNeighbors(next, neighbors);
+      // adds the unseen neighbors of next to the back of the worklist
+      for (int neighbor = 0; neighbor < count; neighbor += 1) {
+        if (!seen.get(neighbors[neighbor])) {
+          seen.set(neighbors[neighbor]);
+          parents[neighbors[neighbor]] = next;
+          worklist.addLast(neighbors[neighbor]);
+        }
+      }
+    }
 
-    // check connections for 11
-    t.checkExpect(cell11.isLinked(cell01), true);
-    t.checkExpect(cell11.isLinked(cell10), true);
-    t.checkExpect(cell11.isLinked(cell21), true);
-    t.checkExpect(cell11.isLinked(cell12), true);
+    return parents;
+  }
 
-    t.checkExpect(cell11.isLinked(cell00), false);
-    t.checkExpect(cell11.isLinked(cell02), false);
-    t.checkExpect(cell11.isLinked(cell20), false);
-    t.checkExpect(cell11.isLinked(cell22), false);
+  // EFFECT: labels every cell reachable from the given cell with its amount of
+  // steps from that cell and turns on its gradient display in the given overlay
+  // returns the highest step count labeled
+  int labelGradient(MazeOverlay overlay, int source) {
+    int maxSteps = 0;
+    IntDeque worklist = new IntDeque();
+    BitSet seen = new BitSet(this.cellCount());
+    int[] neighbors = new int[4];
 
-    t.checkExpect(cell11.isLinked(cell11), false);
+    worklist.addLast(source);
+    seen.set(source);
+    overlay.setGradient(source, 0);
+
+    // INVARIANT:
+    // every cell is added to the worklist at most once, as it is marked seen
+    // before it is added
+    while (!worklist.isEmpty()) {
+      int next = worklist.removeFirst();
+      int steps = overlay.getSteps(next) + 1;
+      int count = this.connectedNeighbors(next, neighbors);
+      // labels the unseen neighbors of next one step further away
+      for (int neighbor = 0; neighbor < count; neighbor += 1) {
+        if (!seen.get(neighbors[neighbor])) {
+          seen.set(neighbors[neighbor]);
+          overlay.setGradient(neighbors[neighbor], steps);
+          maxSteps = Math.max(maxSteps, steps);
+          worklist.addLast(neighbors[neighbor]);
+        }
+      }
+    }
+
+    return maxSteps;
   }
 
-  void testRenderEdge(Tester t) {
-    this.initConds();
-    Edge e = new Edge();
+  // EFFECT: labels the cells on the path from the start to the end as correct
+  // in the given overlay
+  void labelCorrectPath(MazeOverlay overlay) {
+    int[] parents = this.parentsFrom(this.start);
+    // walks back from the end until the start, which has no parent
+    for (int cell = this.end; cell != -1; cell = parents[cell]) {
+      overlay.setCorrectPath(cell, true);
+    }
+  }
 
-    // test edge is connected
-    t.checkExpect(e.render(false), new RectangleImage(10, 1, OutlineMode.SOLID, Color.black));
-    t.checkExpect(e.render(true), new RectangleImage(1, 10, OutlineMode.SOLID, Color.black));
+  // returns the approximate amount of bytes the topology of this maze takes
+  long sizeInBytes() {
+    return (this.rightWalls.size() + this.bottomWalls.size()) / 8;
+  }
+}
 
-    // connected edge
-    e.setTrue();
+// represents the run time state of every cell in a maze as primitive bitplanes,
+// kept apart from the topology so a whole run can be cleared in bulk
+class MazeOverlay {
+  private final BitSet visited;
+  private final BitSet solution;
+  private final BitSet containsPlayer;
+  private final BitSet correctPath;
+  private final BitSet displayGradient;
+  private final int[] stepsFromStart;
+
+  // constructs a cleared overlay for the given amount of cells
+  MazeOverlay(int cellCount) {
+    this.visited = new BitSet(cellCount);
+    this.solution = new BitSet(cellCount);
+    this.containsPlayer = new BitSet(cellCount);
+    this.correctPath = new BitSet(cellCount);
+    this.displayGradient = new BitSet(cellCount);
+    this.stepsFromStart = new int[cellCount];
+  }
+
+  // EFFECT: clears the run time state of every cell
+  void clear() {
+    this.visited.clear();
+    this.solution.clear();
+    this.containsPlayer.clear();
+    this.correctPath.clear();
+    // step counts only need zeroing if a gradient was ever displayed
+    if (!this.displayGradient.isEmpty()) {
+      this.displayGradient.clear();
+      Arrays.fill(this.stepsFromStart, 0);
+    }
+  }
 
-    // test edge is connected
-    t.checkExpect(e.render(false), new EmptyImage());
-    t.checkExpect(e.render(true), new EmptyImage());
+  // returns whether the given cell has been visited
+  boolean isVisited(int index) {
+    return this.visited.get(index);
+  }
 
+  // EFFECT: sets whether the given cell has been visited
+  void setVisited(int index, boolean visited) {
+    this.visited.set(index, visited);
   }
 
-  void testRenderCell(Tester t) {
-    this.initConds();
+  // returns whether the given cell is on the drawn solution
+  boolean isSolution(int index) {
+    return this.solution.get(index);
+  }
 
-    // border cells render an empty image regardless of arguments
-    t.checkExpect(this.borderCell1.render(false, 0), new EmptyImage());
-    t.checkExpect(this.borderCell1.render(true, 999), new EmptyImage());
+  // EFFECT: sets whether the given cell is on the drawn solution
+  void setSolution(int index, boolean solution) {
+    this.solution.set(index, solution);
+  }
 
-    // initialize 2x2 grid of cells
-    Cell topLeft = new Cell();
-    Cell topRight = new Cell();
-    Cell bottomLeft = new Cell();
-    Cell bottomRight = new Cell();
+  // returns whether the player is on the given cell
+  boolean containsPlayer(int index) {
+    return this.containsPlayer.get(index);
+  }
 
-    Edge edgeTop = new Edge(topLeft, topRight);
-    Edge edgeRight = new Edge(topRight, bottomRight);
-    Edge edgeLeft = new Edge(bottomLeft, topLeft);
-    Edge edgeBottom = new Edge(bottomLeft, bottomRight);
+  // EFFECT: sets whether the player is on the given cell
+  void setPlayerIndicator(int index, boolean indicator) {
+    this.containsPlayer.set(index, indicator);
+  }
 
-    topLeft.setEdge(edgeTop, 1);
-    topLeft.setEdge(edgeLeft, 2);
+  // returns whether the given cell is on the path from the start to the end
+  boolean isCorrectPath(int index) {
+    return this.correctPath.get(index);
+  }
 
-    topRight.setEdge(edgeTop, 3);
-    topRight.setEdge(edgeRight, 2);
+  // EFFECT: sets whether the given cell is on the path from the start to the end
+  void setCorrectPath(int index, boolean correctPath) {
+    this.correctPath.set(index, correctPath);
+  }
 
-    bottomLeft.setEdge(edgeBottom, 1);
-    bottomLeft.setEdge(edgeLeft, 0);
+  // returns whether moving onto the given cell is an incorrect move, and a
+  // unique one (hasn't been visited)
+  boolean uniqueIncorrectMove(int index) {
+    return !this.correctPath.get(index) && !this.visited.get(index);
+  }
 
-    bottomRight.setEdge(edgeBottom, 3);
-    bottomRight.setEdge(edgeRight, 0);
+  // returns whether the given cell displays its gradient
+  boolean displaysGradient(int index) {
+    return this.displayGradient.get(index);
+  }
 
-    // check render when false
-    t.checkExpect(topLeft.render(false, -1),
-        new AboveImage(topLeft.renderRow(false, -1), bottomLeft.render(false, -1)));
+  // returns the amount of steps the given cell is from the gradient's source
+  int getSteps(int index) {
+    return this.stepsFromStart[index];
+  }
 
-    // check render when true
-    t.checkExpect(topLeft.render(true, -1),
-        new AboveImage(topLeft.renderRow(true, -1), bottomLeft.render(true, -1)));
+  // EFFECT: turns on the gradient display of the given cell with the given steps
+  void setGradient(int index, int stepsFromStart) {
+    this.displayGradient.set(index);
+    this.stepsFromStart[index] = stepsFromStart;
+  }
 
-    // check different values of step gradient and boolean combos
-    t.checkExpect(topLeft.render(true, 5),
-        new AboveImage(topLeft.renderRow(true, 5), bottomLeft.render(true, 5)));
-    t.checkExpect(topLeft.render(false, 5),
-        new AboveImage(topLeft.renderRow(false, 5), bottomLeft.render(false, 5)));
-    t.checkExpect(topLeft.render(true, 0),
-        new AboveImage(topLeft.renderRow(true, 0), bottomLeft.render(true, 0)));
+  // EFFECT: turns off the gradient display of the given cell and resets its steps
+  void resetGradient(int index) {
+    this.displayGradient.clear(index);
+    this.stepsFromStart[index] = 0;
   }
 
-  void testRenderRowCell(Tester t) {
-    this.initConds();
+  // returns the amount of cells this overlay covers
+  int cellCount() {
+    return this.stepsFromStart.length;
+  }
+}
 
-    // border cells always render empty images, regardless of arguments
-    t.checkExpect(this.borderCell1.renderRow(false, 0), new EmptyImage());
-    t.checkExpect(this.borderCell1.renderRow(true, 222), new EmptyImage());
-    t.checkExpect(new BorderCell().renderRow(true, 0), new EmptyImage());
-    t.checkExpect(this.borderCell1.renderRow(false, 888), new EmptyImage());
+// represents a double ended queue of ints backed by a growable ring buffer, so
+// adding and removing at either end never shifts or boxes
+class IntDeque {
+  private int[] elements;
+  // index of the first element
+  private int head;
+  private int size;
 
-    // initialize 2x2 grid of cells
-    Cell topLeft = new Cell();
-    Cell topRight = new Cell();
-    Cell bottomLeft = new Cell();
-    Cell bottomRight = new Cell();
+  // constructs an empty deque
+  IntDeque() {
+    this(16);
+  }
 
-    Edge edgeTop = new Edge(topLeft, topRight);
-    Edge edgeRight = new Edge(topRight, bottomRight);
-    Edge edgeLeft = new Edge(bottomLeft, topLeft);
-    Edge edgeBottom = new Edge(bottomLeft, bottomRight);
+  // constructs an empty deque with room for the given amount of elements
+  IntDeque(int capacity) {
+    this.elements = new int[Math.max(capacity, 1)];
+    this.head = 0;
+    this.size = 0;
+  }
 
-    // top or right, node 2
+  // returns the amount of elements in this deque
+  int size() {
+    return this.size;
+  }
 
-    topLeft.setEdge(edgeTop, 1);
-    topLeft.setEdge(edgeLeft, 2);
+  // returns whether this deque has no elements
+  boolean isEmpty() {
+    return this.size == 0;
+  }
 
-    topRight.setEdge(edgeTop, 3);
-    topRight.setEdge(edgeRight, 2);
+  // EFFECT: adds the given element to the front of this deque
+  void addFirst(int element) {
+    this.growIfFull();
+    this.head = (this.head - 1 + this.elements.length) % this.elements.length;
+    this.elements[this.head] = element;
+    this.size += 1;
+  }
 
-    bottomLeft.setEdge(edgeBottom, 1);
-    bottomLeft.setEdge(edgeLeft, 0);
+  // EFFECT: adds the given element to the back of this deque
+  void addLast(int element) {
+    this.growIfFull();
+    this.elements[(this.head + this.size) % this.elements.length] = element;
+    this.size += 1;
+  }
 
-    bottomRight.setEdge(edgeBottom, 3);
-    bottomRight.setEdge(edgeRight, 0);
+  // EFFECT: removes the first element of this deque
+  // returns the removed element
+  int removeFirst() {
+    if (this.size == 0) {
+      throw new RuntimeException("Cannot remove from an empty deque!");
+    }
+    int element = this.elements[this.head];
+    this.head = (this.head + 1) % this.elements.length;
+    this.size -= 1;
+    return element;
+  }
 
-    // test displayGradient
-    // set display gradient to true with step counts from 0-2
-    topLeft.setGradient(0);
-    topRight.setGradient(1);
-    bottomLeft.setGradient(1);
-    bottomRight.setGradient(2);
+  // EFFECT: removes the last element of this deque
+  // returns the removed element
+  int removeLast() {
+    if (this.size == 0) {
+      throw new RuntimeException("Cannot remove from an empty deque!");
+    }
+    this.size -= 1;
+    return this.elements[(this.head + this.size) % this.elements.length];
+  }
 
-    double scaledTo1 = (double) 0 / 2;
-    int red = (int) (255 * (1 - scaledTo1));
-    int blue = (int) (255 * scaledTo1);
+  // EFFECT: removes every element of this deque
+  void clear() {
+    this.head = 0;
+    this.size = 0;
+  }
 
-    // check true case
-    t.checkExpect(topLeft.renderRow(false, 2),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(red, 0, blue))),
-            topRight.renderRow(false, 2)));
+  // EFFECT: doubles the ring buffer when it is full, unwrapping the elements
+  void growIfFull() {
+    if (this.size == this.elements.length) {
+      int[] grown = new int[this.elements.length * 2];
+      // copies the elements in order, starting at the head
+      for (int offset = 0; offset < this.size; offset += 1) {
+        grown[offset] = this.elements[(this.head + offset) % this.elements.length];
+      }
+      this.elements = grown;
+      this.head = 0;
+    }
+  }
+}
 
-    // check false case
-    t.checkExpect(topLeft.renderRow(false, 2),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(red, 0, blue))),
-            topRight.renderRow(false, 2)));
+// represents the cells a grid search has reached but not expanded, handing
+// them back in the order the search expands them
+interface IFrontier {
+  // EFFECT: adds the given cell, reached from the given parent, or -1 for the start
+  void add(int cell, int parent);
 
-    // reset displayGradient
-    topLeft.resetGradient();
-    topRight.resetGradient();
-    bottomLeft.resetGradient();
-    bottomRight.resetGradient();
+  // EFFECT: removes the next cell to expand
+  // returns the removed cell
+  int removeNext();
 
-    // set solution
-    topLeft.setSolution(true);
-    topRight.setSolution(true);
-    bottomLeft.setSolution(true);
-    bottomRight.setSolution(true);
+  // returns the amount of cells waiting
+  int size();
 
-    // test solution
-    t.checkExpect(topLeft.renderRow(false, -1),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(83, 221, 108))),
-            topRight.renderRow(false, -1)));
+  // returns whether no cells are waiting
+  boolean isEmpty();
+}
 
-    t.checkExpect(topLeft.renderRow(true, -1),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(83, 221, 108))),
-            topRight.renderRow(true, -1)));
+// the frontier of a breadth first search when bfs is true, or a depth first
+// search otherwise
+class QueueFrontier implements IFrontier {
+  private final boolean bfs;
+  private final IntDeque cells;
 
-    t.checkExpect(topLeft.renderRow(false, 3),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(83, 221, 108))),
-            topRight.renderRow(false, 3)));
+  // constructs an empty queue when bfs is true, an empty stack otherwise
+  QueueFrontier(boolean bfs) {
+    this.bfs = bfs;
+    this.cells = new IntDeque();
+  }
 
-    // clear solution
-    topLeft.setSolution(false);
-    topRight.setSolution(false);
-    bottomLeft.setSolution(false);
-    bottomRight.setSolution(false);
+  // EFFECT: adds the given cell to the back of a queue or the top of a stack
+  public void add(int cell, int parent) {
+    if (this.bfs) {
+      this.cells.addLast(cell);
+    }
+    else {
+      this.cells.addFirst(cell);
+    }
+  }
 
-    // indicate player
-    topLeft.setPlayerIndicator(true);
+  // EFFECT: removes the front of the queue or the top of the stack
+  // returns the removed cell
+  public int removeNext() {
+    return this.cells.removeFirst();
+  }
 
-    // test player tile
-    t.checkExpect(topLeft.renderRow(false, -1),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(192, 169, 176))),
-            topRight.renderRow(false, -1)));
-    t.checkExpect(topLeft.renderRow(true, -1),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(192, 169, 176))),
-            topRight.renderRow(true, -1)));
-    t.checkExpect(topLeft.renderRow(false, 6),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(192, 169, 176))),
-            topRight.renderRow(true, 6)));
+  // returns the amount of cells waiting
+  public int size() {
+    return this.cells.size();
+  }
 
-    // reset player indicator
-    topLeft.setPlayerIndicator(false);
+  // returns whether no cells are waiting
+  public boolean isEmpty() {
+    return this.cells.isEmpty();
+  }
+}
 
-    // this.visited is true, but show visited is false
-    topLeft.setVisited(true);
-    topRight.setVisited(true);
-    bottomLeft.setVisited(true);
-    bottomRight.setVisited(true);
+// the frontier of an A* search toward the end of a grid maze, handing back the
+// cell with the fewest steps from the start plus manhattan distance to the end,
+// the cell closer to the end among equals
+class AStarFrontier implements IFrontier {
+  private final GridMaze maze;
+  private final IndexedMinHeap cells;
+  // the steps from the start of every cell added
+  private final int[] depths;
+
+  // constructs an empty frontier for a search of the given maze
+  AStarFrontier(GridMaze maze) {
+    this.maze = maze;
+    this.cells = new IndexedMinHeap(maze.cellCount());
+    this.depths = new int[maze.cellCount()];
+  }
 
-    t.checkExpect(topLeft.renderRow(false, 6),
-        new BesideImage(
-            topLeft.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, Color.white)),
-            topRight.renderRow(false, 6)));
-    t.checkExpect(topLeft.renderRow(false, 0),
-        new BesideImage(
-            topLeft.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, Color.white)),
-            topRight.renderRow(false, 0)));
-    t.checkExpect(topLeft.renderRow(false, -1),
-        new BesideImage(
-            topLeft.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, Color.white)),
-            topRight.renderRow(false, -1)));
+  // EFFECT: adds the given cell, one step further from the start than its parent
+  public void add(int cell, int parent) {
+    this.depths[cell] = parent == -1 ? 0 : this.depths[parent] + 1;
+    int estimate = this.maze.distance(cell, this.maze.getEnd());
+    this.cells.insertOrDecrease(cell, this.depths[cell] + estimate, estimate);
+  }
 
-    // this.visited is true, and show visited is true
-    t.checkExpect(topLeft.renderRow(true, 6),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(151, 239, 233))),
-            topRight.renderRow(true, 6)));
-    t.checkExpect(topLeft.renderRow(true, 0),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(151, 239, 233))),
-            topRight.renderRow(true, 0)));
-    t.checkExpect(topLeft.renderRow(true, -1),
-        new BesideImage(
-            topLeft
-                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(151, 239, 233))),
-            topRight.renderRow(true, -1)));
+  // EFFECT: removes the cell with the lowest estimate through it
+  // returns the removed cell
+  public int removeNext() {
+    return this.cells.removeMin();
+  }
 
-    // base case
-    topLeft.setVisited(false);
-    topRight.setVisited(false);
-    bottomLeft.setVisited(false);
-    bottomRight.setVisited(false);
+  // returns the amount of cells waiting
+  public int size() {
+    return this.cells.size();
+  }
 
-    t.checkExpect(topLeft.renderRow(false, 6),
+  // returns whether no cells are waiting
+  public boolean isEmpty() {
+    return this.cells.isEmpty();
+  }
+}
+
+// represents a search over a grid maze, the int indexed
+// twin of the search state in Maze, which writes its visited and solution cells
+// into an overlay
+class GridSearch {
+  private final GridMaze maze;
+  private final MazeOverlay overlay;
+
+  private final IFrontier worklist;
+  private final BitSet alreadySeen;
+  private final int[] references;
+  private final int[] neighbors;
+  // cannot be final as it counts up as the search goes
+  private int expanded;
+
+  // constructs a breadth or depth first search from the start of the given maze
+  // into the given overlay
+  GridSearch(GridMaze maze, MazeOverlay overlay, boolean bfs) {
+    this(maze, overlay, new QueueFrontier(bfs));
+  }
+
+  // constructs a search from the start of the given maze into the given overlay,
+  // expanding cells in the order the given empty frontier gives them
+  GridSearch(GridMaze maze, MazeOverlay overlay, IFrontier frontier) {
+    if (overlay.cellCount() != maze.cellCount()) {
+      throw new IllegalArgumentException("Overlay must cover every cell of the maze!");
+    }
+
+    this.maze = maze;
+    this.overlay = overlay;
+
+    this.worklist = frontier;
+    this.worklist.add(maze.getStart(), -1);
+    this.alreadySeen = new BitSet(maze.cellCount());
+    this.references = new int[maze.cellCount()];
+    Arrays.fill(this.references, -1);
+    this.neighbors = new int[4];
+    this.expanded = 0;
+  }
+
+  // EFFECT: searches for the next cell, exactly like Maze.updateSearch
+  // also returns packaged info on whether or not to keep going, and the amount of
+  // wrong moves this action made
+  Pair<Boolean, Integer> updateSearch() {
+    int wrongMoveCount = 0;
+
+    if (this.worklist.isEmpty()) {
+      return new Pair<Boolean, Integer>(false, 0);
+    }
+
+    int next = this.worklist.removeNext();
+    this.expanded += 1;
+    this.overlay.setVisited(next, true);
+    if (next == this.maze.getEnd()) {
+      // next is the target node
+      this.drawPathBack(next);
+      return new Pair<Boolean, Integer>(false, wrongMoveCount);
+    }
+
+    int count = this.maze.connectedNeighbors(next, this.neighbors);
+    // adds the connected neighbors to the work list if unique
+    for (int neighbor = 0; neighbor < count; neighbor += 1) {
+      int neighboringCell = this.neighbors[neighbor];
+      if (!this.alreadySeen.get(neighboringCell)) {
+
+        if (this.overlay.uniqueIncorrectMove(neighboringCell)) {
+          wrongMoveCount += 1;
+        }
+
+        this.worklist.add(neighboringCell, next);
+        this.references[neighboringCell] = next;
+      }
+    }
+    this.alreadySeen.set(next);
+    return new Pair<Boolean, Integer>(true, wrongMoveCount);
+  }
+
+  // EFFECT: marks every cell from the given cell back to the start as the solution
+  void drawPathBack(int cell) {
+    // follows the references back until the start, which has none
+    for (int current = cell; current != -1; current = this.references[current]) {
+      this.overlay.setSolution(current, true);
+    }
+  }
+
+  // returns the amount of cells waiting to be expanded
+  int frontierSize() {
+    return this.worklist.size();
+  }
+
+  // returns the amount of cells expanded so far
+  int expandedCount() {
+    return this.expanded;
+  }
+
+  // returns the cells from the start to the given cell through the references,
+  // or no cells when the search has not reached it
+  int[] pathTo(int cell) {
+    if (cell != this.maze.getStart() && this.references[cell] == -1) {
+      return new int[0];
+    }
+    int length = 0;
+    // counts the cells back to the start
+    for (int current = cell; current != -1; current = this.references[current]) {
+      length += 1;
+    }
+    int[] path = new int[length];
+    // fills the path in from its end
+    for (int current = cell; current != -1; current = this.references[current]) {
+      length -= 1;
+      path[length] = current;
+    }
+    return path;
+  }
+
+  // EFFECT: runs the search until it is done
+  // returns the total amount of wrong moves it made
+  int runToCompletion() {
+    int wrongMoves = 0;
+    Pair<Boolean, Integer> step = this.updateSearch();
+    // INVARIANT:
+    // every step removes a cell from the worklist, and only cells that have not
+    // been expanded are added, so the worklist eventually empties
+    while (step.getObj1()) {
+      wrongMoves += step.getObj2();
+      step = this.updateSearch();
+    }
+    return wrongMoves + step.getObj2();
+  }
+}
+
+// represents the outcome of running a solver to completion: the path it found
+// and how much work it took to find it
+class SolveResult {
+  private final String solverName;
+  // the cells from the start to the end, or none when the end was not reached
+  private final int[] path;
+  private final int expandedCells;
+  private final int wrongMoves;
+  private final int peakFrontier;
+  private final long elapsedNanos;
+  // how long the solver prepared the maze before searching it, labelling the
+  // correct path its wrong moves are counted against included
+  private final long preprocessNanos;
+
+  // constructs the result of a solve that searched the maze as it was
+  SolveResult(String solverName, int[] path, int expandedCells, int wrongMoves,
+      int peakFrontier, long elapsedNanos) {
+    this(solverName, path, expandedCells, wrongMoves, peakFrontier, elapsedNanos, 0);
+  }
+
+  // constructs the result of a solve that prepared the maze first
+  SolveResult(String solverName, int[] path, int expandedCells, int wrongMoves,
+      int peakFrontier, long elapsedNanos, long preprocessNanos) {
+    this.solverName = solverName;
+    this.path = path;
+    this.expandedCells = expandedCells;
+    this.wrongMoves = wrongMoves;
+    this.peakFrontier = peakFrontier;
+    this.elapsedNanos = elapsedNanos;
+    this.preprocessNanos = preprocessNanos;
+  }
+
+  // returns the name of the solver that produced this result
+  String getSolverName() {
+    return this.solverName;
+  }
+
+  // returns the cells from the start to the end
+  int[] getPath() {
+    return this.path;
+  }
+
+  // returns whether the solver reached the end
+  boolean reachedEnd() {
+    return this.path.length > 0;
+  }
+
+  // returns the amount of cells the solver expanded
+  int getExpandedCells() {
+    return this.expandedCells;
+  }
+
+  // returns the amount of wrong moves, as counted by uniqueIncorrectMove
+  int getWrongMoves() {
+    return this.wrongMoves;
+  }
+
+  // returns the most cells that were ever waiting to be expanded at once
+  int getPeakFrontier() {
+    return this.peakFrontier;
+  }
+
+  // returns how long the search took, preparing the maze not included
+  long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  // returns how long preparing the maze took, which is not part of the solve
+  long getPreprocessNanos() {
+    return this.preprocessNanos;
+  }
+}
+
+// represents a strategy that solves a grid maze to completion in one call
+interface IMazeSolver {
+  // returns the name the solver is registered under
+  String name();
+
+  // returns the path this solver finds through the given maze and its stats
+  SolveResult solve(GridMaze maze);
+}
+
+// solves a maze with a grid search, taking exactly the steps the animated
+// search takes
+abstract class ASearchSolver implements IMazeSolver {
+
+  // returns the empty frontier that orders the search of the given maze
+  abstract IFrontier frontier(GridMaze maze);
+
+  // returns the path the search finds through the given maze and its stats
+  public SolveResult solve(GridMaze maze) {
+    long labelStart = System.nanoTime();
+    MazeOverlay overlay = new MazeOverlay(maze.cellCount());
+    maze.labelCorrectPath(overlay);
+    long start = System.nanoTime();
+    GridSearch search = new GridSearch(maze, overlay, this.frontier(maze));
+
+    int wrongMoves = 0;
+    int peakFrontier = search.frontierSize();
+    Pair<Boolean, Integer> step = search.updateSearch();
+    // INVARIANT:
+    // every step expands a cell that was never expanded, so the search ends
+    while (step.getObj1()) {
+      wrongMoves += step.getObj2();
+      peakFrontier = Math.max(peakFrontier, search.frontierSize());
+      step = search.updateSearch();
+    }
+    wrongMoves += step.getObj2();
+
+    int[] path = overlay.isVisited(maze.getEnd()) ? search.pathTo(maze.getEnd()) : new int[0];
+    return new SolveResult(this.name(), path, search.expandedCount(), wrongMoves, peakFrontier,
+        System.nanoTime() - start, start - labelStart);
+  }
+}
+
+// solves a maze with a breadth or depth first search
+class SearchSolver extends ASearchSolver {
+  private final boolean bfs;
+
+  // constructs a breadth first solver when bfs is true, depth first otherwise
+  SearchSolver(boolean bfs) {
+    this.bfs = bfs;
+  }
+
+  // returns the name of the search
+  public String name() {
+    return this.bfs ? "BFS" : "DFS";
+  }
+
+  // returns a queue for breadth first, a stack for depth first
+  IFrontier frontier(GridMaze maze) {
+    return new QueueFrontier(this.bfs);
+  }
+}
+
+// solves a maze with an A* search guided by the manhattan distance to the end
+class AStarSolver extends ASearchSolver {
+
+  // returns the name of the search
+  public String name() {
+    return "A*";
+  }
+
+  // returns a heap ordered by the estimate through each cell
+  IFrontier frontier(GridMaze maze) {
+    return new AStarFrontier(maze);
+  }
+}
+
+// represents a breadth first search over a grid maze grown from the start and
+// the end in turns, the int indexed twin of Maze.updateBidirectionalSearch,
+// which stops where the two halves meet
+class BidirectionalSearch {
+  private final GridMaze maze;
+  private final MazeOverlay overlay;
+
+  // the work lists and parents of the half grown from the start and the half
+  // grown from the end
+  private final IntDeque forward;
+  private final IntDeque backward;
+  private final int[] forwardReferences;
+  private final int[] backwardReferences;
+  private final BitSet alreadySeen;
+  private final int[] neighbors;
+  // cannot be final as they change as the search goes
+  private boolean backwardTurn;
+  private int meeting;
+  private int expanded;
+
+  // constructs a search from both ends of the given maze into the given overlay
+  BidirectionalSearch(GridMaze maze, MazeOverlay overlay) {
+    if (overlay.cellCount() != maze.cellCount()) {
+      throw new IllegalArgumentException("Overlay must cover every cell of the maze!");
+    }
+
+    this.maze = maze;
+    this.overlay = overlay;
+
+    this.forward = new IntDeque();
+    this.forward.addLast(maze.getStart());
+    this.backward = new IntDeque();
+    this.backward.addLast(maze.getEnd());
+    this.forwardReferences = new int[maze.cellCount()];
+    Arrays.fill(this.forwardReferences, -1);
+    this.backwardReferences = new int[maze.cellCount()];
+    Arrays.fill(this.backwardReferences, -1);
+    this.alreadySeen = new BitSet(maze.cellCount());
+    this.neighbors = new int[4];
+    this.backwardTurn = false;
+    this.meeting = -1;
+    this.expanded = 0;
+  }
+
+  // EFFECT: expands the next cell of the half whose turn it is, exactly like
+  // Maze.updateBidirectionalSearch
+  // also returns packaged info on whether or not to keep going, and the amount of
+  // wrong moves this action made
+  Pair<Boolean, Integer> updateSearch() {
+    int wrongMoveCount = 0;
+    IntDeque worklist = this.backwardTurn ? this.backward : this.forward;
+    int[] parents = this.backwardTurn ? this.backwardReferences : this.forwardReferences;
+
+    if (worklist.isEmpty()) {
+      return new Pair<Boolean, Integer>(false, 0);
+    }
+
+    int next = worklist.removeFirst();
+    this.expanded += 1;
+    this.overlay.setVisited(next, true);
+    if (this.backwardTurn ? this.reachedFromStart(next) : this.reachedFromEnd(next)) {
+      // the other half has reached next, so the halves meet here
+      this.meeting = next;
+      int[] path = this.path();
+      // marks the joined path as the solution
+      for (int index = 0; index < path.length; index += 1) {
+        this.overlay.setSolution(path[index], true);
+      }
+      return new Pair<Boolean, Integer>(false, wrongMoveCount);
+    }
+
+    int count = this.maze.connectedNeighbors(next, this.neighbors);
+    // adds the connected neighbors to this half's work list if unique
+    for (int neighbor = 0; neighbor < count; neighbor += 1) {
+      int neighboringCell = this.neighbors[neighbor];
+      if (!this.alreadySeen.get(neighboringCell)) {
+
+        if (this.overlay.uniqueIncorrectMove(neighboringCell)) {
+          wrongMoveCount += 1;
+        }
+
+        worklist.addLast(neighboringCell);
+        parents[neighboringCell] = next;
+      }
+    }
+    this.alreadySeen.set(next);
+    this.backwardTurn = !this.backwardTurn;
+    return new Pair<Boolean, Integer>(true, wrongMoveCount);
+  }
+
+  // returns whether the half grown from the start has reached the given cell
+  boolean reachedFromStart(int cell) {
+    return cell == this.maze.getStart() || this.forwardReferences[cell] != -1;
+  }
+
+  // returns whether the half grown from the end has reached the given cell
+  boolean reachedFromEnd(int cell) {
+    return cell == this.maze.getEnd() || this.backwardReferences[cell] != -1;
+  }
+
+  // returns the amount of cells waiting to be expanded by either half
+  int frontierSize() {
+    return this.forward.size() + this.backward.size();
+  }
+
+  // returns the amount of cells expanded so far by both halves
+  int expandedCount() {
+    return this.expanded;
+  }
+
+  // returns the cells from the start to the end through the cell where the
+  // halves met, or no cells when they have not met
+  int[] path() {
+    if (this.meeting == -1) {
+      return new int[0];
+    }
+    int length = 0;
+    // counts the cells back to the start
+    for (int current = this.meeting; current != -1; current = this.forwardReferences[current]) {
+      length += 1;
+    }
+    int fromStart = length;
+    // counts the cells on to the end
+    for (int current = this.backwardReferences[this.meeting]; current != -1;
+        current = this.backwardReferences[current]) {
+      length += 1;
+    }
+
+    int[] path = new int[length];
+    int index = fromStart;
+    // fills the half from the start in back from the meeting cell
+    for (int current = this.meeting; current != -1; current = this.forwardReferences[current]) {
+      index -= 1;
+      path[index] = current;
+    }
+    index = fromStart;
+    // fills the half to the end in after the meeting cell
+    for (int current = this.backwardReferences[this.meeting]; current != -1;
+        current = this.backwardReferences[current]) {
+      path[index] = current;
+      index += 1;
+    }
+    return path;
+  }
+}
+
+// solves a maze with a breadth first search grown from both ends at once
+class BidirectionalSolver implements IMazeSolver {
+
+  // returns the name of the search
+  public String name() {
+    return "Bidirectional BFS";
+  }
+
+  // returns the path the search finds through the given maze and its stats
+  public SolveResult solve(GridMaze maze) {
+    long labelStart = System.nanoTime();
+    MazeOverlay overlay = new MazeOverlay(maze.cellCount());
+    maze.labelCorrectPath(overlay);
+    long start = System.nanoTime();
+    BidirectionalSearch search = new BidirectionalSearch(maze, overlay);
+
+    int wrongMoves = 0;
+    int peakFrontier = search.frontierSize();
+    Pair<Boolean, Integer> step = search.updateSearch();
+    // INVARIANT:
+    // every step expands a cell that was never expanded, so the search ends
+    while (step.getObj1()) {
+      wrongMoves += step.getObj2();
+      peakFrontier = Math.max(peakFrontier, search.frontierSize());
+      step = search.updateSearch();
+    }
+    wrongMoves += step.getObj2();
+
+    return new SolveResult(this.name(), search.path(), search.expandedCount(), wrongMoves,
+        peakFrontier, System.nanoTime() - start, start - labelStart);
+  }
+
+  // returns how many fewer cells this expands in the given maze than a breadth
+  // first search from the start alone
+  int savedExpansions(GridMaze maze) {
+    return new SearchSolver(true).solve(maze).getExpandedCells()
+        - this.solve(maze).getExpandedCells();
+  }
+}
+
+// represents a grid maze with its corridors contracted: a node for every cell
+// that is not the middle of a corridor (the start, the end, dead ends and
+// junctions) and an edge weighted by its steps for every corridor leaving one,
+// in compressed sparse row arrays
+class JunctionGraph {
+  private final GridMaze maze;
+  // the node of every cell, or -1 for the cells in the middle of a corridor
+  private final int[] nodeOf;
+  private final int[] cellOf;
+  // the edges leaving node n are firstEdge(n) up to (not including) firstEdge(n + 1)
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] weights;
+  // the cell each edge's corridor steps into first
+  private final int[] firstSteps;
+  private final long buildNanos;
+
+  // constructs the junction graph of the given maze
+  JunctionGraph(GridMaze maze) {
+    long start = System.nanoTime();
+    this.maze = maze;
+    this.nodeOf = new int[maze.cellCount()];
+
+    int nodeCount = 0;
+    int edgeCount = 0;
+    // numbers every cell that is not the middle of a corridor
+    for (int cell = 0; cell < maze.cellCount(); cell += 1) {
+      int degree = maze.degree(cell);
+      if (degree != 2 || cell == maze.getStart() || cell == maze.getEnd()) {
+        this.nodeOf[cell] = nodeCount;
+        nodeCount += 1;
+        edgeCount += degree;
+      }
+      else {
+        this.nodeOf[cell] = -1;
+      }
+    }
+
+    this.cellOf = new int[nodeCount];
+    this.offsets = new int[nodeCount + 1];
+    this.targets = new int[edgeCount];
+    this.weights = new int[edgeCount];
+    this.firstSteps = new int[edgeCount];
+
+    int[] neighbors = new int[4];
+    int edge = 0;
+    // follows every corridor out of every node to the node at its other end
+    for (int cell = 0; cell < maze.cellCount(); cell += 1) {
+      int node = this.nodeOf[cell];
+      if (node != -1) {
+        this.cellOf[node] = cell;
+        this.offsets[node] = edge;
+        int count = maze.connectedNeighbors(cell, neighbors);
+        // walks the corridor behind every opening
+        for (int neighbor = 0; neighbor < count; neighbor += 1) {
+          this.firstSteps[edge] = neighbors[neighbor];
+          this.follow(cell, edge);
+          edge += 1;
+        }
+      }
+    }
+    this.offsets[nodeCount] = edge;
+    this.buildNanos = System.nanoTime() - start;
+  }
+
+  // EFFECT: walks the given edge's corridor from the given cell, recording the
+  // node at its other end and its steps
+  void follow(int from, int edge) {
+    int previous = from;
+    int cell = this.firstSteps[edge];
+    int steps = 1;
+    // INVARIANT:
+    // every cell in the middle of a corridor has exactly one way on
+    while (this.nodeOf[cell] == -1) {
+      int next = this.onward(previous, cell);
+      previous = cell;
+      cell = next;
+      steps += 1;
+    }
+    this.targets[edge] = this.nodeOf[cell];
+    this.weights[edge] = steps;
+  }
+
+  // returns the connected neighbor of the given corridor cell that is not the
+  // cell it was entered from
+  int onward(int previous, int cell) {
+    // checks each direction for the open wall that does not lead back
+    for (int direction = 0; direction < 4; direction += 1) {
+      if (this.maze.canMove(cell, direction) && this.maze.neighbor(cell, direction) != previous) {
+        return this.maze.neighbor(cell, direction);
+      }
+    }
+    throw new RuntimeException("Cell " + cell + " is not in the middle of a corridor!");
+  }
+
+  // returns the amount of nodes in this graph
+  int nodeCount() {
+    return this.cellOf.length;
+  }
+
+  // returns the amount of edges in this graph, every corridor counted from
+  // both ends
+  int edgeCount() {
+    return this.targets.length;
+  }
+
+  // returns the node of the given cell, or -1 when it is in the middle of a
+  // corridor
+  int nodeOf(int cell) {
+    return this.nodeOf[cell];
+  }
+
+  // returns the cell of the given node
+  int cellOf(int node) {
+    return this.cellOf[node];
+  }
+
+  // returns the first edge leaving the given node, the edges of the node after
+  // it starting where its edges end
+  int firstEdge(int node) {
+    return this.offsets[node];
+  }
+
+  // returns the node at the other end of the given edge
+  int target(int edge) {
+    return this.targets[edge];
+  }
+
+  // returns the steps along the given edge
+  int weight(int edge) {
+    return this.weights[edge];
+  }
+
+  // returns how long contracting the maze took
+  long getBuildNanos() {
+    return this.buildNanos;
+  }
+
+  // returns the amount of cells along the given edge out of the given cell that
+  // are unique incorrect moves in the given overlay, exactly like moving onto
+  // them one at a time would count them
+  // EFFECT: marks every cell along the edge as visited in the given overlay
+  int enter(int from, int edge, MazeOverlay overlay) {
+    int wrongMoves = 0;
+    int previous = from;
+    int cell = this.firstSteps[edge];
+    // INVARIANT:
+    // every cell in the middle of a corridor has exactly one way on
+    while (this.nodeOf[cell] == -1) {
+      if (overlay.uniqueIncorrectMove(cell)) {
+        wrongMoves += 1;
+      }
+      overlay.setVisited(cell, true);
+      int next = this.onward(previous, cell);
+      previous = cell;
+      cell = next;
+    }
+    if (overlay.uniqueIncorrectMove(cell)) {
+      wrongMoves += 1;
+    }
+    overlay.setVisited(cell, true);
+    return wrongMoves;
+  }
+
+  // returns the cells from the given cell along every given edge in turn,
+  // the given cell included
+  int[] cellPath(int from, int[] edges) {
+    int length = 1;
+    // counts the steps along every edge
+    for (int index = 0; index < edges.length; index += 1) {
+      length += this.weights[edges[index]];
+    }
+
+    int[] path = new int[length];
+    path[0] = from;
+    int filled = 1;
+    // walks every corridor, writing down its cells
+    for (int index = 0; index < edges.length; index += 1) {
+      int previous = path[filled - 1];
+      int cell = this.firstSteps[edges[index]];
+      // INVARIANT:
+      // every cell in the middle of a corridor has exactly one way on
+      while (this.nodeOf[cell] == -1) {
+        path[filled] = cell;
+        filled += 1;
+        int next = this.onward(previous, cell);
+        previous = cell;
+        cell = next;
+      }
+      path[filled] = cell;
+      filled += 1;
+    }
+    return path;
+  }
+}
+
+// solves a maze with a breadth first search over its junction graph, so only
+// the start, the end, dead ends and junctions are expanded
+class JunctionSolver implements IMazeSolver {
+
+  // returns the name of the search
+  public String name() {
+    return "Junction BFS";
+  }
+
+  // returns the path the search finds through the given maze and its stats,
+  // labelling the correct path and contracting the corridors counted as
+  // preprocessing, and every cell of a corridor counted as moved onto when the
+  // node at its end is reached
+  public SolveResult solve(GridMaze maze) {
+    long labelStart = System.nanoTime();
+    MazeOverlay overlay = new MazeOverlay(maze.cellCount());
+    maze.labelCorrectPath(overlay);
+    JunctionGraph graph = new JunctionGraph(maze);
+    long start = System.nanoTime();
+
+    int source = graph.nodeOf(maze.getStart());
+    int target = graph.nodeOf(maze.getEnd());
+    // the edge every node was reached through, or -1 for the start
+    int[] parentEdges = new int[graph.nodeCount()];
+    int[] parents = new int[graph.nodeCount()];
+    BitSet alreadySeen = new BitSet(graph.nodeCount());
+    IntDeque worklist = new IntDeque();
+    worklist.addLast(source);
+    alreadySeen.set(source);
+    parentEdges[source] = -1;
+    overlay.setVisited(maze.getStart(), true);
+
+    int expanded = 0;
+    int wrongMoves = 0;
+    int peakFrontier = 1;
+    boolean found = false;
+    // INVARIANT:
+    // every node is added once, so the search ends
+    while (!found && !worklist.isEmpty()) {
+      int next = worklist.removeFirst();
+      expanded += 1;
+      found = next == target;
+      // adds the nodes across every corridor if unique
+      for (int edge = graph.firstEdge(next); !found && edge < graph.firstEdge(next + 1);
+          edge += 1) {
+        int node = graph.target(edge);
+        if (!alreadySeen.get(node)) {
+          alreadySeen.set(node);
+          wrongMoves += graph.enter(graph.cellOf(next), edge, overlay);
+          parentEdges[node] = edge;
+          parents[node] = next;
+          worklist.addLast(node);
+        }
+      }
+      peakFrontier = Math.max(peakFrontier, worklist.size());
+    }
+
+    if (!found) {
+      return new SolveResult(this.name(), new int[0], expanded, wrongMoves, peakFrontier,
+          System.nanoTime() - start, start - labelStart);
+    }
+
+    int length = 0;
+    // counts the edges back to the start
+    for (int node = target; node != source; node = parents[node]) {
+      length += 1;
+    }
+    int[] edges = new int[length];
+    // fills the edges in from the end
+    for (int node = target; node != source; node = parents[node]) {
+      length -= 1;
+      edges[length] = parentEdges[node];
+    }
+    int[] path = graph.cellPath(maze.getStart(), edges);
+
+    return new SolveResult(this.name(), path, expanded, wrongMoves, peakFrontier,
+        System.nanoTime() - start, start - labelStart);
+  }
+}
+
+// represents dead-end filling over a grid maze, the int indexed twin of
+// Maze.updateDeadEndFilling: every wave fills the current dead ends other than
+// the start and the end, across a fork/join pool, until only the path between
+// them is left
+// the maze must be a tree, as the seeded mazes are
+class DeadEndFilling {
+  private final GridMaze maze;
+  private final MazeOverlay overlay;
+  private final ForkJoinPool pool;
+
+  // the open neighbors of every cell not yet filled, -1 once filled
+  private final AtomicIntegerArray degrees;
+  // the dead ends of the current wave, and the ones found for the next
+  private int[] wave;
+  private int waveSize;
+  private int[] nextWave;
+  private final AtomicInteger nextWaveSize;
+  // cannot be final as they count up as the filling goes
+  private int filled;
+  private int waves;
+
+  // constructs a filling of the given maze into the given overlay, run on the
+  // given pool
+  DeadEndFilling(GridMaze maze, MazeOverlay overlay, ForkJoinPool pool) {
+    if (overlay.cellCount() != maze.cellCount()) {
+      throw new IllegalArgumentException("Overlay must cover every cell of the maze!");
+    }
+
+    this.maze = maze;
+    this.overlay = overlay;
+    this.pool = pool;
+
+    this.degrees = new AtomicIntegerArray(maze.cellCount());
+    this.wave = new int[maze.cellCount()];
+    this.nextWave = new int[maze.cellCount()];
+    this.nextWaveSize = new AtomicInteger(0);
+    this.pool.invoke(new ParallelRange(new DeadEndAction(this, true), 0, maze.cellCount(),
+        this.grain(maze.cellCount())));
+    this.swapWaves();
+    this.filled = 0;
+    this.waves = 0;
+  }
+
+  // returns how many cells every task takes on out of the given amount
+  int grain(int count) {
+    return Math.max(4096, count / (this.pool.getParallelism() * 4));
+  }
+
+  // EFFECT: counts the open neighbors of every cell from start (inclusive) to end
+  // (exclusive), queueing the dead ends for the first wave
+  void countDegrees(int start, int end) {
+    // counts the neighbors of every cell in the range
+    for (int cell = start; cell < end; cell += 1) {
+      int degree = this.maze.degree(cell);
+      this.degrees.set(cell, degree);
+      if (degree <= 1 && this.isDeadEnd(cell)) {
+        this.nextWave[this.nextWaveSize.getAndIncrement()] = cell;
+      }
+    }
+  }
+
+  // EFFECT: takes the filled dead ends of the current wave from start (inclusive)
+  // to end (exclusive) away from their neighbors, queueing the neighbors that
+  // become dead ends for the next wave
+  void releaseNeighbors(int start, int end) {
+    // releases the neighbors of every dead end in the range
+    for (int index = start; index < end; index += 1) {
+      int cell = this.wave[index];
+      // checks each direction for a neighbor that is not filled
+      for (int direction = 0; direction < 4; direction += 1) {
+        if (this.maze.canMove(cell, direction)) {
+          int neighbor = this.maze.neighbor(cell, direction);
+          if (this.degrees.get(neighbor) > 0 && this.degrees.decrementAndGet(neighbor) == 1
+              && this.isDeadEnd(neighbor)) {
+            this.nextWave[this.nextWaveSize.getAndIncrement()] = neighbor;
+          }
+        }
+      }
+    }
+  }
+
+  // returns whether the given cell may be filled once it is a dead end
+  boolean isDeadEnd(int cell) {
+    return cell != this.maze.getStart() && cell != this.maze.getEnd();
+  }
+
+  // EFFECT: makes the next wave the current one, and empties the next
+  void swapWaves() {
+    int[] current = this.wave;
+    this.wave = this.nextWave;
+    this.waveSize = this.nextWaveSize.get();
+    this.nextWave = current;
+    this.nextWaveSize.set(0);
+  }
+
+  // EFFECT: fills every dead end of the current wave, exactly like
+  // Maze.updateDeadEndFilling, and draws the path once none are left
+  // also returns packaged info on whether or not to keep going, and the amount of
+  // wrong moves this action made
+  Pair<Boolean, Integer> updateSearch() {
+    int wrongMoveCount = 0;
+
+    if (this.waveSize == 0) {
+      int[] path = this.path();
+      // marks the path that is left as the solution
+      for (int index = 0; index < path.length; index += 1) {
+        this.overlay.setSolution(path[index], true);
+      }
+      return new Pair<Boolean, Integer>(false, wrongMoveCount);
+    }
+
+    // marks every dead end of the wave as filled before any neighbor is released
+    for (int index = 0; index < this.waveSize; index += 1) {
+      int cell = this.wave[index];
+      if (this.overlay.uniqueIncorrectMove(cell)) {
+        wrongMoveCount += 1;
+      }
+      this.overlay.setVisited(cell, true);
+      this.degrees.set(cell, -1);
+    }
+    this.pool.invoke(new ParallelRange(new DeadEndAction(this, false), 0, this.waveSize,
+        this.grain(this.waveSize)));
+
+    this.filled += this.waveSize;
+    this.waves += 1;
+    this.swapWaves();
+    return new Pair<Boolean, Integer>(true, wrongMoveCount);
+  }
+
+  // EFFECT: fills waves until only the path is left
+  // returns the total amount of wrong moves it made
+  int runToCompletion() {
+    int wrongMoves = 0;
+    Pair<Boolean, Integer> step = this.updateSearch();
+    // INVARIANT:
+    // every wave fills cells that were never filled, so the filling ends
+    while (step.getObj1()) {
+      wrongMoves += step.getObj2();
+      step = this.updateSearch();
+    }
+    return wrongMoves + step.getObj2();
+  }
+
+  // returns the amount of dead ends in the current wave
+  int frontierSize() {
+    return this.waveSize;
+  }
+
+  // returns the amount of cells filled so far
+  int expandedCount() {
+    return this.filled;
+  }
+
+  // returns the amount of waves filled so far
+  int waveCount() {
+    return this.waves;
+  }
+
+  // returns the cells left from the start to the end, or no cells when they
+  // are not joined by the cells left
+  int[] path() {
+    int[] parents = new int[this.maze.cellCount()];
+    int length = 1;
+    int previous = -1;
+    int current = this.maze.getStart();
+    // INVARIANT:
+    // the cells left form at most a single path, so every step has at most one
+    // way on and the walk is never longer than the maze
+    while (current != this.maze.getEnd()) {
+      int onward = -1;
+      // finds the neighbor left that does not lead back
+      for (int direction = 0; direction < 4; direction += 1) {
+        if (this.maze.canMove(current, direction)) {
+          int neighbor = this.maze.neighbor(current, direction);
+          if (neighbor != previous && this.degrees.get(neighbor) != -1) {
+            onward = neighbor;
+          }
+        }
+      }
+      if (onward == -1 || length == this.maze.cellCount()) {
+        return new int[0];
+      }
+      parents[onward] = current;
+      previous = current;
+      current = onward;
+      length += 1;
+    }
+
+    int[] path = new int[length];
+    // fills the path in from the end
+    for (int index = length - 1; index >= 0; index -= 1) {
+      path[index] = current;
+      current = parents[current];
+    }
+    return path;
+  }
+}
+
+// counts the degrees of a range of cells, or releases the neighbors of a range
+// of a wave, for a dead-end filling
+class DeadEndAction implements IRangeAction {
+  private final DeadEndFilling filling;
+  private final boolean count;
+
+  // constructs an action that counts degrees, or releases neighbors
+  DeadEndAction(DeadEndFilling filling, boolean count) {
+    this.filling = filling;
+    this.count = count;
+  }
+
+  // EFFECT: counts the degrees of the cells, or releases the neighbors of the
+  // wave's dead ends, from start (inclusive) to end (exclusive)
+  public void apply(int start, int end) {
+    if (this.count) {
+      this.filling.countDegrees(start, end);
+    }
+    else {
+      this.filling.releaseNeighbors(start, end);
+    }
+  }
+}
+
+// solves a tree maze by filling its dead ends in parallel waves until only the
+// path is left, without any frontier search
+class DeadEndSolver implements IMazeSolver {
+  private final ForkJoinPool pool;
+
+  // constructs a solver that fills on the given pool
+  DeadEndSolver(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  // returns the name of the solver
+  public String name() {
+    return "Dead-end filling";
+  }
+
+  // returns the path left after filling the given maze and its stats, every
+  // filled cell counted as expanded and the largest wave as the peak frontier
+  public SolveResult solve(GridMaze maze) {
+    long labelStart = System.nanoTime();
+    MazeOverlay overlay = new MazeOverlay(maze.cellCount());
+    maze.labelCorrectPath(overlay);
+    long start = System.nanoTime();
+    DeadEndFilling filling = new DeadEndFilling(maze, overlay, this.pool);
+
+    int wrongMoves = 0;
+    int peakFrontier = filling.frontierSize();
+    Pair<Boolean, Integer> step = filling.updateSearch();
+    // INVARIANT:
+    // every wave fills cells that were never filled, so the filling ends
+    while (step.getObj1()) {
+      wrongMoves += step.getObj2();
+      peakFrontier = Math.max(peakFrontier, filling.frontierSize());
+      step = filling.updateSearch();
+    }
+    wrongMoves += step.getObj2();
+
+    return new SolveResult(this.name(), filling.path(), filling.expandedCount(), wrongMoves,
+        peakFrontier, System.nanoTime() - start, start - labelStart);
+  }
+}
+
+// represents an index over a tree maze that answers the distance and path
+// between any two cells without searching: the cells are laid out in depth
+// first preorder from the start, where the lowest common ancestor of two cells
+// is the parent of the shallowest cell after the first of them up to the
+// second, found with a sparse table over blocks of the preorder
+class MazeDistanceIndex {
+  // the amount of preorder positions each sparse table entry sums up
+  static final int BLOCK = 16;
+
+  private final GridMaze maze;
+  // the parent of every cell, or -1 for the start
+  private final int[] parents;
+  // the cell at every preorder position, its depth, and every cell's position
+  private final int[] order;
+  private final int[] orderDepths;
+  private final int[] positions;
+  // the shallowest position over 2^level blocks starting at every block
+  private final int[][] table;
+  private final long buildNanos;
+
+  // constructs the index of the given maze, which must be a tree
+  MazeDistanceIndex(GridMaze maze) {
+    long start = System.nanoTime();
+    this.maze = maze;
+    int cellCount = maze.cellCount();
+    this.parents = new int[cellCount];
+    this.order = new int[cellCount];
+    this.orderDepths = new int[cellCount];
+    this.positions = new int[cellCount];
+
+    long openings = 0;
+    // counts the passages from both sides
+    for (int cell = 0; cell < cellCount; cell += 1) {
+      openings += maze.degree(cell);
+    }
+    if (openings != 2L * (cellCount - 1)) {
+      throw new IllegalArgumentException("Maze must be a tree to index its distances!");
+    }
+
+    int[] depths = new int[cellCount];
+    int[] neighbors = new int[4];
+    IntDeque stack = new IntDeque();
+    stack.addFirst(maze.getStart());
+    this.parents[maze.getStart()] = -1;
+    int visited = 0;
+    // INVARIANT:
+    // every cell is pushed once, by its parent, since the maze is a tree
+    while (!stack.isEmpty()) {
+      int cell = stack.removeFirst();
+      this.order[visited] = cell;
+      this.orderDepths[visited] = depths[cell];
+      this.positions[cell] = visited;
+      visited += 1;
+
+      int count = maze.connectedNeighbors(cell, neighbors);
+      // pushes every child, the parent being the only neighbor already seen
+      for (int neighbor = 0; neighbor < count; neighbor += 1) {
+        if (neighbors[neighbor] != this.parents[cell]) {
+          this.parents[neighbors[neighbor]] = cell;
+          depths[neighbors[neighbor]] = depths[cell] + 1;
+          stack.addFirst(neighbors[neighbor]);
+        }
+      }
+    }
+    if (visited != cellCount) {
+      throw new IllegalArgumentException("Maze must be a tree to index its distances!");
+    }
+
+    int blocks = (cellCount + BLOCK - 1) / BLOCK;
+    int levels = 32 - Integer.numberOfLeadingZeros(Math.max(blocks, 1));
+    this.table = new int[levels][];
+    this.table[0] = new int[blocks];
+    // finds the shallowest position of every block
+    for (int block = 0; block < blocks; block += 1) {
+      this.table[0][block] = this.shallowest(block * BLOCK,
+          Math.min(block * BLOCK + BLOCK, cellCount) - 1, -1);
+    }
+    // builds every level from the two halves on the level below
+    for (int level = 1; level < levels; level += 1) {
+      int span = 1 << level;
+      this.table[level] = new int[blocks - span + 1];
+      for (int block = 0; block + span <= blocks; block += 1) {
+        this.table[level][block] = this.shallower(this.table[level - 1][block],
+            this.table[level - 1][block + span / 2]);
+      }
+    }
+    this.buildNanos = System.nanoTime() - start;
+  }
+
+  // returns whichever of the given preorder positions is shallower, the first
+  // when neither is, or the other when one is -1
+  int shallower(int position, int other) {
+    if (position == -1) {
+      return other;
+    }
+    else if (other == -1 || this.orderDepths[position] <= this.orderDepths[other]) {
+      return position;
+    }
+    else {
+      return other;
+    }
+  }
+
+  // returns the shallowest of the given best position and the preorder
+  // positions from first to last inclusive
+  int shallowest(int first, int last, int best) {
+    // compares every position in the range
+    for (int position = first; position <= last; position += 1) {
+      best = this.shallower(best, position);
+    }
+    return best;
+  }
+
+  // returns the shallowest preorder position from first to last inclusive
+  int shallowestBetween(int first, int last) {
+    int firstBlock = first / BLOCK;
+    int lastBlock = last / BLOCK;
+    if (firstBlock == lastBlock) {
+      return this.shallowest(first, last, -1);
+    }
+    int best = this.shallowest(first, firstBlock * BLOCK + BLOCK - 1, -1);
+    best = this.shallowest(lastBlock * BLOCK, last, best);
+    if (lastBlock - firstBlock > 1) {
+      int blocks = lastBlock - firstBlock - 1;
+      int level = 31 - Integer.numberOfLeadingZeros(blocks);
+      best = this.shallower(best, this.table[level][firstBlock + 1]);
+      best = this.shallower(best, this.table[level][lastBlock - (1 << level)]);
+    }
+    return best;
+  }
+
+  // EFFECT: throws if the given cell is not in the maze
+  void checkCell(int cell) {
+    if (cell < 0 || cell >= this.order.length) {
+      throw new IllegalArgumentException("Cell must be between 0 and "
+          + (this.order.length - 1) + " inclusive!");
+    }
+  }
+
+  // returns the steps from the start to the given cell
+  int depth(int cell) {
+    this.checkCell(cell);
+    return this.orderDepths[this.positions[cell]];
+  }
+
+  // returns the parent of the given cell toward the start, or -1 for the start
+  int parent(int cell) {
+    this.checkCell(cell);
+    return this.parents[cell];
+  }
+
+  // returns the deepest cell on the way from both given cells to the start
+  int lowestCommonAncestor(int cell, int other) {
+    this.checkCell(cell);
+    this.checkCell(other);
+    if (cell == other) {
+      return cell;
+    }
+    int first = Math.min(this.positions[cell], this.positions[other]);
+    int last = Math.max(this.positions[cell], this.positions[other]);
+    return this.parents[this.order[this.shallowestBetween(first + 1, last)]];
+  }
+
+  // returns the steps between the given cells
+  int distance(int cell, int other) {
+    int ancestor = this.lowestCommonAncestor(cell, other);
+    return this.depth(cell) + this.depth(other) - 2 * this.depth(ancestor);
+  }
+
+  // returns the cells from the first given cell to the second, both included
+  int[] path(int cell, int other) {
+    int ancestor = this.lowestCommonAncestor(cell, other);
+    int up = this.depth(cell) - this.depth(ancestor);
+    int[] path = new int[up + this.depth(other) - this.depth(ancestor) + 1];
+    // climbs from the first cell to the ancestor
+    for (int index = 0; index < up; index += 1) {
+      path[index] = cell;
+      cell = this.parents[cell];
+    }
+    path[up] = ancestor;
+    // climbs from the second cell to the ancestor, filling in from the end
+    for (int index = path.length - 1; index > up; index -= 1) {
+      path[index] = other;
+      other = this.parents[other];
+    }
+    return path;
+  }
+
+  // returns how long building this index took
+  long getBuildNanos() {
+    return this.buildNanos;
+  }
+}
+
+// answers batches of start and end pairs over one tree maze in parallel across
+// a fork/join pool, every query served by a distance index instead of a search
+// the pairs are laid out flat, the start of every query followed by its end
+class MazeQueries {
+  private final MazeDistanceIndex index;
+  private final ForkJoinPool pool;
+
+  // constructs the queries over the given maze, indexing it once, answered on
+  // the given pool
+  MazeQueries(GridMaze maze, ForkJoinPool pool) {
+    this.index = new MazeDistanceIndex(maze);
+    this.pool = pool;
+  }
+
+  // returns the index every query is served by
+  MazeDistanceIndex getIndex() {
+    return this.index;
+  }
+
+  // returns the amount of queries in the given pairs
+  int queryCount(int[] pairs) {
+    if (pairs.length % 2 != 0) {
+      throw new IllegalArgumentException("Every query needs a start and an end!");
+    }
+    return pairs.length / 2;
+  }
+
+  // returns how many queries every task takes on out of the given amount
+  int grain(int count) {
+    return Math.max(1024, count / (this.pool.getParallelism() * 4));
+  }
+
+  // returns the steps from the start to the end of every query
+  int[] lengths(int[] pairs) {
+    int count = this.queryCount(pairs);
+    int[] lengths = new int[count];
+    this.pool.invoke(new ParallelRange(new QueryAction(this.index, pairs, lengths, null), 0,
+        count, this.grain(count)));
+    return lengths;
+  }
+
+  // returns the cells from the start to the end of every query
+  int[][] paths(int[] pairs) {
+    int count = this.queryCount(pairs);
+    int[][] paths = new int[count][];
+    this.pool.invoke(new ParallelRange(new QueryAction(this.index, pairs, null, paths), 0,
+        count, this.grain(count)));
+    return paths;
+  }
+}
+
+// answers a range of queries of a batch, writing their lengths, or their paths
+// when there is nowhere to write lengths
+class QueryAction implements IRangeAction {
+  private final MazeDistanceIndex index;
+  private final int[] pairs;
+  private final int[] lengths;
+  private final int[][] paths;
+
+  // constructs an action answering the given pairs into lengths or paths
+  QueryAction(MazeDistanceIndex index, int[] pairs, int[] lengths, int[][] paths) {
+    this.index = index;
+    this.pairs = pairs;
+    this.lengths = lengths;
+    this.paths = paths;
+  }
+
+  // EFFECT: answers every query from start (inclusive) to end (exclusive)
+  public void apply(int start, int end) {
+    // answers every query in the range
+    for (int query = start; query < end; query += 1) {
+      if (this.lengths != null) {
+        this.lengths[query] = this.index.distance(this.pairs[2 * query],
+            this.pairs[2 * query + 1]);
+      }
+      else {
+        this.paths[query] = this.index.path(this.pairs[2 * query], this.pairs[2 * query + 1]);
+      }
+    }
+  }
+}
+
+// represents a bounded cache of solved paths, keyed by the layout of the maze
+// and the ends of the path, forgetting the least recently used paths once the
+// bytes held go over the budget
+// a request missing its own key is answered from one of the latest cached
+// paths of the same layout that passes through both of its ends, as every part
+// of a shortest path is itself a shortest path
+// the newest path is always kept, even if it alone is over the budget
+// misses are solved outside the lock, so one slow solve never holds up requests
+// the cache can already answer
+class PathCache {
+  // the most paths of one layout a miss looks through for a subpath
+  static final int SUBPATH_SCAN = 8;
+
+  private final long byteBudget;
+  private final LinkedHashMap<PathKey, CompactPath> entries;
+  // the keys held for every layout, in the order they were solved
+  private final HashMap<Long, ArrayList<PathKey>> layouts;
+  // the last maze asked about and its fingerprint, as hashing every wall on
+  // every request would cost about as much as a small search
+  private GridMaze lastMaze;
+  private long lastFingerprint;
+  private long bytesHeld;
+  private long hits;
+  private long subpathHits;
+  private long misses;
+  private long evictions;
+
+  // constructs an empty cache holding at most about the given amount of bytes,
+  // solving misses with BFS
+  PathCache(long byteBudget) {
+    if (byteBudget < 1) {
+      throw new IllegalArgumentException("Byte budget of a path cache must be positive!");
+    }
+    this.byteBudget = byteBudget;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.layouts = new HashMap<>();
+    this.lastMaze = null;
+    this.lastFingerprint = 0;
+    this.bytesHeld = 0;
+    this.hits = 0;
+    this.subpathHits = 0;
+    this.misses = 0;
+    this.evictions = 0;
+  }
+
+  // returns the cells from the given start to the given end of the given maze,
+  // solving it on a miss
+  // EFFECT: marks the path answering the request as the most recently used, and
+  // forgets the least recently used ones while over the budget
+  int[] path(GridMaze maze, int start, int end) {
+    if (start < 0 || start >= maze.cellCount() || end < 0 || end >= maze.cellCount()) {
+      throw new IllegalArgumentException("Start and end must be cells of the maze!");
+    }
+    PathKey key = new PathKey(this.fingerprint(maze), start, end);
+    int[] known = this.known(key);
+    if (known != null) {
+      return known;
+    }
+
+    MazeOverlay overlay = new MazeOverlay(maze.cellCount());
+    GridSearch search = new GridSearch(maze.withEnds(start, end), overlay, true);
+    search.runToCompletion();
+    int[] path = search.pathTo(end);
+    this.publish(key, new CompactPath(path, maze.getWidth()));
+    return path;
+  }
+
+  // returns the fingerprint of the given maze, hashing its walls outside the
+  // lock unless it was the last maze asked about
+  // EFFECT: remembers the given maze as the last one asked about
+  long fingerprint(GridMaze maze) {
+    synchronized (this) {
+      if (maze == this.lastMaze) {
+        return this.lastFingerprint;
+      }
+    }
+    long fingerprint = maze.fingerprint();
+    synchronized (this) {
+      this.lastMaze = maze;
+      this.lastFingerprint = fingerprint;
+    }
+    return fingerprint;
+  }
+
+  // returns the cells of the path with the given key, either cached or cut out
+  // of a cached path, or null if it has to be solved
+  // EFFECT: counts the request as a hit, a subpath hit or a miss, and marks the
+  // path answering it as the most recently used
+  synchronized int[] known(PathKey key) {
+    CompactPath cached = this.entries.get(key);
+    if (cached != null) {
+      this.hits += 1;
+      return cached.cells();
+    }
+
+    int[] subpath = this.subpath(key.getFingerprint(), key.getStart(), key.getEnd());
+    if (subpath != null) {
+      this.subpathHits += 1;
+      return subpath;
+    }
+    this.misses += 1;
+    return null;
+  }
+
+  // EFFECT: holds on to the given solved path under the given key, unless
+  // another request solved it first, and forgets the least recently used paths
+  // while over the budget
+  synchronized void publish(PathKey key, CompactPath path) {
+    if (this.entries.containsKey(key)) {
+      return;
+    }
+    this.entries.put(key, path);
+    this.bytesHeld += path.sizeInBytes();
+    ArrayList<PathKey> layout = this.layouts.get(key.getFingerprint());
+    if (layout == null) {
+      layout = new ArrayList<>();
+      this.layouts.put(key.getFingerprint(), layout);
+    }
+    layout.add(key);
+    this.evictOverBudget();
+  }
+
+  // returns the cells from the given start to the given end cut out of one of
+  // the latest cached paths of the layout with the given fingerprint, or null if
+  // none of them passes through both
+  // EFFECT: marks the path it was cut out of as the most recently used
+  synchronized int[] subpath(long fingerprint, int start, int end) {
+    ArrayList<PathKey> layout = this.layouts.get(fingerprint);
+    if (layout == null) {
+      return null;
+    }
+    int last = Math.max(0, layout.size() - SUBPATH_SCAN);
+    // looks through the latest paths of the layout, newest first
+    for (int index = layout.size() - 1; index >= last; index -= 1) {
+      CompactPath path = this.entries.get(layout.get(index));
+      int from = path.indexOf(start);
+      int to = from < 0 ? -1 : path.indexOf(end);
+      if (to >= 0) {
+        return path.slice(from, to);
+      }
+    }
+    return null;
+  }
+
+  // EFFECT: forgets the least recently used paths until the cache is within
+  // budget or only the newest is left
+  synchronized void evictOverBudget() {
+    Iterator<Map.Entry<PathKey, CompactPath>> oldest = this.entries.entrySet().iterator();
+    // INVARIANT:
+    // every step removes one entry, and the loop stops before the last one
+    while (this.bytesHeld > this.byteBudget && this.entries.size() > 1) {
+      Map.Entry<PathKey, CompactPath> entry = oldest.next();
+      this.bytesHeld -= entry.getValue().sizeInBytes();
+      oldest.remove();
+      this.forget(entry.getKey());
+      this.evictions += 1;
+    }
+  }
+
+  // EFFECT: drops the given key from the keys held for its layout
+  synchronized void forget(PathKey key) {
+    ArrayList<PathKey> layout = this.layouts.get(key.getFingerprint());
+    layout.remove(key);
+    if (layout.isEmpty()) {
+      this.layouts.remove(key.getFingerprint());
+    }
+  }
+
+  // EFFECT: forgets every path, keeping the counts
+  synchronized void clear() {
+    this.entries.clear();
+    this.layouts.clear();
+    this.bytesHeld = 0;
+  }
+
+  // returns the amount of paths held
+  synchronized int size() {
+    return this.entries.size();
+  }
+
+  // returns the amount of bytes of encoded paths held
+  synchronized long bytesHeld() {
+    return this.bytesHeld;
+  }
+
+  // returns the most bytes this cache holds on to
+  long byteBudget() {
+    return this.byteBudget;
+  }
+
+  // returns the amount of requests that found their own path
+  synchronized long hits() {
+    return this.hits;
+  }
+
+  // returns the amount of requests cut out of a longer cached path
+  synchronized long subpathHits() {
+    return this.subpathHits;
+  }
+
+  // returns the amount of requests that had to solve the maze
+  synchronized long misses() {
+    return this.misses;
+  }
+
+  // returns the amount of paths forgotten to stay within budget
+  synchronized long evictions() {
+    return this.evictions;
+  }
+
+  // returns the share of requests answered without solving, or 0 before any
+  synchronized double hitRate() {
+    long requests = this.hits + this.subpathHits + this.misses;
+    if (requests == 0) {
+      return 0;
+    }
+    return (double) (this.hits + this.subpathHits) / requests;
+  }
+}
+
+// represents the key of a cached path: the layout of its maze and its ends
+class PathKey {
+  private final long fingerprint;
+  private final int start;
+  private final int end;
+
+  // constructs the key of the path between the given ends of the given layout
+  PathKey(long fingerprint, int start, int end) {
+    this.fingerprint = fingerprint;
+    this.start = start;
+    this.end = end;
+  }
+
+  // returns the fingerprint of the layout of the maze
+  long getFingerprint() {
+    return this.fingerprint;
+  }
+
+  // returns the first cell of the path
+  int getStart() {
+    return this.start;
+  }
+
+  // returns the last cell of the path
+  int getEnd() {
+    return this.end;
+  }
+
+  // returns whether the other object is a key for the same path
+  public boolean equals(Object other) {
+    if (!(other instanceof PathKey)) {
+      return false;
+    }
+    PathKey that = (PathKey) other;
+    return this.fingerprint == that.fingerprint && this.start == that.start
+        && this.end == that.end;
+  }
+
+  // returns a hash code that agrees with equals
+  public int hashCode() {
+    return (Long.hashCode(this.fingerprint) * 31 + this.start) * 31 + this.end;
+  }
+}
+
+// represents a path through a maze as its first cell and the runs of steps it
+// takes in the same direction, so long corridors cost one int each
+// every run holds its length above its direction in its low two bits
+// 0 represents top, 1 represents right, 2 represents bottom, 3 represents left
+class CompactPath {
+  private final int width;
+  // the first cell, or -1 for a path that never reached its end
+  private final int first;
+  private final int length;
+  private final int[] runs;
+
+  // constructs the encoding of the given cells of a maze of the given width
+  CompactPath(int[] cells, int width) {
+    this.width = width;
+    this.first = cells.length == 0 ? -1 : cells[0];
+    this.length = cells.length;
+    int[] runs = new int[Math.max(cells.length - 1, 0)];
+    int count = 0;
+    // folds every step into the run before it when it goes the same way
+    for (int index = 1; index < cells.length; index += 1) {
+      int direction = this.directionOf(cells[index] - cells[index - 1]);
+      if (count > 0 && (runs[count - 1] & 3) == direction) {
+        runs[count - 1] += 4;
+      }
+      else {
+        runs[count] = 4 | direction;
+        count += 1;
+      }
+    }
+    this.runs = Arrays.copyOf(runs, count);
+  }
+
+  // returns the direction of a step between neighbors the given amount apart
+  int directionOf(int step) {
+    if (step == -this.width) {
+      return 0;
+    }
+    else if (step == 1) {
+      return 1;
+    }
+    else if (step == this.width) {
+      return 2;
+    }
+    else if (step == -1) {
+      return 3;
+    }
+    else {
+      throw new IllegalArgumentException("Every step of a path must be to a neighbor!");
+    }
+  }
+
+  // returns how far apart the cells of a step in the given direction are
+  int stepOf(int direction) {
+    if (direction == 0) {
+      return -this.width;
+    }
+    else if (direction == 1) {
+      return 1;
+    }
+    else if (direction == 2) {
+      return this.width;
+    }
+    else {
+      return -1;
+    }
+  }
+
+  // returns the amount of cells on this path
+  int length() {
+    return this.length;
+  }
+
+  // returns the amount of runs this path is stored as
+  int runCount() {
+    return this.runs.length;
+  }
+
+  // returns the cells of this path, from the first
+  int[] cells() {
+    int[] cells = new int[this.length];
+    if (this.length == 0) {
+      return cells;
+    }
+    cells[0] = this.first;
+    int position = 1;
+    // replays every run
+    for (int run : this.runs) {
+      int step = this.stepOf(run & 3);
+      // takes every step of the run
+      for (int taken = 0; taken < run >>> 2; taken += 1) {
+        cells[position] = cells[position - 1] + step;
+        position += 1;
+      }
+    }
+    return cells;
+  }
+
+  // returns how many steps along this path the given cell is, or -1 if the path
+  // does not pass through it, without decoding the cells
+  int indexOf(int cell) {
+    if (this.length == 0) {
+      return -1;
+    }
+    if (cell == this.first) {
+      return 0;
+    }
+    int at = this.first;
+    int position = 0;
+    // checks whether the cell lies on each straight run
+    for (int run : this.runs) {
+      int step = this.stepOf(run & 3);
+      int steps = run >>> 2;
+      int difference = cell - at;
+      if (difference % step == 0 && difference / step >= 1 && difference / step <= steps) {
+        return position + difference / step;
+      }
+      at += step * steps;
+      position += steps;
+    }
+    return -1;
+  }
+
+  // returns the cells of this path from the given position to the other one,
+  // walking it backwards when the other comes first
+  int[] slice(int from, int to) {
+    int[] cells = this.cells();
+    if (from <= to) {
+      return Arrays.copyOfRange(cells, from, to + 1);
+    }
+    int[] reversed = new int[from - to + 1];
+    // copies the cells from the later position back to the earlier one
+    for (int index = 0; index < reversed.length; index += 1) {
+      reversed[index] = cells[from - index];
+    }
+    return reversed;
+  }
+
+  // returns about how many bytes this path takes up, counting its header
+  long sizeInBytes() {
+    return 16 + 4L * this.runs.length;
+  }
+}
+
+// represents the solvers that can be looked up by name
+class SolverRegistry {
+  // the registry every maze solves through, with the searches registered
+  private static SolverRegistry standard;
+
+  private final LinkedHashMap<String, IMazeSolver> solvers;
+
+  // constructs an empty registry
+  SolverRegistry() {
+    this.solvers = new LinkedHashMap<String, IMazeSolver>();
+  }
+
+  // returns the registry every maze solves through, creating it on first use
+  static synchronized SolverRegistry standard() {
+    if (SolverRegistry.standard == null) {
+      SolverRegistry.standard = new SolverRegistry();
+      SolverRegistry.standard.register(new SearchSolver(true));
+      SolverRegistry.standard.register(new SearchSolver(false));
+      SolverRegistry.standard.register(new AStarSolver());
+      SolverRegistry.standard.register(new BidirectionalSolver());
+      SolverRegistry.standard.register(new JunctionSolver());
+      SolverRegistry.standard.register(new DeadEndSolver(ForkJoinPool.commonPool()));
+    }
+    return SolverRegistry.standard;
+  }
+
+  // EFFECT: registers the given solver under its name
+  synchronized void register(IMazeSolver solver) {
+    if (this.solvers.containsKey(solver.name())) {
+      throw new IllegalArgumentException("A solver named " + solver.name()
+          + " is already registered!");
+    }
+    this.solvers.put(solver.name(), solver);
+  }
+
+  // returns the solver registered under the given name
+  synchronized IMazeSolver get(String name) {
+    IMazeSolver solver = this.solvers.get(name);
+    if (solver == null) {
+      throw new IllegalArgumentException("No solver named " + name + " is registered!");
+    }
+    return solver;
+  }
+
+  // returns the names of every registered solver, in the order they were
+  // registered
+  synchronized List<String> names() {
+    return new ArrayList<String>(this.solvers.keySet());
+  }
+}
+
+// represents one run of a strategy over a shared grid maze, keeping its
+// frontier, visited cells and parents to itself so any amount of sessions can
+// run on the same maze at once, each on its own thread
+interface ISolverSession {
+  // returns the name of the strategy this session runs
+  String name();
+
+  // EFFECT: takes the next step of this session
+  // returns whether to keep going, and the amount of wrong moves the step made
+  Pair<Boolean, Integer> step();
+
+  // EFFECT: takes steps until this session stops
+  // returns the total amount of wrong moves
+  int runToCompletion();
+
+  // returns whether this session has stopped
+  boolean isFinished();
+
+  // returns whether this session got to the end of the maze
+  boolean reachedEnd();
+
+  // returns the amount of wrong moves made so far
+  int wrongMoves();
+
+  // returns the amount of steps taken so far
+  int stepsTaken();
+
+  // returns the render states of this session's run
+  MazeOverlay getOverlay();
+}
+
+// represents the bookkeeping every solver session shares: an overlay of its own
+// with the correct path labelled, like setUpMazeForSearch does, and the counts
+abstract class ASolverSession implements ISolverSession {
+  private final GridMaze maze;
+  private final MazeOverlay overlay;
+  private int wrongMoves;
+  private int steps;
+  private boolean finished;
+
+  // constructs a session at the start of the given maze
+  ASolverSession(GridMaze maze) {
+    this.maze = maze;
+    this.overlay = new MazeOverlay(maze.cellCount());
+    this.wrongMoves = 0;
+    this.steps = 0;
+    this.finished = false;
+    maze.labelCorrectPath(this.overlay);
+  }
+
+  // EFFECT: takes the next step, unless this session has already stopped
+  // returns whether to keep going, and the amount of wrong moves the step made
+  public Pair<Boolean, Integer> step() {
+    if (this.finished) {
+      return new Pair<Boolean, Integer>(false, 0);
+    }
+    Pair<Boolean, Integer> result = this.advance();
+    this.steps += 1;
+    this.wrongMoves += result.getObj2();
+    this.finished = !result.getObj1();
+    return result;
+  }
+
+  // EFFECT: takes one step of this session's strategy
+  // returns whether to keep going, and the amount of wrong moves the step made
+  abstract Pair<Boolean, Integer> advance();
+
+  // EFFECT: takes steps until this session stops
+  // returns the total amount of wrong moves
+  public int runToCompletion() {
+    // INVARIANT:
+    // every strategy stops after a finite amount of steps
+    while (!this.finished) {
+      this.step();
+    }
+    return this.wrongMoves;
+  }
+
+  // returns whether this session has stopped
+  public boolean isFinished() {
+    return this.finished;
+  }
+
+  // returns whether the end of the maze is marked as part of the solution
+  public boolean reachedEnd() {
+    return this.overlay.isSolution(this.maze.getEnd());
+  }
+
+  // returns the amount of wrong moves made so far
+  public int wrongMoves() {
+    return this.wrongMoves;
+  }
+
+  // returns the amount of steps taken so far
+  public int stepsTaken() {
+    return this.steps;
+  }
+
+  // returns the render states of this session's run
+  public MazeOverlay getOverlay() {
+    return this.overlay;
+  }
+
+  // returns the shared maze this session runs on
+  GridMaze getMaze() {
+    return this.maze;
+  }
+}
+
+// represents a breadth or depth first search session
+class SearchSession extends ASolverSession {
+  private final boolean bfs;
+  private final GridSearch search;
+
+  // constructs a search session from the start of the given maze
+  SearchSession(GridMaze maze, boolean bfs) {
+    super(maze);
+    this.bfs = bfs;
+    this.search = new GridSearch(maze, this.getOverlay(), bfs);
+  }
+
+  // returns the name of the search
+  public String name() {
+    return this.bfs ? "BFS" : "DFS";
+  }
+
+  // EFFECT: searches for the next cell
+  // returns whether to keep going, and the amount of wrong moves it made
+  Pair<Boolean, Integer> advance() {
+    return this.search.updateSearch();
+  }
+}
+
+// represents a player session that follows a script of moves, moving exactly
+// like attemptMove: a move into a wall stays put, and stepping onto a cell off
+// the correct path for the first time is a wrong move
+class ManualSession extends ASolverSession {
+  // 0 up, 1 right, 2 down, 3 left
+  private final int[] moves;
+  private int nextMove;
+  private int location;
+
+  // constructs a session with the player on the start of the given maze
+  ManualSession(GridMaze maze, int[] moves) {
+    super(maze);
+    // every move is checked up front, so a bad script fails before it runs
+    for (int move : moves) {
+      if (move < 0 || move > 3) {
+        throw new IllegalArgumentException("Direction must be between 0 and 3 inclusive!");
+      }
+    }
+    this.moves = moves;
+    this.nextMove = 0;
+    this.location = maze.getStart();
+    this.getOverlay().setPlayerIndicator(this.location, true);
+    this.getOverlay().setVisited(this.location, true);
+  }
+
+  // returns the name of the strategy
+  public String name() {
+    return "manual";
+  }
+
+  // returns the cell the player is on
+  int getLocation() {
+    return this.location;
+  }
+
+  // EFFECT: makes the next move of the script, stopping once the script runs
+  // out or the player gets to the end
+  // returns whether to keep going, and whether the move was a wrong move
+  Pair<Boolean, Integer> advance() {
+    if (this.nextMove >= this.moves.length) {
+      return new Pair<Boolean, Integer>(false, 0);
+    }
+
+    int direction = this.moves[this.nextMove];
+    this.nextMove += 1;
+    MazeOverlay overlay = this.getOverlay();
+    GridMaze maze = this.getMaze();
+
+    overlay.setPlayerIndicator(this.location, false);
+    if (maze.canMove(this.location, direction)) {
+      this.location = maze.neighbor(this.location, direction);
+    }
+
+    int wrongMoveCount = overlay.uniqueIncorrectMove(this.location) ? 1 : 0;
+    overlay.setPlayerIndicator(this.location, true);
+    overlay.setVisited(this.location, true);
+
+    if (this.location == maze.getEnd()) {
+      // draws the correct path back from the end as the solution
+      for (int cell = 0; cell < maze.cellCount(); cell += 1) {
+        if (overlay.isCorrectPath(cell)) {
+          overlay.setSolution(cell, true);
+        }
+      }
+      return new Pair<Boolean, Integer>(false, wrongMoveCount);
+    }
+    return new Pair<Boolean, Integer>(this.nextMove < this.moves.length, wrongMoveCount);
+  }
+}
+
+// runs solver sessions to completion on an executor, every session on its own
+// task
+class SessionRunner {
+  private final ExecutorService executor;
+
+  // constructs a runner submitting to the given executor
+  SessionRunner(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  // EFFECT: runs every session to completion, in parallel
+  // returns the wrong moves of every session, in the same order
+  int[] runAll(List<ISolverSession> sessions) {
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    // wraps every session in a task
+    for (ISolverSession session : sessions) {
+      tasks.add(new SessionTask(session));
+    }
+
+    try {
+      List<Future<Integer>> futures = this.executor.invokeAll(tasks);
+      int[] wrongMoves = new int[futures.size()];
+      // collects the wrong moves of every session
+      for (int index = 0; index < futures.size(); index += 1) {
+        wrongMoves[index] = futures.get(index).get();
+      }
+      return wrongMoves;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while running solver sessions!", e);
+    }
+    catch (ExecutionException e) {
+      throw new RuntimeException("A solver session failed!", e.getCause());
+    }
+  }
+}
+
+// runs one solver session to completion
+class SessionTask implements Callable<Integer> {
+  private final ISolverSession session;
+
+  // constructs a task for the given session
+  SessionTask(ISolverSession session) {
+    this.session = session;
+  }
+
+  // EFFECT: runs the session to completion
+  // returns its total amount of wrong moves
+  public Integer call() {
+    return this.session.runToCompletion();
+  }
+}
+
+// reads and writes grid mazes in a versioned binary format, so a maze can be
+// kept and shared instead of generated again from its seed
+//
+// the file is a header of ten little endian ints: magic, version, width, height,
+// seed, bias mode, flags (bit 0 set when the walls came from java.util.Random),
+// start, end and padding, followed by the right walls and then the bottom walls
+// of every cell as little endian longs, bit i of a bitset at bit i % 64 of its
+// word i / 64, which is 2 bits per cell with no parsing needed to load them
+class MazeFile {
+  static final int MAGIC = 0x4D415A45;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 40;
+
+  // EFFECT: writes the given maze to the file at the given path, replacing
+  // whatever it held
+  void save(GridMaze maze, Path path) {
+    long size = this.fileSize(maze.cellCount());
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(MazeFile.MAGIC);
+      buffer.putInt(MazeFile.VERSION);
+      buffer.putInt(maze.getWidth());
+      buffer.putInt(maze.getHeight());
+      buffer.putInt(maze.getSeed());
+      buffer.putInt(maze.getBiasMode());
+      buffer.putInt(maze.usesLegacyRandom() ? 1 : 0);
+      buffer.putInt(maze.getStart());
+      buffer.putInt(maze.getEnd());
+      buffer.putInt(0);
+
+      int words = this.wordCount(maze.cellCount());
+      LongBuffer walls = this.words(buffer);
+      // the mapped file starts out zeroed, so the trailing words a bitset leaves
+      // off stay clear
+      walls.put(maze.rightWallWords());
+      walls.position(words);
+      walls.put(maze.bottomWallWords());
+      buffer.force();
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not write the maze file " + path + "!", e);
+    }
+  }
+
+  // returns the maze stored in the file at the given path, copying the wall
+  // words straight out of the mapped file
+  GridMaze load(Path path) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < MazeFile.HEADER_BYTES) {
+        throw new IllegalArgumentException("Not a maze file!");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      if (buffer.getInt() != MazeFile.MAGIC) {
+        throw new IllegalArgumentException("Not a maze file!");
+      }
+      int version = buffer.getInt();
+      if (version != MazeFile.VERSION) {
+        throw new IllegalArgumentException("Unsupported maze file version " + version + "!");
+      }
+      int width = buffer.getInt();
+      int height = buffer.getInt();
+      int seed = buffer.getInt();
+      int biasMode = buffer.getInt();
+      boolean legacyRandom = (buffer.getInt() & 1) != 0;
+      int start = buffer.getInt();
+      int end = buffer.getInt();
+      buffer.getInt();
+
+      if (width < 2 || height < 2 || (long) width * height > Integer.MAX_VALUE
+          || size != this.fileSize(width * height)) {
+        throw new IllegalArgumentException("Maze file does not match its header!");
+      }
+
+      int words = this.wordCount(width * height);
+      LongBuffer walls = this.words(buffer);
+      walls.limit(words);
+      BitSet rightWalls = BitSet.valueOf(walls);
+      walls.limit(2 * words).position(words);
+      BitSet bottomWalls = BitSet.valueOf(walls);
+      return new GridMaze(width, height, seed, biasMode, legacyRandom, start, end, rightWalls,
+          bottomWalls);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not read the maze file " + path + "!", e);
+    }
+  }
+
+  // returns the words of the given mapped file after the header
+  LongBuffer words(MappedByteBuffer buffer) {
+    buffer.position(MazeFile.HEADER_BYTES);
+    return buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+  }
+
+  // returns the amount of longs one wall bitset of the given amount of cells
+  // takes
+  int wordCount(int cells) {
+    return (cells + 63) / 64;
+  }
+
+  // returns the size of the file holding a maze of the given amount of cells
+  long fileSize(int cells) {
+    return MazeFile.HEADER_BYTES + 16L * this.wordCount(cells);
+  }
+}
+
+// encodes the walls of a grid maze into a stream of 2 bits per cell and back:
+// cell c's right wall at bit 2 * (c % 32) and its bottom wall at the bit after
+// it, in little endian long c / 32
+// keeping both walls of a cell in the same byte is what lets huffman codes over
+// the bytes pick up the bias of biased mazes, which separate bitsets or run
+// lengths of single walls compress worse, as their runs are short
+class WallCodec {
+
+  // returns the walls of the given maze, encoded
+  byte[] encode(GridMaze maze) {
+    int cells = maze.cellCount();
+    long[] right = maze.rightWallWords();
+    long[] bottom = maze.bottomWallWords();
+    byte[] bytes = new byte[this.encodedLength(cells)];
+    LongBuffer out = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    // interleaves every half word of both walls, 32 cells at a time
+    for (int half = 0; half < bytes.length / 8; half += 1) {
+      int shift = 32 * (half % 2);
+      long rightHalf = this.wordAt(right, half / 2) >>> shift;
+      long bottomHalf = this.wordAt(bottom, half / 2) >>> shift;
+      long word = this.spread(rightHalf) | (this.spread(bottomHalf) << 1);
+      // the walls of cells past the end of the maze are never stored
+      if (32L * half + 32 > cells) {
+        word &= (1L << (2 * (cells - 32 * half))) - 1;
+      }
+      out.put(word);
+    }
+    return bytes;
+  }
+
+  // returns the maze the given encoded walls belong to
+  GridMaze decode(byte[] bytes, int width, int height, int seed, int biasMode,
+      boolean legacyRandom, int start, int end) {
+    int cells = width * height;
+    if (bytes.length != this.encodedLength(cells)) {
+      throw new IllegalArgumentException("Corrupt maze archive entry!");
+    }
+    long[] right = new long[(cells + 63) / 64];
+    long[] bottom = new long[right.length];
+    LongBuffer in = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    // splits every word back into both walls, 32 cells at a time
+    for (int half = 0; half < bytes.length / 8; half += 1) {
+      long word = in.get();
+      int shift = 32 * (half % 2);
+      right[half / 2] |= this.compact(word) << shift;
+      bottom[half / 2] |= this.compact(word >>> 1) << shift;
+    }
+    return new GridMaze(width, height, seed, biasMode, legacyRandom, start, end,
+        BitSet.valueOf(right), BitSet.valueOf(bottom));
+  }
+
+  // returns the amount of bytes the walls of the given amount of cells take
+  int encodedLength(int cells) {
+    return 8 * ((cells + 31) / 32);
+  }
+
+  // returns the word at the given index, or no walls past the end of the words
+  long wordAt(long[] words, int index) {
+    return index < words.length ? words[index] : 0;
+  }
+
+  // returns the low 32 bits of the given value moved to the even bits
+  long spread(long value) {
+    long bits = value & 0xFFFFFFFFL;
+    bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+    bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+    bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+    bits = (bits | (bits << 2)) & 0x3333333333333333L;
+    return (bits | (bits << 1)) & 0x5555555555555555L;
+  }
+
+  // returns the even bits of the given value moved to the low 32 bits
+  long compact(long value) {
+    long bits = value & 0x5555555555555555L;
+    bits = (bits | (bits >>> 1)) & 0x3333333333333333L;
+    bits = (bits | (bits >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+    bits = (bits | (bits >>> 4)) & 0x00FF00FF00FF00FFL;
+    bits = (bits | (bits >>> 8)) & 0x0000FFFF0000FFFFL;
+    return (bits | (bits >>> 16)) & 0xFFFFFFFFL;
+  }
+}
+
+// represents where a maze is in an archive, and the settings it was built with
+class ArchiveEntry {
+  static final int BYTES = 44;
+
+  private final int width;
+  private final int height;
+  private final int seed;
+  private final int biasMode;
+  private final boolean legacyRandom;
+  private final int start;
+  private final int end;
+  private final long offset;
+  private final int compressedLength;
+  private final int rawLength;
+
+  // constructs the entry of a maze stored at the given offset
+  ArchiveEntry(int width, int height, int seed, int biasMode, boolean legacyRandom, int start,
+      int end, long offset, int compressedLength, int rawLength) {
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.biasMode = biasMode;
+    this.legacyRandom = legacyRandom;
+    this.start = start;
+    this.end = end;
+    this.offset = offset;
+    this.compressedLength = compressedLength;
+    this.rawLength = rawLength;
+  }
+
+  // returns the key the maze of this entry is found by, which tells apart mazes
+  // of the same size, seed and bias mode drawn from another kind of random or
+  // between other ends
+  MazeKey key() {
+    return new MazeKey(this.width, this.height, this.seed, this.biasMode, this.legacyRandom,
+        this.start, this.end);
+  }
+
+  // EFFECT: writes this entry to the given index
+  void writeTo(DataOutputStream out) throws IOException {
+    out.writeInt(this.width);
+    out.writeInt(this.height);
+    out.writeInt(this.seed);
+    out.writeInt(this.biasMode);
+    out.writeInt(this.legacyRandom ? 1 : 0);
+    out.writeInt(this.start);
+    out.writeInt(this.end);
+    out.writeLong(this.offset);
+    out.writeInt(this.compressedLength);
+    out.writeInt(this.rawLength);
+  }
+
+  // EFFECT: reads the next entry of the given index, moving past it
+  // returns the entry
+  static ArchiveEntry readFrom(ByteBuffer index) {
+    return new ArchiveEntry(index.getInt(), index.getInt(), index.getInt(), index.getInt(),
+        (index.getInt() & 1) != 0, index.getInt(), index.getInt(), index.getLong(),
+        index.getInt(), index.getInt());
+  }
+
+  // returns the offset of the compressed walls in the archive
+  long getOffset() {
+    return this.offset;
+  }
+
+  // returns the amount of compressed bytes
+  int getCompressedLength() {
+    return this.compressedLength;
+  }
+
+  // returns the amount of bytes the walls take once inflated
+  int getRawLength() {
+    return this.rawLength;
+  }
+
+  // returns the maze the given inflated walls belong to
+  GridMaze decode(WallCodec codec, byte[] raw) {
+    return codec.decode(raw, this.width, this.height, this.seed, this.biasMode,
+        this.legacyRandom, this.start, this.end);
+  }
+}
+
+// writes many mazes into one archive, each maze's encoded walls deflated on
+// their own so any of them can be read back without the others
+// the deflater only huffman codes, as looking for matches shrinks the walls no
+// further and makes inflating them slower
+//
+// the archive is big endian: the magic and version ints, the deflated walls of
+// every maze one after another, an index of ArchiveEntry.BYTES bytes per maze
+// preceded by its amount, and finally the offset of the index as a long and the
+// magic again, so a reader finds the index from the end of the file
+class MazeArchiveWriter {
+  static final int MAGIC = 0x4D5A4152;
+  static final int VERSION = 1;
+
+  private final Path path;
+  private final DataOutputStream out;
+  private final WallCodec codec;
+  private final Deflater deflater;
+  private final byte[] buffer;
+  private final LinkedHashMap<MazeKey, ArchiveEntry> entries;
+  // cannot be final as the offset grows with every maze
+  private long offset;
+
+  // constructs a writer creating the archive at the given path, replacing
+  // whatever it held
+  MazeArchiveWriter(Path path) {
+    this.path = path;
+    try {
+      this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path),
+          1 << 16));
+      this.out.writeInt(MazeArchiveWriter.MAGIC);
+      this.out.writeInt(MazeArchiveWriter.VERSION);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not write the maze archive " + path + "!", e);
+    }
+    this.codec = new WallCodec();
+    this.deflater = new Deflater();
+    this.deflater.setStrategy(Deflater.HUFFMAN_ONLY);
+    this.buffer = new byte[1 << 16];
+    this.entries = new LinkedHashMap<MazeKey, ArchiveEntry>();
+    this.offset = 8;
+  }
+
+  // EFFECT: adds the given maze to the end of the archive
+  void add(GridMaze maze) {
+    MazeKey key = new MazeKey(maze.getWidth(), maze.getHeight(), maze.getSeed(),
+        maze.getBiasMode(), maze.usesLegacyRandom(), maze.getStart(), maze.getEnd());
+    if (this.entries.containsKey(key)) {
+      throw new IllegalArgumentException("The archive already holds that maze!");
+    }
+
+    byte[] raw = this.codec.encode(maze);
+    long start = this.offset;
+    this.deflater.reset();
+    this.deflater.setInput(raw);
+    this.deflater.finish();
+    try {
+      // INVARIANT:
+      // every pass writes the next deflated bytes of the finite input
+      while (!this.deflater.finished()) {
+        int length = this.deflater.deflate(this.buffer);
+        this.out.write(this.buffer, 0, length);
+        this.offset += length;
+      }
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not write the maze archive " + this.path + "!", e);
+    }
+
+    this.entries.put(key, new ArchiveEntry(maze.getWidth(), maze.getHeight(), maze.getSeed(),
+        maze.getBiasMode(), maze.usesLegacyRandom(), maze.getStart(), maze.getEnd(), start,
+        (int) (this.offset - start), raw.length));
+  }
+
+  // returns the amount of mazes added so far
+  int size() {
+    return this.entries.size();
+  }
+
+  // returns the amount of bytes written so far, without the index
+  long bytesWritten() {
+    return this.offset;
+  }
+
+  // EFFECT: writes the index and closes the archive
+  void close() {
+    try {
+      this.out.writeInt(this.entries.size());
+      // writes the entry of every maze in the order they were added
+      for (ArchiveEntry entry : this.entries.values()) {
+        entry.writeTo(this.out);
+      }
+      this.out.writeLong(this.offset);
+      this.out.writeInt(MazeArchiveWriter.MAGIC);
+      this.out.close();
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not write the maze archive " + this.path + "!", e);
+    }
+    finally {
+      this.deflater.end();
+    }
+  }
+}
+
+// reads mazes out of an archive by the settings they were built with, only
+// reading the index and the one maze asked for
+class MazeArchive {
+  private final Path path;
+  private final FileChannel channel;
+  private final WallCodec codec;
+  private final Inflater inflater;
+  private final LinkedHashMap<MazeKey, ArchiveEntry> entries;
+
+  // constructs a reader of the archive at the given path, reading its index
+  MazeArchive(Path path) {
+    this.path = path;
+    this.codec = new WallCodec();
+    this.inflater = new Inflater();
+    this.entries = new LinkedHashMap<MazeKey, ArchiveEntry>();
+    try {
+      this.channel = FileChannel.open(path, StandardOpenOption.READ);
+      this.readIndex();
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not read the maze archive " + path + "!", e);
+    }
+  }
+
+  // EFFECT: reads the index at the end of the archive into the entries
+  void readIndex() throws IOException {
+    long size = this.channel.size();
+    if (size < 24) {
+      throw new IllegalArgumentException("Not a maze archive!");
+    }
+    ByteBuffer header = this.read(0, 8);
+    ByteBuffer trailer = this.read(size - 12, 12);
+    long indexOffset = trailer.getLong();
+    if (header.getInt() != MazeArchiveWriter.MAGIC || trailer.getInt() != MazeArchiveWriter.MAGIC) {
+      throw new IllegalArgumentException("Not a maze archive!");
+    }
+    int version = header.getInt();
+    if (version != MazeArchiveWriter.VERSION) {
+      throw new IllegalArgumentException("Unsupported maze archive version " + version + "!");
+    }
+    if (indexOffset < 8 || indexOffset > size - 16) {
+      throw new IllegalArgumentException("Corrupt maze archive index!");
+    }
+
+    int count = this.read(indexOffset, 4).getInt();
+    if (count < 0 || 4 + (long) count * ArchiveEntry.BYTES != size - 12 - indexOffset) {
+      throw new IllegalArgumentException("Corrupt maze archive index!");
+    }
+    ByteBuffer index = this.read(indexOffset + 4, count * ArchiveEntry.BYTES);
+    // reads every entry of the index
+    for (int entry = 0; entry < count; entry += 1) {
+      ArchiveEntry next = ArchiveEntry.readFrom(index);
+      this.entries.put(next.key(), next);
+    }
+  }
+
+  // EFFECT: reads the given amount of bytes at the given offset of the archive
+  // returns a buffer over them
+  ByteBuffer read(long offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    // INVARIANT:
+    // every pass reads more of the finite length, and the end of the file stops
+    while (buffer.hasRemaining()) {
+      if (this.channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new IllegalArgumentException("Corrupt maze archive index!");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  // returns the amount of mazes in the archive
+  int size() {
+    return this.entries.size();
+  }
+
+  // returns whether the archive holds the maze of the given size, seed and bias
+  // drawn from java.util.Random, from the top left to the bottom right
+  boolean contains(int width, int height, int seed, int biasMode) {
+    return this.contains(width, height, seed, biasMode, true, 0, width * height - 1);
+  }
+
+  // returns whether the archive holds the maze of the given size, seed and bias
+  // drawn from the given kind of random, between the given ends
+  boolean contains(int width, int height, int seed, int biasMode, boolean legacyRandom,
+      int start, int end) {
+    return this.entries.containsKey(new MazeKey(width, height, seed, biasMode, legacyRandom,
+        start, end));
+  }
+
+  // returns the maze of the given size, seed and bias mode drawn from
+  // java.util.Random, from the top left to the bottom right
+  GridMaze get(int width, int height, int seed, int biasMode) {
+    return this.get(width, height, seed, biasMode, true, 0, width * height - 1);
+  }
+
+  // returns the maze of the given size, seed and bias mode drawn from the given
+  // kind of random, between the given ends
+  GridMaze get(int width, int height, int seed, int biasMode, boolean legacyRandom, int start,
+      int end) {
+    ArchiveEntry entry = this.entries.get(new MazeKey(width, height, seed, biasMode,
+        legacyRandom, start, end));
+    if (entry == null) {
+      throw new IllegalArgumentException("The archive has no such maze!");
+    }
+
+    byte[] raw = new byte[entry.getRawLength()];
+    try {
+      ByteBuffer compressed = this.read(entry.getOffset(), entry.getCompressedLength());
+      this.inflater.reset();
+      this.inflater.setInput(compressed.array());
+      if (this.inflater.inflate(raw) != raw.length || !this.inflater.finished()) {
+        throw new IllegalArgumentException("Corrupt maze archive entry!");
+      }
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not read the maze archive " + this.path + "!", e);
+    }
+    catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupt maze archive entry!", e);
+    }
+    return entry.decode(this.codec, raw);
+  }
+
+  // EFFECT: closes the archive
+  void close() {
+    this.inflater.end();
+    try {
+      this.channel.close();
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not close the maze archive " + this.path + "!", e);
+    }
+  }
+}
+
+// represents a random whose doubles are a pure function of the seed and how
+// many values came before, so the i-th double can be computed on demand, in any
+// order and on any thread
+// the doubles are the same as the ones SplittableRandom(seed) makes, and take
+// one counter step each
+// every other kind of value comes from Random building it out of next(int),
+// which takes one counter step per call, so a value may take more than one:
+// nextLong takes two, nextInt(bound) takes another on every rejected draw, and
+// nextGaussian takes at least two for every pair it makes
+class CounterRandom extends Random {
+  private static final long serialVersionUID = 1L;
+
+  // these are set by setSeed, which Random's constructor calls
+  private long base;
+  private long counter;
+
+  // constructs a counter random starting at the first value of the given seed
+  CounterRandom(long seed) {
+    super(seed);
+  }
+
+  // EFFECT: starts this random over from the first value of the given seed
+  public void setSeed(long seed) {
+    this.base = seed;
+    this.counter = 0;
+  }
+
+  // returns how many values this random has drawn
+  long position() {
+    return this.counter;
+  }
+
+  // EFFECT: moves this random past the given amount of values
+  void skip(long amount) {
+    this.counter += amount;
+  }
+
+  // returns the mixed bits of the given value of this random's stream
+  long bitsAt(long index) {
+    long z = this.base + (index + 1) * 0x9e3779b97f4a7c15L;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  // returns the double at the given position, between 0 inclusive and 1
+  // exclusive, without moving this random
+  double weightAt(long index) {
+    return (this.bitsAt(index) >>> 11) * 0x1.0p-53;
+  }
+
+  // returns the next double
+  // EFFECT: moves this random one value forward
+  public double nextDouble() {
+    double weight = this.weightAt(this.counter);
+    this.counter += 1;
+    return weight;
+  }
+
+  // returns the given amount of the top bits of the next value
+  // EFFECT: moves this random one value forward
+  protected int next(int bits) {
+    int result = (int) (this.bitsAt(this.counter) >>> (64 - bits));
+    this.counter += 1;
+    return result;
+  }
+}
+
+// draws the weights of a range of rows from a counter random
+class WeightRowAction implements IRangeAction {
+  private final KruskalGenerator generator;
+  private final int width;
+  private final int height;
+  private final long firstCounter;
+  private final CounterRandom random;
+  private final int biasMode;
+  private final int[] edges;
+  private final long[] keys;
+
+  // constructs an action filling the given arrays with the weights drawn from
+  // the random at the given first counter
+  WeightRowAction(KruskalGenerator generator, int width, int height, long firstCounter,
+      CounterRandom random, int biasMode, int[] edges, long[] keys) {
+    this.generator = generator;
+    this.width = width;
+    this.height = height;
+    this.firstCounter = firstCounter;
+    this.random = random;
+    this.biasMode = biasMode;
+    this.edges = edges;
+    this.keys = keys;
+  }
+
+  // EFFECT: draws every row from start (inclusive) to end (exclusive)
+  public void apply(int start, int end) {
+    // draws every row in the range
+    for (int rowIndex = start; rowIndex < end; rowIndex += 1) {
+      this.generator.drawRow(this.width, this.height, this.firstCounter, this.random,
+          this.biasMode, this.edges, this.keys, rowIndex);
+    }
+  }
+}
+
+// represents an action over a range of ints that can be split across threads
+interface IRangeAction {
+  // EFFECT: performs this action for every int from start (inclusive) to end
+  // (exclusive)
+  void apply(int start, int end);
+}
+
+// runs an action over a range of ints on a fork/join pool, splitting the range
+// in halves until the pieces are no longer than the grain
+class ParallelRange extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  private final IRangeAction action;
+  private final int start;
+  private final int end;
+  private final int grain;
+
+  // constructs a task running the action from start (inclusive) to end
+  // (exclusive)
+  ParallelRange(IRangeAction action, int start, int end, int grain) {
+    this.action = action;
+    this.start = start;
+    this.end = end;
+    this.grain = Math.max(grain, 1);
+  }
+
+  // EFFECT: runs the action directly if the range is small enough, otherwise runs
+  // each half as its own task
+  protected void compute() {
+    if (this.end - this.start <= this.grain) {
+      this.action.apply(this.start, this.end);
+    }
+    else {
+      int middle = (this.start + this.end) >>> 1;
+      invokeAll(new ParallelRange(this.action, this.start, middle, this.grain),
+          new ParallelRange(this.action, middle, this.end, this.grain));
+    }
+  }
+}
+
+// generates the same spanning tree as KruskalGenerator with filter-Kruskal:
+// edges are partitioned around a pivot weight, the light half is solved first,
+// then the heavy half is filtered in parallel against the union find so edges
+// inside a tree are dropped before they are ever sorted
+// ties are broken by edge id, so the tree and the order its edges are added in
+// are identical to the sequential Kruskal
+// a generator runs one generation at a time
+class FilterKruskalGenerator implements IMazeGenerator {
+  private final ForkJoinPool pool;
+  // ranges at most this long are sorted and run through kruskal directly
+  private final int baseCase;
+
+  // state of the generation in progress
+  private int width;
+  private int[] edges;
+  private long[] keys;
+  private int[] scratchEdges;
+  private long[] scratchKeys;
+  private UnionFind representatives;
+  private int[] tree;
+  private int treeSize;
+
+  // state of the partition or filter pass in progress
+  private boolean filtering;
+  private int passStart;
+  private int passEnd;
+  private int chunkSize;
+  private long pivotKey;
+  private int pivotEdge;
+  private int[] keptCounts;
+  private int[] keptOffsets;
+  private int[] droppedOffsets;
+
+  // convenience constructor with a base case of 2^16 edges
+  FilterKruskalGenerator(ForkJoinPool pool) {
+    this(pool, 1 << 16);
+  }
+
+  // constructs a generator that runs on the given pool
+  FilterKruskalGenerator(ForkJoinPool pool, int baseCase) {
+    if (baseCase < 1) {
+      throw new IllegalArgumentException("Base case must be at least 1 edge!");
+    }
+    this.pool = pool;
+    this.baseCase = baseCase;
+  }
+
+  // returns the name of this generator
+  public String name() {
+    return "filter-Kruskal";
+  }
+
+  // returns the edge ids of the spanning tree, in the order Kruskal adds them
+  public int[] spanningTree(int width, int height, Random random, int biasMode) {
+    KruskalGenerator weights = new KruskalGenerator();
+    int[] edges = new int[weights.edgeCount(width, height)];
+    long[] keys = new long[edges.length];
+    weights.drawWeights(width, height, random, biasMode, edges, keys);
+
+    return this.solve(width, height, edges, keys);
+  }
+
+  // returns the same tree as drawing from the counter random in order, drawing
+  // the weights in parallel on this generator's pool
+  public int[] spanningTree(int width, int height, CounterRandom random, int biasMode) {
+    KruskalGenerator weights = new KruskalGenerator();
+    int[] edges = new int[weights.edgeCount(width, height)];
+    long[] keys = new long[edges.length];
+    weights.drawWeights(width, height, random, biasMode, edges, keys, this.pool);
+
+    return this.solve(width, height, edges, keys);
+  }
+
+  // returns the edge ids of the spanning tree over the given edges, in ascending
+  // id order, and their weight keys, in the order Kruskal adds them
+  int[] solve(int width, int height, int[] edges, long[] keys) {
+    this.width = width;
+    this.edges = edges;
+    this.keys = keys;
+
+    this.scratchEdges = new int[this.edges.length];
+    this.scratchKeys = new long[this.edges.length];
+    this.representatives = new UnionFind(width * height);
+    this.tree = new int[width * height - 1];
+    this.treeSize = 0;
+
+    this.filterKruskal(0, this.edges.length);
+
+    int[] result = this.tree;
+    // lets go of the working arrays
+    this.edges = null;
+    this.keys = null;
+    this.scratchEdges = null;
+    this.scratchKeys = null;
+    this.representatives = null;
+    this.tree = null;
+    return result;
+  }
+
+  // EFFECT: adds the tree edges among the edges from start (inclusive) to end
+  // (exclusive), which are in ascending id order, to the tree in ascending
+  // weight order
+  void filterKruskal(int start, int end) {
+    if (this.treeSize == this.tree.length || start >= end) {
+      return;
+    }
+    if (end - start <= this.baseCase) {
+      this.kruskal(start, end);
+      return;
+    }
+
+    this.choosePivot(start, end);
+    int middle = this.runPass(false, start, end);
+
+    if (middle == end) {
+      // every edge is as light as the pivot, splitting does not shrink anything
+      this.kruskal(start, end);
+      return;
+    }
+
+    this.filterKruskal(start, middle);
+    this.filterKruskal(middle, this.runPass(true, middle, end));
+  }
+
+  // EFFECT: sorts the edges from start (inclusive) to end (exclusive) by weight
+  // and adds the ones joining separate trees to the tree
+  void kruskal(int start, int end) {
+    int[] positions = new EdgeOrder().sortedPositions(Arrays.copyOfRange(this.keys, start, end));
+
+    // INVARIANT:
+    // the cursor only moves forward through a finite array
+    for (int cursor = 0; cursor < positions.length
+        && this.treeSize < this.tree.length; cursor += 1) {
+      int edge = this.edges[start + positions[cursor]];
+      if (this.representatives.union(edge / 2, this.otherCell(edge))) {
+        this.tree[this.treeSize] = edge;
+        this.treeSize += 1;
+      }
+    }
+  }
+
+  // EFFECT: sets the pivot to the median of an evenly spaced sample of the edges
+  // from start (inclusive) to end (exclusive)
+  void choosePivot(int start, int end) {
+    int sampleSize = 31;
+    int[] sample = new int[sampleSize];
+    // takes evenly spaced positions
+    for (int index = 0; index < sampleSize; index += 1) {
+      sample[index] = start + (int) ((long) (end - start - 1) * index / (sampleSize - 1));
+    }
+
+    // insertion sorts the sample by weight, then id
+    for (int index = 1; index < sampleSize; index += 1) {
+      int position = sample[index];
+      int slot = index - 1;
+      while (slot >= 0 && this.isHeavier(sample[slot], this.keys[position], this.edges[position])) {
+        sample[slot + 1] = sample[slot];
+        slot -= 1;
+      }
+      sample[slot + 1] = position;
+    }
+
+    this.pivotKey = this.keys[sample[sampleSize / 2]];
+    this.pivotEdge = this.edges[sample[sampleSize / 2]];
+  }
+
+  // returns whether the edge at the given position is heavier than the given
+  // key and edge id
+  boolean isHeavier(int position, long key, int edge) {
+    int compare = Long.compareUnsigned(this.keys[position], key);
+    return compare > 0 || (compare == 0 && this.edges[position] > edge);
+  }
+
+  // returns whether the edge at the given position is kept by the pass in
+  // progress: light edges when partitioning, edges between trees when filtering
+  boolean isKept(int position) {
+    if (this.filtering) {
+      int edge = this.edges[position];
+      return this.representatives.findWithoutCompression(edge / 2) != this.representatives
+          .findWithoutCompression(this.otherCell(edge));
+    }
+    else {
+      return !this.isHeavier(position, this.pivotKey, this.pivotEdge);
+    }
+  }
+
+  // returns the cell on the other side of the given edge from edge / 2
+  int otherCell(int edge) {
+    return edge % 2 == 0 ? edge / 2 + 1 : edge / 2 + this.width;
+  }
+
+  // EFFECT: stably moves the kept edges from start (inclusive) to end
+  // (exclusive) in front of the dropped ones, in parallel, dropping the dropped
+  // ones entirely when filtering
+  // returns the end of the kept edges
+  int runPass(boolean filtering, int start, int end) {
+    int chunks = Math.max(1, Math.min(this.pool.getParallelism() * 4, (end - start) / 4096));
+    this.filtering = filtering;
+    this.passStart = start;
+    this.passEnd = end;
+    this.chunkSize = (end - start + chunks - 1) / chunks;
+    chunks = (end - start + this.chunkSize - 1) / this.chunkSize;
+    this.keptCounts = new int[chunks];
+    this.keptOffsets = new int[chunks];
+    this.droppedOffsets = new int[chunks];
+
+    this.pool.invoke(new ParallelRange(new ChunkAction(this, false), 0, chunks, 1));
+
+    // turns the counts into the offsets each chunk scatters to
+    int kept = 0;
+    for (int chunk = 0; chunk < chunks; chunk += 1) {
+      this.keptOffsets[chunk] = start + kept;
+      kept += this.keptCounts[chunk];
+    }
+    int dropped = start + kept;
+    for (int chunk = 0; chunk < chunks; chunk += 1) {
+      this.droppedOffsets[chunk] = dropped;
+      dropped += Math.min(this.chunkSize, end - start - chunk * this.chunkSize)
+          - this.keptCounts[chunk];
+    }
+
+    this.pool.invoke(new ParallelRange(new ChunkAction(this, true), 0, chunks, 1));
+
+    int copyEnd = filtering ? start + kept : end;
+    System.arraycopy(this.scratchEdges, start, this.edges, start, copyEnd - start);
+    System.arraycopy(this.scratchKeys, start, this.keys, start, copyEnd - start);
+    return start + kept;
+  }
+
+  // EFFECT: counts the kept edges of the given chunk of the pass in progress
+  void countChunk(int chunk) {
+    int chunkStart = this.passStart + chunk * this.chunkSize;
+    int chunkEnd = Math.min(chunkStart + this.chunkSize, this.passEnd);
+    int count = 0;
+    // counts every kept edge in the chunk
+    for (int position = chunkStart; position < chunkEnd; position += 1) {
+      if (this.isKept(position)) {
+        count += 1;
+      }
+    }
+    this.keptCounts[chunk] = count;
+  }
+
+  // EFFECT: copies the edges of the given chunk of the pass in progress to their
+  // kept or dropped slots in the scratch arrays
+  void scatterChunk(int chunk) {
+    int chunkStart = this.passStart + chunk * this.chunkSize;
+    int chunkEnd = Math.min(chunkStart + this.chunkSize, this.passEnd);
+    int kept = this.keptOffsets[chunk];
+    int dropped = this.droppedOffsets[chunk];
+    // copies every edge in the chunk, in order
+    for (int position = chunkStart; position < chunkEnd; position += 1) {
+      if (this.isKept(position)) {
+        this.scratchEdges[kept] = this.edges[position];
+        this.scratchKeys[kept] = this.keys[position];
+        kept += 1;
+      }
+      else if (!this.filtering) {
+        this.scratchEdges[dropped] = this.edges[position];
+        this.scratchKeys[dropped] = this.keys[position];
+        dropped += 1;
+      }
+    }
+  }
+}
+
+// counts or scatters a range of chunks of a filter-Kruskal pass
+class ChunkAction implements IRangeAction {
+  private final FilterKruskalGenerator generator;
+  private final boolean scatter;
+
+  // constructs an action that counts, or scatters, the chunks it is given
+  ChunkAction(FilterKruskalGenerator generator, boolean scatter) {
+    this.generator = generator;
+    this.scatter = scatter;
+  }
+
+  // EFFECT: counts or scatters every chunk from start (inclusive) to end
+  // (exclusive)
+  public void apply(int start, int end) {
+    // handles every chunk in the range
+    for (int chunk = start; chunk < end; chunk += 1) {
+      if (this.scatter) {
+        this.generator.scatterChunk(chunk);
+      }
+      else {
+        this.generator.countChunk(chunk);
+      }
+    }
+  }
+}
+
+// generates the same minimum spanning tree as kruskal with Boruvka's
+// algorithm: every round finds the lightest edge out of every component in
+// parallel, then contracts along those edges, so at most log2(V) rounds run
+// edges are ordered by weight key and then by position, which is a strict total
+// order, so the tree is unique and matches kruskal's exactly
+// a generator runs one generation at a time
+class BoruvkaGenerator implements IMazeGenerator {
+  private final ForkJoinPool pool;
+
+  // state of the generation in progress
+  private int[] node1;
+  private int[] node2;
+  private long[] keys;
+  // the positions of the edges that may still join components, each chunk
+  // keeps its live positions at its front
+  private int[] live;
+  private int[] liveCounts;
+  private int chunkSize;
+  // the component of every cell, as of the start of the round
+  private int[] components;
+  // the lightest edge position out of every component, or -1
+  private AtomicIntegerArray lightest;
+  private UnionFind representatives;
+
+  // constructs a generator that runs on the given pool
+  BoruvkaGenerator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  // returns the name of this generator
+  public String name() {
+    return "Boruvka";
+  }
+
+  // returns the edge ids of the spanning tree of the seeded grid, in the order
+  // Kruskal adds them
+  public int[] spanningTree(int width, int height, Random random, int biasMode) {
+    KruskalGenerator weights = new KruskalGenerator();
+    int[] edges = new int[weights.edgeCount(width, height)];
+    long[] edgeKeys = new long[edges.length];
+    weights.drawWeights(width, height, random, biasMode, edges, edgeKeys);
+
+    return this.solve(width, height, edges, edgeKeys);
+  }
+
+  // returns the same tree as drawing from the counter random in order, drawing
+  // the weights in parallel on this generator's pool
+  public int[] spanningTree(int width, int height, CounterRandom random, int biasMode) {
+    KruskalGenerator weights = new KruskalGenerator();
+    int[] edges = new int[weights.edgeCount(width, height)];
+    long[] edgeKeys = new long[edges.length];
+    weights.drawWeights(width, height, random, biasMode, edges, edgeKeys, this.pool);
+
+    return this.solve(width, height, edges, edgeKeys);
+  }
+
+  // returns the edge ids of the spanning tree over the given grid edges and
+  // their weight keys, in the order Kruskal adds them
+  int[] solve(int width, int height, int[] edges, long[] edgeKeys) {
+    int[] ends1 = new int[edges.length];
+    int[] ends2 = new int[edges.length];
+    // splits every edge id into the cells on either side
+    for (int position = 0; position < edges.length; position += 1) {
+      ends1[position] = edges[position] / 2;
+      ends2[position] = edges[position] % 2 == 0 ? edges[position] / 2 + 1
+          : edges[position] / 2 + width;
+    }
+
+    int[] tree = this.minimumSpanning(width * height, ends1, ends2, edgeKeys);
+    // turns the positions back into edge ids
+    for (int index = 0; index < tree.length; index += 1) {
+      tree[index] = edges[tree[index]];
+    }
+    return tree;
+  }
+
+  // returns the positions of the edges in the minimum spanning tree over the
+  // given amount of cells, in ascending weight order with ties broken by
+  // position, which is the order Kruskal adds them in
+  int[] minimumSpanning(int cellCount, int[] node1, int[] node2, long[] keys) {
+    if (node1.length != node2.length || node1.length != keys.length) {
+      throw new IllegalArgumentException("Every edge needs two ends and a weight!");
+    }
+    this.node1 = node1;
+    this.node2 = node2;
+    this.keys = keys;
+
+    int edgeCount = keys.length;
+    int chunks = Math.max(1, Math.min(this.pool.getParallelism() * 4, edgeCount / 4096));
+    this.chunkSize = Math.max(1, (edgeCount + chunks - 1) / chunks);
+    chunks = (edgeCount + this.chunkSize - 1) / this.chunkSize;
+    this.live = new int[edgeCount];
+    this.liveCounts = new int[chunks];
+    // every edge starts off live
+    for (int position = 0; position < edgeCount; position += 1) {
+      this.live[position] = position;
+    }
+    // every chunk starts off full
+    for (int chunk = 0; chunk < chunks; chunk += 1) {
+      this.liveCounts[chunk] = Math.min(this.chunkSize, edgeCount - chunk * this.chunkSize);
+    }
+
+    this.components = new int[cellCount];
+    this.lightest = new AtomicIntegerArray(cellCount);
+    this.representatives = new UnionFind(cellCount);
+    // every cell starts off as its own component, with no lightest edge
+    for (int cell = 0; cell < cellCount; cell += 1) {
+      this.components[cell] = cell;
+      this.lightest.set(cell, -1);
+    }
+
+    int[] roots = new int[cellCount];
+    int rootCount = cellCount;
+    // every cell starts off as a root
+    for (int cell = 0; cell < cellCount; cell += 1) {
+      roots[cell] = cell;
+    }
+
+    int[] tree = new int[Math.max(cellCount - 1, 0)];
+    int treeSize = 0;
+    int previousSize = -1;
+
+    // INVARIANT:
+    // every round either adds at least one edge to the tree or stops, and the
+    // tree can hold at most cellCount - 1 edges
+    while (treeSize < tree.length && treeSize != previousSize) {
+      previousSize = treeSize;
+
+      this.pool.invoke(new ParallelRange(new BoruvkaAction(this, false), 0, chunks, 1));
+
+      // contracts along the lightest edge out of every component, an edge picked
+      // by both of its components is only added once
+      for (int index = 0; index < rootCount; index += 1) {
+        int position = this.lightest.get(roots[index]);
+        if (position != -1) {
+          this.lightest.set(roots[index], -1);
+          if (this.representatives.union(node1[position], node2[position])) {
+            tree[treeSize] = position;
+            treeSize += 1;
+          }
+        }
+      }
+
+      // keeps only the roots that are still roots
+      int remaining = 0;
+      for (int index = 0; index < rootCount; index += 1) {
+        if (this.representatives.find(roots[index]) == roots[index]) {
+          roots[remaining] = roots[index];
+          remaining += 1;
+        }
+      }
+      rootCount = remaining;
+
+      this.pool.invoke(new ParallelRange(new BoruvkaAction(this, true), 0, cellCount,
+          Math.max(4096, cellCount / (this.pool.getParallelism() * 4))));
+    }
+
+    int[] result = this.kruskalOrder(Arrays.copyOf(tree, treeSize));
+    // lets go of the working arrays
+    this.node1 = null;
+    this.node2 = null;
+    this.keys = null;
+    this.live = null;
+    this.liveCounts = null;
+    this.components = null;
+    this.lightest = null;
+    this.representatives = null;
+    return result;
+  }
+
+  // returns the given tree positions in ascending weight order, ties broken by
+  // position
+  int[] kruskalOrder(int[] tree) {
+    Arrays.sort(tree);
+    long[] treeKeys = new long[tree.length];
+    // gathers the key of every tree edge
+    for (int index = 0; index < tree.length; index += 1) {
+      treeKeys[index] = this.keys[tree[index]];
+    }
+
+    int[] order = new EdgeOrder().sortedPositions(treeKeys);
+    int[] result = new int[tree.length];
+    // places every tree edge in weight order
+    for (int index = 0; index < tree.length; index += 1) {
+      result[index] = tree[order[index]];
+    }
+    return result;
+  }
+
+  // EFFECT: offers every live edge of the given chunk to the components on
+  // either side, dropping the edges that are inside a single component
+  void offerChunk(int chunk) {
+    int chunkStart = chunk * this.chunkSize;
+    int chunkEnd = chunkStart + this.liveCounts[chunk];
+    int kept = chunkStart;
+    // offers every live edge in the chunk
+    for (int index = chunkStart; index < chunkEnd; index += 1) {
+      int position = this.live[index];
+      int component1 = this.components[this.node1[position]];
+      int component2 = this.components[this.node2[position]];
+      if (component1 != component2) {
+        this.live[kept] = position;
+        kept += 1;
+        this.offer(component1, position);
+        this.offer(component2, position);
+      }
+    }
+    this.liveCounts[chunk] = kept - chunkStart;
+  }
+
+  // EFFECT: makes the edge at the given position the lightest edge out of the
+  // given component, unless a lighter one is already there
+  void offer(int component, int position) {
+    // INVARIANT:
+    // the lightest edge only ever gets lighter, so this retries at most once
+    // for every lighter edge offered to the same component at the same time
+    while (true) {
+      int current = this.lightest.get(component);
+      if (current != -1 && !this.isLighter(position, current)) {
+        return;
+      }
+      if (this.lightest.compareAndSet(component, current, position)) {
+        return;
+      }
+    }
+  }
+
+  // returns whether the first edge position is lighter than the second
+  boolean isLighter(int position, int other) {
+    int compare = Long.compareUnsigned(this.keys[position], this.keys[other]);
+    return compare < 0 || (compare == 0 && position < other);
+  }
+
+  // EFFECT: records the component of every cell from start (inclusive) to end
+  // (exclusive), no unions happen while this runs
+  void relabel(int start, int end) {
+    // looks up the root of every cell in the range
+    for (int cell = start; cell < end; cell += 1) {
+      this.components[cell] = this.representatives.findWithoutCompression(cell);
+    }
+  }
+}
+
+// offers the live edges of a range of chunks, or relabels a range of cells, for
+// a Boruvka round
+class BoruvkaAction implements IRangeAction {
+  private final BoruvkaGenerator generator;
+  private final boolean relabel;
+
+  // constructs an action that offers chunks, or relabels cells
+  BoruvkaAction(BoruvkaGenerator generator, boolean relabel) {
+    this.generator = generator;
+    this.relabel = relabel;
+  }
+
+  // EFFECT: offers every chunk, or relabels every cell, from start (inclusive) to
+  // end (exclusive)
+  public void apply(int start, int end) {
+    if (this.relabel) {
+      this.generator.relabel(start, end);
+    }
+    else {
+      // offers every chunk in the range
+      for (int chunk = start; chunk < end; chunk += 1) {
+        this.generator.offerChunk(chunk);
+      }
+    }
+  }
+}
+
+// represents a place the rows of a streamed maze are written to, one row at a
+// time from the top
+interface IRowSink {
+  // EFFECT: takes the given row of walls, a set bit means the wall right of (or
+  // below) that column is standing
+  // the bitsets are reused for the next row, so they must be copied to be kept
+  void acceptRow(int rowIndex, BitSet rightWalls, BitSet bottomWalls);
+}
+
+// generates a maze one row at a time with Eller's algorithm, keeping only the
+// current row's sets in memory, so the height is only limited by the sink
+// the mazes are perfect like the seeded ones, but not the same layouts: the
+// seed picks the walls, and the bias mode makes right walls (1) or bottom walls
+// (2) more likely to come down
+class EllerGenerator {
+  private final int width;
+  private final int seed;
+  private final int biasMode;
+
+  // constructs a generator for rows of the given width
+  EllerGenerator(int width, int seed, int biasMode) {
+    if (biasMode < 0 || biasMode > 2) {
+      throw new IllegalArgumentException("Bias mode must be 0, 1 or 2");
+    }
+    // a maze is non-sensical when a 1x1 or smaller
+    if (width < 2) {
+      throw new IllegalArgumentException("Width and height need to be 2 or more!");
+    }
+
+    this.width = width;
+    this.seed = seed;
+    this.biasMode = biasMode;
+  }
+
+  // returns the chance of knocking down the wall between two separate sets
+  double rightChance() {
+    if (this.biasMode == 1) {
+      return 0.75;
+    }
+    else if (this.biasMode == 2) {
+      return 0.25;
+    }
+    else {
+      return 0.5;
+    }
+  }
+
+  // returns the chance of carving down out of a cell, on top of the one
+  // passage every set needs
+  double downChance() {
+    if (this.biasMode == 1) {
+      return 0.15;
+    }
+    else if (this.biasMode == 2) {
+      return 0.6;
+    }
+    else {
+      return 0.3;
+    }
+  }
+
+  // EFFECT: generates the given amount of rows, handing each one to the sink as
+  // soon as it is done
+  void generate(int height, IRowSink sink) {
+    if (height < 2) {
+      throw new IllegalArgumentException("Width and height need to be 2 or more!");
+    }
+
+    Random random = new Random(this.seed);
+    UnionFind sets = new UnionFind(this.width);
+    BitSet rightWalls = new BitSet(this.width);
+    BitSet bottomWalls = new BitSet(this.width);
+    // the set of the cell above each column, or -1 when the wall above is up
+    int[] above = new int[this.width];
+    Arrays.fill(above, -1);
+    // the first column in this row of every set from the row above
+    int[] firstColumn = new int[this.width];
+    // the amount of cells seen so far in each set, and the one carving down
+    int[] seen = new int[this.width];
+    int[] chosen = new int[this.width];
+    boolean[] carved = new boolean[this.width];
+
+    // builds every row from the top
+    for (int rowIndex = 0; rowIndex < height; rowIndex += 1) {
+      boolean lastRow = rowIndex == height - 1;
+      sets.reset();
+      rightWalls.set(0, this.width);
+      bottomWalls.set(0, this.width);
+
+      // cells joined from above stay in the same set
+      Arrays.fill(firstColumn, -1);
+      for (int col = 0; col < this.width; col += 1) {
+        if (above[col] != -1) {
+          if (firstColumn[above[col]] == -1) {
+            firstColumn[above[col]] = col;
+          }
+          else {
+            sets.union(firstColumn[above[col]], col);
+          }
+        }
+      }
+
+      // knocks down walls between separate sets, all of them on the last row
+      for (int col = 0; col < this.width - 1; col += 1) {
+        if (sets.find(col) != sets.find(col + 1)
+            && (lastRow || random.nextDouble() < this.rightChance())) {
+          sets.union(col, col + 1);
+          rightWalls.clear(col);
+        }
+      }
+
+      if (!lastRow) {
+        this.carveDown(random, sets, bottomWalls, seen, chosen, carved);
+      }
+
+      // remembers the set above each column for the next row
+      for (int col = 0; col < this.width; col += 1) {
+        above[col] = bottomWalls.get(col) ? -1 : sets.find(col);
+      }
+
+      sink.acceptRow(rowIndex, rightWalls, bottomWalls);
+    }
+  }
+
+  // EFFECT: knocks down bottom walls at random, making sure every set carves
+  // down at least once so no set is cut off from the rows below
+  void carveDown(Random random, UnionFind sets, BitSet bottomWalls, int[] seen, int[] chosen,
+      boolean[] carved) {
+    Arrays.fill(seen, 0);
+    Arrays.fill(carved, false);
+
+    // carves at random, and picks one cell of every set uniformly in case the
+    // set carves nowhere
+    for (int col = 0; col < this.width; col += 1) {
+      int set = sets.find(col);
+      seen[set] += 1;
+      if (random.nextInt(seen[set]) == 0) {
+        chosen[set] = col;
+      }
+      if (random.nextDouble() < this.downChance()) {
+        bottomWalls.clear(col);
+        carved[set] = true;
+      }
+    }
+
+    // carves the picked cell of every set that has no way down yet
+    for (int col = 0; col < this.width; col += 1) {
+      if (sets.find(col) == col && !carved[col]) {
+        bottomWalls.clear(chosen[col]);
+      }
+    }
+  }
+}
+
+// writes streamed rows to an output stream, each row as the right walls then
+// the bottom walls packed eight columns to a byte, lowest column in the lowest
+// bit
+class RowFileSink implements IRowSink {
+  private final OutputStream out;
+  private final byte[] buffer;
+  private final int width;
+
+  // constructs a sink for rows of the given width writing to the given stream
+  RowFileSink(OutputStream out, int width) {
+    this.out = new BufferedOutputStream(out, 1 << 16);
+    this.width = width;
+    this.buffer = new byte[(width + 7) / 8];
+  }
+
+  // EFFECT: writes both walls of the given row
+  public void acceptRow(int rowIndex, BitSet rightWalls, BitSet bottomWalls) {
+    try {
+      this.writeBits(rightWalls);
+      this.writeBits(bottomWalls);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not write row " + rowIndex + " of the maze!", e);
+    }
+  }
+
+  // EFFECT: writes the first width bits of the given bitset
+  void writeBits(BitSet bits) throws IOException {
+    Arrays.fill(this.buffer, (byte) 0);
+    // packs every set column into its byte
+    for (int col = bits.nextSetBit(0); col >= 0 && col < this.width; col = bits
+        .nextSetBit(col + 1)) {
+      this.buffer[col / 8] |= (byte) (1 << (col % 8));
+    }
+    this.out.write(this.buffer);
+  }
+
+  // EFFECT: flushes and closes the underlying stream
+  void close() {
+    try {
+      this.out.close();
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not close the maze file!", e);
+    }
+  }
+}
+
+// collects streamed rows into a GridMaze, for mazes that fit in memory
+class GridRowSink implements IRowSink {
+  private final int width;
+  private final BitSet rightWalls;
+  private final BitSet bottomWalls;
+  private int rows;
+
+  // constructs an empty sink for rows of the given width
+  GridRowSink(int width) {
+    this.width = width;
+    this.rightWalls = new BitSet();
+    this.bottomWalls = new BitSet();
+    this.rows = 0;
+  }
+
+  // EFFECT: copies the walls of the given row into this sink
+  public void acceptRow(int rowIndex, BitSet rightWalls, BitSet bottomWalls) {
+    if (rowIndex != this.rows) {
+      throw new IllegalArgumentException("Rows must arrive in order from the top!");
+    }
+    // copies both walls of every column
+    for (int col = 0; col < this.width; col += 1) {
+      this.rightWalls.set(rowIndex * this.width + col, rightWalls.get(col));
+      this.bottomWalls.set(rowIndex * this.width + col, bottomWalls.get(col));
+    }
+    this.rows += 1;
+  }
+
+  // returns the amount of rows taken so far
+  int rowCount() {
+    return this.rows;
+  }
+
+  // returns the collected rows as a grid maze
+  GridMaze toGridMaze(int seed, int biasMode) {
+    return new GridMaze(this.width, this.rows, seed, biasMode, this.rightWalls,
+        this.bottomWalls);
+  }
+}
+
+// writes rows of walls as the classic ascii art, one line of cells and one
+// line of the walls below them per row, after a line for the top border:
+//
+//   +--+--+
+//   |     |
+//   +  +--+
+//   |     |
+//   +--+--+
+//
+// only one line is ever held, so mazes of any height can be written
+// the outer border is always drawn, whatever the bitsets say about it
+class AsciiRowSink implements IRowSink {
+  private final Writer out;
+  private final char[] line;
+  private final int width;
+  private int rows;
+
+  // constructs a sink for rows of the given width writing to the given writer
+  AsciiRowSink(Writer out, int width) {
+    this.out = new BufferedWriter(out, 1 << 16);
+    this.width = width;
+    this.line = new char[3 * width + 2];
+    this.line[3 * width + 1] = '\n';
+    this.rows = 0;
+  }
+
+  // EFFECT: writes the cells of the given row and the walls below them, after
+  // the top border when it is the first row
+  public void acceptRow(int rowIndex, BitSet rightWalls, BitSet bottomWalls) {
+    if (rowIndex != this.rows) {
+      throw new IllegalArgumentException("Rows must arrive in order from the top!");
+    }
+    try {
+      if (rowIndex == 0) {
+        this.writeWallLine(null);
+      }
+      this.writeCellLine(rightWalls);
+      this.writeWallLine(bottomWalls);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not write row " + rowIndex + " of the maze!", e);
+    }
+    this.rows += 1;
+  }
+
+  // EFFECT: writes the line of cells with the given right walls
+  void writeCellLine(BitSet rightWalls) throws IOException {
+    this.line[0] = '|';
+    // draws every cell and the wall right of it
+    for (int col = 0; col < this.width; col += 1) {
+      this.line[3 * col + 1] = ' ';
+      this.line[3 * col + 2] = ' ';
+      boolean wall = col == this.width - 1 || rightWalls.get(col);
+      this.line[3 * col + 3] = wall ? '|' : ' ';
+    }
+    this.out.write(this.line);
+  }
+
+  // EFFECT: writes the line of the given bottom walls, every wall standing when
+  // there are none given
+  void writeWallLine(BitSet bottomWalls) throws IOException {
+    this.line[0] = '+';
+    // draws the wall below every cell
+    for (int col = 0; col < this.width; col += 1) {
+      char wall = bottomWalls == null || bottomWalls.get(col) ? '-' : ' ';
+      this.line[3 * col + 1] = wall;
+      this.line[3 * col + 2] = wall;
+      this.line[3 * col + 3] = '+';
+    }
+    this.out.write(this.line);
+  }
+
+  // returns the amount of rows written so far
+  int rowCount() {
+    return this.rows;
+  }
+
+  // EFFECT: flushes and closes the underlying writer
+  void close() {
+    try {
+      this.out.close();
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not close the maze text!", e);
+    }
+  }
+}
+
+// reads the ascii art AsciiRowSink writes, one line at a time, handing every
+// row of walls to a sink as soon as it is read, so mazes of any height can be
+// read without holding their text
+class AsciiMazeReader {
+  private final BufferedReader in;
+  // cannot be final as the width is only known once the top border is read
+  private int width;
+  private int lineNumber;
+
+  // constructs a reader of the maze text from the given reader
+  AsciiMazeReader(Reader in) {
+    this.in = new BufferedReader(in, 1 << 16);
+    this.width = -1;
+    this.lineNumber = 0;
+  }
+
+  // EFFECT: reads the top border, the first time it is called
+  // returns the width of the maze
+  int width() {
+    if (this.width == -1) {
+      String border = this.readLine();
+      if (border == null || border.length() < 7 || (border.length() - 1) % 3 != 0) {
+        throw new IllegalArgumentException("Line 1 is not the top of a maze!");
+      }
+      this.width = (border.length() - 1) / 3;
+      BitSet walls = new BitSet(this.width);
+      this.parseWallLine(border, walls);
+      if (walls.cardinality() != this.width) {
+        throw new IllegalArgumentException("Line 1 is not the top of a maze!");
+      }
+    }
+    return this.width;
+  }
+
+  // EFFECT: reads every row, handing each one to the given sink
+  // returns the amount of rows read
+  int read(IRowSink sink) {
+    int width = this.width();
+    BitSet rightWalls = new BitSet(width);
+    BitSet bottomWalls = new BitSet(width);
+    int rows = 0;
+    String cells = this.readLine();
+
+    // INVARIANT:
+    // every pass reads two lines of the finite text, and once a line is missing
+    // the line number is one past the last line
+    while (cells != null) {
+      this.parseCellLine(cells, rightWalls);
+      String walls = this.readLine();
+      if (walls == null) {
+        throw new IllegalArgumentException("Line " + (this.lineNumber - 1)
+            + " must be followed by the walls below it!");
+      }
+      this.parseWallLine(walls, bottomWalls);
+      cells = this.readLine();
+      if (cells == null && bottomWalls.cardinality() != width) {
+        throw new IllegalArgumentException("Line " + (this.lineNumber - 1)
+            + " must close the bottom of the maze!");
+      }
+      sink.acceptRow(rows, rightWalls, bottomWalls);
+      rows += 1;
+    }
+
+    if (rows < 2) {
+      throw new IllegalArgumentException("Width and height need to be 2 or more!");
+    }
+    return rows;
+  }
+
+  // EFFECT: reads the whole maze
+  // returns it as a grid maze with the given seed and bias mode
+  GridMaze toGridMaze(int seed, int biasMode) {
+    GridRowSink sink = new GridRowSink(this.width());
+    this.read(sink);
+    return sink.toGridMaze(seed, biasMode);
+  }
+
+  // EFFECT: sets the right walls of the given line of cells into the given
+  // bitset
+  void parseCellLine(String line, BitSet rightWalls) {
+    this.checkLength(line);
+    if (line.charAt(0) != '|' || line.charAt(3 * this.width) != '|') {
+      throw new IllegalArgumentException("Line " + this.lineNumber + " must be walled in!");
+    }
+    rightWalls.clear();
+    // reads the wall right of every cell
+    for (int col = 0; col < this.width; col += 1) {
+      char wall = line.charAt(3 * col + 3);
+      if (wall == '|') {
+        rightWalls.set(col);
+      }
+      else if (wall != ' ') {
+        throw new IllegalArgumentException("Line " + this.lineNumber + " is not part of a maze!");
+      }
+    }
+  }
+
+  // EFFECT: sets the walls of the given line of walls into the given bitset
+  void parseWallLine(String line, BitSet bottomWalls) {
+    this.checkLength(line);
+    if (line.charAt(0) != '+') {
+      throw new IllegalArgumentException("Line " + this.lineNumber + " is not part of a maze!");
+    }
+    bottomWalls.clear();
+    // reads the wall below every cell
+    for (int col = 0; col < this.width; col += 1) {
+      char first = line.charAt(3 * col + 1);
+      char second = line.charAt(3 * col + 2);
+      if (line.charAt(3 * col + 3) != '+' || first != second || (first != '-' && first != ' ')) {
+        throw new IllegalArgumentException("Line " + this.lineNumber + " is not part of a maze!");
+      }
+      if (first == '-') {
+        bottomWalls.set(col);
+      }
+    }
+  }
+
+  // EFFECT: throws an exception unless the given line is as wide as the maze
+  void checkLength(String line) {
+    if (line.length() != 3 * this.width + 1) {
+      throw new IllegalArgumentException("Line " + this.lineNumber + " must be "
+          + (3 * this.width + 1) + " characters long!");
+    }
+  }
+
+  // EFFECT: reads the next line
+  // returns it, or null at the end of the text
+  String readLine() {
+    try {
+      this.lineNumber += 1;
+      return this.in.readLine();
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not read line " + this.lineNumber + " of the maze!", e);
+    }
+  }
+}
+
+// represents an unbounded maze split into square chunks, each chunk is a grid
+// maze seeded from hash(seed, chunkX, chunkY), generated the first time it is
+// touched and forgotten once too many other chunks have been touched since
+// chunks are stitched together as a tree rooted at chunk (0, 0): a chunk opens
+// one door towards the column x = 0 (west or east), and chunks in that column
+// open one door towards (0, 0) (north or south), so the whole plane is a
+// perfect maze and every chunk can be regenerated the same way at any time
+// x grows to the right and y grows downwards, like the rows of a Maze
+class ChunkedMaze {
+  private final int seed;
+  private final int biasMode;
+  private final int chunkSize;
+  private final ChunkCache chunks;
+  private int generated;
+
+  // convenience constructor with 256x256 chunks and room for 64 of them
+  ChunkedMaze(int seed, int biasMode) {
+    this(seed, biasMode, 256, 64);
+  }
+
+  // constructs a maze of chunks of the given size, keeping at most the given
+  // amount of them in memory
+  ChunkedMaze(int seed, int biasMode, int chunkSize, int maxChunks) {
+    if (biasMode < 0 || biasMode > 2) {
+      throw new IllegalArgumentException("Bias mode must be 0, 1 or 2");
+    }
+    if (chunkSize < 2) {
+      throw new IllegalArgumentException("Chunk size must be at least 2!");
+    }
+    if (maxChunks < 1) {
+      throw new IllegalArgumentException("A chunked maze must keep at least 1 chunk!");
+    }
+
+    this.seed = seed;
+    this.biasMode = biasMode;
+    this.chunkSize = chunkSize;
+    this.chunks = new ChunkCache(maxChunks);
+    this.generated = 0;
+  }
+
+  // returns the size of the side of every chunk
+  int getChunkSize() {
+    return this.chunkSize;
+  }
+
+  // returns the amount of chunks in memory
+  int loadedChunks() {
+    return this.chunks.size();
+  }
+
+  // returns the amount of times a chunk has been generated, including chunks
+  // generated again after being forgotten
+  int generatedChunks() {
+    return this.generated;
+  }
+
+  // returns a well mixed hash of the given value
+  long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+    return value ^ (value >>> 31);
+  }
+
+  // returns the hash of this maze's seed and the given chunk
+  long chunkHash(int chunkX, int chunkY) {
+    return this.mix(this.mix(this.mix(this.seed) + chunkX) + chunkY);
+  }
+
+  // returns the seed of the grid maze inside the given chunk
+  int chunkSeed(int chunkX, int chunkY) {
+    return (int) (this.chunkHash(chunkX, chunkY) >>> 32);
+  }
+
+  // returns the offset along the shared border of the door from the given
+  // chunk to its parent
+  int doorOffset(int chunkX, int chunkY) {
+    return (int) Long.remainderUnsigned(this.mix(this.chunkHash(chunkX, chunkY)), this.chunkSize);
+  }
+
+  // returns the direction of the parent of the given chunk, or -1 for the root
+  int parentDirection(int chunkX, int chunkY) {
+    if (chunkX > 0) {
+      return 3;
+    }
+    else if (chunkX < 0) {
+      return 1;
+    }
+    else if (chunkY > 0) {
+      return 0;
+    }
+    else if (chunkY < 0) {
+      return 2;
+    }
+    else {
+      return -1;
+    }
+  }
+
+  // returns the chunk containing the given coordinate
+  int chunkOf(long coordinate) {
+    return (int) Math.floorDiv(coordinate, (long) this.chunkSize);
+  }
+
+  // returns the position of the given coordinate inside its chunk
+  int localOf(long coordinate) {
+    return (int) Math.floorMod(coordinate, (long) this.chunkSize);
+  }
+
+  // returns the grid maze inside the given chunk, generating it if it is not in
+  // memory
+  // EFFECT: marks the chunk as the most recently used, forgetting the least
+  // recently used chunk when there are too many
+  GridMaze chunk(int chunkX, int chunkY) {
+    long key = ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+    GridMaze chunk = this.chunks.get(key);
+    if (chunk == null) {
+      chunk = new GridMaze(this.chunkSize, this.chunkSize, this.chunkSeed(chunkX, chunkY),
+          this.biasMode);
+      this.chunks.put(key, chunk);
+      this.generated += 1;
+    }
+    return chunk;
+  }
+
+  // returns whether a player can move in the given direction from the cell at
+  // the given coordinates
+  boolean canMove(long x, long y, int direction) {
+    if (direction < 0 || direction > 3) {
+      throw new IllegalArgumentException("Direction must be between 0 and 3 inclusive!");
+    }
+    long nextX = x + (direction == 1 ? 1 : 0) - (direction == 3 ? 1 : 0);
+    long nextY = y + (direction == 2 ? 1 : 0) - (direction == 0 ? 1 : 0);
+    int chunkX = this.chunkOf(x);
+    int chunkY = this.chunkOf(y);
+    int nextChunkX = this.chunkOf(nextX);
+    int nextChunkY = this.chunkOf(nextY);
+
+    if (chunkX == nextChunkX && chunkY == nextChunkY) {
+      int local = this.localOf(y) * this.chunkSize + this.localOf(x);
+      return this.chunk(chunkX, chunkY).canMove(local, direction);
+    }
+    else if (this.parentDirection(chunkX, chunkY) == direction) {
+      // leaving through the door to the parent chunk
+      return this.isDoor(chunkX, chunkY, direction, x, y);
+    }
+    else if (this.parentDirection(nextChunkX, nextChunkY) == (direction + 2) % 4) {
+      // entering through the door from a child chunk
+      return this.isDoor(nextChunkX, nextChunkY, (direction + 2) % 4, nextX, nextY);
+    }
+    else {
+      return false;
+    }
+  }
+
+  // returns whether the given cell of the given chunk is the one with the door
+  // leading to its parent in the given direction
+  boolean isDoor(int chunkX, int chunkY, int direction, long x, long y) {
+    int along = direction % 2 == 0 ? this.localOf(x) : this.localOf(y);
+    return along == this.doorOffset(chunkX, chunkY);
+  }
+
+  // returns the amount of steps of the shortest path between the two cells,
+  // searching only the square of cells within the given radius of the first
+  // one, or -1 if the path leaves that square
+  // the radius is at most 3 chunk sizes, so the square spans at most 7x7
+  // chunks, which the default cache holds, and is marked in a bitset of its
+  // cells, a bit each
+  int stepsWithin(long fromX, long fromY, long toX, long toY, int radius) {
+    if (radius < 0 || radius > 3 * this.chunkSize) {
+      throw new IllegalArgumentException("Radius must be between 0 and " + 3 * this.chunkSize
+          + " inclusive!");
+    }
+    int side = 2 * radius + 1;
+    long left = fromX - radius;
+    long top = fromY - radius;
+    if (toX < left || toX >= left + side || toY < top || toY >= top + side) {
+      return -1;
+    }
+
+    BitSet seen = new BitSet(side * side);
+    IntDeque worklist = new IntDeque();
+    int source = radius * side + radius;
+    int target = (int) ((toY - top) * side + (toX - left));
+    seen.set(source);
+    worklist.addLast(source);
+    // the steps of the cells at the front of the worklist, and how many of them
+    // are left before the cells one step further
+    int steps = 0;
+    int leftAtSteps = 1;
+
+    // INVARIANT:
+    // every cell of the square is added to the worklist at most once, as it is
+    // marked seen before it is added
+    while (!worklist.isEmpty()) {
+      if (leftAtSteps == 0) {
+        steps += 1;
+        leftAtSteps = worklist.size();
+      }
+      int next = worklist.removeFirst();
+      leftAtSteps -= 1;
+      if (next == target) {
+        return steps;
+      }
+      long x = left + next % side;
+      long y = top + next / side;
+      // adds the unseen neighbors inside the square
+      for (int direction = 0; direction < 4; direction += 1) {
+        int col = next % side + (direction == 1 ? 1 : 0) - (direction == 3 ? 1 : 0);
+        int row = next / side + (direction == 2 ? 1 : 0) - (direction == 0 ? 1 : 0);
+        if (col >= 0 && col < side && row >= 0 && row < side && !seen.get(row * side + col)
+            && this.canMove(x, y, direction)) {
+          seen.set(row * side + col);
+          worklist.addLast(row * side + col);
+        }
+      }
+    }
+
+    return -1;
+  }
+}
+
+// represents the chunks of a ChunkedMaze in memory, in least recently used
+// order
+class ChunkCache extends LinkedHashMap<Long, GridMaze> {
+  private static final long serialVersionUID = 1L;
+
+  private final int maxChunks;
+
+  // constructs an empty cache that keeps at most the given amount of chunks
+  ChunkCache(int maxChunks) {
+    super(16, 0.75f, true);
+    this.maxChunks = maxChunks;
+  }
+
+  // returns whether the least recently used chunk should be forgotten
+  protected boolean removeEldestEntry(Map.Entry<Long, GridMaze> eldest) {
+    return this.size() > this.maxChunks;
+  }
+}
+
+// represents a generator that walks the grid cell by cell, with the moves every
+// such generator needs
+// a bias mode of 1 makes horizontal moves 4 times as likely as vertical ones,
+// and 2 the other way around
+abstract class AGridGenerator implements IMazeGenerator {
+
+  // returns the cell in the given direction of the given cell, or -1 when that
+  // is outside the grid
+  int neighbor(int width, int height, int cell, int direction) {
+    int row = cell / width;
+    int col = cell % width;
+    if (direction == 0) {
+      return row > 0 ? cell - width : -1;
+    }
+    else if (direction == 1) {
+      return col < width - 1 ? cell + 1 : -1;
+    }
+    else if (direction == 2) {
+      return row < height - 1 ? cell + width : -1;
+    }
+    else if (direction == 3) {
+      return col > 0 ? cell - 1 : -1;
+    }
+    else {
+      throw new IllegalArgumentException("Direction must be between 0 and 3 inclusive!");
+    }
+  }
+
+  // returns the edge id of the wall in the given direction of the given cell
+  int edgeTowards(int width, int cell, int direction) {
+    if (direction == 0) {
+      return (cell - width) * 2 + 1;
+    }
+    else if (direction == 1) {
+      return cell * 2;
+    }
+    else if (direction == 2) {
+      return cell * 2 + 1;
+    }
+    else {
+      return (cell - 1) * 2;
+    }
+  }
+
+  // returns one of the first count given directions at random, weighted by the
+  // bias mode
+  int pickDirection(Random random, int[] directions, int count, int biasMode) {
+    int total = 0;
+    // adds up the weight of every direction
+    for (int index = 0; index < count; index += 1) {
+      total += this.directionWeight(directions[index], biasMode);
+    }
+
+    int pick = random.nextInt(total);
+    // finds the direction the pick landed on
+    for (int index = 0; index < count - 1; index += 1) {
+      pick -= this.directionWeight(directions[index], biasMode);
+      if (pick < 0) {
+        return directions[index];
+      }
+    }
+    return directions[count - 1];
+  }
+
+  // returns how likely a move in the given direction is under the bias mode
+  int directionWeight(int direction, int biasMode) {
+    boolean horizontal = direction % 2 == 1;
+    if ((biasMode == 1 && horizontal) || (biasMode == 2 && !horizontal)) {
+      return 4;
+    }
+    else {
+      return 1;
+    }
+  }
+
+  // EFFECT: fills the given array with the directions from the given cell that
+  // stay inside the grid and lead to a cell whose visited bit matches the given
+  // one
+  // returns the amount of directions found
+  int directionsTo(int width, int height, int cell, BitSet visited, boolean wanted,
+      int[] directions) {
+    int count = 0;
+    // checks all four directions
+    for (int direction = 0; direction < 4; direction += 1) {
+      int next = this.neighbor(width, height, cell, direction);
+      if (next != -1 && visited.get(next) == wanted) {
+        directions[count] = direction;
+        count += 1;
+      }
+    }
+    return count;
+  }
+}
+
+// carves a maze with a depth first random walk that backs up when it is stuck,
+// kept on an int stack instead of the call stack so any size works
+class BacktrackerGenerator extends AGridGenerator {
+
+  // returns the name of this generator
+  public String name() {
+    return "recursive backtracker";
+  }
+
+  // returns the edge ids of the spanning tree, in the order they are carved
+  public int[] spanningTree(int width, int height, Random random, int biasMode) {
+    int cellCount = width * height;
+    int[] tree = new int[cellCount - 1];
+    int treeSize = 0;
+    int[] stack = new int[cellCount];
+    int stackSize = 0;
+    BitSet visited = new BitSet(cellCount);
+    int[] directions = new int[4];
+
+    int first = random.nextInt(cellCount);
+    visited.set(first);
+    stack[stackSize] = first;
+    stackSize += 1;
+
+    // INVARIANT:
+    // every cell is pushed once, when it is visited, and popped once
+    while (stackSize > 0) {
+      int cell = stack[stackSize - 1];
+      int count = this.directionsTo(width, height, cell, visited, false, directions);
+      if (count == 0) {
+        stackSize -= 1;
+      }
+      else {
+        int direction = this.pickDirection(random, directions, count, biasMode);
+        int next = this.neighbor(width, height, cell, direction);
+        tree[treeSize] = this.edgeTowards(width, cell, direction);
+        treeSize += 1;
+        visited.set(next);
+        stack[stackSize] = next;
+        stackSize += 1;
+      }
+    }
+
+    return tree;
+  }
+}
+
+// carves a maze with a random walk from the first cell that, when stuck, hunts
+// for the first unvisited cell next to the carved part and carries on from there
+class HuntAndKillGenerator extends AGridGenerator {
+
+  // returns the name of this generator
+  public String name() {
+    return "hunt-and-kill";
+  }
+
+  // returns the edge ids of the spanning tree, in the order they are carved
+  public int[] spanningTree(int width, int height, Random random, int biasMode) {
+    int cellCount = width * height;
+    int[] tree = new int[cellCount - 1];
+    int treeSize = 0;
+    BitSet visited = new BitSet(cellCount);
+    int[] directions = new int[4];
+
+    // starts at the first cell, so every cell before the first unvisited one is
+    // always visited
+    int cell = 0;
+    int hunt = 0;
+    visited.set(cell);
+
+    // INVARIANT:
+    // every step visits one more cell, so it runs cellCount - 1 times
+    while (treeSize < cellCount - 1) {
+      int count = this.directionsTo(width, height, cell, visited, false, directions);
+      if (count == 0) {
+        // hunts in row major order, the first unvisited cell always has a visited
+        // neighbor above or left of it, and nothing before it needs hunting again
+        hunt = visited.nextClearBit(hunt);
+        cell = hunt;
+        count = this.directionsTo(width, height, cell, visited, true, directions);
+      }
+      else {
+        int direction = this.pickDirection(random, directions, count, biasMode);
+        cell = this.neighbor(width, height, cell, direction);
+        count = 0;
+        directions[0] = (direction + 2) % 4;
+      }
+
+      int direction = count == 0 ? directions[0]
+          : this.pickDirection(random, directions, count, biasMode);
+      tree[treeSize] = this.edgeTowards(width, cell, direction);
+      treeSize += 1;
+      visited.set(cell);
+    }
+
+    return tree;
+  }
+}
+
+// carves a uniformly random maze (without bias) with Wilson's loop erased
+// random walks: walks from a cell outside the maze until the walk hits the
+// maze, remembering only the last way out of every cell, then carves the walk
+class WilsonGenerator extends AGridGenerator {
+
+  // returns the name of this generator
+  public String name() {
+    return "Wilson";
+  }
+
+  // returns the edge ids of the spanning tree, in the order they are carved
+  public int[] spanningTree(int width, int height, Random random, int biasMode) {
+    int cellCount = width * height;
+    int[] tree = new int[cellCount - 1];
+    int treeSize = 0;
+    BitSet inTree = new BitSet(cellCount);
+    // the last direction the walk left every cell in
+    int[] exits = new int[cellCount];
+    int[] directions = new int[4];
+
+    inTree.set(random.nextInt(cellCount));
+
+    // starts a walk from every cell that is not in the maze yet
+    for (int start = inTree.nextClearBit(0); start < cellCount; start = inTree
+        .nextClearBit(start + 1)) {
+      // INVARIANT:
+      // the walk is finite with probability 1, as every step has a chance of
+      // heading straight for the maze
+      int cell = start;
+      while (!inTree.get(cell)) {
+        int count = 0;
+        // every direction inside the grid can be walked
+        for (int direction = 0; direction < 4; direction += 1) {
+          if (this.neighbor(width, height, cell, direction) != -1) {
+            directions[count] = direction;
+            count += 1;
+          }
+        }
+        exits[cell] = this.pickDirection(random, directions, count, biasMode);
+        cell = this.neighbor(width, height, cell, exits[cell]);
+      }
+
+      // carves the loop erased walk by following the last exits
+      cell = start;
+      while (!inTree.get(cell)) {
+        inTree.set(cell);
+        tree[treeSize] = this.edgeTowards(width, cell, exits[cell]);
+        treeSize += 1;
+        cell = this.neighbor(width, height, cell, exits[cell]);
+      }
+    }
+
+    return tree;
+  }
+}
+
+// carves the same maze as kruskal with Prim's algorithm: grows one tree from
+// the start, always adding the lightest edge out of it, using the weights
+// linkGrid draws and an indexed heap of the cells next to the tree
+class PrimGenerator extends AGridGenerator {
+
+  // returns the name of this generator
+  public String name() {
+    return "Prim";
+  }
+
+  // returns the edge ids of the spanning tree, in the order they are carved
+  public int[] spanningTree(int width, int height, Random random, int biasMode) {
+    KruskalGenerator weights = new KruskalGenerator();
+    int[] edges = new int[weights.edgeCount(width, height)];
+    long[] edgeKeys = new long[edges.length];
+    weights.drawWeights(width, height, random, biasMode, edges, edgeKeys);
+
+    int cellCount = width * height;
+    long[] keyOf = new long[cellCount * 2];
+    // files every key under its edge id
+    for (int position = 0; position < edges.length; position += 1) {
+      keyOf[edges[position]] = edgeKeys[position];
+    }
+
+    int[] tree = new int[cellCount - 1];
+    int treeSize = 0;
+    BitSet inTree = new BitSet(cellCount);
+    // the lightest edge into every cell waiting in the heap
+    int[] bestEdge = new int[cellCount];
+    IndexedMinHeap heap = new IndexedMinHeap(cellCount);
+
+    heap.insertOrDecrease(0, 0, -1);
+
+    // INVARIANT:
+    // every cell leaves the heap once, and is never added back once in the tree
+    while (!heap.isEmpty()) {
+      int cell = heap.removeMin();
+      inTree.set(cell);
+      if (cell != 0) {
+        tree[treeSize] = bestEdge[cell];
+        treeSize += 1;
+      }
+
+      // offers the edges to every neighbor outside the tree
+      for (int direction = 0; direction < 4; direction += 1) {
+        int next = this.neighbor(width, height, cell, direction);
+        if (next != -1 && !inTree.get(next)) {
+          int edge = this.edgeTowards(width, cell, direction);
+          if (heap.insertOrDecrease(next, keyOf[edge], edge)) {
+            bestEdge[next] = edge;
+          }
+        }
+      }
+    }
+
+    return tree;
+  }
+}
+
+// represents a binary min heap of the items 0 up to a capacity, each with an
+// unsigned long key and an int tie breaker, that can lower the key of an item
+// already in it
+class IndexedMinHeap {
+  private final int[] heap;
+  // the slot of every item in the heap, or -1 when it is not in the heap
+  private final int[] slots;
+  private final long[] keys;
+  private final int[] ties;
+  private int size;
+
+  // constructs an empty heap for the items 0 up to (not including) the capacity
+  IndexedMinHeap(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity of a heap cannot be negative!");
+    }
+    this.heap = new int[capacity];
+    this.slots = new int[capacity];
+    this.keys = new long[capacity];
+    this.ties = new int[capacity];
+    this.size = 0;
+    Arrays.fill(this.slots, -1);
+  }
+
+  // returns the amount of items in this heap
+  int size() {
+    return this.size;
+  }
+
+  // returns whether this heap has no items
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // returns whether the given item is in this heap
+  boolean contains(int item) {
+    return this.slots[item] != -1;
+  }
+
+  // returns the key of the given item, the last key it had if it was removed
+  long keyOf(int item) {
+    return this.keys[item];
+  }
+
+  // EFFECT: adds the item with the given key and tie breaker, or lowers them
+  // if the item is already in the heap with a heavier key
+  // returns whether the item was added or lowered
+  boolean insertOrDecrease(int item, long key, int tie) {
+    if (this.slots[item] == -1) {
+      this.heap[this.size] = item;
+      this.slots[item] = this.size;
+      this.size += 1;
+    }
+    else if (!this.isLighter(key, tie, this.keys[item], this.ties[item])) {
+      return false;
+    }
+    this.keys[item] = key;
+    this.ties[item] = tie;
+    this.siftUp(this.slots[item]);
+    return true;
+  }
+
+  // EFFECT: removes the item with the lightest key
+  // returns the removed item
+  int removeMin() {
+    if (this.size == 0) {
+      throw new RuntimeException("Cannot remove from an empty heap!");
+    }
+    int min = this.heap[0];
+    this.size -= 1;
+    this.slots[min] = -1;
+    if (this.size > 0) {
+      this.heap[0] = this.heap[this.size];
+      this.slots[this.heap[0]] = 0;
+      this.siftDown(0);
+    }
+    return min;
+  }
+
+  // returns whether the first key and tie breaker come before the second
+  boolean isLighter(long key, int tie, long otherKey, int otherTie) {
+    int compare = Long.compareUnsigned(key, otherKey);
+    return compare < 0 || (compare == 0 && tie < otherTie);
+  }
+
+  // returns whether the item in the first slot comes before the one in the
+  // second slot
+  boolean isLighterSlot(int slot, int other) {
+    return this.isLighter(this.keys[this.heap[slot]], this.ties[this.heap[slot]],
+        this.keys[this.heap[other]], this.ties[this.heap[other]]);
+  }
+
+  // EFFECT: moves the item in the given slot up until its parent is lighter
+  void siftUp(int slot) {
+    // INVARIANT:
+    // the slot gets closer to the root on every swap
+    while (slot > 0 && this.isLighterSlot(slot, (slot - 1) / 2)) {
+      this.swap(slot, (slot - 1) / 2);
+      slot = (slot - 1) / 2;
+    }
+  }
+
+  // EFFECT: moves the item in the given slot down until its children are
+  // heavier
+  void siftDown(int slot) {
+    // INVARIANT:
+    // the slot gets further from the root on every swap, and stops at a leaf
+    while (2 * slot + 1 < this.size) {
+      int child = 2 * slot + 1;
+      if (child + 1 < this.size && this.isLighterSlot(child + 1, child)) {
+        child += 1;
+      }
+      if (!this.isLighterSlot(child, slot)) {
+        return;
+      }
+      this.swap(slot, child);
+      slot = child;
+    }
+  }
+
+  // EFFECT: swaps the items in the two slots
+  void swap(int slot, int other) {
+    int item = this.heap[slot];
+    this.heap[slot] = this.heap[other];
+    this.heap[other] = item;
+    this.slots[this.heap[slot]] = slot;
+    this.slots[this.heap[other]] = other;
+  }
+}
+
+// identifies a generated topology by its dimensions, seed and bias mode
+class MazeKey {
+  private final int width;
+  private final int height;
+  private final int seed;
+  private final int biasMode;
+  // the name of the generator that carved the maze, or empty when its walls are
+  // stored, as then they do not depend on the generator
+  private final String generator;
+  private final boolean legacyRandom;
+  private final int start;
+  private final int end;
+
+  // constructs the key of the given maze carved by kruskal from java.util.Random,
+  // from the top left to the bottom right
+  MazeKey(int width, int height, int seed, int biasMode) {
+    this(width, height, seed, biasMode, "Kruskal", true);
+  }
+
+  // constructs the key of the given maze carved by the named generator from the
+  // given kind of random, from the top left to the bottom right
+  MazeKey(int width, int height, int seed, int biasMode, String generator,
+      boolean legacyRandom) {
+    this(width, height, seed, biasMode, generator, legacyRandom, 0, width * height - 1);
+  }
+
+  // constructs the key of the given stored maze, whatever carved its walls
+  MazeKey(int width, int height, int seed, int biasMode, boolean legacyRandom, int start,
+      int end) {
+    this(width, height, seed, biasMode, "", legacyRandom, start, end);
+  }
+
+  // constructs the key of the given maze
+  MazeKey(int width, int height, int seed, int biasMode, String generator,
+      boolean legacyRandom, int start, int end) {
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.biasMode = biasMode;
+    this.generator = generator;
+    this.legacyRandom = legacyRandom;
+    this.start = start;
+    this.end = end;
+  }
+
+  // returns whether the other object is a key for the same maze
+  public boolean equals(Object other) {
+    if (!(other instanceof MazeKey)) {
+      return false;
+    }
+    MazeKey that = (MazeKey) other;
+    return this.width == that.width && this.height == that.height && this.seed == that.seed
+        && this.biasMode == that.biasMode && this.generator.equals(that.generator)
+        && this.legacyRandom == that.legacyRandom && this.start == that.start
+        && this.end == that.end;
+  }
+
+  // returns a hash code that agrees with equals
+  public int hashCode() {
+    int hash = ((this.width * 31 + this.height) * 31 + this.seed) * 31 + this.biasMode;
+    hash = (hash * 31 + this.generator.hashCode()) * 31 + (this.legacyRandom ? 1 : 0);
+    return (hash * 31 + this.start) * 31 + this.end;
+  }
+}
+
+// represents a bounded cache of generated topologies, forgetting the least
+// recently used ones once the bytes held go over the budget
+// the newest topology is always kept, even if it alone is over the budget
+class MazeCache {
+  private final long byteBudget;
+  private final LinkedHashMap<MazeKey, GridMaze> entries;
+  private long bytesHeld;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  // constructs an empty cache holding at most about the given amount of bytes
+  MazeCache(long byteBudget) {
+    if (byteBudget < 1) {
+      throw new IllegalArgumentException("Byte budget of a maze cache must be positive!");
+    }
+    this.byteBudget = byteBudget;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.bytesHeld = 0;
+    this.hits = 0;
+    this.misses = 0;
+    this.evictions = 0;
+  }
+
+  // returns the topology of the given maze carved by kruskal from
+  // java.util.Random, generating it on a miss
+  // EFFECT: marks the topology as the most recently used, and forgets the least
+  // recently used ones while over the budget
+  synchronized GridMaze topology(int width, int height, int seed, int biasMode) {
+    return this.topology(width, height, seed, biasMode, new KruskalGenerator(), true);
+  }
+
+  // returns the topology of the given maze carved by the given generator from
+  // the given kind of random, generating it on a miss
+  // EFFECT: marks the topology as the most recently used, and forgets the least
+  // recently used ones while over the budget
+  synchronized GridMaze topology(int width, int height, int seed, int biasMode,
+      IMazeGenerator generator, boolean legacyRandom) {
+    MazeKey key = new MazeKey(width, height, seed, biasMode, generator.name(), legacyRandom);
+    GridMaze topology = this.entries.get(key);
+    if (topology != null) {
+      this.hits += 1;
+      return topology;
+    }
+
+    this.misses += 1;
+    topology = new GridMaze(width, height, seed, biasMode, generator, legacyRandom);
+    this.entries.put(key, topology);
+    this.bytesHeld += topology.sizeInBytes();
+    this.evictOverBudget();
+    return topology;
+  }
+
+  // EFFECT: forgets the least recently used topologies until the cache is
+  // within budget or only the newest is left
+  synchronized void evictOverBudget() {
+    Iterator<GridMaze> oldest = this.entries.values().iterator();
+    // INVARIANT:
+    // every step removes one entry, and the loop stops before the last one
+    while (this.bytesHeld > this.byteBudget && this.entries.size() > 1) {
+      this.bytesHeld -= oldest.next().sizeInBytes();
+      oldest.remove();
+      this.evictions += 1;
+    }
+  }
+
+  // EFFECT: forgets every topology, keeping the counts
+  synchronized void clear() {
+    this.entries.clear();
+    this.bytesHeld = 0;
+  }
+
+  // returns the amount of topologies held
+  synchronized int size() {
+    return this.entries.size();
+  }
+
+  // returns the amount of bytes of wall bitsets held
+  synchronized long bytesHeld() {
+    return this.bytesHeld;
+  }
+
+  // returns the most bytes this cache holds on to
+  long byteBudget() {
+    return this.byteBudget;
+  }
+
+  // returns the amount of lookups that found their topology
+  synchronized long hits() {
+    return this.hits;
+  }
+
+  // returns the amount of lookups that had to generate their topology
+  synchronized long misses() {
+    return this.misses;
+  }
+
+  // returns the amount of topologies forgotten to stay within budget
+  synchronized long evictions() {
+    return this.evictions;
+  }
+}
+
+// builds the next random maze of the last bias mode asked for ahead of time on a
+// background executor, so resetting hands over a maze that is already built
+// instead of building one on the ui thread
+// cancelling interrupts the build, which the maze checks for as it goes, so a
+// build for an old size does not hold up the one for the new size
+class MazePrefetcher {
+  // shared by every game, created the first time a game needs them
+  private static ExecutorService background;
+  private static MazePrefetcher shared;
+
+  private final ExecutorService executor;
+  private final Random seeds;
+  // the pending maze of each bias mode, null when none is being built
+  private final ArrayList<Future<Maze>> pending;
+  // cannot be final as the size changes along with the game's maze
+  private int width;
+  private int height;
+
+  // constructs a prefetcher building on the shared background thread with
+  // random seeds
+  MazePrefetcher() {
+    this(MazePrefetcher.background(), new Random());
+  }
+
+  // constructs a prefetcher building on the given executor, drawing its seeds
+  // from the given random
+  MazePrefetcher(ExecutorService executor, Random seeds) {
+    this.executor = executor;
+    this.seeds = seeds;
+    this.pending = new ArrayList<Future<Maze>>();
+    this.width = -1;
+    this.height = -1;
+    // starts out with nothing pending for any bias mode
+    for (int biasMode = 0; biasMode < 3; biasMode += 1) {
+      this.pending.add(null);
+    }
+  }
+
+  // returns the shared background executor, creating it on first use
+  static synchronized ExecutorService background() {
+    if (MazePrefetcher.background == null) {
+      MazePrefetcher.background = Executors.newSingleThreadExecutor(new DaemonThreadFactory());
+    }
+    return MazePrefetcher.background;
+  }
+
+  // returns the prefetcher shared by every game, creating it on first use
+  static synchronized MazePrefetcher shared() {
+    if (MazePrefetcher.shared == null) {
+      MazePrefetcher.shared = new MazePrefetcher();
+    }
+    return MazePrefetcher.shared;
+  }
+
+  // EFFECT: starts building the next maze of the given size and bias mode, unless
+  // it is already pending, cancelling the ones pending for another size or bias
+  // mode, so at most one maze is held besides the game's, as a big maze takes
+  // hundreds of megabytes
+  synchronized void prefetch(int width, int height, int biasMode) {
+    this.checkBiasMode(biasMode);
+    this.resize(width, height);
+    // cancels every other bias mode
+    for (int other = 0; other < 3; other += 1) {
+      if (other != biasMode && this.pending.get(other) != null) {
+        this.pending.get(other).cancel(true);
+        this.pending.set(other, null);
+      }
+    }
+    if (this.pending.get(biasMode) == null) {
+      this.pending.set(biasMode, this.executor.submit(
+          new MazeTask(width, height, this.seeds.nextInt(10000), biasMode)));
+    }
+  }
+
+  // EFFECT: hands over the pending maze of the given size and bias mode, waiting
+  // for it if it is still being built and building it here if none is pending,
+  // then starts building the next one
+  // returns a new random maze with the animation
+  synchronized Maze take(int width, int height, int biasMode) {
+    this.prefetch(width, height, biasMode);
+    Future<Maze> next = this.pending.get(biasMode);
+    this.pending.set(biasMode, null);
+
+    Maze maze;
+    try {
+      maze = next.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the next maze!", e);
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Building the next maze failed!", e.getCause());
+    }
+
+    this.prefetch(width, height, biasMode);
+    return maze;
+  }
+
+  // returns whether the maze of the given bias mode is pending
+  synchronized boolean isPending(int biasMode) {
+    this.checkBiasMode(biasMode);
+    return this.pending.get(biasMode) != null;
+  }
+
+  // returns whether the maze of the given bias mode is built and ready to take
+  synchronized boolean isReady(int biasMode) {
+    this.checkBiasMode(biasMode);
+    return this.pending.get(biasMode) != null && this.pending.get(biasMode).isDone();
+  }
+
+  // EFFECT: cancels every pending maze
+  synchronized void cancel() {
+    // cancels every bias mode
+    for (int biasMode = 0; biasMode < 3; biasMode += 1) {
+      if (this.pending.get(biasMode) != null) {
+        this.pending.get(biasMode).cancel(true);
+        this.pending.set(biasMode, null);
+      }
+    }
+  }
+
+  // EFFECT: cancels every pending maze if the size is changing, and remembers
+  // the new size
+  synchronized void resize(int width, int height) {
+    if (width != this.width || height != this.height) {
+      this.cancel();
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  // EFFECT: throws an exception unless the bias mode is 0, 1 or 2
+  void checkBiasMode(int biasMode) {
+    if (biasMode < 0 || biasMode > 2) {
+      throw new IllegalArgumentException("Bias mode must be 0, 1 or 2");
+    }
+  }
+}
+
+// builds one random maze with the animation
+class MazeTask implements Callable<Maze> {
+  private final int width;
+  private final int height;
+  private final int seed;
+  private final int biasMode;
+
+  // constructs a task building the maze of the given size, seed and bias mode
+  MazeTask(int width, int height, int seed, int biasMode) {
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.biasMode = biasMode;
+  }
+
+  // returns the built maze
+  public Maze call() {
+    return new Maze(this.width, this.height, this.seed, true, this.biasMode);
+  }
+}
+
+// makes threads that never keep the program running on their own
+class DaemonThreadFactory implements ThreadFactory {
+
+  // returns a daemon thread running the given work
+  public Thread newThread(Runnable work) {
+    Thread thread = new Thread(work, "maze-prefetch");
+    thread.setDaemon(true);
+    return thread;
+  }
+}
+
+// times maze generation and prints the results, run it with the sizes to
+// benchmark as arguments (defaults to a single 1000 x 1000 maze)
+class MazeBenchmark {
+
+  // runs the generation benchmarks
+  public static void main(String[] args) {
+    MazeBenchmark benchmark = new MazeBenchmark();
+    int[] sizes = new int[] { 1000 };
+    if (args.length > 0) {
+      sizes = new int[args.length];
+      // reads every size given
+      for (int index = 0; index < args.length; index += 1) {
+        sizes[index] = Integer.parseInt(args[index]);
+      }
+    }
+
+    // benchmarks every size
+    for (int size : sizes) {
+      System.out.println(benchmark.generation(size, size));
+    }
+    System.out.println(benchmark.streaming(sizes[0], sizes[0] * 10));
+    System.out.println(benchmark.modeSwitch(sizes[0], sizes[0]));
+    System.out.println(benchmark.sessions(sizes[0], sizes[0], 32));
+    System.out.println(benchmark.reset(sizes[0], sizes[0]));
+    System.out.println(benchmark.file(sizes[0], sizes[0]));
+    System.out.println(benchmark.ascii(sizes[0], sizes[0]));
+    System.out.println(benchmark.archive(sizes[0], sizes[0]));
+    System.out.println(benchmark.search(300, 300));
+    System.out.println(benchmark.solve(sizes[0], sizes[0]));
+    System.out.println(benchmark.junctions(2000, 2000));
+    System.out.println(benchmark.distances(sizes[0], sizes[0], 1000000));
+    System.out.println(benchmark.queries(1000, 1000, 1000000));
+    System.out.println(benchmark.pathCache(300, 300, 2000));
+
+    IMazeGenerator[] generators = new IMazeGenerator[] { new KruskalGenerator(),
+        new FilterKruskalGenerator(ForkJoinPool.commonPool()),
+        new BoruvkaGenerator(ForkJoinPool.commonPool()), new PrimGenerator(),
+        new BacktrackerGenerator(), new HuntAndKillGenerator(), new WilsonGenerator() };
+    // reports the speed of every generator at every size
+    for (int size : sizes) {
+      for (IMazeGenerator generator : generators) {
+        System.out.println(benchmark.engine(generator, size, size));
+      }
+    }
+  }
+
+  // returns a report of how many cells a second the given generator carves at
+  // the given size
+  String engine(IMazeGenerator generator, int width, int height) {
+    long nanos = this.time(generator, width, height);
+    return width + "x" + height + " " + generator.name() + ": "
+        + Math.round(this.cellsPerSecond(width * height, nanos)) + " cells/s";
+  }
+
+  // returns how long the given generator takes to carve a maze of the given size
+  long time(IMazeGenerator generator, int width, int height) {
+    long start = System.nanoTime();
+    generator.spanningTree(width, height, new Random(420), 0);
+    return System.nanoTime() - start;
+  }
+
+  // returns the speed of carving the given amount of cells in the given time
+  double cellsPerSecond(long cells, long nanos) {
+    return cells * 1e9 / Math.max(nanos, 1);
+  }
+
+  // returns a report of what every registered solver does on a maze of the
+  // given size, solved headless
+  String solve(int width, int height) {
+    GridMaze maze = new GridMaze(width, height, 4242, 0);
+    String report = width + "x" + height + " solve:";
+    // runs every registered solver
+    for (String name : SolverRegistry.standard().names()) {
+      SolveResult result = SolverRegistry.standard().get(name).solve(maze);
+      report += " " + name + " " + this.millis(result.getElapsedNanos()) + " ms ("
+          + result.getExpandedCells() + " expanded, " + result.getWrongMoves()
+          + " wrong, peak frontier " + result.getPeakFrontier() + ", path "
+          + result.getPath().length + ")";
+    }
+    return report;
+  }
+
+  // returns a report of how many random start and end pairs a second a batch on
+  // a maze of the given size answers, as lengths and as paths
+  String queries(int width, int height, int count) {
+    GridMaze maze = new GridMaze(width, height, 4242, 0);
+    MazeQueries queries = new MazeQueries(maze, ForkJoinPool.commonPool());
+    Random random = new Random(7);
+    int[] pairs = new int[2 * count];
+    // draws every start and end
+    for (int index = 0; index < pairs.length; index += 1) {
+      pairs[index] = random.nextInt(maze.cellCount());
+    }
+    int[] fewerPairs = Arrays.copyOf(pairs, 2 * Math.max(count / 100, 1));
+
+    long start = System.nanoTime();
+    queries.lengths(pairs);
+    long lengthNanos = System.nanoTime() - start;
+    start = System.nanoTime();
+    queries.paths(fewerPairs);
+    long pathNanos = System.nanoTime() - start;
+    return width + "x" + height + " queries on " + ForkJoinPool.commonPool().getParallelism()
+        + " threads: " + Math.round(count * 1e9 / Math.max(lengthNanos, 1)) + " lengths/s, "
+        + Math.round(fewerPairs.length / 2 * 1e9 / Math.max(pathNanos, 1)) + " paths/s";
+  }
+
+  // returns a report of how fast the given amount of requests over a maze of
+  // the given size are answered by solving each one, and by a path cache, when
+  // they keep asking for the same few start and end pairs
+  String pathCache(int width, int height, int requests) {
+    GridMaze maze = new GridMaze(width, height, 4242, 0);
+    Random random = new Random(7);
+    int[] recurring = new int[2 * 64];
+    // draws the pairs the requests keep coming back to
+    for (int index = 0; index < recurring.length; index += 1) {
+      recurring[index] = random.nextInt(maze.cellCount());
+    }
+    int[] pairs = new int[2 * requests];
+    // picks one of the recurring pairs for every request
+    for (int request = 0; request < requests; request += 1) {
+      int pick = random.nextInt(recurring.length / 2);
+      pairs[2 * request] = recurring[2 * pick];
+      pairs[2 * request + 1] = recurring[2 * pick + 1];
+    }
+    int solved = Math.max(requests / 20, 1);
+
+    IMazeSolver solver = new SearchSolver(true);
+    long start = System.nanoTime();
+    // solves a share of the requests from scratch, as that is all it takes to
+    // know how fast solving is
+    for (int request = 0; request < solved; request += 1) {
+      solver.solve(maze.withEnds(pairs[2 * request], pairs[2 * request + 1]));
+    }
+    long solveNanos = System.nanoTime() - start;
+    PathCache cache = new PathCache(1L << 20);
+    long cells = 0;
+    start = System.nanoTime();
+    // answers every request through the cache
+    for (int request = 0; request < requests; request += 1) {
+      cells += cache.path(maze, pairs[2 * request], pairs[2 * request + 1]).length;
+    }
+    long cacheNanos = System.nanoTime() - start;
+    return width + "x" + height + " path cache: "
+        + Math.round(solved * 1e9 / Math.max(solveNanos, 1)) + " solves/s, "
+        + Math.round(requests * 1e9 / Math.max(cacheNanos, 1)) + " cached requests/s, "
+        + Math.round(cache.hitRate() * 100) + "% hit rate (" + cache.subpathHits()
+        + " subpaths), " + cache.bytesHeld() + " bytes for " + cache.size() + " paths, "
+        + cells / requests + " cells per path";
+  }
+
+  // returns a report of how long indexing a maze of the given size takes, and
+  // how fast the index answers the given amount of random distance queries
+  String distances(int width, int height, int queries) {
+    GridMaze maze = new GridMaze(width, height, 4242, 0);
+    MazeDistanceIndex index = new MazeDistanceIndex(maze);
+    Random random = new Random(7);
+    long total = 0;
+    long start = System.nanoTime();
+    // asks for the distance between random pairs of cells
+    for (int query = 0; query < queries; query += 1) {
+      total += index.distance(random.nextInt(maze.cellCount()),
+          random.nextInt(maze.cellCount()));
+    }
+    long nanos = System.nanoTime() - start;
+    return width + "x" + height + " distances: indexed in "
+        + this.millis(index.getBuildNanos()) + " ms, " + queries + " queries in "
+        + this.millis(nanos) + " ms (" + Math.round(queries * 1e9 / Math.max(nanos, 1))
+        + " queries/s, mean distance " + total / Math.max(queries, 1) + ")";
+  }
+
+  // returns a report of how much of a horizontally biased maze of the given
+  // size the junction graph keeps, and how it searches compared to BFS
+  String junctions(int width, int height) {
+    GridMaze maze = new GridMaze(width, height, 4242, 1);
+    JunctionGraph graph = new JunctionGraph(maze);
+    SolveResult bfs = new SearchSolver(true).solve(maze);
+    SolveResult junction = new JunctionSolver().solve(maze);
+    return width + "x" + height + " junctions: " + graph.nodeCount() + " nodes, "
+        + graph.edgeCount() + " edges, contracted in "
+        + this.millis(graph.getBuildNanos()) + " ms, searched in "
+        + this.millis(junction.getElapsedNanos()) + " ms (" + junction.getExpandedCells()
+        + " expanded, BFS " + this.millis(bfs.getElapsedNanos()) + " ms and "
+        + bfs.getExpandedCells() + " expanded)";
+  }
+
+  // returns a report of how long the animated breadth and depth first searches
+  // take to step through a maze of the given size
+  String search(int width, int height) {
+    Maze maze = new Maze(width, height, 4242, false, 0);
+    long[] nanos = new long[2];
+    int[] steps = new int[2];
+    // times both searches, depth first first
+    for (int bfs = 0; bfs < 2; bfs += 1) {
+      maze.resetRunState();
+      maze.buildReferencesPath();
+      maze.labelCorrectCells();
+      maze.initMazeAuxilaries();
+      long start = System.nanoTime();
+      // INVARIANT:
+      // every update expands a new cell, so the search ends
+      while (maze.updateSearch(bfs == 1).getObj1()) {
+        steps[bfs] += 1;
+      }
+      nanos[bfs] = System.nanoTime() - start;
+    }
+
+    return width + "x" + height + " search: BFS " + steps[1] + " steps in "
+        + this.millis(nanos[1]) + " ms, DFS " + steps[0] + " steps in " + this.millis(nanos[0])
+        + " ms";
+  }
+
+  // returns a report of how small an archive of every bias mode of a maze of the
+  // given size is, and how fast its mazes load back compared to regenerating
+  String archive(int width, int height) {
+    try {
+      Path path = Files.createTempFile("mazes", ".mza");
+      MazeArchiveWriter writer = new MazeArchiveWriter(path);
+      long generateNanos = 0;
+      // archives every bias mode
+      for (int biasMode = 0; biasMode < 3; biasMode += 1) {
+        long start = System.nanoTime();
+        GridMaze maze = new GridMaze(width, height, 420, biasMode);
+        generateNanos += System.nanoTime() - start;
+        writer.add(maze);
+      }
+      writer.close();
+      long rawBytes = 3L * new WallCodec().encodedLength(width * height);
+      long archiveBytes = Files.size(path);
+
+      MazeArchive archive = new MazeArchive(path);
+      long start = System.nanoTime();
+      // loads every bias mode back
+      for (int biasMode = 0; biasMode < 3; biasMode += 1) {
+        archive.get(width, height, 420, biasMode);
+      }
+      long loadNanos = System.nanoTime() - start;
+      archive.close();
+      Files.delete(path);
+
+      return width + "x" + height + " archive: " + (100 * archiveBytes / rawBytes)
+          + "% of raw walls, load " + this.millis(loadNanos) + " ms ("
+          + Math.round(rawBytes * 1e3 / Math.max(loadNanos, 1)) + " MB/s), regenerate "
+          + this.millis(generateNanos) + " ms";
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not use a temporary maze archive!", e);
+    }
+  }
+
+  // returns a report of how long streaming a maze of the given size out to
+  // ascii art in a file and back in takes
+  String ascii(int width, int height) {
+    try {
+      Path path = Files.createTempFile("maze", ".txt");
+      long start = System.nanoTime();
+      AsciiRowSink sink = new AsciiRowSink(Files.newBufferedWriter(path), width);
+      new EllerGenerator(width, 420, 0).generate(height, sink);
+      sink.close();
+      long writeNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      try (Reader in = Files.newBufferedReader(path)) {
+        new AsciiMazeReader(in).read(new RowFileSink(OutputStream.nullOutputStream(), width));
+      }
+      long readNanos = System.nanoTime() - start;
+      Files.delete(path);
+
+      return width + "x" + height + " ascii: write " + this.millis(writeNanos) + " ms, read "
+          + this.millis(readNanos) + " ms";
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not use a temporary maze file!", e);
+    }
+  }
+
+  // returns a report of how long saving and loading a maze of the given size
+  // takes in the binary maze format
+  String file(int width, int height) {
+    GridMaze maze = new GridMaze(width, height, 4242, 0);
+    MazeFile file = new MazeFile();
+    try {
+      Path path = Files.createTempFile("maze", ".bin");
+      long start = System.nanoTime();
+      file.save(maze, path);
+      long saveNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      file.load(path);
+      long loadNanos = System.nanoTime() - start;
+      Files.delete(path);
+
+      return width + "x" + height + " file: save " + this.millis(saveNanos) + " ms, load "
+          + this.millis(loadNanos) + " ms";
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not use a temporary maze file!", e);
+    }
+  }
+
+  // returns a report of how long a reset key stalls the game on a maze of the
+  // given size, building the maze right away and handing over a prefetched one
+  String reset(int width, int height) {
+    ExecutorService executor = Executors.newSingleThreadExecutor(new DaemonThreadFactory());
+    MazePrefetcher prefetcher = new MazePrefetcher(executor, new Random(4242));
+    prefetcher.prefetch(width, height, 0);
+
+    long start = System.nanoTime();
+    new Maze(width, height, 4242, true, 0);
+    long buildNanos = System.nanoTime() - start;
+
+    // INVARIANT:
+    // the background thread finishes the pending maze in a finite amount of time
+    while (!prefetcher.isReady(0)) {
+      Thread.yield();
+    }
+    start = System.nanoTime();
+    prefetcher.take(width, height, 0);
+    long takeNanos = System.nanoTime() - start;
+    prefetcher.cancel();
+    executor.shutdownNow();
+
+    return width + "x" + height + " reset: built " + this.millis(buildNanos)
+        + " ms, prefetched " + this.millis(takeNanos) + " ms";
+  }
+
+  // returns a report of how long the given amount of searches take on one
+  // shared maze of the given size, one after another and on a thread pool
+  String sessions(int width, int height, int count) {
+    GridMaze maze = new GridMaze(width, height, 4242, 0);
+    List<ISolverSession> sessions = new ArrayList<>();
+    // alternates between breadth and depth first searches
+    for (int index = 0; index < count; index += 1) {
+      sessions.add(new SearchSession(maze, index % 2 == 0));
+    }
+    long start = System.nanoTime();
+    // runs every session on this thread
+    for (ISolverSession session : sessions) {
+      session.runToCompletion();
+    }
+    long sequentialNanos = System.nanoTime() - start;
+
+    sessions.clear();
+    // alternates between breadth and depth first searches
+    for (int index = 0; index < count; index += 1) {
+      sessions.add(new SearchSession(maze, index % 2 == 0));
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    start = System.nanoTime();
+    new SessionRunner(executor).runAll(sessions);
+    long parallelNanos = System.nanoTime() - start;
+    executor.shutdown();
+
+    return width + "x" + height + " " + count + " sessions: sequential "
+        + this.millis(sequentialNanos) + " ms, parallel " + this.millis(parallelNanos) + " ms";
+  }
+
+  // returns a report of how long switching modes takes on a maze of the given
+  // size, the first time and once its topology is cached
+  String modeSwitch(int width, int height) {
+    Maze maze = new Maze(width, height, 4242, true, 0);
+    long start = System.nanoTime();
+    new Maze(maze);
+    long missNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    Maze built = new Maze(maze);
+    long hitNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    built.resetRunState();
+    long resetNanos = System.nanoTime() - start;
+
+    return width + "x" + height + " mode switch: first " + this.millis(missNanos)
+        + " ms, cached " + this.millis(hitNanos) + " ms, reset " + this.millis(resetNanos)
+        + " ms";
+  }
+
+  // returns a report of how long it takes to stream a maze of the given size
+  // into a sink that throws the rows away
+  String streaming(int width, int height) {
+    long start = System.nanoTime();
+    RowFileSink sink = new RowFileSink(OutputStream.nullOutputStream(), width);
+    new EllerGenerator(width, 420, 0).generate(height, sink);
+    sink.close();
+    long nanos = System.nanoTime() - start;
+
+    return width + "x" + height + " streaming: Eller " + this.millis(nanos) + " ms";
+  }
+
+  // returns a report of how long it takes to generate a maze of the given
+  // size, as a cell maze and as a grid maze
+  String generation(int width, int height) {
+    long start = System.nanoTime();
+    new Maze(width, height, 420, false, 0);
+    long mazeNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    new GridMaze(width, height, 420, 0);
+    long gridNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    new GridMaze(width, height, 420, 0, ForkJoinPool.commonPool());
+    long parallelNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    new GridMaze(width, height, 420, 0, new BoruvkaGenerator(ForkJoinPool.commonPool()));
+    long boruvkaNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    new GridMaze(width, height, 420, 0, new FilterKruskalGenerator(ForkJoinPool.commonPool()),
+        false);
+    long counterNanos = System.nanoTime() - start;
+
+    return width + "x" + height + " generation: Maze " + this.millis(mazeNanos) + " ms, GridMaze "
+        + this.millis(gridNanos) + " ms, parallel GridMaze " + this.millis(parallelNanos)
+        + " ms, Boruvka GridMaze " + this.millis(boruvkaNanos) + " ms, counter random parallel "
+        + "GridMaze " + this.millis(counterNanos) + " ms";
+  }
+
+  // returns the given nanoseconds in milliseconds, to one decimal place
+  String millis(long nanos) {
+    return String.format("%.1f", nanos / 1e6);
+  }
+}
+
+class ExamplesMaze {
+
+  MazeSolver game;
+  MazeSolver gameHorizontal;
+  MazeSolver gameVertical;
+
+  MazeSolver gameTiny;
+  MazeSolver gameTinyCopy;
+
+  Maze maze1;
+  Maze maze1Copy;
+
+  Maze mazeTiny;
+
+  Cell cell1;
+  Cell cell2;
+  Cell cell1Copy;
+
+  Edge edge1;
+
+  HashMap<ICell, ICell> rep;
+  Cell cellH1;
+  Cell cellH2;
+  Cell cellH3;
+  Cell cellH4;
+
+  BorderCell borderCell1;
+
+  // EFFECT: initialize conditions
+  void initConds() {
+
+    // initialize cells
+    this.cell1 = new Cell();
+    this.cell1Copy = new Cell();
+    this.cell2 = new Cell();
+    this.edge1 = new Edge(this.cell1, this.cell2);
+
+    // initialize a border cell
+    this.borderCell1 = new BorderCell();
+
+    this.maze1 = new Maze(6, 9);
+    this.maze1Copy = new Maze(6, 9);
+
+    this.mazeTiny = new Maze(2, 2);
+
+    this.game = new MazeSolver(new Maze(100, 60));
+    this.gameHorizontal = new MazeSolver(new Maze(40, 25, 1));
+    this.gameVertical = new MazeSolver(new Maze(40, 25, 2));
+    this.gameTiny = new MazeSolver(new Maze(2, 2));
+    this.gameTinyCopy = new MazeSolver(new Maze(2, 2));
+
+    // initialize representatives
+    this.cellH1 = new Cell(new Edge(1), new Edge(2), new Edge(3), new Edge(4));
+    this.cellH2 = new Cell(new Edge(4), new Edge(1), new Edge(2), new Edge(3));
+    this.cellH3 = new Cell(new Edge(3), new Edge(4), new Edge(1), new Edge(2));
+    this.cellH4 = new Cell(new Edge(2), new Edge(3), new Edge(4), new Edge(1));
+
+    this.rep = new HashMap<>();
+    this.rep.put(this.cellH1, this.cellH1);
+    this.rep.put(this.cellH2, this.cellH1);
+    this.rep.put(this.cellH3, this.cellH2);
+    this.rep.put(this.cellH4, this.cellH4);
+
+  }
+
+  // EFFECT: labels the correct path of the given maze and runs its animated
+  // search of the given name to the end, like MazeSolver.onTick does
+  // returns the wrong moves the search made and the cells it expanded
+  Pair<Integer, Integer> replaySearch(Maze maze, String search) {
+    maze.buildReferencesPath();
+    maze.labelCorrectCells();
+    maze.initMazeAuxilaries();
+    int wrongMoves = 0;
+    int expanded = 1;
+    Pair<Boolean, Integer> step = this.searchStep(maze, search);
+    // INVARIANT:
+    // every update expands a new cell, so the search ends
+    while (step.getObj1()) {
+      wrongMoves += step.getObj2();
+      expanded += 1;
+      step = this.searchStep(maze, search);
+    }
+    return new Pair<Integer, Integer>(wrongMoves + step.getObj2(), expanded);
+  }
+
+  // EFFECT: takes the next step of the animated search of the given name
+  // returns whether to keep going and the wrong moves the step made
+  Pair<Boolean, Integer> searchStep(Maze maze, String search) {
+    if (search.equals("BFS")) {
+      return maze.updateSearch(true);
+    }
+    else if (search.equals("DFS")) {
+      return maze.updateSearch(false);
+    }
+    else if (search.equals("A*")) {
+      return maze.updateAStarSearch();
+    }
+    else if (search.equals("Bidirectional BFS")) {
+      return maze.updateBidirectionalSearch();
+    }
+    else {
+      throw new IllegalArgumentException("No animated search named " + search + "!");
+    }
+  }
+
+  void testIsLinked(Tester t) {
+    this.initConds();
+
+    // any border cell is never connected to any cell
+    t.checkExpect(new BorderCell().isLinked(this.cell1), false);
+    t.checkExpect(new BorderCell().isLinkedHelp(this.cell1), false);
+    t.checkExpect(this.cell1.isLinked(new BorderCell()), false);
+    t.checkExpect(borderCell1.isLinked(new BorderCell()), false);
+    // test that border cells are never linked to cells with filled edges
+    t.checkExpect(borderCell1.isLinkedHelp(cellH1), false);
+
+    // cell is not connected to itself
+    t.checkExpect(this.cell1.isLinked(this.cell1), false);
+    t.checkExpect(this.cell1.isLinkedHelp(this.cell1), false);
+
+    // cell is connected for right and left
+    this.cell1.setEdge(this.edge1, 1);
+    this.cell2.setEdge(this.edge1, 3);
+    // check that order doesnt matter
+    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+    t.checkExpect(this.cell2.isLinked(this.cell1), true);
+    // check helper
+    t.checkExpect(this.cell1.isLinkedHelp(this.cell2), true);
+    t.checkExpect(this.cell2.isLinkedHelp(this.cell1), true);
+
+    this.initConds();
+    // cell is connected for top and bottom
+    this.cell1.setEdge(this.edge1, 0);
+    this.cell2.setEdge(this.edge1, 2);
+    // check that order doesnt matter
+    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+    t.checkExpect(this.cell2.isLinked(this.cell1), true);
+    // check helper
+    t.checkExpect(this.cell1.isLinkedHelp(this.cell2), true);
+    t.checkExpect(this.cell2.isLinkedHelp(this.cell1), true);
+
+    this.initConds();
+    // cell is not connected for top and left
+    this.cell1.setEdge(this.edge1, 1);
+    this.cell2.setEdge(this.edge1, 2);
+    // check that order doesnt matter
+    t.checkExpect(this.cell1.isLinked(this.cell2), false);
+    t.checkExpect(this.cell2.isLinked(this.cell1), false);
+    // check helper
+    t.checkExpect(this.cell1.isLinkedHelp(this.cell2), false);
+    t.checkExpect(this.cell2.isLinkedHelp(this.cell1), false);
+
+  }
+
+  void testSetEdge(Tester t) {
+    this.initConds();
+
+    // check that cell refers to its original state (own copy)
+    t.checkExpect(this.cell1, this.cell1Copy);
+
+    // update edges
+    this.cell1.setEdge(this.edge1, 1);
+    this.cell2.setEdge(this.edge1, 3);
+
+    // check if they are connected
+    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+
+    this.initConds();
+    // update edges
+    this.cell1.setEdge(this.edge1, 0);
+    this.cell2.setEdge(this.edge1, 2);
+
+    // check if they are connected
+    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+
+    // check exceptions
+    t.checkException(new RuntimeException("Direction must be between 0 and 3 inclusive!"),
+        this.cell1, "setEdge", this.edge1, -1);
+    t.checkException(new RuntimeException("Direction must be between 0 and 3 inclusive!"),
+        this.cell1, "setEdge", this.edge1, 4);
+  }
+
+  void testSetLink(Tester t) {
+    this.initConds();
+
+    // make sure maze refers to its initial state (own copy)
+    t.checkExpect(this.maze1, this.maze1Copy);
+
+    // make sure this cell does not yet refer to second cell
+    t.checkExpect(this.cell1.isLinked(this.cell2), false);
+
+    // use setConnection
+    this.maze1.setLink(this.cell1, this.cell2, 0, 5.0);
+
+    // make sure this now refers to second cell
+    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+
+    this.initConds();
+
+    // make sure this cell does not yet refer to second cell
+    t.checkExpect(this.cell1.isLinked(this.cell2), false);
+
+    // use setConnection
+    this.maze1.setLink(this.cell1, this.cell2, 1, 5.0);
+
+    // make sure this now connects to second cell
+    t.checkExpect(this.cell1.isLinked(this.cell2), true);
+
+    this.initConds();
+
+    // testing with other kinds of cells
+    Cell cellWithRandomEdges = new Cell(this.edge1, new Edge(7.0),
+        new Edge(this.cell1Copy, this.cellH2), new Edge(this.cellH3, this.cellH4, 70.0));
+
+    // test with observatory method before setting the link
+    t.checkExpect(cellWithRandomEdges.isLinked(cellWithRandomEdges), false);
+    t.checkExpect(cellWithRandomEdges.isLinked(this.cell1), false);
+    t.checkExpect(cell1.isLinked(cellWithRandomEdges), false);
+
+    // method that changes the fields
+    this.maze1.setLink(cellWithRandomEdges, this.cell1, 0, 0);
+
+    // test with observatory method after setting the link
+    t.checkExpect(cellWithRandomEdges.isLinked(this.cell1), true);
+    t.checkExpect(this.cell1.isLinked(cellWithRandomEdges), true);
+
+    // test self-linking
+    this.maze1.setLink(cellWithRandomEdges, cellWithRandomEdges, 1, 7.0);
+    t.checkExpect(cellWithRandomEdges.isLinked(cellWithRandomEdges), true);
+  }
+
+  void testLinkGrid(Tester t) {
+    this.initConds();
+
+    // initialize the cell grid
+    ArrayList<ArrayList<Cell>> gridCell = new ArrayList<>();
+    gridCell.add(new ArrayList<>());
+    gridCell.add(new ArrayList<>());
+    gridCell.add(new ArrayList<>());
+
+    Cell cell00 = new Cell();
+    Cell cell01 = new Cell();
+    Cell cell02 = new Cell();
+
+    Cell cell10 = new Cell();
+    Cell cell11 = new Cell();
+    Cell cell12 = new Cell();
+
+    Cell cell20 = new Cell();
+    Cell cell21 = new Cell();
+    Cell cell22 = new Cell();
+
+    gridCell.get(0).add(cell00);
+    gridCell.get(0).add(cell01);
+    gridCell.get(0).add(cell02);
+
+    gridCell.get(1).add(cell10);
+    gridCell.get(1).add(cell11);
+    gridCell.get(1).add(cell12);
+
+    gridCell.get(2).add(cell20);
+    gridCell.get(2).add(cell21);
+    gridCell.get(2).add(cell22);
+
+    new Maze(3, 3).linkGrid(gridCell, new Random(420), 0);
+
+    // check connections for 00
+    t.checkExpect(cell00.isLinked(cell01), true);
+    t.checkExpect(cell00.isLinked(cell10), true);
+    t.checkExpect(cell00.isLinked(cell11), false);
+
+    t.checkExpect(cell00.isLinked(cell00), false);
+
+    // check connections for 02
+    t.checkExpect(cell02.isLinked(cell01), true);
+    t.checkExpect(cell02.isLinked(cell12), true);
+    t.checkExpect(cell02.isLinked(cell11), false);
+
+    t.checkExpect(cell02.isLinked(cell02), false);
+
+    // check connections for 20
+    t.checkExpect(cell20.isLinked(cell10), true);
+    t.checkExpect(cell20.isLinked(cell21), true);
+    t.checkExpect(cell20.isLinked(cell11), false);
+
+    t.checkExpect(cell20.isLinked(cell20), false);
+
+    // check connections for 22
+    t.checkExpect(cell22.isLinked(cell21), true);
+    t.checkExpect(cell22.isLinked(cell12), true);
+    t.checkExpect(cell22.isLinked(cell11), false);
+
+    t.checkExpect(cell22.isLinked(cell22), false);
+
+    // check connections for 01
+    t.checkExpect(cell01.isLinked(cell00), true);
+    t.checkExpect(cell01.isLinked(cell02), true);
+    t.checkExpect(cell01.isLinked(cell11), true);
+    t.checkExpect(cell01.isLinked(cell10), false);
+    t.checkExpect(cell01.isLinked(cell12), false);
+
+    t.checkExpect(cell01.isLinked(cell01), false);
+
+    // check connections for 21
+    t.checkExpect(cell21.isLinked(cell22), true);
+    t.checkExpect(cell21.isLinked(cell20), true);
+    t.checkExpect(cell21.isLinked(cell11), true);
+    t.checkExpect(cell21.isLinked(cell10), false);
+    t.checkExpect(cell21.isLinked(cell12), false);
+
+    t.checkExpect(cell21.isLinked(cell21), false);
+
+    // check connections for 10
+    t.checkExpect(cell10.isLinked(cell00), true);
+    t.checkExpect(cell10.isLinked(cell20), true);
+    t.checkExpect(cell10.isLinked(cell11), true);
+    t.checkExpect(cell10.isLinked(cell01), false);
+    t.checkExpect(cell10.isLinked(cell21), false);
+
+    t.checkExpect(cell10.isLinked(cell10), false);
+
+    // check connections for 12
+    t.checkExpect(cell12.isLinked(cell02), true);
+    t.checkExpect(cell12.isLinked(cell22), true);
+    t.checkExpect(cell12.isLinked(cell11), true);
+    t.checkExpect(cell12.isLinked(cell01), false);
+    t.checkExpect(cell12.isLinked(cell21), false);
+
+    t.checkExpect(cell12.isLinked(cell12), false);
+
+    // check connections for 11
+    t.checkExpect(cell11.isLinked(cell01), true);
+    t.checkExpect(cell11.isLinked(cell10), true);
+    t.checkExpect(cell11.isLinked(cell21), true);
+    t.checkExpect(cell11.isLinked(cell12), true);
+
+    t.checkExpect(cell11.isLinked(cell00), false);
+    t.checkExpect(cell11.isLinked(cell02), false);
+    t.checkExpect(cell11.isLinked(cell20), false);
+    t.checkExpect(cell11.isLinked(cell22), false);
+
+    t.checkExpect(cell11.isLinked(cell11), false);
+  }
+
+  void testRenderEdge(Tester t) {
+    this.initConds();
+    Edge e = new Edge();
+
+    // test edge is connected
+    t.checkExpect(e.render(false), new RectangleImage(10, 1, OutlineMode.SOLID, Color.black));
+    t.checkExpect(e.render(true), new RectangleImage(1, 10, OutlineMode.SOLID, Color.black));
+
+    // connected edge
+    e.setTrue();
+
+    // test edge is connected
+    t.checkExpect(e.render(false), new EmptyImage());
+    t.checkExpect(e.render(true), new EmptyImage());
+
+  }
+
+  void testRenderCell(Tester t) {
+    this.initConds();
+
+    // border cells render an empty image regardless of arguments
+    t.checkExpect(this.borderCell1.render(false, 0), new EmptyImage());
+    t.checkExpect(this.borderCell1.render(true, 999), new EmptyImage());
+
+    // initialize 2x2 grid of cells
+    Cell topLeft = new Cell();
+    Cell topRight = new Cell();
+    Cell bottomLeft = new Cell();
+    Cell bottomRight = new Cell();
+
+    Edge edgeTop = new Edge(topLeft, topRight);
+    Edge edgeRight = new Edge(topRight, bottomRight);
+    Edge edgeLeft = new Edge(bottomLeft, topLeft);
+    Edge edgeBottom = new Edge(bottomLeft, bottomRight);
+
+    topLeft.setEdge(edgeTop, 1);
+    topLeft.setEdge(edgeLeft, 2);
+
+    topRight.setEdge(edgeTop, 3);
+    topRight.setEdge(edgeRight, 2);
+
+    bottomLeft.setEdge(edgeBottom, 1);
+    bottomLeft.setEdge(edgeLeft, 0);
+
+    bottomRight.setEdge(edgeBottom, 3);
+    bottomRight.setEdge(edgeRight, 0);
+
+    // check render when false
+    t.checkExpect(topLeft.render(false, -1),
+        new AboveImage(topLeft.renderRow(false, -1), bottomLeft.render(false, -1)));
+
+    // check render when true
+    t.checkExpect(topLeft.render(true, -1),
+        new AboveImage(topLeft.renderRow(true, -1), bottomLeft.render(true, -1)));
+
+    // check different values of step gradient and boolean combos
+    t.checkExpect(topLeft.render(true, 5),
+        new AboveImage(topLeft.renderRow(true, 5), bottomLeft.render(true, 5)));
+    t.checkExpect(topLeft.render(false, 5),
+        new AboveImage(topLeft.renderRow(false, 5), bottomLeft.render(false, 5)));
+    t.checkExpect(topLeft.render(true, 0),
+        new AboveImage(topLeft.renderRow(true, 0), bottomLeft.render(true, 0)));
+  }
+
+  void testRenderRowCell(Tester t) {
+    this.initConds();
+
+    // border cells always render empty images, regardless of arguments
+    t.checkExpect(this.borderCell1.renderRow(false, 0), new EmptyImage());
+    t.checkExpect(this.borderCell1.renderRow(true, 222), new EmptyImage());
+    t.checkExpect(new BorderCell().renderRow(true, 0), new EmptyImage());
+    t.checkExpect(this.borderCell1.renderRow(false, 888), new EmptyImage());
+
+    // initialize 2x2 grid of cells
+    Cell topLeft = new Cell();
+    Cell topRight = new Cell();
+    Cell bottomLeft = new Cell();
+    Cell bottomRight = new Cell();
+
+    Edge edgeTop = new Edge(topLeft, topRight);
+    Edge edgeRight = new Edge(topRight, bottomRight);
+    Edge edgeLeft = new Edge(bottomLeft, topLeft);
+    Edge edgeBottom = new Edge(bottomLeft, bottomRight);
+
+    // top or right, node 2
+
+    topLeft.setEdge(edgeTop, 1);
+    topLeft.setEdge(edgeLeft, 2);
+
+    topRight.setEdge(edgeTop, 3);
+    topRight.setEdge(edgeRight, 2);
+
+    bottomLeft.setEdge(edgeBottom, 1);
+    bottomLeft.setEdge(edgeLeft, 0);
+
+    bottomRight.setEdge(edgeBottom, 3);
+    bottomRight.setEdge(edgeRight, 0);
+
+    // test displayGradient
+    // set display gradient to true with step counts from 0-2
+    topLeft.setGradient(0);
+    topRight.setGradient(1);
+    bottomLeft.setGradient(1);
+    bottomRight.setGradient(2);
+
+    double scaledTo1 = (double) 0 / 2;
+    int red = (int) (255 * (1 - scaledTo1));
+    int blue = (int) (255 * scaledTo1);
+
+    // check true case
+    t.checkExpect(topLeft.renderRow(false, 2),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(red, 0, blue))),
+            topRight.renderRow(false, 2)));
+
+    // check false case
+    t.checkExpect(topLeft.renderRow(false, 2),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(red, 0, blue))),
+            topRight.renderRow(false, 2)));
+
+    // reset displayGradient
+    topLeft.resetGradient();
+    topRight.resetGradient();
+    bottomLeft.resetGradient();
+    bottomRight.resetGradient();
+
+    // set solution
+    topLeft.setSolution(true);
+    topRight.setSolution(true);
+    bottomLeft.setSolution(true);
+    bottomRight.setSolution(true);
+
+    // test solution
+    t.checkExpect(topLeft.renderRow(false, -1),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(83, 221, 108))),
+            topRight.renderRow(false, -1)));
+
+    t.checkExpect(topLeft.renderRow(true, -1),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(83, 221, 108))),
+            topRight.renderRow(true, -1)));
+
+    t.checkExpect(topLeft.renderRow(false, 3),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(83, 221, 108))),
+            topRight.renderRow(false, 3)));
+
+    // clear solution
+    topLeft.setSolution(false);
+    topRight.setSolution(false);
+    bottomLeft.setSolution(false);
+    bottomRight.setSolution(false);
+
+    // indicate player
+    topLeft.setPlayerIndicator(true);
+
+    // test player tile
+    t.checkExpect(topLeft.renderRow(false, -1),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(192, 169, 176))),
+            topRight.renderRow(false, -1)));
+    t.checkExpect(topLeft.renderRow(true, -1),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(192, 169, 176))),
+            topRight.renderRow(true, -1)));
+    t.checkExpect(topLeft.renderRow(false, 6),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(192, 169, 176))),
+            topRight.renderRow(true, 6)));
+
+    // reset player indicator
+    topLeft.setPlayerIndicator(false);
+
+    // this.visited is true, but show visited is false
+    topLeft.setVisited(true);
+    topRight.setVisited(true);
+    bottomLeft.setVisited(true);
+    bottomRight.setVisited(true);
+
+    t.checkExpect(topLeft.renderRow(false, 6),
+        new BesideImage(
+            topLeft.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, Color.white)),
+            topRight.renderRow(false, 6)));
+    t.checkExpect(topLeft.renderRow(false, 0),
+        new BesideImage(
+            topLeft.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, Color.white)),
+            topRight.renderRow(false, 0)));
+    t.checkExpect(topLeft.renderRow(false, -1),
+        new BesideImage(
+            topLeft.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, Color.white)),
+            topRight.renderRow(false, -1)));
+
+    // this.visited is true, and show visited is true
+    t.checkExpect(topLeft.renderRow(true, 6),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(151, 239, 233))),
+            topRight.renderRow(true, 6)));
+    t.checkExpect(topLeft.renderRow(true, 0),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(151, 239, 233))),
+            topRight.renderRow(true, 0)));
+    t.checkExpect(topLeft.renderRow(true, -1),
+        new BesideImage(
+            topLeft
+                .drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, new Color(151, 239, 233))),
+            topRight.renderRow(true, -1)));
+
+    // base case
+    topLeft.setVisited(false);
+    topRight.setVisited(false);
+    bottomLeft.setVisited(false);
+    bottomRight.setVisited(false);
+
+    t.checkExpect(topLeft.renderRow(false, 6),
         new BesideImage(
             topLeft.drawCell(new RectangleImage(10, 10, OutlineMode.SOLID, Color.white)),
             topRight.renderRow(false, 6)));
@@ -1858,280 +8890,2565 @@ class ExamplesMaze {
             topRight.renderRow(true, -1)));
   }
 
-  void testAsCell(Tester t) {
+  void testAsCell(Tester t) {
+    this.initConds();
+
+    // border cells will always throw exceptions since border cells are not regular
+    // cells
+    t.checkException(new RuntimeException("Cannot call asCell on border cell!"), this.borderCell1,
+        "asCell");
+
+    // test asCell on Cell class
+    Cell cell = new Cell();
+    t.checkExpect(cell.asCell(), cell);
+
+  }
+
+  void testFindMaxSteps(Tester t) {
+    this.initConds();
+
+    // border cells always return the argument value for max steps, face value
+    t.checkExpect(this.borderCell1.findMaxSteps(0), 0);
+    t.checkExpect(this.borderCell1.findMaxSteps(999), 999);
+    t.checkExpect(this.borderCell1.findMaxSteps(-1), -1);
+
+    // initialize 2x2 grid of cells
+    Cell topLeft = new Cell();
+    Cell topRight = new Cell();
+    Cell bottomLeft = new Cell();
+    Cell bottomRight = new Cell();
+
+    Edge edgeTop = new Edge(topLeft, topRight);
+    Edge edgeRight = new Edge(topRight, bottomRight);
+    Edge edgeLeft = new Edge(bottomLeft, topLeft);
+    Edge edgeBottom = new Edge(bottomLeft, bottomRight);
+
+    // top or right, node 2
+
+    topLeft.setEdge(edgeTop, 1);
+    topLeft.setEdge(edgeLeft, 2);
+
+    topRight.setEdge(edgeTop, 3);
+    topRight.setEdge(edgeRight, 2);
+
+    bottomLeft.setEdge(edgeBottom, 1);
+    bottomLeft.setEdge(edgeLeft, 0);
+
+    bottomRight.setEdge(edgeBottom, 3);
+    bottomRight.setEdge(edgeRight, 0);
+
+    // set steps
+    topLeft.setGradient(0);
+    topRight.setGradient(1);
+    bottomLeft.setGradient(1);
+    bottomRight.setGradient(2);
+
+    t.checkExpect(topLeft.findMaxSteps(0), 2);
+
+    // set steps
+    topLeft.setGradient(0);
+    topRight.setGradient(1);
+    bottomLeft.setGradient(1);
+    bottomRight.setGradient(2);
+
+    t.checkExpect(topLeft.findMaxSteps(0), 2);
+
+    // set steps
+    topLeft.setGradient(0);
+    topRight.setGradient(1);
+    bottomLeft.setGradient(0);
+    bottomRight.setGradient(2);
+
+    t.checkExpect(topLeft.findMaxSteps(0), 2);
+
+    // set steps
+    topLeft.setGradient(0);
+    topRight.setGradient(0);
+    bottomLeft.setGradient(0);
+    bottomRight.setGradient(0);
+
+    t.checkExpect(topLeft.findMaxSteps(0), 0);
+
+  }
+
+  void testFindMaxStepsInRow(Tester t) {
+    this.initConds();
+
+    // border cells always return the argument value for max steps in row, face
+    // value
+    t.checkExpect(this.borderCell1.findMaxStepsInRow(0), 0);
+    t.checkExpect(this.borderCell1.findMaxStepsInRow(-1), -1);
+    t.checkExpect(this.borderCell1.findMaxStepsInRow(999), 999);
+
+    // initialize 2x2 grid of cells
+    Cell topLeft = new Cell();
+    Cell topRight = new Cell();
+    Cell bottomLeft = new Cell();
+    Cell bottomRight = new Cell();
+
+    Edge edgeTop = new Edge(topLeft, topRight);
+    Edge edgeRight = new Edge(topRight, bottomRight);
+    Edge edgeLeft = new Edge(bottomLeft, topLeft);
+    Edge edgeBottom = new Edge(bottomLeft, bottomRight);
+
+    // top or right, node 2
+
+    topLeft.setEdge(edgeTop, 1);
+    topLeft.setEdge(edgeLeft, 2);
+
+    topRight.setEdge(edgeTop, 3);
+    topRight.setEdge(edgeRight, 2);
+
+    bottomLeft.setEdge(edgeBottom, 1);
+    bottomLeft.setEdge(edgeLeft, 0);
+
+    bottomRight.setEdge(edgeBottom, 3);
+    bottomRight.setEdge(edgeRight, 0);
+
+    // set steps
+    topLeft.setGradient(0);
+    topRight.setGradient(1);
+    bottomLeft.setGradient(1);
+    bottomRight.setGradient(2);
+
+    t.checkExpect(topLeft.findMaxStepsInRow(0), 1);
+
+    // set steps
+    topLeft.setGradient(1);
+    topRight.setGradient(0);
+    bottomLeft.setGradient(1);
+    bottomRight.setGradient(2);
+
+    t.checkExpect(topLeft.findMaxSteps(0), 2);
+
+    // set steps
+    topLeft.setGradient(0);
+    topRight.setGradient(1);
+    bottomLeft.setGradient(0);
+    bottomRight.setGradient(2);
+
+    t.checkExpect(bottomLeft.findMaxSteps(0), 2);
+
+    // set steps
+    topLeft.setGradient(0);
+    topRight.setGradient(0);
+    bottomLeft.setGradient(0);
+    bottomRight.setGradient(0);
+
+    t.checkExpect(bottomLeft.findMaxSteps(0), 0);
+  }
+
+  void testGetWeight(Tester t) {
+    this.initConds();
+
+    t.checkExpect(new Edge().getWeight(), -1.0);
+    Edge edge = new Edge(1);
+    t.checkExpect(edge.getWeight(), 1.0);
+    t.checkExpect(this.edge1.getWeight(), -1.0);
+    t.checkExpect(new Edge(this.cellH1, this.cellH2, 20.0).getWeight(), 20.0);
+
+    Edge edgeWithDirs1 = new Edge(this.cellH2, this.cellH4);
+    Edge edgeWithDirs2 = new Edge(this.cellH2, this.cellH4, 88.0);
+    t.checkExpect(edgeWithDirs1.getWeight(), -1.0);
+    t.checkExpect(edgeWithDirs2.getWeight(), 88.0);
+  }
+
+  void testCompareEdges(Tester t) {
+    this.initConds();
+
+    CompareEdges compareEdges = new CompareEdges();
+    t.checkExpect(compareEdges.compare(new Edge(1), new Edge(1)), 0);
+    t.checkExpect(compareEdges.compare(new Edge(0), new Edge(1)), -1);
+    t.checkExpect(compareEdges.compare(new Edge(1), new Edge(0)), 1);
+  }
+
+  void testFind(Tester t) {
     this.initConds();
 
-    // border cells will always throw exceptions since border cells are not regular
-    // cells
-    t.checkException(new RuntimeException("Cannot call asCell on border cell!"), this.borderCell1,
-        "asCell");
+    // check for recursive calls
+    t.checkExpect(new Maze(6, 9).find(this.rep, this.cellH1), this.cellH1);
+    t.checkExpect(new Maze(6, 9).find(this.rep, this.cellH2), this.cellH1);
+    t.checkExpect(new Maze(6, 9).find(this.rep, this.cellH3), this.cellH1);
+    t.checkExpect(new Maze(6, 9).find(this.rep, this.cellH4), this.cellH4);
 
-    // test asCell on Cell class
-    Cell cell = new Cell();
-    t.checkExpect(cell.asCell(), cell);
+    // check for exception
+    t.checkException(new RuntimeException("Node is not here"), new Maze(6, 9), "find", this.rep,
+        new Cell());
+
+    // check other kinds of mazes
+    t.checkExpect(this.maze1.find(this.rep, this.cellH1), this.cellH1);
+    t.checkException(new RuntimeException("Node is not here"), this.maze1, "find", this.rep,
+        this.borderCell1);
+    Cell randomCell = new Cell(new Edge(9.9), new Edge(99.9), new Edge(999.9), new Edge(-1.0));
+    HashMap<ICell, ICell> randomReps = new HashMap<>();
+    randomReps.put(randomCell, randomCell);
+    randomReps.put(this.cell1, this.cellH1);
+    randomReps.put(this.cellH2, this.cellH2);
+    randomReps.put(new Cell(), this.cell1Copy);
 
+    // more cases
+    t.checkExpect(new Maze(100, 60).find(randomReps, randomCell), randomCell);
+    t.checkExpect(new Maze(42, 2).find(randomReps, this.cellH2), this.cellH2);
+
+    // remove something from our random reps
+    randomReps.remove(new Cell());
+    t.checkException(new RuntimeException("Node is not here"), this.maze1, "find", randomReps,
+        new Cell());
+
+    // re-add and test the rest
+    randomReps.put(this.cell1Copy, this.cell1Copy);
+    t.checkExpect(this.maze1.find(randomReps, this.cell1Copy), this.cell1Copy);
+    t.checkException(new RuntimeException("Node is not here"), new Maze(99, 99), "find", randomReps,
+        this.cell1);
+    t.checkException(new RuntimeException("Node is not here"), new Maze(3, 5), "find", randomReps,
+        this.cellH1);
+    t.checkException(new RuntimeException("Node is not here"), new Maze(9, 6), "find", randomReps,
+        new BorderCell());
   }
 
-  void testFindMaxSteps(Tester t) {
+  void testUnion(Tester t) {
     this.initConds();
 
-    // border cells always return the argument value for max steps, face value
-    t.checkExpect(this.borderCell1.findMaxSteps(0), 0);
-    t.checkExpect(this.borderCell1.findMaxSteps(999), 999);
-    t.checkExpect(this.borderCell1.findMaxSteps(-1), -1);
+    // union
+    new Maze(6, 9).union(this.rep, this.cellH1, this.cellH2);
+    // check hashmap for union operation
+    t.checkExpect(this.rep.get(this.cellH1), this.cellH1);
 
-    // initialize 2x2 grid of cells
-    Cell topLeft = new Cell();
-    Cell topRight = new Cell();
-    Cell bottomLeft = new Cell();
-    Cell bottomRight = new Cell();
+    // reset
+    this.initConds();
+    // union
+    new Maze(6, 9).union(this.rep, this.cellH4, this.cellH1);
+    // check hashmap for union operation
+    t.checkExpect(this.rep.get(this.cellH4), this.cellH1);
 
-    Edge edgeTop = new Edge(topLeft, topRight);
-    Edge edgeRight = new Edge(topRight, bottomRight);
-    Edge edgeLeft = new Edge(bottomLeft, topLeft);
-    Edge edgeBottom = new Edge(bottomLeft, bottomRight);
+    // reset
+    this.initConds();
+    // union
+    new Maze(6, 9).union(this.rep, this.cellH3, this.cellH2);
+    // check hashmap for union operation
+    t.checkExpect(this.rep.get(this.rep.get(this.cellH3)), this.cellH1);
 
-    // top or right, node 2
+    // reset
+    this.initConds();
+    // union
+    new Maze(6, 9).union(this.rep, this.cellH2, this.cellH4);
+    // check hashmap for union operation
+    t.checkExpect(this.rep.get(this.rep.get(this.cellH2)), this.cellH4);
 
-    topLeft.setEdge(edgeTop, 1);
-    topLeft.setEdge(edgeLeft, 2);
+    // reset
+    this.initConds();
+    // union
+    new Maze(6, 9).union(this.rep, this.cellH3, this.cellH4);
+    // check hashmap for union operation
+    t.checkExpect(this.rep.get(this.rep.get(this.rep.get(this.cellH3))), this.cellH4);
 
-    topRight.setEdge(edgeTop, 3);
-    topRight.setEdge(edgeRight, 2);
+    // reset
+    this.initConds();
+    // other cases
+    HashMap<ICell, ICell> otherReps = new HashMap<>();
+    otherReps.put(this.cellH1, this.cellH1);
+    otherReps.put(this.cellH2, this.cellH1);
+    otherReps.put(this.cellH4, this.cellH2);
 
-    bottomLeft.setEdge(edgeBottom, 1);
-    bottomLeft.setEdge(edgeLeft, 0);
+    // check our reps
+    t.checkExpect(otherReps.get(this.cellH4), this.cellH2);
+    t.checkExpect(otherReps.get(this.cellH2), this.cellH1);
+    t.checkExpect(otherReps.get(this.cellH1), this.cellH1);
 
-    bottomRight.setEdge(edgeBottom, 3);
-    bottomRight.setEdge(edgeRight, 0);
+    // union
+    this.maze1.union(otherReps, this.cellH4, this.cellH2);
 
-    // set steps
-    topLeft.setGradient(0);
-    topRight.setGradient(1);
-    bottomLeft.setGradient(1);
-    bottomRight.setGradient(2);
+    // check hashmap to verify union
+    // nothing should change since find would return the same thing based on these
+    // premises
+    t.checkExpect(otherReps.get(otherReps.get(otherReps.get(otherReps.get(this.cellH2)))),
+        this.cellH1);
+    t.checkExpect(otherReps.get(this.cellH1), this.cellH1);
+  }
 
-    t.checkExpect(topLeft.findMaxSteps(0), 2);
+  void testUnionFind(Tester t) {
+    this.initConds();
 
-    // set steps
-    topLeft.setGradient(0);
-    topRight.setGradient(1);
-    bottomLeft.setGradient(1);
-    bottomRight.setGradient(2);
+    UnionFind forest = new UnionFind(6);
+
+    // every index starts off as its own representative
+    t.checkExpect(forest.size(), 6);
+    t.checkExpect(forest.find(0), 0);
+    t.checkExpect(forest.find(5), 5);
+
+    // union of two separate trees succeeds
+    t.checkExpect(forest.union(0, 1), true);
+    t.checkExpect(forest.find(0), forest.find(1));
+    // union of the same tree does nothing
+    t.checkExpect(forest.union(1, 0), false);
+
+    // build a longer chain and make sure every member agrees
+    t.checkExpect(forest.union(2, 3), true);
+    t.checkExpect(forest.union(3, 1), true);
+    t.checkExpect(forest.union(4, 2), true);
+    t.checkExpect(forest.find(4), forest.find(0));
+    t.checkExpect(forest.find(3), forest.find(1));
+    t.checkExpect(forest.union(0, 4), false);
+
+    // untouched index stays separate
+    t.checkExpect(forest.find(5) == forest.find(0), false);
+    t.checkExpect(forest.union(5, 0), true);
+    t.checkExpect(forest.find(5), forest.find(2));
+    // the read only find agrees with find without changing anything
+    t.checkExpect(forest.findWithoutCompression(4), forest.find(4));
+    t.checkExpect(forest.findWithoutCompression(5), forest.find(0));
+
+    // empty forests are fine, negative sizes are not
+    // resetting splits every tree apart again
+    forest.reset();
+    t.checkExpect(forest.find(4), 4);
+    t.checkExpect(forest.union(4, 5), true);
+    t.checkExpect(forest.find(0) == forest.find(5), false);
+
+    t.checkExpect(new UnionFind(0).size(), 0);
+    t.checkConstructorException(
+        new IllegalArgumentException("Size of a union find cannot be negative!"), "UnionFind",
+        -1);
+
+    // a long chain of unions does not overflow the stack when finding
+    UnionFind bigForest = new UnionFind(1000000);
+    for (int index = 1; index < 1000000; index += 1) {
+      bigForest.union(index - 1, index);
+    }
+    t.checkExpect(bigForest.find(0), bigForest.find(999999));
+  }
+
+  void testCellIndex(Tester t) {
+    this.initConds();
+
+    // a standalone cell is at index 0 of its own overlay
+    t.checkExpect(this.cell1.getIndex(), 0);
+    t.checkExpect(new Cell(new MazeOverlay(50), 42).getIndex(), 42);
+
+    // the cells of a maze's grid are at their grid position
+    Maze maze = new Maze(3, 2);
+    ArrayList<ArrayList<Cell>> nodeGrid = maze.buildNodeGrid();
+    maze.linkGrid(nodeGrid, new Random(420), 0);
+    maze.createMinimumSpanning(nodeGrid, false);
+
+    t.checkExpect(nodeGrid.get(0).get(0).getIndex(), 0);
+    t.checkExpect(nodeGrid.get(0).get(2).getIndex(), 2);
+    t.checkExpect(nodeGrid.get(1).get(0).getIndex(), 3);
+    t.checkExpect(nodeGrid.get(1).get(2).getIndex(), 5);
+
+    // a spanning tree of 6 cells reaches every cell from the top left
+    ArrayList<Cell> seen = new ArrayList<>();
+    nodeGrid.get(0).get(0).traverse(0, seen, false);
+    t.checkExpect(seen.size(), 6);
+  }
+
+  void testEdgeOrder(Tester t) {
+    this.initConds();
+
+    EdgeOrder order = new EdgeOrder();
+
+    // keys compare (unsigned) the same way as the weights
+    t.checkExpect(Long.compareUnsigned(order.weightKey(0.25), order.weightKey(0.5)) < 0, true);
+    t.checkExpect(Long.compareUnsigned(order.weightKey(-1.0), order.weightKey(0.0)) < 0, true);
+    t.checkExpect(Long.compareUnsigned(order.weightKey(-2.0), order.weightKey(-1.0)) < 0, true);
+    t.checkExpect(order.weightKey(0.75), order.weightKey(0.75));
+
+    // positions come back sorted, with ties kept in their original order
+    long[] keys = new long[] { order.weightKey(0.5), order.weightKey(0.1), order.weightKey(0.5),
+        order.weightKey(-3.0), order.weightKey(0.1) };
+    t.checkExpect(order.sortedPositions(keys), new int[] { 3, 1, 4, 0, 2 });
+
+    // empty and single keys
+    t.checkExpect(order.sortedPositions(new long[0]), new int[0]);
+    t.checkExpect(order.sortedPositions(new long[] { 7 }), new int[] { 0 });
+
+    // agrees with a comparison sort on random weights
+    Random random = new Random(420);
+    long[] randomKeys = new long[2000];
+    ArrayList<Edge> edges = new ArrayList<>();
+    for (int index = 0; index < randomKeys.length; index += 1) {
+      double weight = random.nextInt(50) / 7.0;
+      randomKeys[index] = order.weightKey(weight);
+      edges.add(new Edge(weight));
+    }
+    ArrayList<Edge> sortedEdges = new ArrayList<>(edges);
+    sortedEdges.sort(new CompareEdges());
+    int[] positions = order.sortedPositions(randomKeys);
+    boolean same = true;
+    for (int index = 0; index < positions.length; index += 1) {
+      same = same && edges.get(positions[index]) == sortedEdges.get(index);
+    }
+    t.checkExpect(same, true);
+  }
+
+  void testKruskalGenerator(Tester t) {
+    this.initConds();
+
+    KruskalGenerator generator = new KruskalGenerator();
+
+    // a spanning tree over n cells always has n - 1 edges
+    t.checkExpect(generator.spanningTree(2, 2, new Random(420), 0).length, 3);
+    t.checkExpect(generator.spanningTree(6, 9, new Random(1), 1).length, 53);
+    t.checkExpect(generator.spanningTree(40, 25, new Random(2), 2).length, 999);
+
+    // the 2x2 seeded maze knocks down the wall right of the start, the wall below
+    // the top right cell and the wall right of the bottom left cell
+    int[] tree = generator.spanningTree(2, 2, new Random(420), 0);
+    Arrays.sort(tree);
+    t.checkExpect(tree, new int[] { 0, 3, 4 });
+
+    // kruskal stops as soon as every cell is connected
+    t.checkExpect(generator.kruskal(2, 2, new int[] { 0, 1, 3, 4 }, new int[] { 1, 0, 3, 2 }),
+        new int[] { 1, 0, 4 });
+  }
+
+  void testFilterKruskalGenerator(Tester t) {
+    this.initConds();
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    KruskalGenerator sequential = new KruskalGenerator();
+
+    // a tiny base case forces many partition and filter passes, the tree and the
+    // order its edges are added in still match the sequential generator exactly
+    FilterKruskalGenerator small = new FilterKruskalGenerator(pool, 8);
+    t.checkExpect(small.spanningTree(2, 2, new Random(420), 0),
+        sequential.spanningTree(2, 2, new Random(420), 0));
+    t.checkExpect(small.spanningTree(30, 20, new Random(420), 0),
+        sequential.spanningTree(30, 20, new Random(420), 0));
+    t.checkExpect(small.spanningTree(17, 41, new Random(7), 1),
+        sequential.spanningTree(17, 41, new Random(7), 1));
+    t.checkExpect(small.spanningTree(64, 3, new Random(9), 2),
+        sequential.spanningTree(64, 3, new Random(9), 2));
+    t.checkExpect(small.spanningTree(1, 50, new Random(3), 0),
+        sequential.spanningTree(1, 50, new Random(3), 0));
+
+    // the default base case splits mazes with more than 2^16 edges
+    FilterKruskalGenerator large = new FilterKruskalGenerator(pool);
+    t.checkExpect(large.spanningTree(300, 200, new Random(420), 0),
+        sequential.spanningTree(300, 200, new Random(420), 0));
+    t.checkExpect(large.spanningTree(250, 250, new Random(11), 2),
+        sequential.spanningTree(250, 250, new Random(11), 2));
+
+    // a generator can be reused
+    t.checkExpect(small.spanningTree(30, 20, new Random(420), 0),
+        sequential.spanningTree(30, 20, new Random(420), 0));
+
+    // the parallel grid maze is the same as the sequential one
+    t.checkExpect(new GridMaze(30, 20, 420, 0, pool), new GridMaze(30, 20, 420, 0));
+    t.checkExpect(new GridMaze(300, 200, 5, 1, pool), new GridMaze(300, 200, 5, 1));
+    t.checkExpect(new Maze(new GridMaze(10, 8, 420, 2, pool)).readWalls(),
+        new Maze(10, 8, 420, false, 2).readWalls());
+
+    t.checkConstructorException(
+        new IllegalArgumentException("Base case must be at least 1 edge!"),
+        "FilterKruskalGenerator", pool, 0);
+    t.checkConstructorException(
+        new IllegalArgumentException("Width and height need to be 2 or more!"), "GridMaze", 1,
+        5, 420, 0, pool);
+
+    pool.shutdown();
+  }
+
+  void testBoruvkaGenerator(Tester t) {
+    this.initConds();
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    BoruvkaGenerator boruvka = new BoruvkaGenerator(pool);
+    KruskalGenerator kruskal = new KruskalGenerator();
+
+    // the tree and the order its edges come out in match kruskal for every bias
+    t.checkExpect(boruvka.spanningTree(2, 2, new Random(420), 0),
+        kruskal.spanningTree(2, 2, new Random(420), 0));
+    t.checkExpect(boruvka.spanningTree(30, 20, new Random(420), 0),
+        kruskal.spanningTree(30, 20, new Random(420), 0));
+    t.checkExpect(boruvka.spanningTree(17, 41, new Random(7), 1),
+        kruskal.spanningTree(17, 41, new Random(7), 1));
+    t.checkExpect(boruvka.spanningTree(64, 3, new Random(9), 2),
+        kruskal.spanningTree(64, 3, new Random(9), 2));
+    t.checkExpect(boruvka.spanningTree(1, 50, new Random(3), 0),
+        kruskal.spanningTree(1, 50, new Random(3), 0));
+    t.checkExpect(boruvka.spanningTree(300, 200, new Random(5), 1),
+        kruskal.spanningTree(300, 200, new Random(5), 1));
+
+    // equal weights are broken by position
+    t.checkExpect(boruvka.minimumSpanning(3, new int[] { 0, 1, 0 }, new int[] { 1, 2, 2 },
+        new long[] { 5, 5, 5 }), new int[] { 0, 1 });
+    // the lightest edges win, and come out in weight order
+    t.checkExpect(boruvka.minimumSpanning(4, new int[] { 0, 1, 2, 0 }, new int[] { 1, 2, 3, 3 },
+        new long[] { 9, 2, 7, 1 }), new int[] { 3, 1, 2 });
+    // a disconnected graph gives a spanning forest
+    t.checkExpect(boruvka.minimumSpanning(4, new int[] { 0 }, new int[] { 1 },
+        new long[] { 3 }), new int[] { 0 });
+    t.checkException(new IllegalArgumentException("Every edge needs two ends and a weight!"),
+        boruvka, "minimumSpanning", 2, new int[] { 0 }, new int[] { 1 }, new long[0]);
+
+    // the grid maze and the object maze are the same as kruskal's
+    t.checkExpect(new GridMaze(30, 20, 420, 2, boruvka), new GridMaze(30, 20, 420, 2));
+    ArrayList<ArrayList<Cell>> nodeGrid = new Maze(6, 5).buildNodeGrid();
+    Maze maze = new Maze(6, 5);
+    maze.linkGrid(nodeGrid, new Random(420), 0);
+    maze.createMinimumSpanning(nodeGrid, false, boruvka);
+    ArrayList<ArrayList<Cell>> expectedGrid = new Maze(6, 5).buildNodeGrid();
+    Maze expected = new Maze(6, 5);
+    expected.linkGrid(expectedGrid, new Random(420), 0);
+    expected.createMinimumSpanning(expectedGrid, false);
+    t.checkExpect(nodeGrid, expectedGrid);
+
+    // animating queues up the same edges in the same order
+    ArrayList<ArrayList<Cell>> animatedGrid = new Maze(6, 5).buildNodeGrid();
+    Maze animated = new Maze(6, 5);
+    animated.linkGrid(animatedGrid, new Random(420), 0);
+    animated.createMinimumSpanning(animatedGrid, true, boruvka);
+    ArrayList<ArrayList<Cell>> kruskalGrid = new Maze(6, 5).buildNodeGrid();
+    Maze kruskalAnimated = new Maze(6, 5);
+    kruskalAnimated.linkGrid(kruskalGrid, new Random(420), 0);
+    kruskalAnimated.createMinimumSpanning(kruskalGrid, true);
+    t.checkExpect(animated, kruskalAnimated);
+    t.checkExpect(animatedGrid, kruskalGrid);
+    t.checkExpect(animated.removeWalls(), true);
+    t.checkExpect(kruskalAnimated.removeWalls(), true);
+    t.checkExpect(animatedGrid, kruskalGrid);
+
+    pool.shutdown();
+  }
+
+  void testParallelRange(Tester t) {
+    this.initConds();
+
+    ForkJoinPool pool = new ForkJoinPool(2);
+    FilterKruskalGenerator generator = new FilterKruskalGenerator(pool, 8);
+    t.checkExpect(generator.spanningTree(12, 12, new Random(1), 0).length, 143);
+
+    // an empty range with a grain below 1 runs nothing and does not loop
+    pool.invoke(new ParallelRange(new ChunkAction(generator, false), 0, 0, 0));
+    // the cell across a right wall is one over, across a bottom wall one row down
+    t.checkExpect(generator.otherCell(0), 1);
+    t.checkExpect(generator.otherCell(1), 12);
+    t.checkExpect(generator.otherCell(27), 25);
+
+    pool.shutdown();
+  }
+
+  void testEllerGenerator(Tester t) {
+    this.initConds();
+
+    // every bias streams a perfect maze: cells - 1 passages and every cell
+    // reachable from the start
+    for (int biasMode = 0; biasMode < 3; biasMode += 1) {
+      GridRowSink sink = new GridRowSink(23);
+      new EllerGenerator(23, 420, biasMode).generate(17, sink);
+      t.checkExpect(sink.rowCount(), 17);
+      GridMaze grid = sink.toGridMaze(420, biasMode);
+
+      int passages = 0;
+      int unreachable = 0;
+      int[] parents = grid.parentsFrom(grid.getStart());
+      // counts the passages right and down of every cell, and the cut off cells
+      for (int index = 0; index < grid.cellCount(); index += 1) {
+        if (grid.canMove(index, 1)) {
+          passages += 1;
+        }
+        if (grid.canMove(index, 2)) {
+          passages += 1;
+        }
+        if (index != grid.getStart() && parents[index] == -1) {
+          unreachable += 1;
+        }
+      }
+      t.checkExpect(passages, grid.cellCount() - 1);
+      t.checkExpect(unreachable, 0);
+    }
+
+    // the same seed streams the same rows, a different one does not
+    GridRowSink first = new GridRowSink(10);
+    GridRowSink second = new GridRowSink(10);
+    GridRowSink other = new GridRowSink(10);
+    new EllerGenerator(10, 5, 0).generate(10, first);
+    new EllerGenerator(10, 5, 0).generate(10, second);
+    new EllerGenerator(10, 6, 0).generate(10, other);
+    t.checkExpect(first.toGridMaze(5, 0), second.toGridMaze(5, 0));
+    t.checkFail(first.toGridMaze(5, 0), other.toGridMaze(5, 0));
+
+    // the bias modes lean towards their own kind of passage
+    t.checkExpect(new EllerGenerator(10, 5, 1).rightChance() > new EllerGenerator(10, 5, 0)
+        .rightChance(), true);
+    t.checkExpect(new EllerGenerator(10, 5, 2).downChance() > new EllerGenerator(10, 5, 0)
+        .downChance(), true);
+
+    // the file sink writes both walls of every row, one bit per column
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    RowFileSink file = new RowFileSink(bytes, 10);
+    new EllerGenerator(10, 5, 0).generate(3, file);
+    file.close();
+    t.checkExpect(bytes.size(), 3 * 2 * 2);
+    BitSet lastRight = new BitSet();
+    BitSet lastBottom = new BitSet();
+    lastRight.set(9);
+    lastBottom.set(0, 10);
+    ByteArrayOutputStream lastRow = new ByteArrayOutputStream();
+    RowFileSink lastRowFile = new RowFileSink(lastRow, 10);
+    lastRowFile.acceptRow(0, lastRight, lastBottom);
+    lastRowFile.close();
+    t.checkExpect(lastRow.toByteArray(), new byte[] { 0, 2, -1, 3 });
+    // the last row of a streamed maze has only its border walls up
+    t.checkExpect(Arrays.copyOfRange(bytes.toByteArray(), 8, 12), lastRow.toByteArray());
+
+    t.checkConstructorException(new IllegalArgumentException("Bias mode must be 0, 1 or 2"),
+        "EllerGenerator", 10, 5, 3);
+    t.checkConstructorException(
+        new IllegalArgumentException("Width and height need to be 2 or more!"), "EllerGenerator",
+        1, 5, 0);
+    t.checkException(new IllegalArgumentException("Width and height need to be 2 or more!"),
+        new EllerGenerator(10, 5, 0), "generate", 1, new GridRowSink(10));
+    t.checkException(new IllegalArgumentException("Rows must arrive in order from the top!"),
+        new GridRowSink(10), "acceptRow", 1, new BitSet(), new BitSet());
+  }
+
+  void testChunkedMaze(Tester t) {
+    this.initConds();
+
+    ChunkedMaze plane = new ChunkedMaze(420, 0, 4, 8);
+
+    // chunks are found by floor division, so negative coordinates work too
+    t.checkExpect(plane.getChunkSize(), 4);
+    t.checkExpect(plane.chunkOf(0), 0);
+    t.checkExpect(plane.chunkOf(7), 1);
+    t.checkExpect(plane.chunkOf(-1), -1);
+    t.checkExpect(plane.chunkOf(-4), -1);
+    t.checkExpect(plane.chunkOf(-5), -2);
+    t.checkExpect(plane.localOf(-1), 3);
+    t.checkExpect(plane.localOf(9), 1);
+
+    // every chunk points towards the column x = 0, then towards the origin
+    t.checkExpect(plane.parentDirection(0, 0), -1);
+    t.checkExpect(plane.parentDirection(3, -7), 3);
+    t.checkExpect(plane.parentDirection(-2, 5), 1);
+    t.checkExpect(plane.parentDirection(0, 5), 0);
+    t.checkExpect(plane.parentDirection(0, -5), 2);
+
+    // the same chunk always gets the same seed and door, other chunks differ
+    t.checkExpect(plane.chunkSeed(3, -7), new ChunkedMaze(420, 0, 4, 8).chunkSeed(3, -7));
+    t.checkExpect(plane.chunkSeed(3, -7) == plane.chunkSeed(-7, 3), false);
+    t.checkExpect(plane.doorOffset(1, 1) >= 0 && plane.doorOffset(1, 1) < 4, true);
+    t.checkExpect(plane.chunk(2, 3), new GridMaze(4, 4, plane.chunkSeed(2, 3), 0));
+
+    // walls look the same from either side, across chunk borders too
+    int mismatches = 0;
+    // compares every cell of a 20x20 area around the origin with its neighbors
+    for (long y = -10; y < 10; y += 1) {
+      for (long x = -10; x < 10; x += 1) {
+        if (plane.canMove(x, y, 1) != plane.canMove(x + 1, y, 3)) {
+          mismatches += 1;
+        }
+        if (plane.canMove(x, y, 2) != plane.canMove(x, y + 1, 0)) {
+          mismatches += 1;
+        }
+      }
+    }
+    t.checkExpect(mismatches, 0);
+
+    // the 3x3 chunks from the origin are closed under parents, so they form a
+    // perfect maze on their own: cells - 1 passages and every cell reachable
+    int passages = 0;
+    int unreachable = 0;
+    // counts the passages right and down inside the area
+    for (long y = 0; y < 12; y += 1) {
+      for (long x = 0; x < 12; x += 1) {
+        if (x < 11 && plane.canMove(x, y, 1)) {
+          passages += 1;
+        }
+        if (y < 11 && plane.canMove(x, y, 2)) {
+          passages += 1;
+        }
+        if (plane.stepsWithin(0, 0, x, y, 12) == -1) {
+          unreachable += 1;
+        }
+      }
+    }
+    t.checkExpect(passages, 143);
+    t.checkExpect(unreachable, 0);
+
+    // the chunk walls come from a seeded grid maze
+    t.checkExpect(plane.canMove(5, 6, 1), plane.chunk(1, 1).canMove(2 * 4 + 1, 1));
+    t.checkExpect(plane.stepsWithin(3, 3, 3, 3, 0), 0);
+    // the path between two cells of a chunk stays inside that chunk
+    t.checkExpect(plane.stepsWithin(0, 0, 3, 3, 12),
+        new MazeDistanceIndex(plane.chunk(0, 0)).distance(0, 15));
+    t.checkExpect(plane.stepsWithin(3, 0, 0, 3, 12),
+        new MazeDistanceIndex(plane.chunk(0, 0)).distance(3, 12));
+    t.checkExpect(plane.stepsWithin(0, 0, 30, 0, 5), -1);
+
+    // only the most recently used chunks stay in memory, forgotten chunks come
+    // back exactly the same
+    ChunkedMaze small = new ChunkedMaze(7, 1, 4, 2);
+    GridMaze first = small.chunk(0, 0);
+    small.chunk(1, 0);
+    t.checkExpect(small.loadedChunks(), 2);
+    t.checkExpect(small.generatedChunks(), 2);
+    small.chunk(0, 0);
+    small.chunk(5, 5);
+    t.checkExpect(small.loadedChunks(), 2);
+    t.checkExpect(small.generatedChunks(), 3);
+    small.chunk(0, 0);
+    t.checkExpect(small.generatedChunks(), 3);
+    small.chunk(1, 0);
+    t.checkExpect(small.generatedChunks(), 4);
+    small.chunk(7, 7);
+    small.chunk(8, 8);
+    t.checkExpect(small.chunk(0, 0), first);
+    t.checkExpect(small.generatedChunks(), 7);
+
+    t.checkConstructorException(new IllegalArgumentException("Bias mode must be 0, 1 or 2"),
+        "ChunkedMaze", 420, 3, 4, 8);
+    t.checkConstructorException(new IllegalArgumentException("Chunk size must be at least 2!"),
+        "ChunkedMaze", 420, 0, 1, 8);
+    t.checkConstructorException(
+        new IllegalArgumentException("A chunked maze must keep at least 1 chunk!"), "ChunkedMaze",
+        420, 0, 4, 0);
+    t.checkException(new IllegalArgumentException("Direction must be between 0 and 3 inclusive!"),
+        plane, "canMove", 0L, 0L, 4);
+    t.checkException(new IllegalArgumentException("Radius must be between 0 and 12 inclusive!"),
+        plane, "stepsWithin", 0L, 0L, 0L, 0L, -1);
+    t.checkException(new IllegalArgumentException("Radius must be between 0 and 12 inclusive!"),
+        plane, "stepsWithin", 0L, 0L, 0L, 0L, 13);
+  }
+
+  void testMazeGenerators(Tester t) {
+    this.initConds();
+
+    IMazeGenerator[] generators = new IMazeGenerator[] { new KruskalGenerator(),
+        new PrimGenerator(), new BacktrackerGenerator(), new HuntAndKillGenerator(),
+        new WilsonGenerator() };
+    t.checkExpect(generators[0].name(), "Kruskal");
+    t.checkExpect(generators[1].name(), "Prim");
+    t.checkExpect(generators[2].name(), "recursive backtracker");
+    t.checkExpect(generators[3].name(), "hunt-and-kill");
+    t.checkExpect(generators[4].name(), "Wilson");
+
+    // every engine carves a perfect maze for every bias: cells - 1 distinct
+    // passages and every cell reachable from the start
+    for (IMazeGenerator generator : generators) {
+      for (int biasMode = 0; biasMode < 3; biasMode += 1) {
+        int[] tree = generator.spanningTree(13, 9, new Random(420), biasMode);
+        t.checkExpect(tree.length, 116);
+        GridMaze grid = new GridMaze(13, 9, 420, biasMode, generator);
+        int passages = 0;
+        int unreachable = 0;
+        int[] parents = grid.parentsFrom(0);
+        // counts passages and cut off cells
+        for (int index = 0; index < grid.cellCount(); index += 1) {
+          passages += (grid.canMove(index, 1) ? 1 : 0) + (grid.canMove(index, 2) ? 1 : 0);
+          unreachable += index != 0 && parents[index] == -1 ? 1 : 0;
+        }
+        t.checkExpect(passages, 116);
+        t.checkExpect(unreachable, 0);
+      }
+
+      // the same seed always carves the same maze in the same order
+      t.checkExpect(generator.spanningTree(20, 7, new Random(5), 1),
+          generator.spanningTree(20, 7, new Random(5), 1));
+    }
+
+    // Prim grows the same tree as Kruskal out of the same weights
+    int[] prim = new PrimGenerator().spanningTree(40, 30, new Random(420), 2);
+    int[] kruskal = new KruskalGenerator().spanningTree(40, 30, new Random(420), 2);
+    Arrays.sort(prim);
+    Arrays.sort(kruskal);
+    t.checkExpect(prim, kruskal);
+    t.checkExpect(new GridMaze(40, 30, 420, 1, new PrimGenerator()),
+        new GridMaze(40, 30, 420, 1));
+
+    // the backtracker carves one long walk, every step after the first starts
+    // where a previous step ended
+    int[] walk = new BacktrackerGenerator().spanningTree(2, 2, new Random(1), 0);
+    t.checkExpect(walk.length, 3);
+
+    // a maze built with the kruskal generator is the maze the seed always made
+    t.checkExpect(new Maze(12, 10, 420, false, 0, new KruskalGenerator()),
+        new Maze(12, 10, 420, false, 0));
+    t.checkExpect(new Maze(12, 10, 7, true, 2, new KruskalGenerator()),
+        new Maze(12, 10, 7, true, 2));
+    // every engine builds the same cell maze as its grid maze
+    t.checkExpect(new Maze(12, 10, 420, false, 1, new WilsonGenerator()).toGridMaze(),
+        new GridMaze(12, 10, 420, 1, new WilsonGenerator()));
+    t.checkExpect(new Maze(12, 10, 420, false, 0, new HuntAndKillGenerator()).toGridMaze(),
+        new GridMaze(12, 10, 420, 0, new HuntAndKillGenerator()));
+
+    // the construction animation knocks down every wall the engine carved
+    Maze animated = new Maze(6, 5, 420, true, 0, new BacktrackerGenerator());
+    int ticks = 0;
+    // INVARIANT:
+    // every call removes at least one of the 29 queued walls
+    while (animated.removeWalls()) {
+      ticks += 1;
+    }
+    // 7 ticks of 3 walls, then the last 8 walls one at a time
+    t.checkExpect(ticks, 15);
+    t.checkExpect(animated.toGridMaze(), new GridMaze(6, 5, 420, 0, new BacktrackerGenerator()));
+  }
+
+  void testAGridGenerator(Tester t) {
+    this.initConds();
+
+    AGridGenerator generator = new BacktrackerGenerator();
+
+    // neighbors stop at the border
+    t.checkExpect(generator.neighbor(3, 2, 0, 0), -1);
+    t.checkExpect(generator.neighbor(3, 2, 0, 1), 1);
+    t.checkExpect(generator.neighbor(3, 2, 0, 2), 3);
+    t.checkExpect(generator.neighbor(3, 2, 0, 3), -1);
+    t.checkExpect(generator.neighbor(3, 2, 5, 1), -1);
+    t.checkExpect(generator.neighbor(3, 2, 5, 2), -1);
+    t.checkExpect(generator.neighbor(3, 2, 4, 0), 1);
+    t.checkExpect(generator.neighbor(3, 2, 4, 3), 3);
+    t.checkException(new IllegalArgumentException("Direction must be between 0 and 3 inclusive!"),
+        generator, "neighbor", 3, 2, 0, 4);
+
+    // a wall has the same id from either side
+    t.checkExpect(generator.edgeTowards(3, 4, 0), generator.edgeTowards(3, 1, 2));
+    t.checkExpect(generator.edgeTowards(3, 4, 3), generator.edgeTowards(3, 3, 1));
+    t.checkExpect(generator.edgeTowards(3, 4, 1), 8);
+    t.checkExpect(generator.edgeTowards(3, 4, 2), 9);
+
+    // the bias makes its own axis 4 times as likely
+    t.checkExpect(generator.directionWeight(1, 1), 4);
+    t.checkExpect(generator.directionWeight(0, 1), 1);
+    t.checkExpect(generator.directionWeight(2, 2), 4);
+    t.checkExpect(generator.directionWeight(3, 2), 1);
+    t.checkExpect(generator.directionWeight(3, 0), 1);
+    t.checkExpect(generator.pickDirection(new Random(1), new int[] { 2, 0, 0, 0 }, 1, 0), 2);
+
+    int horizontal = 0;
+    Random random = new Random(420);
+    // picks many times between up and right with a horizontal bias
+    for (int pick = 0; pick < 1000; pick += 1) {
+      horizontal += generator.pickDirection(random, new int[] { 0, 1, 0, 0 }, 2, 1);
+    }
+    t.checkRange(horizontal, 700, 900);
+
+    // only directions towards cells with the wanted visited bit are found
+    BitSet visited = new BitSet();
+    visited.set(1);
+    int[] directions = new int[4];
+    t.checkExpect(generator.directionsTo(3, 2, 4, visited, true, directions), 1);
+    t.checkExpect(directions[0], 0);
+    t.checkExpect(generator.directionsTo(3, 2, 4, visited, false, directions), 2);
+    t.checkExpect(directions[0], 1);
+    t.checkExpect(directions[1], 3);
+  }
+
+  void testIndexedMinHeap(Tester t) {
+    this.initConds();
+
+    IndexedMinHeap heap = new IndexedMinHeap(5);
+    t.checkExpect(heap.isEmpty(), true);
+
+    t.checkExpect(heap.insertOrDecrease(3, 30, 0), true);
+    t.checkExpect(heap.insertOrDecrease(1, 10, 0), true);
+    t.checkExpect(heap.insertOrDecrease(4, 20, 0), true);
+    t.checkExpect(heap.size(), 3);
+    t.checkExpect(heap.contains(4), true);
+    t.checkExpect(heap.contains(0), false);
+
+    // heavier keys are ignored, lighter ones move the item up
+    t.checkExpect(heap.insertOrDecrease(1, 50, 0), false);
+    t.checkExpect(heap.insertOrDecrease(3, 5, 0), true);
+    t.checkExpect(heap.keyOf(3), 5L);
+    // equal keys are broken by the tie breaker
+    t.checkExpect(heap.insertOrDecrease(0, 10, -1), true);
+    // keys compare unsigned
+    t.checkExpect(heap.insertOrDecrease(2, -1L, 0), true);
+
+    t.checkExpect(heap.removeMin(), 3);
+    t.checkExpect(heap.removeMin(), 0);
+    t.checkExpect(heap.removeMin(), 1);
+    t.checkExpect(heap.contains(1), false);
+    t.checkExpect(heap.removeMin(), 4);
+    t.checkExpect(heap.removeMin(), 2);
+    t.checkExpect(heap.isEmpty(), true);
+
+    t.checkException(new RuntimeException("Cannot remove from an empty heap!"), heap,
+        "removeMin");
+    t.checkConstructorException(
+        new IllegalArgumentException("Capacity of a heap cannot be negative!"), "IndexedMinHeap",
+        -1);
+  }
+
+  void testCounterRandom(Tester t) {
+    this.initConds();
+
+    // the doubles are the ones SplittableRandom makes for the same seed
+    CounterRandom counter = new CounterRandom(420);
+    SplittableRandom splittable = new SplittableRandom(420);
+    t.checkExpect(counter.nextDouble(), splittable.nextDouble());
+    t.checkExpect(counter.nextDouble(), splittable.nextDouble());
+    t.checkExpect(counter.position(), 2L);
+    t.checkExpect(counter.weightAt(2), splittable.nextDouble());
+    // asking for a value does not move the random
+    t.checkExpect(counter.position(), 2L);
+    t.checkExpect(counter.weightAt(999), new CounterRandom(420).weightAt(999));
+    counter.skip(997);
+    t.checkExpect(counter.nextDouble(), new CounterRandom(420).weightAt(999));
+
+    // every other kind of value takes one step and stays in range
+    CounterRandom ints = new CounterRandom(7);
+    t.checkRange(ints.nextInt(10), 0, 10);
+    t.checkExpect(ints.position(), 1L);
+    ints.nextBoolean();
+    t.checkExpect(ints.position(), 2L);
+    ints.setSeed(7);
+    t.checkExpect(ints.position(), 0L);
+    t.checkExpect(ints.nextDouble(), new CounterRandom(7).weightAt(0));
+    t.checkExpect(new CounterRandom(1).weightAt(0) == new CounterRandom(2).weightAt(0), false);
+
+    // drawing the rows in parallel fills in the same weights as drawing in order
+    ForkJoinPool pool = new ForkJoinPool(3);
+    KruskalGenerator generator = new KruskalGenerator();
+    int[] edges = new int[generator.edgeCount(37, 23)];
+    long[] keys = new long[edges.length];
+    int[] parallelEdges = new int[edges.length];
+    long[] parallelKeys = new long[edges.length];
+    CounterRandom inOrder = new CounterRandom(5);
+    CounterRandom inParallel = new CounterRandom(5);
+    generator.drawWeights(37, 23, inOrder, 1, edges, keys);
+    generator.drawWeights(37, 23, inParallel, 1, parallelEdges, parallelKeys, pool);
+    t.checkExpect(parallelEdges, edges);
+    t.checkExpect(parallelKeys, keys);
+    t.checkExpect(inParallel.position(), inOrder.position());
+
+    // the parallel generators draw counter weights in parallel and still carve
+    // the same maze as kruskal
+    t.checkExpect(new GridMaze(60, 40, 9, 2, new FilterKruskalGenerator(pool, 64), false),
+        new GridMaze(60, 40, 9, 2, new KruskalGenerator(), false));
+    t.checkExpect(new GridMaze(60, 40, 9, 0, new BoruvkaGenerator(pool), false),
+        new GridMaze(60, 40, 9, 0, new KruskalGenerator(), false));
+    t.checkExpect(new GridMaze(60, 40, 9, 0, new KruskalGenerator(), false).usesLegacyRandom(),
+        false);
+    t.checkExpect(new GridMaze(60, 40, 9, 0).usesLegacyRandom(), true);
+
+    // the legacy flag keeps the mazes every seed has always made
+    t.checkExpect(new Maze(10, 10, 420, false, 0, new KruskalGenerator(), true),
+        new Maze(10, 10, 420, false, 0));
+    t.checkFail(new Maze(10, 10, 420, false, 0, new KruskalGenerator(), false),
+        new Maze(10, 10, 420, false, 0));
+    // counter mazes are the same through either backend
+    t.checkExpect(new Maze(10, 10, 420, false, 1, new KruskalGenerator(), false).toGridMaze(),
+        new GridMaze(10, 10, 420, 1, new KruskalGenerator(), false));
+    t.checkExpect(new Maze(10, 10, 420, false, 0, new WilsonGenerator(), false).toGridMaze(),
+        new GridMaze(10, 10, 420, 0, new WilsonGenerator(), false));
+
+    pool.shutdown();
+  }
+
+  void testMazeCache(Tester t) {
+    this.initConds();
+
+    MazeCache cache = new MazeCache(1 << 20);
+    t.checkExpect(cache.size(), 0);
+    t.checkExpect(cache.byteBudget(), 1L << 20);
+
+    // the first lookup generates, the second one reuses the same topology
+    GridMaze first = cache.topology(30, 20, 420, 0);
+    t.checkExpect(first, new GridMaze(30, 20, 420, 0));
+    t.checkExpect(cache.misses(), 1L);
+    t.checkExpect(cache.hits(), 0L);
+    t.checkExpect(cache.topology(30, 20, 420, 0) == first, true);
+    t.checkExpect(cache.hits(), 1L);
+    t.checkExpect(cache.bytesHeld(), first.sizeInBytes());
+
+    // every part of the key matters
+    cache.topology(30, 20, 420, 1);
+    cache.topology(30, 20, 7, 0);
+    cache.topology(20, 30, 420, 0);
+    t.checkExpect(cache.misses(), 4L);
+    t.checkExpect(cache.size(), 4);
+
+    // going over budget forgets the least recently used topologies
+    long one = new GridMaze(64, 64).sizeInBytes();
+    MazeCache small = new MazeCache(2 * one);
+    small.topology(64, 64, 1, 0);
+    small.topology(64, 64, 2, 0);
+    small.topology(64, 64, 1, 0);
+    small.topology(64, 64, 3, 0);
+    t.checkExpect(small.size(), 2);
+    t.checkExpect(small.evictions(), 1L);
+    t.checkExpect(small.bytesHeld(), 2 * one);
+    // seed 1 was used more recently than seed 2, so it is still there
+    small.topology(64, 64, 1, 0);
+    t.checkExpect(small.hits(), 2L);
+    small.topology(64, 64, 2, 0);
+    t.checkExpect(small.misses(), 4L);
+
+    // the newest topology stays even when it alone is over the budget
+    MazeCache tiny = new MazeCache(1);
+    tiny.topology(64, 64, 1, 0);
+    t.checkExpect(tiny.size(), 1);
+    tiny.topology(64, 64, 2, 0);
+    t.checkExpect(tiny.size(), 1);
+    t.checkExpect(tiny.evictions(), 1L);
+    tiny.clear();
+    t.checkExpect(tiny.size(), 0);
+    t.checkExpect(tiny.bytesHeld(), 0L);
+    t.checkExpect(tiny.misses(), 2L);
+
+    t.checkConstructorException(
+        new IllegalArgumentException("Byte budget of a maze cache must be positive!"),
+        "MazeCache", 0L);
+
+    // keys are equal exactly when every part is
+    t.checkExpect(new MazeKey(3, 4, 5, 1).equals(new MazeKey(3, 4, 5, 1)), true);
+    t.checkExpect(new MazeKey(3, 4, 5, 1).hashCode(), new MazeKey(3, 4, 5, 1).hashCode());
+    t.checkExpect(new MazeKey(3, 4, 5, 1).equals(new MazeKey(4, 3, 5, 1)), false);
+    t.checkExpect(new MazeKey(3, 4, 5, 1).equals(new MazeKey(3, 4, 5, 1, "Kruskal", true)),
+        true);
+    t.checkExpect(new MazeKey(3, 4, 5, 1).equals(new MazeKey(3, 4, 5, 1, "Prim", true)), false);
+    t.checkExpect(new MazeKey(3, 4, 5, 1).equals(new MazeKey(3, 4, 5, 1, "Kruskal", false)),
+        false);
+    t.checkExpect(new MazeKey(3, 4, 5, 1).equals(new MazeKey(3, 4, 5, 2)), false);
+    t.checkExpect(new MazeKey(3, 4, 5, 1).equals("3x4"), false);
+
+    // rebuilding a maze for a mode switch reuses the shared topology and still
+    // makes the same maze as generating it again
+    long hits = Maze.topologies().hits();
+    Maze rebuilt = new Maze(new Maze(40, 30, 11, true, 2));
+    t.checkExpect(rebuilt.toGridMaze(), new Maze(40, 30, 11, false, 2).toGridMaze());
+    t.checkExpect(new Maze(new Maze(40, 30, 11, true, 2)), rebuilt);
+    t.checkExpect(Maze.topologies().hits() > hits, true);
+    // a maze built from a grid maze rebuilds from that same grid maze
+    t.checkExpect(new Maze(rebuilt).toGridMaze() == rebuilt.toGridMaze(), true);
+
+    // rebuilding keeps the generator and the kind of random of the maze
+    Maze prim = new Maze(30, 20, 5, false, 0, new PrimGenerator(), false);
+    t.checkExpect(new Maze(prim).readWalls(), prim.readWalls());
+    t.checkExpect(new Maze(prim).getGenerator().name(), "Prim");
+    t.checkExpect(new Maze(prim).usesLegacyRandom(), false);
+    Maze counter = new Maze(30, 20, 5, true, 1, new KruskalGenerator(), false);
+    t.checkExpect(new Maze(counter).readWalls(),
+        new Maze(30, 20, 5, false, 1, new KruskalGenerator(), false).readWalls());
+    // and so does reseeding it, once the animation is skipped
+    t.checkExpect(new Maze(new Maze(prim, 6)).readWalls(),
+        new Maze(30, 20, 6, false, 0, new PrimGenerator(), false).readWalls());
+    // a loaded maze keeps its walls even when its seed would carve others
+    GridMaze loaded = new GridMaze(30, 20, 5, 0, BitSet.valueOf(prim.readWalls()
+        .rightWallWords()), BitSet.valueOf(prim.readWalls().bottomWallWords()));
+    t.checkExpect(new Maze(new Maze(loaded)).readWalls(), loaded);
+    t.checkExpect(Maze.topologies().bytesHeld() <= Maze.topologies().byteBudget(), true);
+  }
+
+  void testSolverSessions(Tester t) {
+    this.initConds();
+
+    GridMaze shared = new GridMaze(30, 20, 420, 0);
+
+    // a search session counts the same wrong moves as searching the cell maze
+    for (int mode = 0; mode < 2; mode += 1) {
+      int mazeWrongMoves = this.replaySearch(new Maze(30, 20, 420, false, 0),
+          mode == 0 ? "BFS" : "DFS").getObj1();
+
+      SearchSession session = new SearchSession(shared, mode == 0);
+      t.checkExpect(session.isFinished(), false);
+      t.checkExpect(session.runToCompletion(), mazeWrongMoves);
+      t.checkExpect(session.wrongMoves(), mazeWrongMoves);
+      t.checkExpect(session.isFinished(), true);
+      t.checkExpect(session.reachedEnd(), true);
+      t.checkExpect(session.stepsTaken() > 0, true);
+      // a stopped session does nothing
+      t.checkExpect(session.step().getObj1(), false);
+    }
+    t.checkExpect(new SearchSession(shared, true).name(), "BFS");
+    t.checkExpect(new SearchSession(shared, false).name(), "DFS");
+
+    // sessions on the same maze never see each other's state
+    SearchSession first = new SearchSession(shared, true);
+    SearchSession second = new SearchSession(shared, true);
+    first.runToCompletion();
+    t.checkExpect(second.getOverlay().isVisited(shared.getEnd()), false);
+    t.checkExpect(first.getOverlay().isVisited(shared.getEnd()), true);
+
+    // a manual session moves like attemptMove on the seeded 2x2 maze: right,
+    // then down to the end
+    GridMaze tiny = new GridMaze(2, 2);
+    ManualSession walk = new ManualSession(tiny, new int[] { 3, 1, 2 });
+    t.checkExpect(walk.name(), "manual");
+    t.checkExpect(walk.getOverlay().containsPlayer(0), true);
+    t.checkExpect(walk.step(), new Pair<Boolean, Integer>(true, 0));
+    t.checkExpect(walk.getLocation(), 0);
+    t.checkExpect(walk.step(), new Pair<Boolean, Integer>(true, 0));
+    t.checkExpect(walk.getLocation(), 1);
+    t.checkExpect(walk.getOverlay().containsPlayer(0), false);
+    t.checkExpect(walk.step(), new Pair<Boolean, Integer>(false, 0));
+    t.checkExpect(walk.reachedEnd(), true);
+    t.checkExpect(walk.getOverlay().isSolution(1), true);
+    t.checkExpect(walk.getOverlay().isSolution(2), false);
+
+    // straying off the correct path counts once per new cell, and running out
+    // of moves stops short of the end
+    // 0 1 2    the path runs 0 1 2 5, and 1 4 3 branches off it
+    // 3 4 5
+    BitSet branchRight = new BitSet();
+    branchRight.set(4);
+    BitSet branchBottom = new BitSet();
+    branchBottom.set(0);
+    GridMaze branch = new GridMaze(3, 2, 420, 0, branchRight, branchBottom);
+    ManualSession lost = new ManualSession(branch, new int[] { 1, 2, 3, 1, 0, 1, 2 });
+    t.checkExpect(lost.runToCompletion(), 2);
+    t.checkExpect(lost.reachedEnd(), true);
+    t.checkExpect(lost.stepsTaken(), 7);
+    ManualSession back = new ManualSession(branch, new int[] { 1, 2, 3, 1 });
+    t.checkExpect(back.step(), new Pair<Boolean, Integer>(true, 0));
+    t.checkExpect(back.step(), new Pair<Boolean, Integer>(true, 1));
+    t.checkExpect(back.step(), new Pair<Boolean, Integer>(true, 1));
+    // stepping back onto a cell it already strayed onto is not counted again
+    t.checkExpect(back.step(), new Pair<Boolean, Integer>(false, 0));
+    t.checkExpect(back.getLocation(), 4);
+    t.checkExpect(back.wrongMoves(), 2);
+    ManualSession wrong = new ManualSession(new GridMaze(6, 6), new int[] { 1, 1, 1, 1, 1 });
+    wrong.runToCompletion();
+    t.checkExpect(wrong.reachedEnd(), false);
+    t.checkExpect(wrong.stepsTaken(), 5);
+    t.checkExpect(new ManualSession(tiny, new int[0]).runToCompletion(), 0);
+    t.checkConstructorException(
+        new IllegalArgumentException("Direction must be between 0 and 3 inclusive!"),
+        "ManualSession", tiny, new int[] { 1, 4 });
+
+    // many sessions run in parallel get the same results as one after another
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<ISolverSession> sessions = new ArrayList<>();
+    int[] expected = new int[12];
+    // alternates between searches and walks
+    for (int index = 0; index < 12; index += 1) {
+      if (index % 3 == 2) {
+        sessions.add(new ManualSession(shared, new int[] { 1, 2, 1, 2, 2, 1, 1 }));
+        expected[index] = new ManualSession(shared, new int[] { 1, 2, 1, 2, 2, 1, 1 })
+            .runToCompletion();
+      }
+      else {
+        sessions.add(new SearchSession(shared, index % 3 == 0));
+        expected[index] = new SearchSession(shared, index % 3 == 0).runToCompletion();
+      }
+    }
+    t.checkExpect(new SessionRunner(executor).runAll(sessions), expected);
+    t.checkExpect(sessions.get(0).isFinished(), true);
+    t.checkExpect(new SessionRunner(executor).runAll(new ArrayList<>()), new int[0]);
+    executor.shutdown();
+  }
+
+  void testMazePrefetcher(Tester t) {
+    this.initConds();
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    MazePrefetcher prefetcher = new MazePrefetcher(executor, new Random(7));
+    Random seeds = new Random(7);
+
+    t.checkExpect(prefetcher.isPending(0), false);
+    t.checkExpect(prefetcher.isReady(0), false);
+
+    // starts the next maze of the given bias mode only
+    prefetcher.prefetch(10, 8, 1);
+    t.checkExpect(prefetcher.isPending(0), false);
+    t.checkExpect(prefetcher.isPending(1), true);
+    t.checkExpect(prefetcher.isPending(2), false);
+    int firstSeed = seeds.nextInt(10000);
+
+    // hands over the pending maze and starts the next one of that bias mode
+    Maze horizontal = prefetcher.take(10, 8, 1);
+    t.checkExpect(horizontal.getSeed(), firstSeed);
+    t.checkExpect(horizontal.getBiasMode(), 1);
+    t.checkExpect(horizontal.getWidth(), 10);
+    t.checkExpect(horizontal.getHeight(), 8);
+    t.checkExpect(prefetcher.isPending(1), true);
+    seeds.nextInt(10000);
+    // another bias mode cancels the pending one, so only one maze is held
+    t.checkExpect(prefetcher.take(10, 8, 0).getSeed(), seeds.nextInt(10000));
+    t.checkExpect(prefetcher.isPending(0), true);
+    t.checkExpect(prefetcher.isPending(1), false);
+    seeds.nextInt(10000);
+
+    // the handed over maze is the one the seed builds, still to be animated
+    Maze expected = new Maze(10, 8, firstSeed, true, 1);
+    // animates both mazes to completion
+    while (expected.removeWalls()) {
+      horizontal.removeWalls();
+    }
+    t.checkExpect(horizontal.render(false, true, 0, false, -1, -1),
+        expected.render(false, true, 0, false, -1, -1));
+
+    // a new size cancels every maze pending for the old one
+    Maze bigger = prefetcher.take(12, 9, 2);
+    t.checkExpect(bigger.getSeed(), seeds.nextInt(10000));
+    t.checkExpect(bigger.getWidth(), 12);
+    t.checkExpect(prefetcher.isPending(0), false);
+    t.checkExpect(prefetcher.isPending(1), false);
+    t.checkExpect(prefetcher.isPending(2), true);
+
+    prefetcher.cancel();
+    t.checkExpect(prefetcher.isPending(2), false);
+
+    // a build whose thread is interrupted stops instead of running to the end
+    Thread.currentThread().interrupt();
+    t.checkException(new RuntimeException("Interrupted while building a maze!"),
+        new MazeTask(10, 8, 1, 0), "call");
+    t.checkExpect(Thread.interrupted(), true);
+
+    // builds a maze right away when none is pending
+    MazePrefetcher cold = new MazePrefetcher(executor, new Random(7));
+    t.checkExpect(cold.take(5, 5, 0).getSeed(), new Random(7).nextInt(10000));
+    t.checkExpect(cold.isPending(0), true);
+    cold.cancel();
+
+    t.checkException(new IllegalArgumentException("Bias mode must be 0, 1 or 2"), prefetcher,
+        "take", 10, 8, 3);
+    t.checkException(new IllegalArgumentException("Bias mode must be 0, 1 or 2"), prefetcher,
+        "isPending", -1);
+    t.checkException(new IllegalArgumentException("Width and height need to be 2 or more!"),
+        prefetcher, "take", 1, 8, 0);
+
+    // the reset keys hand over the prefetched mazes
+    MazeSolver game = new MazeSolver(new Maze(6, 4), new MazePrefetcher(executor, new Random(7)));
+    Random gameSeeds = new Random(7);
+    // the game's bias mode is prefetched first, and dropped for another mode
+    gameSeeds.nextInt(10000);
+    int verticalSeed = gameSeeds.nextInt(10000);
+    game.onKeyEvent("2");
+    WorldScene w = new WorldScene(1000, 1000);
+    w.placeImageXY(new Maze(6, 4, verticalSeed, true, 2).render(false, true, 0, false, -1, -1),
+        500, 500);
+    t.checkExpect(game.makeScene(), w);
+    game.onKeyEvent("r");
+    w = new WorldScene(1000, 1000);
+    w.placeImageXY(new Maze(6, 4, gameSeeds.nextInt(10000), true, 2).render(false, true, 0,
+        false, -1, -1), 500, 500);
+    t.checkExpect(game.makeScene(), w);
+    gameSeeds.nextInt(10000);
+    game.onKeyEvent("0");
+    w = new WorldScene(1000, 1000);
+    w.placeImageXY(new Maze(6, 4, gameSeeds.nextInt(10000), true, 0).render(false, true, 0,
+        false, -1, -1), 500, 500);
+    t.checkExpect(game.makeScene(), w);
+
+    executor.shutdownNow();
+  }
+
+  void testMazeFile(Tester t) {
+    this.initConds();
+
+    MazeFile file = new MazeFile();
+    t.checkExpect(file.wordCount(4), 1);
+    t.checkExpect(file.wordCount(64), 1);
+    t.checkExpect(file.wordCount(65), 2);
+    t.checkExpect(file.fileSize(65), 72L);
+
+    try {
+      Path path = Files.createTempFile("maze", ".bin");
+
+      // a saved maze loads back with every wall, setting and corner
+      GridMaze original = new GridMaze(37, 23, 420, 1);
+      file.save(original, path);
+      t.checkExpect(Files.size(path), file.fileSize(37 * 23));
+      GridMaze loaded = file.load(path);
+      t.checkExpect(loaded.getWidth(), 37);
+      t.checkExpect(loaded.getHeight(), 23);
+      t.checkExpect(loaded.getSeed(), 420);
+      t.checkExpect(loaded.getBiasMode(), 1);
+      t.checkExpect(loaded.usesLegacyRandom(), true);
+      t.checkExpect(loaded.getStart(), 0);
+      t.checkExpect(loaded.getEnd(), 37 * 23 - 1);
+      t.checkExpect(loaded.rightWallWords(), original.rightWallWords());
+      t.checkExpect(loaded.bottomWallWords(), original.bottomWallWords());
+
+      // the loaded maze searches, labels heat maps and renders like the original
+      MazeOverlay loadedOverlay = new MazeOverlay(loaded.cellCount());
+      MazeOverlay originalOverlay = new MazeOverlay(original.cellCount());
+      t.checkExpect(loaded.labelGradient(loadedOverlay, 0),
+          original.labelGradient(originalOverlay, 0));
+      t.checkExpect(new SearchSession(loaded, true).runToCompletion(),
+          new SearchSession(original, true).runToCompletion());
+      t.checkExpect(new Maze(loaded).render(false, true, 0, false, -1, -1),
+          new Maze(original).render(false, true, 0, false, -1, -1));
+
+      // saving again replaces the file, keeping every setting and the corners
+      GridMaze counter = new GridMaze(5, 4, 99, 2, new KruskalGenerator(), false);
+      GridMaze moved = new GridMaze(5, 4, 99, 2, false, 7, 12, new BitSet(), new BitSet());
+      file.save(moved, path);
+      t.checkExpect(Files.size(path), file.fileSize(20));
+      GridMaze movedLoaded = file.load(path);
+      t.checkExpect(movedLoaded.usesLegacyRandom(), false);
+      t.checkExpect(movedLoaded.getStart(), 7);
+      t.checkExpect(movedLoaded.getEnd(), 12);
+      t.checkExpect(movedLoaded.rightWallWords(), new long[0]);
+      file.save(counter, path);
+      t.checkExpect(file.load(path).bottomWallWords(), counter.bottomWallWords());
+
+      // the last word of a bitset is kept even when the cells end mid word
+      GridMaze wide = new GridMaze(130, 2);
+      file.save(wide, path);
+      t.checkExpect(file.load(path).rightWallWords(), wide.rightWallWords());
+
+      // files that are not mazes are refused
+      Files.write(path, new byte[] { 1, 2, 3 });
+      t.checkException(new IllegalArgumentException("Not a maze file!"), file, "load", path);
+      Files.write(path, new byte[MazeFile.HEADER_BYTES + 16]);
+      t.checkException(new IllegalArgumentException("Not a maze file!"), file, "load", path);
+
+      file.save(new GridMaze(4, 4), path);
+      byte[] bytes = Files.readAllBytes(path);
+      bytes[4] = 9;
+      Files.write(path, bytes);
+      t.checkException(new IllegalArgumentException("Unsupported maze file version 9!"), file,
+          "load", path);
+      bytes[4] = 1;
+      Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+      t.checkException(new IllegalArgumentException("Maze file does not match its header!"),
+          file, "load", path);
+
+      Files.delete(path);
+      t.checkException(new RuntimeException("Could not read the maze file " + path + "!"), file,
+          "load", path);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not use a temporary maze file!", e);
+    }
+
+    t.checkConstructorException(
+        new IllegalArgumentException("Start and end must be cells of the maze!"), "GridMaze", 2,
+        2, 420, 0, true, 0, 4, new BitSet(), new BitSet());
+    t.checkConstructorException(
+        new IllegalArgumentException("Start and end must be cells of the maze!"), "GridMaze", 2,
+        2, 420, 0, true, -1, 3, new BitSet(), new BitSet());
+  }
+
+  void testAsciiMaze(Tester t) {
+    this.initConds();
+
+    // the seeded 2x2 maze opens right of the start and below the top right
+    StringWriter text = new StringWriter();
+    AsciiRowSink sink = new AsciiRowSink(text, 2);
+    new GridMaze(2, 2).streamRows(sink);
+    t.checkExpect(sink.rowCount(), 2);
+    sink.close();
+    t.checkExpect(text.toString(), "+--+--+\n|     |\n+--+  +\n|     |\n+--+--+\n");
+
+    AsciiMazeReader tinyReader = new AsciiMazeReader(new StringReader(text.toString()));
+    t.checkExpect(tinyReader.width(), 2);
+    GridMaze tiny = tinyReader.toGridMaze(420, 0);
+    t.checkExpect(tiny.rightWallWords(), new GridMaze(2, 2).rightWallWords());
+    t.checkExpect(tiny.bottomWallWords(), new GridMaze(2, 2).bottomWallWords());
+
+    // a seeded maze survives the round trip through its text
+    GridMaze original = new GridMaze(37, 23, 420, 2);
+    text = new StringWriter();
+    sink = new AsciiRowSink(text, 37);
+    original.streamRows(sink);
+    sink.close();
+    GridMaze loaded = new AsciiMazeReader(new StringReader(text.toString())).toGridMaze(420, 2);
+    t.checkExpect(loaded.getWidth(), 37);
+    t.checkExpect(loaded.getHeight(), 23);
+    t.checkExpect(loaded.rightWallWords(), original.rightWallWords());
+    t.checkExpect(loaded.bottomWallWords(), original.bottomWallWords());
+    t.checkExpect(new Maze(loaded).render(false, true, 0, false, -1, -1),
+        new Maze(original).render(false, true, 0, false, -1, -1));
+
+    // streamed rows go straight through the text into another sink
+    text = new StringWriter();
+    sink = new AsciiRowSink(text, 13);
+    new EllerGenerator(13, 7, 1).generate(9, sink);
+    sink.close();
+    GridRowSink streamed = new GridRowSink(13);
+    t.checkExpect(new AsciiMazeReader(new StringReader(text.toString())).read(streamed), 9);
+    GridRowSink direct = new GridRowSink(13);
+    new EllerGenerator(13, 7, 1).generate(9, direct);
+    t.checkExpect(streamed.toGridMaze(7, 1).rightWallWords(),
+        direct.toGridMaze(7, 1).rightWallWords());
+    t.checkExpect(streamed.toGridMaze(7, 1).bottomWallWords(),
+        direct.toGridMaze(7, 1).bottomWallWords());
+
+    t.checkException(new IllegalArgumentException("Rows must arrive in order from the top!"),
+        new AsciiRowSink(new StringWriter(), 2), "acceptRow", 1, new BitSet(), new BitSet());
+
+    // text that is not a maze is refused with the line at fault
+    t.checkException(new IllegalArgumentException("Line 1 is not the top of a maze!"),
+        new AsciiMazeReader(new StringReader("")), "width");
+    t.checkException(new IllegalArgumentException("Line 1 is not the top of a maze!"),
+        new AsciiMazeReader(new StringReader("+--+--\n")), "width");
+    t.checkException(new IllegalArgumentException("Line 1 is not the top of a maze!"),
+        new AsciiMazeReader(new StringReader("+--+  +\n")), "width");
+    t.checkException(new IllegalArgumentException("Line 2 must be 7 characters long!"),
+        new AsciiMazeReader(new StringReader("+--+--+\n|   |\n")), "read", new GridRowSink(2));
+    t.checkException(new IllegalArgumentException("Line 2 must be walled in!"),
+        new AsciiMazeReader(new StringReader("+--+--+\n      |\n")), "read",
+        new GridRowSink(2));
+    t.checkException(new IllegalArgumentException("Line 2 is not part of a maze!"),
+        new AsciiMazeReader(new StringReader("+--+--+\n|  x  |\n")), "read",
+        new GridRowSink(2));
+    t.checkException(new IllegalArgumentException("Line 3 is not part of a maze!"),
+        new AsciiMazeReader(new StringReader("+--+--+\n|     |\n+--|--+\n")), "read",
+        new GridRowSink(2));
+    t.checkException(new IllegalArgumentException("Line 3 is not part of a maze!"),
+        new AsciiMazeReader(new StringReader("+--+--+\n|     |\n+- +--+\n")), "read",
+        new GridRowSink(2));
+    t.checkException(new IllegalArgumentException("Line 2 must be followed by the walls below it!"),
+        new AsciiMazeReader(new StringReader("+--+--+\n|     |\n")), "read",
+        new GridRowSink(2));
+    t.checkException(new IllegalArgumentException("Line 5 must close the bottom of the maze!"),
+        new AsciiMazeReader(new StringReader("+--+--+\n|     |\n+--+  +\n|  |  |\n+--+  +\n")),
+        "read", new GridRowSink(2));
+    t.checkException(new IllegalArgumentException("Width and height need to be 2 or more!"),
+        new AsciiMazeReader(new StringReader("+--+--+\n|     |\n+--+--+\n")), "read",
+        new GridRowSink(2));
+  }
+
+  void testMazeArchive(Tester t) {
+    this.initConds();
+
+    WallCodec codec = new WallCodec();
+    t.checkExpect(codec.encodedLength(4), 8);
+    t.checkExpect(codec.encodedLength(32), 8);
+    t.checkExpect(codec.encodedLength(33), 16);
+    t.checkExpect(codec.spread(0b1011L), 0b1000101L);
+    t.checkExpect(codec.spread(0xFFFFFFFFL), 0x5555555555555555L);
+    t.checkExpect(codec.compact(0b1000101L), 0b1011L);
+    t.checkExpect(codec.compact(0xAAAAAAAAAAAAAAAAL), 0L);
+    t.checkExpect(codec.wordAt(new long[] { 3 }, 1), 0L);
+
+    // the seeded 2x2 maze has its right walls standing on the right column, and
+    // every bottom wall but the one below the top right
+    GridMaze tiny = new GridMaze(2, 2);
+    t.checkExpect(codec.encode(tiny), new byte[] { (byte) 0b11100110, 0, 0, 0, 0, 0, 0, 0 });
+    GridMaze decodedTiny = codec.decode(codec.encode(tiny), 2, 2, 420, 0, true, 0, 3);
+    t.checkExpect(decodedTiny.rightWallWords(), tiny.rightWallWords());
+    t.checkExpect(decodedTiny.bottomWallWords(), tiny.bottomWallWords());
+
+    // every wall survives the round trip, across the words and at the ragged end
+    // of the last one
+    GridMaze odd = new GridMaze(37, 23, 420, 1);
+    GridMaze decoded = codec.decode(codec.encode(odd), 37, 23, 420, 1, true, 0, 850);
+    t.checkExpect(decoded.rightWallWords(), odd.rightWallWords());
+    t.checkExpect(decoded.bottomWallWords(), odd.bottomWallWords());
+    t.checkException(new IllegalArgumentException("Corrupt maze archive entry!"), codec,
+        "decode", new byte[9], 2, 2, 420, 0, true, 0, 3);
+
+    try {
+      Path path = Files.createTempFile("mazes", ".mza");
+      MazeArchiveWriter writer = new MazeArchiveWriter(path);
+      ArrayList<GridMaze> mazes = new ArrayList<GridMaze>();
+      // archives every bias mode of a few seeds and sizes
+      for (int seed = 0; seed < 4; seed += 1) {
+        for (int biasMode = 0; biasMode < 3; biasMode += 1) {
+          GridMaze maze = new GridMaze(20 + seed * 7, 15 + seed, seed, biasMode);
+          mazes.add(maze);
+          writer.add(maze);
+        }
+      }
+      GridMaze counter = new GridMaze(30, 30, 4, 2, new KruskalGenerator(), false);
+      GridMaze moved = new GridMaze(5, 4, 5, 1, true, 7, 12, new BitSet(), new BitSet());
+      writer.add(counter);
+      writer.add(moved);
+      // the same size, seed and bias from the other random, or between other
+      // ends, is another maze
+      GridMaze legacy = new GridMaze(30, 30, 4, 2);
+      writer.add(legacy);
+      writer.add(legacy.withEnds(7, 12));
+      t.checkExpect(writer.size(), 16);
+      t.checkException(new IllegalArgumentException("The archive already holds that maze!"),
+          writer, "add", new GridMaze(20, 15, 0, 1));
+      t.checkException(new IllegalArgumentException("The archive already holds that maze!"),
+          writer, "add", counter);
+      writer.close();
+
+      // reads back any maze by its size, seed and bias mode
+      MazeArchive archive = new MazeArchive(path);
+      t.checkExpect(archive.size(), 16);
+      t.checkExpect(archive.contains(27, 16, 1, 2), true);
+      t.checkExpect(archive.contains(27, 16, 1, 3), false);
+      // checks every archived maze, newest first
+      for (int index = mazes.size() - 1; index >= 0; index -= 1) {
+        GridMaze maze = mazes.get(index);
+        GridMaze loaded = archive.get(maze.getWidth(), maze.getHeight(), maze.getSeed(),
+            maze.getBiasMode());
+        t.checkExpect(loaded.rightWallWords(), maze.rightWallWords());
+        t.checkExpect(loaded.bottomWallWords(), maze.bottomWallWords());
+        t.checkExpect(loaded.usesLegacyRandom(), true);
+      }
+      // mazes drawn from another random or between other ends are read back by
+      // those settings as well
+      GridMaze loadedCounter = archive.get(30, 30, 4, 2, false, 0, 899);
+      t.checkExpect(loadedCounter.usesLegacyRandom(), false);
+      t.checkExpect(loadedCounter.rightWallWords(), counter.rightWallWords());
+      t.checkExpect(archive.get(30, 30, 4, 2).usesLegacyRandom(), true);
+      t.checkExpect(archive.get(30, 30, 4, 2).rightWallWords(), legacy.rightWallWords());
+      t.checkExpect(archive.get(30, 30, 4, 2, true, 7, 12).getStart(), 7);
+      t.checkExpect(archive.contains(30, 30, 4, 2, false, 7, 12), false);
+      t.checkExpect(archive.contains(5, 4, 5, 1), false);
+      t.checkExpect(archive.contains(5, 4, 5, 1, true, 7, 12), true);
+      t.checkExpect(archive.get(5, 4, 5, 1, true, 7, 12).getStart(), 7);
+      t.checkExpect(archive.get(5, 4, 5, 1, true, 7, 12).getEnd(), 12);
+      t.checkExpect(archive.get(5, 4, 5, 1, true, 7, 12).bottomWallWords(), new long[0]);
+      t.checkException(new IllegalArgumentException("The archive has no such maze!"), archive,
+          "get", 20, 15, 9, 0);
+      t.checkException(new IllegalArgumentException("The archive has no such maze!"), archive,
+          "get", 20, 15, 0, 1, false, 0, 299);
+      archive.close();
+
+      // a biased maze takes under 80% of the 10000 bytes of its raw walls
+      writer = new MazeArchiveWriter(path);
+      writer.add(new GridMaze(200, 200, 420, 2));
+      t.checkExpect(writer.bytesWritten() - 8 < 8000, true);
+      writer.close();
+
+      // files that are not archives are refused
+      byte[] bytes = Files.readAllBytes(path);
+      Files.write(path, new byte[30]);
+      t.checkConstructorException(new IllegalArgumentException("Not a maze archive!"),
+          "MazeArchive", path);
+      byte[] versioned = Arrays.copyOf(bytes, bytes.length);
+      versioned[7] = 9;
+      Files.write(path, versioned);
+      t.checkConstructorException(
+          new IllegalArgumentException("Unsupported maze archive version 9!"), "MazeArchive",
+          path);
+      byte[] index = Arrays.copyOf(bytes, bytes.length);
+      index[index.length - 5] += 1;
+      Files.write(path, index);
+      t.checkConstructorException(new IllegalArgumentException("Corrupt maze archive index!"),
+          "MazeArchive", path);
+      byte[] corrupt = Arrays.copyOf(bytes, bytes.length);
+      corrupt[12] = (byte) ~corrupt[12];
+      Files.write(path, corrupt);
+      MazeArchive broken = new MazeArchive(path);
+      t.checkException(new IllegalArgumentException("Corrupt maze archive entry!"), broken,
+          "get", 200, 200, 420, 2);
+      broken.close();
+
+      Files.delete(path);
+      t.checkConstructorException(
+          new RuntimeException("Could not read the maze archive " + path + "!"), "MazeArchive",
+          path);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Could not use a temporary maze archive!", e);
+    }
+  }
+
+  void testMazeSearchScales(Tester t) {
+    this.initConds();
+
+    // a 300x300 search steps through every cell it expands in constant time, and
+    // leaves the same visited cells, solution and correct path as a grid search
+    for (int bfs = 0; bfs < 2; bfs += 1) {
+      Maze maze = new Maze(300, 300, 420, false, 1);
+      Pair<Integer, Integer> replay = this.replaySearch(maze, bfs == 1 ? "BFS" : "DFS");
+      int mazeWrongMoves = replay.getObj1();
+      t.checkExpect(replay.getObj2() <= 300 * 300, true);
+
+      GridMaze grid = new GridMaze(300, 300, 420, 1);
+      MazeOverlay gridOverlay = new MazeOverlay(grid.cellCount());
+      grid.labelCorrectPath(gridOverlay);
+      t.checkExpect(new GridSearch(grid, gridOverlay, bfs == 1).runToCompletion(),
+          mazeWrongMoves);
+      t.checkExpect(maze.getOverlay(), gridOverlay);
+    }
+
+    // walking to the end draws the correct path as the solution
+    Maze tiny = new Maze(2, 2, 420, false, 0);
+    tiny.buildReferencesPath();
+    tiny.labelCorrectCells();
+    tiny.attemptMove("right");
+    t.checkExpect(tiny.attemptMove("down"), new Pair<Boolean, Integer>(false, 0));
+    t.checkExpect(tiny.getOverlay().isSolution(0), true);
+    t.checkExpect(tiny.getOverlay().isSolution(1), true);
+    t.checkExpect(tiny.getOverlay().isSolution(3), true);
+    t.checkExpect(tiny.getOverlay().isSolution(2), false);
+  }
+
+  void testHeadlessSolve(Tester t) {
+    this.initConds();
 
-    t.checkExpect(topLeft.findMaxSteps(0), 2);
+    // the walls of a built maze are the same as the seeded grid maze's
+    GridMaze seeded = new GridMaze(40, 25, 420, 1);
+    GridMaze converted = new Maze(40, 25, 420, false, 1).toGridMaze();
+    t.checkExpect(converted.rightWallWords(), seeded.rightWallWords());
+    t.checkExpect(converted.bottomWallWords(), seeded.bottomWallWords());
+    t.checkExpect(converted.getSeed(), 420);
+    t.checkExpect(converted.getBiasMode(), 1);
+    // an animated maze has every wall standing until it is carved
+    t.checkExpect(new Maze(3, 2).toGridMaze().rightWallWords(), new long[] { 0b111111 });
+
+    // the tiny maze is solved through the top right by both searches
+    Maze tinyMaze = new Maze(2, 2, 420, false, 0);
+    SolveResult tiny = tinyMaze.solve("BFS");
+    t.checkExpect(tiny.getSolverName(), "BFS");
+    t.checkExpect(tiny.getPath(), new int[] { 0, 1, 3 });
+    t.checkExpect(tiny.reachedEnd(), true);
+    t.checkExpect(tiny.getExpandedCells(), 3);
+    t.checkExpect(tiny.getWrongMoves(), 0);
+    t.checkExpect(tiny.getPeakFrontier(), 1);
+    t.checkExpect(tiny.getElapsedNanos() > 0, true);
+    t.checkExpect(tinyMaze.solve("DFS").getPath(), new int[] { 0, 1, 3 });
+    // solving headless leaves the maze's own render states alone
+    t.checkExpect(tinyMaze.getOverlay().isVisited(0), false);
+
+    // counts the same wrong moves as the animated searches, and finds the
+    // correct path
+    for (int bfs = 0; bfs < 2; bfs += 1) {
+      Maze maze = new Maze(40, 25, 420, false, 1);
+      Pair<Integer, Integer> replay = this.replaySearch(maze, bfs == 1 ? "BFS" : "DFS");
+
+      SolveResult result = new SearchSolver(bfs == 1).solve(seeded);
+      t.checkExpect(result.getWrongMoves(), replay.getObj1());
+      t.checkExpect(result.getExpandedCells(), replay.getObj2());
+      int[] path = result.getPath();
+      t.checkExpect(path[0], 0);
+      t.checkExpect(path[path.length - 1], 40 * 25 - 1);
+      // every cell on the path is correct, and every step goes through a pathway
+      for (int index = 0; index < path.length; index += 1) {
+        t.checkExpect(maze.getOverlay().isCorrectPath(path[index]), true);
+        if (index > 0) {
+          int[] neighbors = new int[4];
+          int count = seeded.connectedNeighbors(path[index - 1], neighbors);
+          t.checkExpect(Arrays.asList(neighbors[0], neighbors[1], neighbors[2], neighbors[3])
+              .subList(0, count).contains(path[index]), true);
+        }
+      }
+      t.checkExpect(result.getPeakFrontier() >= 1, true);
+    }
+    t.checkExpect(new SearchSolver(true).solve(seeded).getPath(),
+        new SearchSolver(false).solve(seeded).getPath());
+
+    // a maze whose end is walled off is not solved
+    BitSet walls = new BitSet();
+    walls.set(0, 4);
+    SolveResult walled = new SearchSolver(true).solve(new GridMaze(2, 2, 420, 0, walls, walls));
+    t.checkExpect(walled.reachedEnd(), false);
+    t.checkExpect(walled.getPath(), new int[0]);
+    t.checkExpect(walled.getExpandedCells(), 1);
+
+    // solvers are looked up by name
+    t.checkExpect(SolverRegistry.standard().names().subList(0, 2),
+        Arrays.asList("BFS", "DFS"));
+    SolverRegistry registry = new SolverRegistry();
+    t.checkExpect(registry.names(), new ArrayList<String>());
+    registry.register(new SearchSolver(false));
+    t.checkExpect(registry.get("DFS").name(), "DFS");
+    t.checkException(new IllegalArgumentException("A solver named DFS is already registered!"),
+        registry, "register", new SearchSolver(false));
+    t.checkException(new IllegalArgumentException("No solver named BFS is registered!"),
+        registry, "get", "BFS");
+    t.checkException(new IllegalArgumentException("No solver named Dijkstra is registered!"),
+        tinyMaze, "solve", "Dijkstra");
+  }
+
+  void testAStarSearch(Tester t) {
+    this.initConds();
 
-    // set steps
-    topLeft.setGradient(0);
-    topRight.setGradient(1);
-    bottomLeft.setGradient(0);
-    bottomRight.setGradient(2);
+    // manhattan distances
+    GridMaze seeded = new GridMaze(40, 25, 420, 1);
+    t.checkExpect(seeded.distance(0, 40 * 25 - 1), 39 + 24);
+    t.checkExpect(seeded.distance(41, 2), 2);
+    Maze tinyMaze = new Maze(2, 2, 420, false, 0);
+    t.checkExpect(tinyMaze.distanceToEnd(0), 2);
+    t.checkExpect(tinyMaze.distanceToEnd(3), 0);
+
+    // the tiny maze is solved through the top right
+    SolveResult tiny = tinyMaze.solve("A*");
+    t.checkExpect(tiny.getSolverName(), "A*");
+    t.checkExpect(tiny.getPath(), new int[] { 0, 1, 3 });
+    t.checkExpect(tiny.getExpandedCells(), 3);
+    t.checkExpect(tiny.getWrongMoves(), 0);
+    t.checkExpect(SolverRegistry.standard().names().subList(0, 3),
+        Arrays.asList("BFS", "DFS", "A*"));
+
+    // the animated search takes the same steps as the headless one, and never
+    // expands more cells than breadth first
+    for (int bias = 0; bias < 3; bias += 1) {
+      GridMaze grid = new GridMaze(40, 25, 420, bias);
+      Maze maze = new Maze(40, 25, 420, false, bias);
+      Pair<Integer, Integer> replay = this.replaySearch(maze, "A*");
+
+      SolveResult result = new AStarSolver().solve(grid);
+      t.checkExpect(result.getWrongMoves(), replay.getObj1());
+      t.checkExpect(result.getExpandedCells(), replay.getObj2());
+      t.checkExpect(maze.getOverlay().isSolution(40 * 25 - 1), true);
+      t.checkExpect(result.getPath(), new SearchSolver(true).solve(grid).getPath());
+      t.checkExpect(result.getExpandedCells()
+          <= new SearchSolver(true).solve(grid).getExpandedCells(), true);
+    }
 
-    t.checkExpect(topLeft.findMaxSteps(0), 2);
+    // the comparison line counts the moves A* saved
+    t.checkExpect(tinyMaze.aStarComparison(3, -1, -1), "A* had 3 wrong moves");
+    t.checkExpect(tinyMaze.aStarComparison(3, 10, 5),
+        "A* had 3 wrong moves, 2 fewer than BFS, 7 fewer than DFS");
 
-    // set steps
-    topLeft.setGradient(0);
-    topRight.setGradient(0);
-    bottomLeft.setGradient(0);
-    bottomRight.setGradient(0);
+    // h runs A* through the same animation as b and d
+    Maze maze = new Maze(2, 2, 420, false, 0);
+    Maze maze2 = new Maze(2, 2, 420, false, 0);
+    maze.initMazeAuxilaries();
+    maze2.initMazeAuxilaries();
+    MazeSolver mazeSolver = new MazeSolver(maze);
+    MazeSolver mazeSolver2 = new MazeSolver(maze2);
 
-    t.checkExpect(topLeft.findMaxSteps(0), 0);
+    // cannot search while under construction
+    mazeSolver.onKeyEvent("h");
+    t.checkExpect(mazeSolver, mazeSolver2);
+
+    // carves the maze on the solver's own maze
+    for (int tick = 0; tick < 5; tick += 1) {
+      mazeSolver.onTick();
+    }
+    mazeSolver.onKeyEvent("h");
+    mazeSolver.onTick();
+    WorldScene w = new WorldScene(1000, 1000);
+    w.placeImageXY(maze.render(false, true, 1, false, -1, -1), 500, 500);
+    t.checkExpect(mazeSolver.makeScene(), w);
 
+    // once the end is found the comparison shows how A* did
+    mazeSolver.onTick();
+    mazeSolver.onTick();
+    mazeSolver.onKeyEvent("p");
+    t.checkExpect(maze.getOverlay().isSolution(3), true);
+    WorldScene w2 = new WorldScene(1000, 1000);
+    w2.placeImageXY(maze.render(false, true, 1, true, -1, -1, 1), 500, 500);
+    t.checkExpect(mazeSolver.makeScene(), w2);
   }
 
-  void testFindMaxStepsInRow(Tester t) {
+  void testBidirectionalSearch(Tester t) {
     this.initConds();
 
-    // border cells always return the argument value for max steps in row, face
-    // value
-    t.checkExpect(this.borderCell1.findMaxStepsInRow(0), 0);
-    t.checkExpect(this.borderCell1.findMaxStepsInRow(-1), -1);
-    t.checkExpect(this.borderCell1.findMaxStepsInRow(999), 999);
+    // the tiny maze meets in the top right, once both halves have reached it
+    Maze tinyMaze = new Maze(2, 2, 420, false, 0);
+    SolveResult tiny = tinyMaze.solve("Bidirectional BFS");
+    t.checkExpect(tiny.getPath(), new int[] { 0, 1, 3 });
+    t.checkExpect(tiny.getExpandedCells(), 3);
+    t.checkExpect(new BidirectionalSolver().savedExpansions(tinyMaze.toGridMaze()), 0);
+    t.checkExpect(SolverRegistry.standard().names().get(3), "Bidirectional BFS");
+
+    // the animated search takes the same steps as the headless one, finds the
+    // same path as BFS, and never expands more cells than it
+    for (int bias = 0; bias < 3; bias += 1) {
+      GridMaze grid = new GridMaze(40, 25, 420, bias);
+      Maze maze = new Maze(40, 25, 420, false, bias);
+      Pair<Integer, Integer> replay = this.replaySearch(maze, "Bidirectional BFS");
+
+      SolveResult result = new BidirectionalSolver().solve(grid);
+      t.checkExpect(result.getWrongMoves(), replay.getObj1());
+      t.checkExpect(result.getExpandedCells(), replay.getObj2());
+      int[] path = new SearchSolver(true).solve(grid).getPath();
+      t.checkExpect(result.getPath(), path);
+      BitSet onPath = new BitSet();
+      // marks the cells on the path
+      for (int index = 0; index < path.length; index += 1) {
+        onPath.set(path[index]);
+      }
+      // the stitched references draw exactly the path
+      for (int index = 0; index < 40 * 25; index += 1) {
+        t.checkExpect(maze.getOverlay().isSolution(index), onPath.get(index));
+      }
+      t.checkExpect(new BidirectionalSolver().savedExpansions(grid) >= 0, true);
+    }
 
-    // initialize 2x2 grid of cells
-    Cell topLeft = new Cell();
-    Cell topRight = new Cell();
-    Cell bottomLeft = new Cell();
-    Cell bottomRight = new Cell();
+    // a maze whose end is walled off is not solved
+    BitSet walls = new BitSet();
+    walls.set(0, 4);
+    SolveResult walled = new BidirectionalSolver().solve(new GridMaze(2, 2, 420, 0, walls,
+        walls));
+    t.checkExpect(walled.reachedEnd(), false);
+    t.checkExpect(walled.getPath(), new int[0]);
+    t.checkExpect(walled.getExpandedCells(), 2);
+
+    // the comparison line counts the cells saved over BFS
+    t.checkExpect(tinyMaze.bidirectionalComparison(-1, 2),
+        "Bidirectional BFS expanded 2 cells");
+    t.checkExpect(tinyMaze.bidirectionalComparison(3, 2),
+        "Bidirectional BFS expanded 2 cells, 1 fewer than BFS");
+
+    // t runs the bidirectional search through the same animation as b
+    Maze maze = new Maze(2, 2, 420, false, 0);
+    maze.initMazeAuxilaries();
+    MazeSolver mazeSolver = new MazeSolver(maze);
+    // carves the maze on the solver's own maze
+    for (int tick = 0; tick < 5; tick += 1) {
+      mazeSolver.onTick();
+    }
+    mazeSolver.onKeyEvent("b");
+    // INVARIANT:
+    // every tick expands a new cell until the end is found
+    for (int tick = 0; tick < 5; tick += 1) {
+      mazeSolver.onTick();
+    }
+    mazeSolver.onKeyEvent("t");
+    mazeSolver.onTick();
+    mazeSolver.onTick();
+    mazeSolver.onTick();
+    mazeSolver.onKeyEvent("p");
+    t.checkExpect(maze.getOverlay().isSolution(3), true);
+    WorldScene w = new WorldScene(1000, 1000);
+    w.placeImageXY(maze.render(false, true, 3, true, -1, 1, -1, 3, 3), 500, 500);
+    t.checkExpect(mazeSolver.makeScene(), w);
+  }
 
-    Edge edgeTop = new Edge(topLeft, topRight);
-    Edge edgeRight = new Edge(topRight, bottomRight);
-    Edge edgeLeft = new Edge(bottomLeft, topLeft);
-    Edge edgeBottom = new Edge(bottomLeft, bottomRight);
+  void testJunctionGraph(Tester t) {
+    this.initConds();
 
-    // top or right, node 2
+    // the tiny maze keeps the start, the dead end and the end, and contracts
+    // the corridor through the top right
+    GridMaze tiny = new GridMaze(2, 2);
+    JunctionGraph graph = new JunctionGraph(tiny);
+    t.checkExpect(graph.nodeCount(), 3);
+    t.checkExpect(graph.edgeCount(), 4);
+    t.checkExpect(graph.nodeOf(0), 0);
+    t.checkExpect(graph.nodeOf(1), -1);
+    t.checkExpect(graph.nodeOf(3), 2);
+    t.checkExpect(graph.cellOf(1), 2);
+    t.checkExpect(graph.firstEdge(0), 0);
+    t.checkExpect(graph.firstEdge(1), 1);
+    t.checkExpect(graph.firstEdge(2), 2);
+    t.checkExpect(graph.firstEdge(3), 4);
+    t.checkExpect(graph.target(0), 2);
+    t.checkExpect(graph.weight(0), 2);
+    t.checkExpect(graph.target(2), 0);
+    t.checkExpect(graph.target(3), 1);
+    t.checkExpect(graph.weight(3), 1);
+    t.checkExpect(graph.cellPath(0, new int[] { 0 }), new int[] { 0, 1, 3 });
+    t.checkExpect(graph.cellPath(2, new int[] { 1, 2 }), new int[] { 2, 3, 1, 0 });
+    t.checkExpect(graph.getBuildNanos() > 0, true);
+    t.checkException(new RuntimeException("Cell 0 is not in the middle of a corridor!"), graph,
+        "onward", 1, 0);
+
+    SolveResult tinyResult = new JunctionSolver().solve(tiny);
+    t.checkExpect(tinyResult.getPath(), new int[] { 0, 1, 3 });
+    t.checkExpect(tinyResult.getExpandedCells(), 2);
+    t.checkExpect(tinyResult.getWrongMoves(), 0);
+    t.checkExpect(tinyResult.getPreprocessNanos() > 0, true);
+    t.checkExpect(new SolveResult("BFS", new int[0], 0, 0, 0, 5).getPreprocessNanos(), 0L);
+    // the searches time labelling the correct path apart from the search itself
+    GridMaze labelled = new GridMaze(100, 100);
+    t.checkExpect(new SearchSolver(true).solve(labelled).getPreprocessNanos() > 0, true);
+    t.checkExpect(new BidirectionalSolver().solve(labelled).getPreprocessNanos() > 0, true);
+    t.checkExpect(new DeadEndSolver(ForkJoinPool.commonPool()).solve(labelled)
+        .getPreprocessNanos() > 0, true);
+
+    // every passage is walked once from each end, and the solve finds the same
+    // path as BFS while expanding fewer cells
+    for (int bias = 0; bias < 3; bias += 1) {
+      GridMaze grid = new GridMaze(40, 25, 420, bias);
+      JunctionGraph junctions = new JunctionGraph(grid);
+      int steps = 0;
+      // adds up the steps of every edge
+      for (int edge = 0; edge < junctions.edgeCount(); edge += 1) {
+        steps += junctions.weight(edge);
+      }
+      t.checkExpect(steps, 2 * (40 * 25 - 1));
+      t.checkExpect(junctions.firstEdge(junctions.nodeCount()), junctions.edgeCount());
 
-    topLeft.setEdge(edgeTop, 1);
-    topLeft.setEdge(edgeLeft, 2);
+      SolveResult result = new JunctionSolver().solve(grid);
+      SolveResult bfs = new SearchSolver(true).solve(grid);
+      t.checkExpect(result.getPath(), bfs.getPath());
+      t.checkExpect(result.getExpandedCells() < bfs.getExpandedCells(), true);
+    }
 
-    topRight.setEdge(edgeTop, 3);
-    topRight.setEdge(edgeRight, 2);
+    // the cells of a corridor off the path count as wrong moves once the node at
+    // its end is reached, like the cells BFS moves onto one at a time
+    // 0 1 2    the path runs 0 1 2 5, and 1 4 3 branches off it
+    // 3 4 5
+    BitSet branchRight = new BitSet();
+    branchRight.set(4);
+    BitSet branchBottom = new BitSet();
+    branchBottom.set(0);
+    GridMaze branch = new GridMaze(3, 2, 420, 0, branchRight, branchBottom);
+    SolveResult branchResult = new JunctionSolver().solve(branch);
+    t.checkExpect(branchResult.getPath(), new int[] { 0, 1, 2, 5 });
+    t.checkExpect(branchResult.getWrongMoves(), 2);
+    t.checkExpect(new SearchSolver(true).solve(branch).getWrongMoves(), 2);
+    MazeOverlay entered = new MazeOverlay(6);
+    branch.labelCorrectPath(entered);
+    JunctionGraph branchGraph = new JunctionGraph(branch);
+    t.checkExpect(branchGraph.enter(1, branchGraph.firstEdge(branchGraph.nodeOf(1)) + 1,
+        entered), 2);
+    t.checkExpect(entered.isVisited(4), true);
+    t.checkExpect(entered.isVisited(3), true);
+
+    // a maze whose end is walled off is not solved
+    BitSet walls = new BitSet();
+    walls.set(0, 4);
+    SolveResult walled = new JunctionSolver().solve(new GridMaze(2, 2, 420, 0, walls, walls));
+    t.checkExpect(walled.reachedEnd(), false);
+    t.checkExpect(walled.getExpandedCells(), 1);
+
+    // a headless path is drawn on the animated maze
+    Maze maze = new Maze(2, 2, 420, false, 0);
+    maze.drawPath(maze.solve("Junction BFS").getPath());
+    t.checkExpect(maze.getOverlay().isSolution(0), true);
+    t.checkExpect(maze.getOverlay().isSolution(1), true);
+    t.checkExpect(maze.getOverlay().isSolution(2), false);
+    t.checkExpect(maze.getOverlay().isSolution(3), true);
+    maze.drawPath(new int[0]);
+    t.checkExpect(maze.getOverlay().isSolution(2), false);
+  }
 
-    bottomLeft.setEdge(edgeBottom, 1);
-    bottomLeft.setEdge(edgeLeft, 0);
+  void testDeadEndFilling(Tester t) {
+    this.initConds();
 
-    bottomRight.setEdge(edgeBottom, 3);
-    bottomRight.setEdge(edgeRight, 0);
+    ForkJoinPool pool = new ForkJoinPool(3);
+
+    // the tiny maze fills the bottom left in one wave
+    GridMaze tiny = new GridMaze(2, 2);
+    MazeOverlay tinyOverlay = new MazeOverlay(4);
+    DeadEndFilling tinyFilling = new DeadEndFilling(tiny, tinyOverlay, pool);
+    t.checkExpect(tinyFilling.frontierSize(), 1);
+    t.checkExpect(tinyFilling.updateSearch(), new Pair<Boolean, Integer>(true, 1));
+    t.checkExpect(tinyOverlay.isVisited(2), true);
+    t.checkExpect(tinyFilling.updateSearch(), new Pair<Boolean, Integer>(false, 0));
+    t.checkExpect(tinyFilling.path(), new int[] { 0, 1, 3 });
+    t.checkExpect(tinyOverlay.isSolution(1), true);
+    t.checkExpect(tinyOverlay.isSolution(2), false);
+    t.checkExpect(tinyFilling.expandedCount(), 1);
+    t.checkExpect(tinyFilling.waveCount(), 1);
+    t.checkConstructorException(
+        new IllegalArgumentException("Overlay must cover every cell of the maze!"),
+        "DeadEndFilling", tiny, new MazeOverlay(3), pool);
+
+    SolveResult tinyResult = new Maze(2, 2, 420, false, 0).solve("Dead-end filling");
+    t.checkExpect(tinyResult.getPath(), new int[] { 0, 1, 3 });
+    t.checkExpect(tinyResult.getExpandedCells(), 1);
+    t.checkExpect(tinyResult.getWrongMoves(), 1);
+
+    // the animated filling fills the same cells as the headless one, and leaves
+    // exactly the path BFS finds
+    for (int bias = 0; bias < 3; bias += 1) {
+      GridMaze grid = new GridMaze(40, 25, 420, bias);
+      Maze maze = new Maze(40, 25, 420, false, bias);
+      maze.buildReferencesPath();
+      maze.labelCorrectCells();
+      maze.initMazeAuxilaries();
+      int wrongMoves = 0;
+      int waves = 0;
+      Pair<Boolean, Integer> step = maze.updateDeadEndFilling();
+      // INVARIANT:
+      // every wave fills new cells, so the filling ends
+      while (step.getObj1()) {
+        wrongMoves += step.getObj2();
+        waves += 1;
+        step = maze.updateDeadEndFilling();
+      }
 
-    // set steps
-    topLeft.setGradient(0);
-    topRight.setGradient(1);
-    bottomLeft.setGradient(1);
-    bottomRight.setGradient(2);
+      MazeOverlay overlay = new MazeOverlay(grid.cellCount());
+      grid.labelCorrectPath(overlay);
+      DeadEndFilling filling = new DeadEndFilling(grid, overlay, pool);
+      t.checkExpect(filling.runToCompletion(), wrongMoves);
+      t.checkExpect(filling.waveCount(), waves);
+      int[] path = new SearchSolver(true).solve(grid).getPath();
+      t.checkExpect(filling.path(), path);
+      t.checkExpect(filling.expandedCount(), 40 * 25 - path.length);
+      // the animated maze draws the same path
+      for (int index = 0; index < 40 * 25; index += 1) {
+        t.checkExpect(maze.getOverlay().isSolution(index), overlay.isSolution(index));
+      }
+    }
 
-    t.checkExpect(topLeft.findMaxStepsInRow(0), 1);
+    // a maze big enough to be split across the pool still leaves the BFS path
+    GridMaze large = new GridMaze(200, 150, 420, 1);
+    t.checkExpect(new DeadEndSolver(pool).solve(large).getPath(),
+        new SearchSolver(true).solve(large).getPath());
 
-    // set steps
-    topLeft.setGradient(1);
-    topRight.setGradient(0);
-    bottomLeft.setGradient(1);
-    bottomRight.setGradient(2);
+    // a maze whose end is walled off leaves no path
+    BitSet walls = new BitSet();
+    walls.set(0, 4);
+    SolveResult walled = new DeadEndSolver(pool).solve(new GridMaze(2, 2, 420, 0, walls,
+        walls));
+    t.checkExpect(walled.reachedEnd(), false);
+    t.checkExpect(walled.getExpandedCells(), 2);
 
-    t.checkExpect(topLeft.findMaxSteps(0), 2);
+    // f runs the filling through the same animation as the searches
+    Maze maze = new Maze(2, 2, 420, false, 0);
+    maze.initMazeAuxilaries();
+    MazeSolver mazeSolver = new MazeSolver(maze);
+    // carves the maze on the solver's own maze
+    for (int tick = 0; tick < 5; tick += 1) {
+      mazeSolver.onTick();
+    }
+    mazeSolver.onKeyEvent("f");
+    mazeSolver.onTick();
+    t.checkExpect(maze.getOverlay().isVisited(2), true);
+    t.checkExpect(maze.getOverlay().isSolution(3), false);
+    mazeSolver.onTick();
+    t.checkExpect(maze.getOverlay().isSolution(3), true);
+    t.checkExpect(maze.getOverlay().isSolution(2), false);
 
-    // set steps
-    topLeft.setGradient(0);
-    topRight.setGradient(1);
-    bottomLeft.setGradient(0);
-    bottomRight.setGradient(2);
+    pool.shutdown();
+  }
 
-    t.checkExpect(bottomLeft.findMaxSteps(0), 2);
+  void testMazeDistanceIndex(Tester t) {
+    this.initConds();
 
-    // set steps
-    topLeft.setGradient(0);
-    topRight.setGradient(0);
-    bottomLeft.setGradient(0);
-    bottomRight.setGradient(0);
+    // the tiny maze is a single line: start -> right -> down -> bottom left
+    MazeDistanceIndex tiny = new MazeDistanceIndex(new GridMaze(2, 2));
+    t.checkExpect(tiny.depth(0), 0);
+    t.checkExpect(tiny.depth(2), 3);
+    t.checkExpect(tiny.parent(0), -1);
+    t.checkExpect(tiny.parent(2), 3);
+    t.checkExpect(tiny.lowestCommonAncestor(2, 1), 1);
+    t.checkExpect(tiny.lowestCommonAncestor(3, 3), 3);
+    t.checkExpect(tiny.distance(2, 0), 3);
+    t.checkExpect(tiny.distance(1, 2), 2);
+    t.checkExpect(tiny.path(2, 0), new int[] { 2, 3, 1, 0 });
+    t.checkExpect(tiny.path(1, 2), new int[] { 1, 3, 2 });
+    t.checkExpect(tiny.path(0, 0), new int[] { 0 });
+    t.checkExpect(tiny.getBuildNanos() > 0, true);
+    t.checkException(new IllegalArgumentException("Cell must be between 0 and 3 inclusive!"),
+        tiny, "distance", 0, 4);
+
+    // agrees with walking the parents of a search from one of the cells, on
+    // mazes spanning many blocks
+    for (int bias = 0; bias < 3; bias += 1) {
+      GridMaze grid = new GridMaze(40, 25, 420, bias);
+      MazeDistanceIndex index = new MazeDistanceIndex(grid);
+      Random random = new Random(bias);
+      // checks random pairs of cells
+      for (int query = 0; query < 20; query += 1) {
+        int cell = random.nextInt(grid.cellCount());
+        int other = random.nextInt(grid.cellCount());
+        int[] parents = grid.parentsFrom(cell);
+        int steps = 0;
+        // walks back from the other cell
+        for (int current = other; current != cell; current = parents[current]) {
+          steps += 1;
+        }
+        t.checkExpect(index.distance(cell, other), steps);
+        int[] path = index.path(cell, other);
+        t.checkExpect(path.length, steps + 1);
+        t.checkExpect(path[0], cell);
+        t.checkExpect(path[steps], other);
+        // every step goes through a pathway
+        for (int step = 1; step < path.length; step += 1) {
+          t.checkExpect(grid.distance(path[step - 1], path[step]), 1);
+        }
+      }
+      // the end is as deep as the solution is long
+      t.checkExpect(index.depth(grid.getEnd()),
+          new SearchSolver(true).solve(grid).getPath().length - 1);
+    }
 
-    t.checkExpect(bottomLeft.findMaxSteps(0), 0);
+    // only trees can be indexed
+    BitSet walls = new BitSet();
+    walls.set(0, 4);
+    t.checkConstructorException(
+        new IllegalArgumentException("Maze must be a tree to index its distances!"),
+        "MazeDistanceIndex", new GridMaze(2, 2, 420, 0, walls, walls));
+    t.checkConstructorException(
+        new IllegalArgumentException("Maze must be a tree to index its distances!"),
+        "MazeDistanceIndex", new GridMaze(2, 2, 420, 0, new BitSet(), new BitSet()));
   }
 
-  void testGetWeight(Tester t) {
+  void testStartAndEndPlacement(Tester t) {
     this.initConds();
 
-    t.checkExpect(new Edge().getWeight(), -1.0);
-    Edge edge = new Edge(1);
-    t.checkExpect(edge.getWeight(), 1.0);
-    t.checkExpect(this.edge1.getWeight(), -1.0);
-    t.checkExpect(new Edge(this.cellH1, this.cellH2, 20.0).getWeight(), 20.0);
+    // a maze can start and end anywhere, and keeps its ends through a rebuild
+    Maze placed = new Maze(6, 4, 420, false, 0, 7, 16);
+    t.checkExpect(placed.getStart(), 7);
+    t.checkExpect(placed.getEnd(), 16);
+    t.checkExpect(new Maze(placed).getStart(), 7);
+    t.checkExpect(new Maze(placed).getEnd(), 16);
+    t.checkExpect(new Maze(6, 4, 420, false, 0).getEnd(), 23);
+    t.checkConstructorException(
+        new IllegalArgumentException("Start and end must be cells of the maze!"), "Maze", 6, 4,
+        420, false, 0, 7, 24);
+
+    // the same walls as the corner to corner maze, between the placed ends
+    GridMaze grid = placed.toGridMaze();
+    GridMaze corners = new GridMaze(6, 4, 420, 0);
+    t.checkExpect(grid.getStart(), 7);
+    t.checkExpect(grid.getEnd(), 16);
+    t.checkExpect(grid.rightWallWords(), corners.rightWallWords());
+    t.checkExpect(corners.withEnds(7, 16).bottomWallWords(), corners.bottomWallWords());
+    t.checkExpect(corners.withEnds(7, 16).getEnd(), 16);
+    t.checkExpect(placed.distanceToEnd(7), 4);
+
+    // every search runs between the placed ends
+    int[] path = placed.solve("BFS").getPath();
+    t.checkExpect(path[0], 7);
+    t.checkExpect(path[path.length - 1], 16);
+    t.checkExpect(path.length - 1, new MazeDistanceIndex(corners).distance(7, 16));
+    t.checkExpect(placed.solve("A*").getPath(), path);
+    t.checkExpect(placed.solve("Dead-end filling").getPath(), path);
+    t.checkExpect(this.replaySearch(placed, "BFS").getObj2(),
+        placed.solve("BFS").getExpandedCells());
+    t.checkExpect(placed.getOverlay().isSolution(7), true);
+    t.checkExpect(placed.getOverlay().isSolution(16), true);
+    t.checkExpect(placed.getOverlay().isSolution(0), false);
+
+    // the player is drawn on the start without moving
+    Maze manual = new Maze(6, 4, 420, false, 0, 7, 16);
+    manual.placePlayer();
+    t.checkExpect(manual.getOverlay().isVisited(7), true);
+    t.checkExpect(manual.getOverlay().isVisited(6), false);
+  }
+
+  void testMazeQueries(Tester t) {
+    this.initConds();
 
-    Edge edgeWithDirs1 = new Edge(this.cellH2, this.cellH4);
-    Edge edgeWithDirs2 = new Edge(this.cellH2, this.cellH4, 88.0);
-    t.checkExpect(edgeWithDirs1.getWeight(), -1.0);
-    t.checkExpect(edgeWithDirs2.getWeight(), 88.0);
+    ForkJoinPool pool = new ForkJoinPool(3);
+    GridMaze grid = new GridMaze(40, 25, 420, 1);
+    MazeQueries queries = new MazeQueries(grid, pool);
+
+    // lengths and paths match solving every pair from scratch
+    int[] pairs = new int[] { 0, 999, 999, 0, 17, 17, 300, 41, 5, 620 };
+    int[] lengths = queries.lengths(pairs);
+    int[][] paths = queries.paths(pairs);
+    t.checkExpect(lengths.length, 5);
+    // solves every pair with BFS
+    for (int query = 0; query < 5; query += 1) {
+      int[] solved = new SearchSolver(true).solve(grid.withEnds(pairs[2 * query],
+          pairs[2 * query + 1])).getPath();
+      t.checkExpect(paths[query], solved);
+      t.checkExpect(lengths[query], solved.length - 1);
+    }
+    t.checkExpect(queries.lengths(new int[0]), new int[0]);
+    t.checkException(new IllegalArgumentException("Every query needs a start and an end!"),
+        queries, "lengths", new int[] { 1, 2, 3 });
+
+    // a batch big enough to be split across the pool answers every query
+    Random random = new Random(5);
+    int[] manyPairs = new int[2 * 5000];
+    int[] expected = new int[5000];
+    // draws every pair and answers it one at a time
+    for (int query = 0; query < 5000; query += 1) {
+      manyPairs[2 * query] = random.nextInt(grid.cellCount());
+      manyPairs[2 * query + 1] = random.nextInt(grid.cellCount());
+      expected[query] = queries.getIndex().distance(manyPairs[2 * query],
+          manyPairs[2 * query + 1]);
+    }
+    t.checkExpect(queries.lengths(manyPairs), expected);
+
+    pool.shutdown();
   }
 
-  void testCompareEdges(Tester t) {
+  void testPathCache(Tester t) {
     this.initConds();
 
-    CompareEdges compareEdges = new CompareEdges();
-    t.checkExpect(compareEdges.compare(new Edge(1), new Edge(1)), 0);
-    t.checkExpect(compareEdges.compare(new Edge(0), new Edge(1)), -1);
-    t.checkExpect(compareEdges.compare(new Edge(1), new Edge(0)), 1);
+    GridMaze grid = new GridMaze(40, 25, 420, 1);
+    PathCache cache = new PathCache(1 << 20);
+    t.checkExpect(cache.size(), 0);
+    t.checkExpect(cache.byteBudget(), 1L << 20);
+    t.checkExpect(cache.hitRate(), 0.0);
+
+    // the first request solves, the second one decodes the same cells
+    int[] solved = new SearchSolver(true).solve(grid.withEnds(0, 999)).getPath();
+    t.checkExpect(cache.path(grid, 0, 999), solved);
+    t.checkExpect(cache.misses(), 1L);
+    t.checkExpect(cache.path(grid, 0, 999), solved);
+    t.checkExpect(cache.hits(), 1L);
+    t.checkExpect(cache.size(), 1);
+
+    // a copy of the same layout shares the path, whatever its own ends
+    t.checkExpect(cache.path(new GridMaze(40, 25, 420, 1).withEnds(5, 6), 0, 999), solved);
+    t.checkExpect(cache.hits(), 2L);
+    t.checkExpect(grid.fingerprint(), grid.withEnds(5, 6).fingerprint());
+    t.checkExpect(grid.fingerprint() == new GridMaze(40, 25, 7, 1).fingerprint(), false);
+    t.checkExpect(grid.fingerprint() == new GridMaze(25, 40, 420, 1).fingerprint(), false);
+
+    // ends on a cached path are cut out of it, either way along it
+    t.checkExpect(cache.path(grid, solved[5], solved[20]), Arrays.copyOfRange(solved, 5, 21));
+    t.checkExpect(cache.path(grid, solved[20], solved[5]),
+        new SearchSolver(true).solve(grid.withEnds(solved[20], solved[5])).getPath());
+    t.checkExpect(cache.subpathHits(), 2L);
+    t.checkExpect(cache.misses(), 1L);
+    t.checkExpect(cache.size(), 1);
+    t.checkExpect(cache.hitRate(), 0.8);
+
+    // another layout with the same ends solves again
+    GridMaze other = new GridMaze(40, 25, 7, 1);
+    t.checkExpect(cache.path(other, 0, 999),
+        new SearchSolver(true).solve(other.withEnds(0, 999)).getPath());
+    t.checkExpect(cache.misses(), 2L);
+    t.checkExpect(cache.path(grid, 17, 17), new int[] { 17 });
+
+    // paths are stored as runs, so they are far smaller than their cells
+    CompactPath compact = new CompactPath(solved, 40);
+    t.checkExpect(compact.cells(), solved);
+    t.checkExpect(compact.length(), solved.length);
+    t.checkExpect(compact.runCount() < solved.length / 2, true);
+    t.checkExpect(compact.sizeInBytes() < 4L * solved.length, true);
+    t.checkExpect(compact.indexOf(solved[0]), 0);
+    t.checkExpect(compact.indexOf(solved[33]), 33);
+    t.checkExpect(compact.indexOf(999), solved.length - 1);
+    t.checkExpect(new CompactPath(new int[] { 0, 1, 2, 42, 82, 81 }, 40).runCount(), 3);
+    t.checkExpect(new CompactPath(new int[] { 0, 1, 2, 42, 82, 81 }, 40).indexOf(40), -1);
+    t.checkExpect(new CompactPath(new int[0], 40).cells(), new int[0]);
+    t.checkExpect(new CompactPath(new int[0], 40).indexOf(0), -1);
+    t.checkConstructorException(
+        new IllegalArgumentException("Every step of a path must be to a neighbor!"),
+        "CompactPath", new int[] { 0, 2 }, 40);
+
+    // a miss only looks through the latest few paths of its layout
+    PathCache scanned = new PathCache(1 << 20);
+    scanned.path(grid, 0, 999);
+    BitSet onPath = new BitSet(1000);
+    // marks the cells of the solved path
+    for (int cell : solved) {
+      onPath.set(cell);
+    }
+    int offPath = onPath.nextClearBit(0);
+    // solves a newer one cell path off the solved one for every path scanned
+    for (int index = 0; index < PathCache.SUBPATH_SCAN; index += 1) {
+      scanned.path(grid, offPath, offPath);
+      offPath = onPath.nextClearBit(offPath + 1);
+    }
+    t.checkExpect(scanned.path(grid, solved[5], solved[20]), Arrays.copyOfRange(solved, 5, 21));
+    t.checkExpect(scanned.subpathHits(), 0L);
+    t.checkExpect(scanned.misses(), 2L + PathCache.SUBPATH_SCAN);
+
+    // a path solved twice at once is held once
+    PathKey key = new PathKey(grid.fingerprint(), 3, 4);
+    scanned.publish(key, new CompactPath(new int[] { 3, 4 }, 40));
+    long held = scanned.bytesHeld();
+    scanned.publish(key, new CompactPath(new int[] { 3, 4 }, 40));
+    t.checkExpect(scanned.bytesHeld(), held);
+    t.checkExpect(scanned.size(), PathCache.SUBPATH_SCAN + 3);
+
+    // going over budget forgets the least recently used paths, keeping the newest
+    PathCache tiny = new PathCache(1);
+    tiny.path(grid, 0, 999);
+    tiny.path(grid, 999, 40);
+    t.checkExpect(tiny.size(), 1);
+    t.checkExpect(tiny.evictions(), 1L);
+    tiny.path(grid, 0, 999);
+    t.checkExpect(tiny.misses(), 3L);
+    tiny.clear();
+    t.checkExpect(tiny.size(), 0);
+    t.checkExpect(tiny.bytesHeld(), 0L);
+
+    t.checkConstructorException(
+        new IllegalArgumentException("Byte budget of a path cache must be positive!"),
+        "PathCache", 0L);
+    t.checkException(new IllegalArgumentException("Start and end must be cells of the maze!"),
+        cache, "path", grid, -1, 5);
+    t.checkException(new IllegalArgumentException("Start and end must be cells of the maze!"),
+        cache, "path", grid, 0, 1000);
+
+    // keys are equal exactly when every part is
+    t.checkExpect(new PathKey(3L, 4, 5).equals(new PathKey(3L, 4, 5)), true);
+    t.checkExpect(new PathKey(3L, 4, 5).equals(new PathKey(3L, 5, 4)), false);
+    t.checkExpect(new PathKey(3L, 4, 5).hashCode(), new PathKey(3L, 4, 5).hashCode());
+  }
+
+  void testGridMaze(Tester t) {
+    this.initConds();
+
+    GridMaze tiny = new GridMaze(2, 2);
+
+    // dimensions and defaults
+    t.checkExpect(tiny.getWidth(), 2);
+    t.checkExpect(tiny.getHeight(), 2);
+    t.checkExpect(tiny.getSeed(), 420);
+    t.checkExpect(tiny.getBiasMode(), 0);
+    t.checkExpect(tiny.getStart(), 0);
+    t.checkExpect(tiny.getEnd(), 3);
+    t.checkExpect(tiny.cellCount(), 4);
+
+    // same layout as the seeded 2x2 Maze: start -> right -> down -> end, and the
+    // bottom left cell hangs off the end
+    t.checkExpect(tiny.canMove(0, 1), true);
+    t.checkExpect(tiny.canMove(1, 3), true);
+    t.checkExpect(tiny.canMove(0, 2), false);
+    t.checkExpect(tiny.canMove(1, 2), true);
+    t.checkExpect(tiny.canMove(3, 0), true);
+    t.checkExpect(tiny.canMove(2, 1), true);
+    t.checkExpect(tiny.canMove(3, 3), true);
+
+    // borders are always walls
+    t.checkExpect(tiny.canMove(0, 0), false);
+    t.checkExpect(tiny.canMove(0, 3), false);
+    t.checkExpect(tiny.canMove(1, 1), false);
+    t.checkExpect(tiny.canMove(3, 2), false);
+
+    // neighbors and degrees
+    t.checkExpect(tiny.neighbor(0, 1), 1);
+    t.checkExpect(tiny.neighbor(3, 0), 1);
+    t.checkExpect(tiny.neighbor(3, 3), 2);
+    t.checkExpect(tiny.neighbor(0, 2), 2);
+    int[] neighbors = new int[4];
+    t.checkExpect(tiny.connectedNeighbors(3, neighbors), 2);
+    t.checkExpect(neighbors[0], 1);
+    t.checkExpect(neighbors[1], 2);
+    t.checkExpect(tiny.degree(0), 1);
+    t.checkExpect(tiny.degree(1), 2);
+    t.checkExpect(tiny.degree(2), 1);
+
+    // bad directions and arguments
+    t.checkException(new RuntimeException("Direction must be between 0 and 3 inclusive!"), tiny,
+        "canMove", 0, 4);
+    t.checkException(new RuntimeException("Direction must be between 0 and 3 inclusive!"), tiny,
+        "neighbor", 0, -1);
+    t.checkConstructorException(new IllegalArgumentException("Bias mode must be 0, 1 or 2"),
+        "GridMaze", 5, 5, 420, 3);
+    t.checkConstructorException(
+        new IllegalArgumentException("Width and height need to be 2 or more!"), "GridMaze", 1, 5);
+
+    // breadth first parents from the start
+    t.checkExpect(tiny.parentsFrom(0), new int[] { -1, 0, 3, 1 });
+    t.checkExpect(tiny.parentsFrom(3), new int[] { 1, 3, 3, -1 });
+
+    // a spanning tree has exactly cells - 1 open walls
+    GridMaze big = new GridMaze(300, 200, 7, 1);
+    int openWalls = 0;
+    for (int index = 0; index < big.cellCount(); index += 1) {
+      openWalls += big.degree(index);
+    }
+    t.checkExpect(openWalls / 2, 300 * 200 - 1);
+    t.checkExpect(big.sizeInBytes() < 300 * 200, true);
   }
 
-  void testFind(Tester t) {
+  void testGridMazeMatchesMaze(Tester t) {
     this.initConds();
 
-    // check for recursive calls
-    t.checkExpect(new Maze(6, 9).find(this.rep, this.cellH1), this.cellH1);
-    t.checkExpect(new Maze(6, 9).find(this.rep, this.cellH2), this.cellH1);
-    t.checkExpect(new Maze(6, 9).find(this.rep, this.cellH3), this.cellH1);
-    t.checkExpect(new Maze(6, 9).find(this.rep, this.cellH4), this.cellH4);
+    // a grid maze lays out the exact same maze as the seeded Maze
+    t.checkExpect(new Maze(new GridMaze(2, 2)).readWalls(),
+        new Maze(2, 2, 420, false, 0).readWalls());
+    t.checkExpect(new Maze(new GridMaze(6, 9)).readWalls(),
+        new Maze(6, 9, 420, false, 0).readWalls());
+    t.checkExpect(new Maze(new GridMaze(40, 25, 420, 1)).readWalls(),
+        new Maze(40, 25, 420, false, 1).readWalls());
+    t.checkExpect(new Maze(new GridMaze(40, 25, 420, 2)).readWalls(),
+        new Maze(40, 25, 420, false, 2).readWalls());
+    t.checkExpect(new Maze(new GridMaze(100, 60, 99, 0)).readWalls(),
+        new Maze(100, 60, 99, false, 0).readWalls());
 
-    // check for exception
-    t.checkException(new RuntimeException("Node is not here"), new Maze(6, 9), "find", this.rep,
-        new Cell());
+    // and renders the same
+    t.checkExpect(new Maze(new GridMaze(3, 3)).render(false, true, 0, false, -1, -1),
+        new Maze(3, 3, 420, false, 0).render(false, true, 0, false, -1, -1));
+  }
 
-    // check other kinds of mazes
-    t.checkExpect(this.maze1.find(this.rep, this.cellH1), this.cellH1);
-    t.checkException(new RuntimeException("Node is not here"), this.maze1, "find", this.rep,
-        this.borderCell1);
-    Cell randomCell = new Cell(new Edge(9.9), new Edge(99.9), new Edge(999.9), new Edge(-1.0));
-    HashMap<ICell, ICell> randomReps = new HashMap<>();
-    randomReps.put(randomCell, randomCell);
-    randomReps.put(this.cell1, this.cellH1);
-    randomReps.put(this.cellH2, this.cellH2);
-    randomReps.put(new Cell(), this.cell1Copy);
+  void testOpenWall(Tester t) {
+    this.initConds();
 
-    // more cases
-    t.checkExpect(new Maze(100, 60).find(randomReps, randomCell), randomCell);
-    t.checkExpect(new Maze(42, 2).find(randomReps, this.cellH2), this.cellH2);
+    Edge right = new Edge();
+    Edge bottom = new Edge();
+    Cell cell = new Cell(new Edge(), right, bottom, new Edge());
 
-    // remove something from our random reps
-    randomReps.remove(new Cell());
-    t.checkException(new RuntimeException("Node is not here"), this.maze1, "find", randomReps,
-        new Cell());
+    // open the right wall
+    cell.openWall(1);
+    t.checkExpect(right.render(true), new EmptyImage());
+    t.checkExpect(bottom.render(false), new RectangleImage(10, 1, OutlineMode.SOLID, Color.black));
 
-    // re-add and test the rest
-    randomReps.put(this.cell1Copy, this.cell1Copy);
-    t.checkExpect(this.maze1.find(randomReps, this.cell1Copy), this.cell1Copy);
-    t.checkException(new RuntimeException("Node is not here"), new Maze(99, 99), "find", randomReps,
-        this.cell1);
-    t.checkException(new RuntimeException("Node is not here"), new Maze(3, 5), "find", randomReps,
-        this.cellH1);
-    t.checkException(new RuntimeException("Node is not here"), new Maze(9, 6), "find", randomReps,
-        new BorderCell());
+    // open the bottom wall
+    cell.openWall(2);
+    t.checkExpect(bottom.render(false), new EmptyImage());
+
+    t.checkException(new RuntimeException("getWall needs a direction between 1 and 2 inclusive!"),
+        cell, "getWall", 0);
+    t.checkException(new RuntimeException("getWall needs a direction between 1 and 2 inclusive!"),
+        cell, "getWall", 3);
+    // opening a wall looks it up the same way
+    t.checkException(new RuntimeException("getWall needs a direction between 1 and 2 inclusive!"),
+        cell, "openWall", 3);
   }
 
-  void testUnion(Tester t) {
+  void testResetRunState(Tester t) {
     this.initConds();
 
-    // union
-    new Maze(6, 9).union(this.rep, this.cellH1, this.cellH2);
-    // check hashmap for union operation
-    t.checkExpect(this.rep.get(this.cellH1), this.cellH1);
-
-    // reset
+    // a finished search, a drawn path, a heat map and a moved player all go away
+    // without building the maze again
+    Maze maze = new Maze(12, 9, 420, false, 1);
+    maze.initMazeAuxilaries();
+    maze.labelCorrectCells();
+    // INVARIANT:
+    // every update visits a new cell, so the search ends
+    while (maze.updateSearch(true).getObj1()) {
+      maze.setStartGradient();
+    }
+    maze.attemptMove("right");
+    maze.attemptMove("down");
+    t.checkFail(maze, new Maze(12, 9, 420, false, 1));
+
+    maze.resetRunState();
+    t.checkExpect(maze, new Maze(12, 9, 420, false, 1));
+
+    // cells of a maze share its overlay, a standalone cell has its own
+    Cell shared = new Cell(new MazeOverlay(4), 3);
+    Cell alone = new Cell();
+    t.checkExpect(shared.getIndex(), 3);
+    t.checkExpect(alone.getIndex(), 0);
+    shared.setVisited(true);
+    alone.setVisited(true);
+    t.checkExpect(shared.uniqueIncorrectMove(), false);
+    t.checkExpect(alone.uniqueIncorrectMove(), false);
+    alone.setGradient(2);
+    t.checkExpect(alone.findMaxStepsInRow(0), 2);
+  }
+
+  void testMazeOverlay(Tester t) {
     this.initConds();
-    // union
-    new Maze(6, 9).union(this.rep, this.cellH4, this.cellH1);
-    // check hashmap for union operation
-    t.checkExpect(this.rep.get(this.cellH4), this.cellH1);
 
-    // reset
+    MazeOverlay overlay = new MazeOverlay(4);
+    t.checkExpect(overlay.cellCount(), 4);
+
+    // everything starts off cleared
+    t.checkExpect(overlay.isVisited(2), false);
+    t.checkExpect(overlay.isSolution(2), false);
+    t.checkExpect(overlay.containsPlayer(2), false);
+    t.checkExpect(overlay.isCorrectPath(2), false);
+    t.checkExpect(overlay.displaysGradient(2), false);
+    t.checkExpect(overlay.uniqueIncorrectMove(2), true);
+
+    // set every plane
+    overlay.setVisited(2, true);
+    overlay.setSolution(1, true);
+    overlay.setPlayerIndicator(3, true);
+    overlay.setCorrectPath(0, true);
+    overlay.setGradient(3, 7);
+
+    t.checkExpect(overlay.isVisited(2), true);
+    t.checkExpect(overlay.uniqueIncorrectMove(2), false);
+    t.checkExpect(overlay.isSolution(1), true);
+    t.checkExpect(overlay.containsPlayer(3), true);
+    t.checkExpect(overlay.isCorrectPath(0), true);
+    t.checkExpect(overlay.uniqueIncorrectMove(0), false);
+    t.checkExpect(overlay.displaysGradient(3), true);
+    t.checkExpect(overlay.getSteps(3), 7);
+
+    // reset a single gradient
+    overlay.resetGradient(3);
+    t.checkExpect(overlay.displaysGradient(3), false);
+    t.checkExpect(overlay.getSteps(3), 0);
+
+    // clearing in bulk returns the overlay to a fresh state
+    overlay.setGradient(1, 4);
+    overlay.clear();
+    t.checkExpect(overlay, new MazeOverlay(4));
+  }
+
+  void testLabelGradientGrid(Tester t) {
     this.initConds();
-    // union
-    new Maze(6, 9).union(this.rep, this.cellH3, this.cellH2);
-    // check hashmap for union operation
-    t.checkExpect(this.rep.get(this.rep.get(this.cellH3)), this.cellH1);
 
-    // reset
-    this.initConds();
-    // union
-    new Maze(6, 9).union(this.rep, this.cellH2, this.cellH4);
-    // check hashmap for union operation
-    t.checkExpect(this.rep.get(this.rep.get(this.cellH2)), this.cellH4);
+    GridMaze tiny = new GridMaze(2, 2);
+    MazeOverlay overlay = new MazeOverlay(4);
+
+    // from the start the end is 2 steps away and the bottom left is 3
+    t.checkExpect(tiny.labelGradient(overlay, 0), 3);
+    t.checkExpect(overlay.getSteps(0), 0);
+    t.checkExpect(overlay.getSteps(1), 1);
+    t.checkExpect(overlay.getSteps(3), 2);
+    t.checkExpect(overlay.getSteps(2), 3);
+    t.checkExpect(overlay.displaysGradient(2), true);
+
+    // from the end
+    overlay.clear();
+    t.checkExpect(tiny.labelGradient(overlay, 3), 2);
+    t.checkExpect(overlay.getSteps(0), 2);
+    t.checkExpect(overlay.getSteps(2), 1);
+
+    // on a bigger maze, the end is as many steps away as the correct path is long
+    GridMaze grid = new GridMaze(40, 25, 420, 1);
+    MazeOverlay bigOverlay = new MazeOverlay(grid.cellCount());
+    int maxSteps = grid.labelGradient(bigOverlay, 0);
+    grid.labelCorrectPath(bigOverlay);
+    int pathLength = 0;
+    for (int index = 0; index < grid.cellCount(); index += 1) {
+      if (bigOverlay.isCorrectPath(index)) {
+        pathLength += 1;
+      }
+      t.checkExpect(bigOverlay.getSteps(index) <= maxSteps, true);
+    }
+    t.checkExpect(bigOverlay.getSteps(999), pathLength - 1);
+  }
 
-    // reset
+  void testLabelCorrectPathGrid(Tester t) {
     this.initConds();
-    // union
-    new Maze(6, 9).union(this.rep, this.cellH3, this.cellH4);
-    // check hashmap for union operation
-    t.checkExpect(this.rep.get(this.rep.get(this.rep.get(this.cellH3))), this.cellH4);
 
-    // reset
+    GridMaze tiny = new GridMaze(2, 2);
+    MazeOverlay overlay = new MazeOverlay(4);
+    tiny.labelCorrectPath(overlay);
+
+    // start -> right -> end is the correct path
+    t.checkExpect(overlay.isCorrectPath(0), true);
+    t.checkExpect(overlay.isCorrectPath(1), true);
+    t.checkExpect(overlay.isCorrectPath(3), true);
+    t.checkExpect(overlay.isCorrectPath(2), false);
+  }
+
+  void testIntDeque(Tester t) {
     this.initConds();
-    // other cases
-    HashMap<ICell, ICell> otherReps = new HashMap<>();
-    otherReps.put(this.cellH1, this.cellH1);
-    otherReps.put(this.cellH2, this.cellH1);
-    otherReps.put(this.cellH4, this.cellH2);
 
-    // check our reps
-    t.checkExpect(otherReps.get(this.cellH4), this.cellH2);
-    t.checkExpect(otherReps.get(this.cellH2), this.cellH1);
-    t.checkExpect(otherReps.get(this.cellH1), this.cellH1);
+    IntDeque deque = new IntDeque(2);
+    t.checkExpect(deque.isEmpty(), true);
+    t.checkExpect(deque.size(), 0);
+
+    // works as a queue
+    deque.addLast(1);
+    deque.addLast(2);
+    deque.addLast(3);
+    t.checkExpect(deque.size(), 3);
+    t.checkExpect(deque.removeFirst(), 1);
+
+    // works as a stack, wrapping around the ring
+    deque.addFirst(0);
+    deque.addFirst(-1);
+    t.checkExpect(deque.removeFirst(), -1);
+    t.checkExpect(deque.removeLast(), 3);
+    t.checkExpect(deque.removeFirst(), 0);
+    t.checkExpect(deque.removeFirst(), 2);
+    t.checkExpect(deque.isEmpty(), true);
+
+    // grows past its initial capacity
+    for (int element = 0; element < 100; element += 1) {
+      deque.addFirst(element);
+    }
+    t.checkExpect(deque.size(), 100);
+    t.checkExpect(deque.removeLast(), 0);
+    t.checkExpect(deque.removeFirst(), 99);
 
-    // union
-    this.maze1.union(otherReps, this.cellH4, this.cellH2);
+    deque.clear();
+    t.checkExpect(deque.isEmpty(), true);
+    t.checkException(new RuntimeException("Cannot remove from an empty deque!"), deque,
+        "removeFirst");
+    t.checkException(new RuntimeException("Cannot remove from an empty deque!"), deque,
+        "removeLast");
+  }
 
-    // check hashmap to verify union
-    // nothing should change since find would return the same thing based on these
-    // premises
-    t.checkExpect(otherReps.get(otherReps.get(otherReps.get(otherReps.get(this.cellH2)))),
-        this.cellH1);
-    t.checkExpect(otherReps.get(this.cellH1), this.cellH1);
+  void testGridSearch(Tester t) {
+    this.initConds();
+
+    // steps through the tiny maze exactly like Maze.updateSearch
+    GridMaze tiny = new GridMaze(2, 2);
+    MazeOverlay overlay = new MazeOverlay(4);
+    tiny.labelCorrectPath(overlay);
+    GridSearch search = new GridSearch(tiny, overlay, true);
+
+    t.checkExpect(search.updateSearch(), new Pair<Boolean, Integer>(true, 0));
+    t.checkExpect(overlay.isVisited(0), true);
+    t.checkExpect(search.updateSearch(), new Pair<Boolean, Integer>(true, 0));
+    t.checkExpect(search.updateSearch(), new Pair<Boolean, Integer>(false, 0));
+    t.checkExpect(overlay.isSolution(0), true);
+    t.checkExpect(overlay.isSolution(1), true);
+    t.checkExpect(overlay.isSolution(3), true);
+    t.checkExpect(overlay.isSolution(2), false);
+    // a finished search stays finished
+    t.checkExpect(search.updateSearch(), new Pair<Boolean, Integer>(false, 0));
+
+    t.checkConstructorException(
+        new IllegalArgumentException("Overlay must cover every cell of the maze!"), "GridSearch",
+        tiny, new MazeOverlay(3), true);
+
+    // counts the same wrong moves as the cell maze for both searches
+    for (int biasMode = 0; biasMode < 3; biasMode += 1) {
+      for (int bfs = 0; bfs < 2; bfs += 1) {
+        Maze maze = new Maze(40, 25, 420, false, biasMode);
+        maze.buildReferencesPath();
+        maze.labelCorrectCells();
+        maze.initMazeAuxilaries();
+        int mazeWrongMoves = 0;
+        Pair<Boolean, Integer> step = maze.updateSearch(bfs == 1);
+        while (step.getObj1()) {
+          mazeWrongMoves += step.getObj2();
+          step = maze.updateSearch(bfs == 1);
+        }
+
+        GridMaze grid = new GridMaze(40, 25, 420, biasMode);
+        MazeOverlay gridOverlay = new MazeOverlay(grid.cellCount());
+        grid.labelCorrectPath(gridOverlay);
+        t.checkExpect(new GridSearch(grid, gridOverlay, bfs == 1).runToCompletion(),
+            mazeWrongMoves);
+      }
+    }
   }
 
   void testWholeWorld(Tester t) {
@@ -4243,6 +13560,26 @@ class ExamplesMaze {
     t.checkExpect(this.maze1.find(this.rep, this.cellH2), this.cellH1);
   }
 
+  void testCreateMinimumSpanningOrder(Tester t) {
+    this.initConds();
+
+    // the radix ordered kruskal lays out the same mazes as the grid generator,
+    // including ties between the right and bottom edge of a cell
+    t.checkExpect(new Maze(120, 80, 5, false, 2).readWalls(),
+        new Maze(new GridMaze(120, 80, 5, 2)).readWalls());
+    t.checkExpect(new Maze(80, 120, 6, false, 1).readWalls(),
+        new Maze(new GridMaze(80, 120, 6, 1)).readWalls());
+
+    // animating adds exactly cells - 1 walls to remove, one per tick at the end
+    Maze animated = new Maze(3, 3, 420, true, 0);
+    int ticks = 0;
+    while (animated.removeWalls()) {
+      ticks += 1;
+    }
+    t.checkExpect(ticks, 8);
+    t.checkExpect(animated, new Maze(3, 3, 420, false, 0));
+  }
+
   void testRGSForConstruction(Tester t) {
     this.initConds();
 